@@ -0,0 +1,186 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.bench;
+
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.fortress.core.AccessMgr;
+import org.apache.directory.fortress.core.AccessMgrFactory;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the {@link AccessMgr} runtime operations over ldap, against an embedded ApacheDS server loaded with a {@link SyntheticPolicy}.
+ * Each fork starts its own server, so every combination of the params is run against a freshly loaded directory.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.args="-prof gc AccessMgrBenchmark"}.  The gc profiler adds the allocation rate,
+ * {@code gc.alloc.rate.norm}, in bytes per operation.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessMgrBenchmark
+{
+    @Param({ "100" })
+    public int users;
+
+    @Param({ "1", "5", "10" })
+    public int depth;
+
+    @Param({ "10" })
+    public int permsPerRole;
+
+    @Param({ "0", "10" })
+    public int dsdSets;
+
+    private AccessMgr accessMgr;
+    private Session[] sessions;
+    // Granted to the root role, so that checkAccess must search through the whole hierarchy:
+    private Permission rootPerm;
+    // Exists but is never granted, the worst case for checkAccess:
+    private Permission deniedPerm;
+
+
+    /**
+     * Per thread cursor over the users, so that concurrent threads don't contend on the same session.
+     */
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private int next;
+
+
+        int next( int size )
+        {
+            int i = next;
+            next = ( next + 1 ) % size;
+            return i;
+        }
+    }
+
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        EmbeddedServer.start();
+        new SyntheticPolicy( users, depth, permsPerRole, dsdSets ).load();
+        accessMgr = AccessMgrFactory.createInstance();
+        sessions = new Session[users];
+        for ( int i = 0; i < users; i++ )
+        {
+            sessions[i] = accessMgr.createSession( newUser( i ), false );
+        }
+        rootPerm = SyntheticPolicy.getPermission( 0, permsPerRole - 1 );
+        deniedPerm = SyntheticPolicy.getDeniedPermission();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        EmbeddedServer.stop();
+    }
+
+
+    @Benchmark
+    public Session createSession( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.createSession( newUser( cursor.next( users ) ), false );
+    }
+
+
+    @Benchmark
+    public Session createSessionTrusted( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.createSession( new User( SyntheticPolicy.getUserId( cursor.next( users ) ) ), true );
+    }
+
+
+    @Benchmark
+    public boolean checkAccess( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.checkAccess( sessions[cursor.next( users )], rootPerm );
+    }
+
+
+    @Benchmark
+    public boolean checkAccessDenied( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.checkAccess( sessions[cursor.next( users )], deniedPerm );
+    }
+
+
+    @Benchmark
+    public List<Permission> sessionPermissions( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.sessionPermissions( sessions[cursor.next( users )] );
+    }
+
+
+    /**
+     * Drops the last role and activates it again.  Adding it evaluates every DSD set that contains it, none when {@code dsdSets} is 0.
+     */
+    @Benchmark
+    public void addActiveRole( Cursor cursor ) throws SecurityException
+    {
+        Session session = sessions[cursor.next( users )];
+        UserRole role = new UserRole( session.getUserId(), SyntheticPolicy.getRoleName( depth - 1 ) );
+        accessMgr.dropActiveRole( session, role );
+        accessMgr.addActiveRole( session, role );
+    }
+
+
+    @Benchmark
+    public Set<String> authorizedRoles( Cursor cursor ) throws SecurityException
+    {
+        return accessMgr.authorizedRoles( sessions[cursor.next( users )] );
+    }
+
+
+    private static User newUser( int i )
+    {
+        return new User( SyntheticPolicy.getUserId( i ), SyntheticPolicy.PASSWORD );
+    }
+}
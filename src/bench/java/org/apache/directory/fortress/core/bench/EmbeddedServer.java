@@ -0,0 +1,105 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.bench;
+
+
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.apache.directory.server.annotations.CreateLdapServer;
+import org.apache.directory.server.annotations.CreateTransport;
+import org.apache.directory.server.core.annotations.CreateDS;
+import org.apache.directory.server.core.annotations.CreatePartition;
+import org.apache.directory.server.core.api.DirectoryService;
+import org.apache.directory.server.core.factory.DSAnnotationProcessor;
+import org.apache.directory.server.factory.ServerAnnotationProcessor;
+import org.apache.directory.server.ldap.LdapServer;
+
+
+/**
+ * Starts the same embedded ApacheDS server that {@link org.apache.directory.fortress.core.impl.apacheds.FortressJUnitApachedsTest}
+ * runs against, i.e. the example partition on port 10389 loaded with the fortress schema and the base DIT.  The fortress
+ * config that points to it, src/test/resources/fortress.properties, is placed on the classpath by the benchmark profile.
+ * <p>
+ * There is at most one server per vm.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@CreateDS(name = "benchDS", partitions =
+    { @CreatePartition(name = "example", suffix = "dc=example,dc=com") })
+@CreateLdapServer(
+    transports =
+        {
+            @CreateTransport(protocol = "LDAP", port = 10389)
+    })
+public final class EmbeddedServer
+{
+    private static final String[] LDIF_FILES =
+        { "fortress-schema.ldif", "init-ldap.ldif" };
+    private static DirectoryService service;
+    private static LdapServer server;
+
+
+    private EmbeddedServer()
+    {
+    }
+
+
+    /**
+     * Create the directory service, load the ldif files and start listening.  Does nothing if already started.
+     *
+     * @throws Exception in the event the server could not be started.
+     */
+    public static synchronized void start() throws Exception
+    {
+        if ( server != null )
+        {
+            return;
+        }
+        service = DSAnnotationProcessor.createDS( EmbeddedServer.class.getAnnotation( CreateDS.class ) );
+        DSAnnotationProcessor.injectLdifFiles( EmbeddedServer.class, service, LDIF_FILES );
+        server = ServerAnnotationProcessor.instantiateLdapServer(
+            EmbeddedServer.class.getAnnotation( CreateLdapServer.class ), service );
+        server.start();
+    }
+
+
+    /**
+     * Stop listening, shut down the directory service and clear the fortress caches that hold its data.
+     *
+     * @throws Exception in the event the server could not be stopped.
+     */
+    public static synchronized void stop() throws Exception
+    {
+        if ( server == null )
+        {
+            return;
+        }
+        try
+        {
+            server.stop();
+            service.shutdown();
+        }
+        finally
+        {
+            server = null;
+            service = null;
+            CacheMgr.getInstance().clearAll();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.bench;
+
+
+import org.apache.directory.fortress.core.AdminMgr;
+import org.apache.directory.fortress.core.AdminMgrFactory;
+import org.apache.directory.fortress.core.DelAdminMgr;
+import org.apache.directory.fortress.core.DelAdminMgrFactory;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.OrgUnit;
+import org.apache.directory.fortress.core.model.PermObj;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.model.Role;
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+
+
+/**
+ * Loads a generated RBAC policy whose shape is controlled by the benchmark parameters:
+ * <ul>
+ *   <li>users - number of users, each assigned the last role of the hierarchy</li>
+ *   <li>depth - number of roles in the hierarchy, each one the parent of the next, so the last role inherits all of them</li>
+ *   <li>permsPerRole - number of operations granted to each role, on one object per role</li>
+ *   <li>dsdSets - number of DSD sets that contain the last role and one other, so they are evaluated but not violated</li>
+ * </ul>
+ * Role {@code benchRole0} is the root of the hierarchy, so its permissions are only reachable by inheriting through every level.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class SyntheticPolicy
+{
+    static final String PASSWORD = "benchPassword1";
+    private static final String USER_OU = "benchUsers";
+    private static final String PERM_OU = "benchPerms";
+    private final int users;
+    private final int depth;
+    private final int permsPerRole;
+    private final int dsdSets;
+
+
+    /**
+     * @param users        number of users.
+     * @param depth        number of roles in the hierarchy, at least one.
+     * @param permsPerRole number of permissions granted to each role, at least one.
+     * @param dsdSets      number of DSD sets.
+     */
+    public SyntheticPolicy( int users, int depth, int permsPerRole, int dsdSets )
+    {
+        this.users = users;
+        this.depth = Math.max( 1, depth );
+        this.permsPerRole = Math.max( 1, permsPerRole );
+        this.dsdSets = dsdSets;
+    }
+
+
+    /**
+     * Add the policy to the directory.  Expects an empty directory, i.e. one that contains only the base DIT.
+     *
+     * @throws SecurityException in the event of a failure adding an entity.
+     */
+    public void load() throws SecurityException
+    {
+        DelAdminMgr delAdminMgr = DelAdminMgrFactory.createInstance();
+        delAdminMgr.add( new OrgUnit( USER_OU, OrgUnit.Type.USER ) );
+        delAdminMgr.add( new OrgUnit( PERM_OU, OrgUnit.Type.PERM ) );
+
+        AdminMgr adminMgr = AdminMgrFactory.createInstance();
+        for ( int level = 0; level < depth; level++ )
+        {
+            Role role = adminMgr.addRole( new Role( getRoleName( level ) ) );
+            if ( level > 0 )
+            {
+                adminMgr.addInheritance( new Role( getRoleName( level - 1 ) ), role );
+            }
+            adminMgr.addPermObj( new PermObj( getObjName( level ), PERM_OU ) );
+            for ( int op = 0; op < permsPerRole; op++ )
+            {
+                Permission perm = adminMgr.addPermission( getPermission( level, op ) );
+                adminMgr.grantPermission( perm, role );
+            }
+        }
+        adminMgr.addPermission( getDeniedPermission() );
+
+        for ( int i = 0; i < dsdSets; i++ )
+        {
+            String dsdRoleName = "benchDsdRole" + i;
+            adminMgr.addRole( new Role( dsdRoleName ) );
+            SDSet dsd = new SDSet();
+            dsd.setName( "benchDsd" + i );
+            dsd.setType( SDSet.SDType.DYNAMIC );
+            dsd.setCardinality( 2 );
+            dsd.addMember( getRoleName( depth - 1 ) );
+            dsd.addMember( dsdRoleName );
+            adminMgr.createDsdSet( dsd );
+        }
+
+        for ( int i = 0; i < users; i++ )
+        {
+            User user = new User( getUserId( i ), PASSWORD );
+            user.setOu( USER_OU );
+            adminMgr.addUser( user );
+            adminMgr.assignUser( new UserRole( user.getUserId(), getRoleName( depth - 1 ) ) );
+        }
+    }
+
+
+    public static String getUserId( int i )
+    {
+        return "benchUser" + i;
+    }
+
+
+    public static String getRoleName( int level )
+    {
+        return "benchRole" + level;
+    }
+
+
+    public static String getObjName( int level )
+    {
+        return "benchObj" + level;
+    }
+
+
+    /**
+     * @param level of the role in the hierarchy the permission is granted to, 0 is the root.
+     * @param op    index of the operation.
+     * @return new Permission.
+     */
+    public static Permission getPermission( int level, int op )
+    {
+        return new Permission( getObjName( level ), "benchOp" + op );
+    }
+
+
+    /**
+     * @return new Permission that exists on the root object but is not granted to any role.
+     */
+    public static Permission getDeniedPermission()
+    {
+        return new Permission( getObjName( 0 ), "benchOpNotGranted" );
+    }
+}
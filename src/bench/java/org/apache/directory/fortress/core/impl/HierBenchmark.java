@@ -0,0 +1,134 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the in memory hierarchy traversals of {@link HierUtil} and {@link RoleUtil} that run on every createSession and checkAccess.
+ * No ldap server is needed, the graph is built directly from generated relationships.
+ * <p>
+ * The hierarchy has {@code depth} levels of {@code width} roles each.  Every role is the child of two roles on the level above,
+ * so paths overlap the way they do in real policies.  The leaf is on the bottom level and inherits every role above it.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.args="-prof gc HierBenchmark"}.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierBenchmark
+{
+    @Param({ "5", "20" })
+    public int depth;
+
+    @Param({ "10", "100" })
+    public int width;
+
+    private SimpleDirectedGraph<String, Relationship> graph;
+    private HierClosure closure;
+    private String leaf;
+    private String root;
+
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Hier hier = new Hier();
+        for ( int level = 1; level < depth; level++ )
+        {
+            for ( int i = 0; i < width; i++ )
+            {
+                String child = getName( level, i );
+                hier.setRelationship( new Relationship( child, getName( level - 1, i ) ) );
+                if ( width > 1 )
+                {
+                    hier.setRelationship( new Relationship( child, getName( level - 1, ( i + 1 ) % width ) ) );
+                }
+            }
+        }
+        graph = HierUtil.buildGraph( hier );
+        closure = HierUtil.getClosure( graph );
+        leaf = getName( depth - 1, 0 );
+        root = getName( 0, width - 1 );
+    }
+
+
+    @Benchmark
+    public Set<String> getAscendants()
+    {
+        return HierUtil.getAscendants( leaf, graph );
+    }
+
+
+    @Benchmark
+    public Set<String> getDescendants()
+    {
+        return HierUtil.getDescendants( root, graph );
+    }
+
+
+    @Benchmark
+    public List<String> getInheritedNames()
+    {
+        return closure.getNames( closure.getInheritedIds( Collections.singletonList( leaf ) ) );
+    }
+
+
+    /**
+     * The cost paid on every hierarchy update, i.e. addInheritance and deleteInheritance.
+     */
+    @Benchmark
+    public HierClosure buildClosure()
+    {
+        return HierClosure.build( graph );
+    }
+
+
+    private static String getName( int level, int i )
+    {
+        return "role" + level + "_" + i;
+    }
+}
@@ -21,11 +21,14 @@ package org.apache.directory.fortress.core;
 
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.directory.fortress.core.model.Permission;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.AsyncUtil;
 
 
 /**
@@ -237,6 +240,93 @@ public interface AccelMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Asynchronous variant of {@link #createSession(User, boolean)}.  The session is created on a shared pool of
+     * threads, sized by fortress config param {@code async.threads}, so the calling thread doesn't wait on the directory.
+     * The connection used is returned to its pool before the stage completes.  The default implementation calls the
+     * blocking method on that pool, implementations need not override it.
+     *
+     * @param user      as passed to {@link #createSession(User, boolean)}.
+     * @param isTrusted if true password is not required.
+     * @return stage that completes with the Session, or exceptionally with the SecurityException that
+     * {@link #createSession(User, boolean)} would have thrown.
+     */
+    default CompletionStage<Session> createSessionAsync( final User user, final boolean isTrusted )
+    {
+        return AsyncUtil.supplyAsync( new Callable<Session>()
+        {
+            @Override
+            public Session call() throws SecurityException
+            {
+                return createSession( user, isTrusted );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #checkAccess(Session, Permission)}, run as described in
+     * {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #checkAccess(Session, Permission)}.
+     * @param perm    contains the object and operation of the permission the user is trying to access.
+     * @return stage that completes with true if the user has access, or exceptionally with the SecurityException that
+     * {@link #checkAccess(Session, Permission)} would have thrown.
+     */
+    default CompletionStage<Boolean> checkAccessAsync( final Session session, final Permission perm )
+    {
+        return AsyncUtil.supplyAsync( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws SecurityException
+            {
+                return checkAccess( session, perm );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #sessionPermissions(Session)}, run as described in
+     * {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #sessionPermissions(Session)}.
+     * @return stage that completes with the permissions active for the user's session, or exceptionally with the
+     * SecurityException that {@link #sessionPermissions(Session)} would have thrown.
+     */
+    default CompletionStage<List<Permission>> sessionPermissionsAsync( final Session session )
+    {
+        return AsyncUtil.supplyAsync( new Callable<List<Permission>>()
+        {
+            @Override
+            public List<Permission> call() throws SecurityException
+            {
+                return sessionPermissions( session );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #sessionRoles(Session)}, run as described in {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #sessionRoles(Session)}.
+     * @return stage that completes with the roles active in the user's session, or exceptionally with the
+     * SecurityException that {@link #sessionRoles(Session)} would have thrown.
+     */
+    default CompletionStage<List<UserRole>> sessionRolesAsync( final Session session )
+    {
+        return AsyncUtil.supplyAsync( new Callable<List<UserRole>>()
+        {
+            @Override
+            public List<UserRole> call() throws SecurityException
+            {
+                return sessionRoles( session );
+            }
+        } );
+    }
+
+
     /**
      * This function adds a role as an active role of a session whose owner is a given user.
      * <p>
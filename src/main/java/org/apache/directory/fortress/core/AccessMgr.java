@@ -21,9 +21,13 @@ package org.apache.directory.fortress.core;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.directory.fortress.core.model.*;
+import org.apache.directory.fortress.core.util.AsyncUtil;
 
 
 /**
@@ -273,6 +277,26 @@ public interface AccessMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Perform user RBAC authorization on many permissions at once.  For each permission, the result is the same as
+     * {@link #checkAccess(Session, Permission)}, but the permissions are retrieved together and the inherited roles of the
+     * session are only computed once.  Use it when several permissions must be checked for one session, e.g. to render a page.
+     * An audit record is still produced for each permission.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, {@link Permission#objName}, and operation, {@link Permission#opName}, of
+     * permission User is trying to access.
+     * @return Map keyed by the permissions passed in, in the same order, with value true if user has access, false otherwise.
+     * Permissions that do not exist are not authorized.  Keys are looked up by object name, operation name and object id
+     * regardless of case, see {@link org.apache.directory.fortress.core.util.PermissionMap}.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    Map<Permission, Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException;
+
+
     /**
      * This function returns the permissions of the session, i.e., the permissions assigned
      * to its authorized roles. The function is valid if and only if the session is a valid Fortress session.
@@ -297,6 +321,93 @@ public interface AccessMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Asynchronous variant of {@link #createSession(User, boolean)}.  The session is created on a shared pool of
+     * threads, sized by fortress config param {@code async.threads}, so the calling thread doesn't wait on the directory.
+     * The connection used is returned to its pool before the stage completes.  The default implementation calls the
+     * blocking method on that pool, implementations need not override it.
+     *
+     * @param user      as passed to {@link #createSession(User, boolean)}.
+     * @param isTrusted if true password is not required.
+     * @return stage that completes with the Session, or exceptionally with the SecurityException that
+     * {@link #createSession(User, boolean)} would have thrown.
+     */
+    default CompletionStage<Session> createSessionAsync( final User user, final boolean isTrusted )
+    {
+        return AsyncUtil.supplyAsync( new Callable<Session>()
+        {
+            @Override
+            public Session call() throws SecurityException
+            {
+                return createSession( user, isTrusted );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #checkAccess(Session, Permission)}, run as described in
+     * {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #checkAccess(Session, Permission)}.
+     * @param perm    contains the object and operation of the permission the user is trying to access.
+     * @return stage that completes with true if the user has access, or exceptionally with the SecurityException that
+     * {@link #checkAccess(Session, Permission)} would have thrown.
+     */
+    default CompletionStage<Boolean> checkAccessAsync( final Session session, final Permission perm )
+    {
+        return AsyncUtil.supplyAsync( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws SecurityException
+            {
+                return checkAccess( session, perm );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #sessionPermissions(Session)}, run as described in
+     * {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #sessionPermissions(Session)}.
+     * @return stage that completes with the permissions active for the user's session, or exceptionally with the
+     * SecurityException that {@link #sessionPermissions(Session)} would have thrown.
+     */
+    default CompletionStage<List<Permission>> sessionPermissionsAsync( final Session session )
+    {
+        return AsyncUtil.supplyAsync( new Callable<List<Permission>>()
+        {
+            @Override
+            public List<Permission> call() throws SecurityException
+            {
+                return sessionPermissions( session );
+            }
+        } );
+    }
+
+
+    /**
+     * Asynchronous variant of {@link #sessionRoles(Session)}, run as described in {@link #createSessionAsync(User, boolean)}.
+     *
+     * @param session as passed to {@link #sessionRoles(Session)}.
+     * @return stage that completes with the roles active in the user's session, or exceptionally with the
+     * SecurityException that {@link #sessionRoles(Session)} would have thrown.
+     */
+    default CompletionStage<List<UserRole>> sessionRolesAsync( final Session session )
+    {
+        return AsyncUtil.supplyAsync( new Callable<List<UserRole>>()
+        {
+            @Override
+            public List<UserRole> call() throws SecurityException
+            {
+                return sessionRoles( session );
+            }
+        } );
+    }
+
+
     /**
      * This function returns the authorized roles associated with a session based on hierarchical relationships. The 
      * function is valid if and only if the session is a valid Fortress session.
@@ -360,6 +471,8 @@ public interface AccessMgr extends Manageable
     /**
      * This function returns the user object that is contained within the session object.
      * The function is valid if and only if the session object contains a valid Fortress session.
+     * When the session was created with {@code enable.session.projection=true}, the user's profile, e.g. address, emails
+     * and photo, is read on the first call.
      *
      * @param session object contains the user's returned RBAC session from the createSession method.
      * @return The user value
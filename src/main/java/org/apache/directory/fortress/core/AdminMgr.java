@@ -20,6 +20,9 @@
 package org.apache.directory.fortress.core;
 
 
+import java.util.List;
+
+import org.apache.directory.fortress.core.model.PermGrant;
 import org.apache.directory.fortress.core.model.PermObj;
 import org.apache.directory.fortress.core.model.Permission;
 import org.apache.directory.fortress.core.model.PermissionAttribute;
@@ -130,6 +133,20 @@ public interface AdminMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Add a batch of users, as if each were passed to {@link #addUser(User)}.  The whole batch is validated first, then the
+     * users that passed are written to the directory concurrently, over up to {@code bulk.threads} pooled connections.
+     * Like addUser, the {@link User#roles} of the users aren't assigned, pass them to {@link #assignUsers(List)} once the
+     * users have been added.
+     *
+     * @param users each must contain {@link User#userId} and {@link User#ou}, as for addUser.
+     * @return the users that failed, by position in the list, with the reason.
+     * @throws SecurityException thrown if the list is null.
+     */
+    BulkResult<User> addUsers( List<User> users )
+        throws SecurityException;
+
+
     /**
      * This command deletes an existing user from the RBAC database. The command is valid
      * if and only if the user to be deleted is a member of the USERS data set. The USERS and
@@ -160,6 +177,9 @@ public interface AdminMgr extends Manageable
      * UA data sets and the assigned_users function are updated.
      * This method performs a "hard" delete.  It completely removes all data associated with this user from the directory.
      * User entity must exist in directory prior to making this call else exception will be thrown.
+     * The user's permission grants and role occupancies are removed concurrently, before the user, so a delete that fails
+     * part way, with {@link org.apache.directory.fortress.core.GlobalErrIds#FT_CASCADE_INCOMPLETE}, may be repeated to
+     * resume it.
      * <h3></h3>
      * <h4>required parameters</h4>
      * <ul>
@@ -343,10 +363,25 @@ public interface AdminMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Add a batch of roles, as if each were passed to {@link #addRole(Role)}.  The whole batch is validated first, then the
+     * roles that passed are written to the directory concurrently, over up to {@code bulk.threads} pooled connections.
+     *
+     * @param roles each must contain {@link Role#name}, as for addRole.
+     * @return the roles that failed, by position in the list, with the reason.
+     * @throws SecurityException thrown if the list is null.
+     */
+    BulkResult<Role> addRoles( List<Role> roles )
+        throws SecurityException;
+
+
     /**
      * This command deletes an existing role from the RBAC database. The command is valid
      * if and only if the role to be deleted is a member of the ROLES data set.  This command will
-     * also deassign role from all users.
+     * also deassign role from all users.  The administrator is authorized to deassign once for all of the users, which are
+     * deassigned concurrently, in batches of {@code cascade.batch.size}, before the role is removed, so a delete that fails
+     * part way, with {@link org.apache.directory.fortress.core.GlobalErrIds#FT_CASCADE_INCOMPLETE}, may be repeated to
+     * resume it.
      * <h3></h3>
      * <h4>required parameters</h4>
      * <ul>
@@ -450,6 +485,20 @@ public interface AdminMgr extends Manageable
     void assignUser( UserRole uRole )
         throws SecurityException;
 
+
+    /**
+     * Assign a batch of roles to users, as if each were passed to {@link #assignUser(UserRole)}.  Each role is read once
+     * for the batch, and each user's authorized roles once, then the Static Separation of Duty constraints of every
+     * assignment are validated, including those between assignments of the same user in the batch.  The assignments that
+     * passed are then written concurrently, over up to {@code bulk.threads} pooled connections, those of one user in order.
+     *
+     * @param uRoles each must contain {@link UserRole#userId} and {@link UserRole#name}, as for assignUser.
+     * @return the assignments that failed, by position in the list, with the reason.
+     * @throws SecurityException thrown if the list is null.
+     */
+    BulkResult<UserRole> assignUsers( List<UserRole> uRoles )
+        throws SecurityException;
+
     /**
      * This method adds a roleConstraint (ftRC) to the user ldap entry. (ftRC=ROLE_NAME$type$CONSTRAINT_TYPE$CONSTRAINT_PASETNAME$CONSTRAINT_VALUE)
      * <h4>required parameters</h4>
@@ -780,7 +829,8 @@ public interface AdminMgr extends Manageable
 
     /**
      * This method will remove permission object to perms container in directory.  This method will also remove
-     * in associated permission objects that are attached to this object.
+     * in associated permission objects that are attached to this object.  The operations are removed concurrently, before
+     * the object, so a delete that fails part way may be repeated to resume it.
      * <h3></h3>
      * <h4>required parameters</h4>
      * <ul>
@@ -863,6 +913,21 @@ public interface AdminMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Grant a batch of permissions, as if each were passed to {@link #grantPermission(Permission, Role)}, or to
+     * {@link #grantPermission(Permission, User)} when it names a user rather than a role.  Each role or user is read once for
+     * the batch, then the grants that passed validation are written concurrently, over up to {@code bulk.threads} pooled
+     * connections.
+     *
+     * @param permGrants each must contain {@link PermGrant#objName}, {@link PermGrant#opName}, and either
+     * {@link PermGrant#roleNm} or {@link PermGrant#userId}.
+     * @return the grants that failed, by position in the list, with the reason.
+     * @throws SecurityException thrown if the list is null.
+     */
+    BulkResult<PermGrant> grantPermissions( List<PermGrant> permGrants )
+        throws SecurityException;
+
+
     /**
      * This command revokes the permission to perform an operation on an object from the set
      * of permissions assigned to a user. The command is implemented by setting the access control
@@ -124,6 +124,18 @@ public interface AuditMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same as {@link #getUserAuthZs(UserAudit)} except the authorization events are passed to the handler one at a time, as they are paged
+     * in from the audit log, and the number returned isn't limited.
+     *
+     * @param uAudit This entity is instantiated and populated before invocation.
+     * @param handler receives each AuthZ, returns false to stop the search.
+     * @throws SecurityException if a runtime system error occurs, or as thrown by the handler.
+     */
+    void getUserAuthZs( UserAudit uAudit, SearchHandler<AuthZ> handler )
+        throws SecurityException;
+
+
     /**
      * This method returns a list of authorization events for a particular user 
      * {@link org.apache.directory.fortress.core.model.UserAudit#userId},
@@ -151,6 +163,18 @@ public interface AuditMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same as {@link #searchAuthZs(UserAudit)} except the authorization events are passed to the handler one at a time, as they are paged
+     * in from the audit log, and the number returned isn't limited.
+     *
+     * @param uAudit This entity is instantiated and populated before invocation.
+     * @param handler receives each AuthZ, returns false to stop the search.
+     * @throws SecurityException if a runtime system error occurs, or as thrown by the handler.
+     */
+    void searchAuthZs( UserAudit uAudit, SearchHandler<AuthZ> handler )
+        throws SecurityException;
+
+
     /**
      * This method returns a list of authentication audit events for a particular user 
      * {@link org.apache.directory.fortress.core.model.UserAudit#userId},
@@ -174,6 +198,18 @@ public interface AuditMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same as {@link #searchBinds(UserAudit)} except the authentication events are passed to the handler one at a time, as they are paged
+     * in from the audit log, and the number returned isn't limited.
+     *
+     * @param uAudit This entity is instantiated and populated before invocation.
+     * @param handler receives each Bind, returns false to stop the search.
+     * @throws SecurityException if a runtime system error occurs, or as thrown by the handler.
+     */
+    void searchBinds( UserAudit uAudit, SearchHandler<Bind> handler )
+        throws SecurityException;
+
+
     /**
      * This method returns a list of sessions created for a given user {@link UserAudit#userId},
      * and timestamp {@link org.apache.directory.fortress.core.model.UserAudit#beginDate}.<BR>
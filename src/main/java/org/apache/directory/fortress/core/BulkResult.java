@@ -0,0 +1,111 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core;
+
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Outcome of a bulk provisioning call, e.g. {@link AdminMgr#addUsers(List)}.  The entities of a batch are processed
+ * independently, so one that fails doesn't stop the others.  The failures are kept by the position of the entity in the
+ * input list, along with the exception that would have been thrown had the entity been passed to the single entity method.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <T> type of entity in the batch.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class BulkResult<T> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> entities;
+    private final SortedMap<Integer, SecurityException> failures = new TreeMap<>();
+
+
+    /**
+     * @param entities the batch, in the order it was passed in.
+     */
+    public BulkResult( List<T> entities )
+    {
+        this.entities = entities;
+    }
+
+
+    /**
+     * Record the failure of one entity.
+     *
+     * @param index position of the entity in the batch.
+     * @param se    the reason it failed.
+     */
+    public void setFailure( int index, SecurityException se )
+    {
+        failures.put( index, se );
+    }
+
+
+    /**
+     * @return the batch, in the order it was passed in.
+     */
+    public List<T> getEntities()
+    {
+        return entities;
+    }
+
+
+    /**
+     * @return true if every entity in the batch was processed.
+     */
+    public boolean isSuccess()
+    {
+        return failures.isEmpty();
+    }
+
+
+    /**
+     * @param index position of an entity in the batch.
+     * @return the reason it failed, null if it didn't.
+     */
+    public SecurityException getFailure( int index )
+    {
+        return failures.get( index );
+    }
+
+
+    /**
+     * @return unmodifiable map of the position in the batch of each entity that failed to the reason, in batch order.
+     */
+    public SortedMap<Integer, SecurityException> getFailures()
+    {
+        return Collections.unmodifiableSortedMap( failures );
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "BulkResult{size=" + entities.size() + ", failures=" + failures.size() + "}";
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -136,6 +137,25 @@ public interface DelAccessMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Perform user ARBAC authorization on many permissions at once.  For each permission, the result is the same as
+     * {@link #checkAccess(Session, Permission)}, but the permissions are retrieved together and the inherited roles of the
+     * session are only computed once.  Use it when several permissions must be checked for one session, e.g. to render a page.
+     * An audit record is still produced for each permission.
+     *
+     * @param session This object must be instantiated by calling {@link AccessMgr#createSession} method before passing
+     * into the method.  No variables need to be set by client after returned from createSession.
+     * @param perms   each must contain the object, {@link Permission#objName}, and operation, {@link Permission#opName}, of
+     * permission User is trying to access.
+     * @return Map keyed by the permissions passed in, in the same order, with value true if user has access, false otherwise.
+     * Permissions that do not exist are not authorized.
+     * @throws SecurityException
+     *          in the event of data validation failure, security policy violation or DAO error.
+     */
+    Map<Permission, Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException;
+
+
     /**
      * This function adds an adminRole as an active role of a session whose owner is a given user.
      * <p>
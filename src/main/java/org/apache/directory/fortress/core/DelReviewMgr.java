@@ -117,6 +117,18 @@ public interface DelReviewMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same as {@link #assignedUsers(AdminRole)} except the users are passed to the handler one at a time, as they are paged
+     * in from the directory, and the number returned isn't limited.
+     *
+     * @param role contains the role name used to search the User data set.
+     * @param handler receives each User, returns false to stop the search.
+     * @throws SecurityException If system error occurs, or as thrown by the handler.
+     */
+    void assignedUsers( AdminRole role, SearchHandler<User> handler )
+        throws SecurityException;
+
+
     /**
      * Commands reads existing OrgUnit entity from OrgUnit dataset.  The OrgUnit can be either User or Perm and is
      * set by setting type attribute.
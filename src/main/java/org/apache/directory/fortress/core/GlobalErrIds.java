@@ -186,6 +186,26 @@ public final class GlobalErrIds
      */
     public static final int FT_CONFIG_JSSE_TRUSTSTORE_NULL = 136;
 
+    /**
+     * The bulk provisioning call was interrupted before the entity was processed.
+     */
+    public static final int FT_BULK_INTERRUPTED = 137;
+
+    /**
+     * The delete cascade failed for some of the dependent entities, the delete may be repeated to resume it.
+     */
+    public static final int FT_CASCADE_INCOMPLETE = 138;
+
+    /**
+     * The Fortress cache is tenant aware and can't be searched.
+     */
+    public static final int FT_CACHE_NOT_SEARCHABLE = 139;
+
+    /**
+     * The asynchronous call was rejected because the queue of the shared pool is full.
+     */
+    public static final int FT_ASYNC_QUEUE_FULL = 140;
+
     /**
      * 1000's - User Entity Rule and LDAP Errors
      */
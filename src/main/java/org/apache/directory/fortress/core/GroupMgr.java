@@ -47,6 +47,17 @@ public interface GroupMgr extends Manageable
     Group add( Group group ) throws org.apache.directory.fortress.core.SecurityException;
 
 
+    /**
+     * Create a batch of group nodes, as if each were passed to {@link #add(Group)}.  The members are read once for the
+     * batch, then the groups are written to the directory concurrently, over up to {@code bulk.threads} pooled connections.
+     *
+     * @param groups contains {@link org.apache.directory.fortress.core.model.Group}s.
+     * @return the groups that failed, by position in the list, with the reason.
+     * @throws org.apache.directory.fortress.core.SecurityException thrown if the list is null.
+     */
+    BulkResult<Group> add( List<Group> groups ) throws SecurityException;
+
+
     /**
      * Modify existing group node.  The name is required.  Does not update members or properties.
      * Use {@link GroupMgr#add( Group group, String key, String value )}, {@link GroupMgr#delete( Group group, String key, 
@@ -146,6 +146,20 @@ public interface ReviewMgr extends Manageable
     List<Permission> findPermissions( Permission permission )
         throws SecurityException;
 
+
+    /**
+     * Same as {@link #findPermissions(Permission)} except the matching permissions are passed to the handler one at a time,
+     * as they are paged in from the directory, and the number returned isn't limited.  Use for searches that may return
+     * more permissions than should be held in memory.
+     *
+     * @param permission contains object and operation name search strings.  Each contains 1 or more leading chars that
+     * correspond to object or op name.
+     * @param handler receives each Permission, returns false to stop the search.
+     * @throws SecurityException thrown in the event of system error, or as thrown by the handler.
+     */
+    void findPermissions( Permission permission, SearchHandler<Permission> handler )
+        throws SecurityException;
+
     /**
      * Method returns Permission operations for the provided permission object
      * 
@@ -280,6 +294,19 @@ public interface ReviewMgr extends Manageable
         throws SecurityException;
 
 
+    /**
+     * Same as {@link #findUsers(User)} except the matching users are passed to the handler one at a time, as they are
+     * paged in from the directory, and the number returned isn't limited.  Use for searches that may return more users than
+     * should be held in memory.
+     *
+     * @param user contains all or some leading chars that match userIds stored in the directory.
+     * @param handler receives each User, returns false to stop the search.
+     * @throws SecurityException In the event of system error, or as thrown by the handler.
+     */
+    void findUsers( User user, SearchHandler<User> handler )
+        throws SecurityException;
+
+
     /**
      * Return a list of type User of all users in the people container that match the name field passed in OrgUnit entity.
      * <h3></h3>
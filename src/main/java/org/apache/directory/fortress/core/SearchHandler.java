@@ -0,0 +1,43 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core;
+
+
+/**
+ * Receives the entities found by a search one at a time, as they are read from the directory.  Used by the search methods
+ * of {@link ReviewMgr}, {@link DelReviewMgr} and {@link AuditMgr} that page through their results, so result sets of any
+ * size can be processed in constant memory, e.g. {@link ReviewMgr#findUsers(org.apache.directory.fortress.core.model.User, SearchHandler)}.
+ * <p>
+ * The handler is called on the caller's thread, while the search holds an ldap connection, so it should not block for long.
+ *
+ * @param <T> type of entity returned by the search.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface SearchHandler<T>
+{
+    /**
+     * Process one entity.
+     *
+     * @param entity found by the search.
+     * @return true to continue the search, false to stop it.
+     * @throws SecurityException stops the search and is thrown to its caller.
+     */
+    boolean handle( T entity ) throws SecurityException;
+}
@@ -23,6 +23,7 @@ package org.apache.directory.fortress.core.ant;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
@@ -30,6 +31,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.AdminMgr;
 import org.apache.directory.fortress.core.AdminMgrFactory;
+import org.apache.directory.fortress.core.BulkResult;
 import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.ConfigMgr;
 import org.apache.directory.fortress.core.ConfigMgrFactory;
@@ -976,67 +978,66 @@ public class FortressAntTask extends Task implements InputHandler
         // Loop through the entityclass elements
         for ( Adduser adduser : addusers )
         {
-            List<UserAnt> users = adduser.getUsers();
-            for ( UserAnt user : users )
+            List<User> users = new ArrayList<User>( adduser.getUsers() );
+            for ( User user : users )
             {
                 LOG.info( "addUsers tenant={} userid={} description={} orgUnit={}",
                     getTenant(), user.getUserId(), user.getDescription(), user.getOu() );
-                try
+            }
+            List<UserRole> userRoles = new ArrayList<>();
+            try
+            {
+                BulkResult<User> result = adminMgr.addUsers( users );
+                for ( int i = 0; i < users.size(); i++ )
                 {
-                    addUser( user );
+                    User user = users.get( i );
+                    SecurityException se = result.getFailure( i );
+                    try
+                    {
+                        // If User entity already there then call the udpate method.
+                        if ( se != null && se.getErrorId() == GlobalErrIds.USER_ID_DUPLICATE )
+                        {
+                            adminMgr.updateUser( user );
+                            LOG.info( "addUsers tenant={} Update entity - userId={}", getTenant(), user.getUserId() );
+                        }
+                        else if ( se != null )
+                        {
+                            throw se;
+                        }
+                        assignAdminRoles( user );
+                        if ( CollectionUtils.isNotEmpty( user.getRoles() ) )
+                        {
+                            userRoles.addAll( user.getRoles() );
+                        }
+                    }
+                    catch ( SecurityException e )
+                    {
+                        LOG.warn( "addUsers userId [{}] caught SecurityException={}", user.getUserId(), e );
+                    }
                 }
-                catch ( SecurityException se )
+                BulkResult<UserRole> assigned = adminMgr.assignUsers( userRoles );
+                for ( Map.Entry<Integer, SecurityException> failure : assigned.getFailures().entrySet() )
                 {
-                    LOG.warn( "addUsers userId [{}] caught SecurityException={}", user.getUserId(), se );
+                    UserRole userRole = userRoles.get( failure.getKey() );
+                    LOG.warn( "addUsers userId [{}] roleName [{}] caught SecurityException={}", userRole.getUserId(),
+                        userRole.getName(), failure.getValue() );
                 }
             }
-        }
-    }
-
-    /**
-     * Utility method called by addUsers()
-     *
-     * @param user
-     * @throws SecurityException
-     */
-    private void addUser(User user) throws SecurityException
-    {
-        try
-        {
-            adminMgr.addUser( user );
-            assignUser( user );
-        }
-        catch ( SecurityException se )
-        {
-            // If User entity already there then call the udpate method.
-            if ( se.getErrorId() == GlobalErrIds.USER_ID_DUPLICATE )
-            {
-                adminMgr.updateUser( user );
-                assignUser( user );
-                LOG.info( "addUsers tenant={} Update entity - userId={}", getTenant(), user.getUserId() );
-            }
-            else
+            catch ( SecurityException se )
             {
-                throw se;
+                LOG.warn( "addUsers tenant={} caught SecurityException={}", getTenant(), se );
             }
         }
     }
 
     /**
-     * Utility method to assign roles to user.
+     * Utility method to assign admin roles to user.  The rbac roles are assigned in bulk by addUsers().
      *
      * @param user
      * @throws SecurityException
      */
-    private void assignUser( User user ) throws SecurityException
+    private void assignAdminRoles( User user ) throws SecurityException
     {
-        if ( CollectionUtils.isNotEmpty( user.getRoles() ) )
-        {
-            for ( UserRole uRole : user.getRoles() )
-            {
-                adminMgr.assignUser( uRole );
-            }
-        }
         if ( CollectionUtils.isNotEmpty( user.getAdminRoles() ) )
         {
             for ( UserAdminRole uAdminRoleRole : user.getAdminRoles() )
@@ -1094,15 +1095,20 @@ public class FortressAntTask extends Task implements InputHandler
             for ( Group group : groups )
             {
                 LOG.info( "addGroups tenant={} name={} description={}", getTenant(), group.getName(), group.getDescription() );
-                try
-                {
-                    groupMgr.add( group );
-                }
-                catch ( SecurityException se )
+            }
+            try
+            {
+                BulkResult<Group> result = groupMgr.add( groups );
+                for ( Map.Entry<Integer, SecurityException> failure : result.getFailures().entrySet() )
                 {
-                    LOG.warn( "addGroups name [{}] caught SecurityException={}", group.getName(), se );
+                    LOG.warn( "addGroups name [{}] caught SecurityException={}", groups.get( failure.getKey() ).getName(),
+                        failure.getValue() );
                 }
             }
+            catch ( SecurityException se )
+            {
+                LOG.warn( "addGroups tenant={} caught SecurityException={}", getTenant(), se );
+            }
         }
     }
 
@@ -1325,16 +1331,20 @@ public class FortressAntTask extends Task implements InputHandler
             for ( UserRole userRole : userroles )
             {
                 LOG.info( "addUserRoles tenant={} userid={} role name={}", getTenant(), userRole.getUserId(), userRole.getName() );
-                try
-                {
-                    //Role role = new Role(userRole);
-                    adminMgr.assignUser( userRole );
-                }
-                catch ( SecurityException se )
+            }
+            try
+            {
+                BulkResult<UserRole> result = adminMgr.assignUsers( userroles );
+                for ( Map.Entry<Integer, SecurityException> failure : result.getFailures().entrySet() )
                 {
-                    LOG.warn( "addUserRoles tenant={} userId={} roleName={} caught SecurityException={}", getTenant(), userRole.getUserId(), userRole.getName(), se );
+                    UserRole userRole = userroles.get( failure.getKey() );
+                    LOG.warn( "addUserRoles tenant={} userId={} roleName={} caught SecurityException={}", getTenant(), userRole.getUserId(), userRole.getName(), failure.getValue() );
                 }
             }
+            catch ( SecurityException se )
+            {
+                LOG.warn( "addUserRoles tenant={} caught SecurityException={}", getTenant(), se );
+            }
         }
     }
 
@@ -1386,15 +1396,19 @@ public class FortressAntTask extends Task implements InputHandler
             for ( Role role : roles )
             {
                 LOG.info( "addRoles tenant={} name={} description={}", getTenant(), role.getName(), role.getDescription() );
-                try
-                {
-                    adminMgr.addRole( role );
-                }
-                catch ( SecurityException se )
+            }
+            try
+            {
+                BulkResult<Role> result = adminMgr.addRoles( roles );
+                for ( Map.Entry<Integer, SecurityException> failure : result.getFailures().entrySet() )
                 {
-                    LOG.warn( "addRoles tenant={} name [{}] caught SecurityException={}", getTenant(), role.getName(), se );
+                    LOG.warn( "addRoles tenant={} name [{}] caught SecurityException={}", getTenant(), roles.get( failure.getKey() ).getName(), failure.getValue() );
                 }
             }
+            catch ( SecurityException se )
+            {
+                LOG.warn( "addRoles tenant={} caught SecurityException={}", getTenant(), se );
+            }
         }
     }
 
@@ -1744,33 +1758,28 @@ public class FortressAntTask extends Task implements InputHandler
             List<PermGrant> permGrants = addpermGrant.getPermGrants();
             for ( PermGrant permGrant : permGrants )
             {
-                try
+                if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
                 {
-                    Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(),
-                        permGrant.isAdmin() );
-                    perm.setOpName( permGrant.getOpName() );
-                    perm.setObjId( permGrant.getObjId() );
-                    if ( permGrant.getRoleNm() != null && permGrant.getRoleNm().length() > 0 )
-                    {
-                        LOG.info( "addPermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.grantPermission( perm, new Role( permGrant.getRoleNm() ) );
-                    }
-                    else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
-                    {
-                        LOG.info( "addPermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
-                        adminMgr.grantPermission( perm, new User( permGrant.getUserId() ) );
-                    }
-                    else
-                    {
-                        String warning = "addPermGrants called without user or role set in xml";
-                        LOG.warn( warning );
-                    }
+                    LOG.info( "addPermGrants tenant={} roleName={} objName={} opName={} objId={}", getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
                 }
-                catch ( SecurityException se )
+                else if ( permGrant.getUserId() != null && permGrant.getUserId().length() > 0 )
                 {
-                    LOG.warn( "addPermGrants tenant={} roleName={} objName={} opName={} objId={} caught SecurityException={}" , getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId(), se );
+                    LOG.info( "addPermGrants tenant={} userId={} objName={} opName={} objId={}", getTenant(), permGrant.getUserId(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId() );
                 }
             }
+            try
+            {
+                BulkResult<PermGrant> result = adminMgr.grantPermissions( permGrants );
+                for ( Map.Entry<Integer, SecurityException> failure : result.getFailures().entrySet() )
+                {
+                    PermGrant permGrant = permGrants.get( failure.getKey() );
+                    LOG.warn( "addPermGrants tenant={} roleName={} objName={} opName={} objId={} caught SecurityException={}" , getTenant(), permGrant.getRoleNm(), permGrant.getObjName(), permGrant.getOpName(), permGrant.getObjId(), failure.getValue() );
+                }
+            }
+            catch ( SecurityException se )
+            {
+                LOG.warn( "addPermGrants tenant={} caught SecurityException={}", getTenant(), se );
+            }
         }
     }
 
@@ -22,6 +22,8 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.directory.fortress.core.AccelMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -156,6 +158,74 @@ public class AccelMgrImpl extends Manageable implements AccelMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<Session> createSessionAsync( final User user, final boolean isTrusted )
+    {
+        return supplyAsync( new Callable<Session>()
+        {
+            @Override
+            public Session call() throws SecurityException
+            {
+                return createSession( user, isTrusted );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<Boolean> checkAccessAsync( final Session session, final Permission perm )
+    {
+        return supplyAsync( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws SecurityException
+            {
+                return checkAccess( session, perm );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<List<Permission>> sessionPermissionsAsync( final Session session )
+    {
+        return supplyAsync( new Callable<List<Permission>>()
+        {
+            @Override
+            public List<Permission> call() throws SecurityException
+            {
+                return sessionPermissions( session );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<List<UserRole>> sessionRolesAsync( final Session session )
+    {
+        return supplyAsync( new Callable<List<UserRole>>()
+        {
+            @Override
+            public List<UserRole> call() throws SecurityException
+            {
+                return sessionRoles( session );
+            }
+        } );
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -22,7 +22,10 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
@@ -154,6 +157,32 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation
+    public Map<Permission, Boolean> checkAccess( Session session, List<Permission> perms )
+        throws SecurityException
+    {
+        String methodName = "checkAccess";
+        VUtil.assertNotNull( perms, GlobalErrIds.PERM_NULL, getFullMethodName( CLS_NM, methodName ) );
+        for ( Permission perm : perms )
+        {
+            assertContext( CLS_NM, methodName, perm, GlobalErrIds.PERM_NULL );
+            VUtil.getInstance().assertNotNullOrEmpty( perm.getOpName(), GlobalErrIds.PERM_OPERATION_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+            VUtil.getInstance().assertNotNullOrEmpty( perm.getObjName(), GlobalErrIds.PERM_OBJECT_NULL,
+                getFullMethodName( CLS_NM, methodName ) );
+        }
+        assertContext( CLS_NM, methodName, session, GlobalErrIds.USER_SESS_NULL );
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.USER, false );
+        VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, false );
+        setEntitySession(CLS_NM, methodName, session);
+        return permP.checkPermission( session, perms );
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -188,6 +217,74 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<Session> createSessionAsync( final User user, final boolean isTrusted )
+    {
+        return supplyAsync( new Callable<Session>()
+        {
+            @Override
+            public Session call() throws SecurityException
+            {
+                return createSession( user, isTrusted );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<Boolean> checkAccessAsync( final Session session, final Permission perm )
+    {
+        return supplyAsync( new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws SecurityException
+            {
+                return checkAccess( session, perm );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<List<Permission>> sessionPermissionsAsync( final Session session )
+    {
+        return supplyAsync( new Callable<List<Permission>>()
+        {
+            @Override
+            public List<Permission> call() throws SecurityException
+            {
+                return sessionPermissions( session );
+            }
+        } );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<List<UserRole>> sessionRolesAsync( final Session session )
+    {
+        return supplyAsync( new Callable<List<UserRole>>()
+        {
+            @Override
+            public List<UserRole> call() throws SecurityException
+            {
+                return sessionRoles( session );
+            }
+        } );
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -275,6 +372,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
 
         // Check role temporal constraints & DSD:
         VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, false );
+        AuthZContext.attach( session, this.contextId );
     }
 
 
@@ -313,6 +411,7 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
                 + session.getUserId() + "], not previously activated";
             throw new SecurityException( GlobalErrIds.URLE_NOT_ACTIVE, info );
         }
+        AuthZContext.attach( session, this.contextId );
     }
 
 
@@ -336,7 +435,12 @@ public class AccessMgrImpl extends Manageable implements AccessMgr, Serializable
         throws SecurityException
     {
         assertContext( CLS_NM, "getUser", session, GlobalErrIds.USER_SESS_NULL );
-
-        return session.getUser();
+        User user = session.getUser();
+        // The profile is left out of a session's user when the projection is enabled, read it the first time it's asked for:
+        if ( user != null && user.isProfilePending() )
+        {
+            userP.loadProfile( user );
+        }
+        return user;
     }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.List;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.UserAdminRole;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility maintains an optional, in-process cache of the administrative permission decisions made by
+ * {@link AdminUtil#checkAccess}, so the admin check that precedes every delegated admin API call, e.g.
+ * {@link AdminMgrImpl#addUser}, doesn't go to ldap each time.  Entries are keyed by the admin session's id and activated
+ * admin roles, the permission's object and operation name, and the contextId.  Only grants are cached, so a denied
+ * check is always evaluated against the directory.
+ * <p>
+ * The cache is switched off by default and may be enabled with fortress config param: {@code enable.admin.access.cache=true}.
+ * When enabled, the {@code fortress.admin.access} cache should be declared in ehcache.xml.  Its {@code timeToLiveSeconds}
+ * setting, which should be short, bounds how long a revoked admin permission may still be honored.  Changes made to the
+ * admin permissions via {@link PermDAO} within this process flush the cache immediately.  Checks that are answered from
+ * the cache don't write an authorization audit record.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AdminAccessCache
+{
+    private static final String CLS_NM = AdminAccessCache.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String FORTRESS_ADMIN_ACCESS = "fortress.admin.access";
+    private static final String IS_ADMIN_ACCESS_CACHE_ENABLED_PARM = "enable.admin.access.cache";
+    private Cache accessCache;
+    private boolean isEnabled;
+
+    private static volatile AdminAccessCache sINSTANCE = null;
+
+    static AdminAccessCache getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( AdminAccessCache.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new AdminAccessCache();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        isEnabled = Config.getInstance().getBoolean( IS_ADMIN_ACCESS_CACHE_ENABLED_PARM, false );
+        if ( isEnabled )
+        {
+            CacheMgr cacheMgr = CacheMgr.getInstance();
+            accessCache = cacheMgr.getCache( FORTRESS_ADMIN_ACCESS );
+            LOG.info( "init admin access cache enabled" );
+        }
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private AdminAccessCache()
+    {
+        init();
+    }
+
+
+    /**
+     * Return true if the admin access cache has been switched on in fortress config.
+     *
+     * @return boolean value of {@code enable.admin.access.cache}.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Return true if access has been granted to the session for the permission.  The underlying cache is blocking, so a miss
+     * locks the key for the calling thread until it calls {@link #put(String, boolean)}, which must be done even if the
+     * check fails.  This prevents concurrent checks from stampeding the server for the same decision.
+     *
+     * @param key as returned by {@link #getKey(Session, Permission, String)}.
+     * @return true if the decision is cached, false if it must be evaluated.
+     */
+    boolean isGranted( String key )
+    {
+        return accessCache.get( key ) != null;
+    }
+
+
+    /**
+     * Add the decision to the cache if access was granted, and release the lock taken on a miss.
+     *
+     * @param key     as returned by {@link #getKey(Session, Permission, String)}.
+     * @param granted the outcome of the check.
+     */
+    void put( String key, boolean granted )
+    {
+        accessCache.put( key, granted ? Boolean.TRUE : null );
+    }
+
+
+    /**
+     * Remove all entries from the cache.  Called after an admin permission has been changed or removed.
+     */
+    void flush()
+    {
+        if ( isEnabled )
+        {
+            accessCache.flush();
+        }
+    }
+
+
+    /**
+     * Return the key of the decision, or null if the session has no id to key it by.
+     *
+     * @param session   contains the admin session's id and activated admin roles.
+     * @param perm      contains the object and operation name of the admin permission.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return key to this tenant's cache entry, null if the decision can't be cached.
+     */
+    static String getKey( Session session, Permission perm, String contextId )
+    {
+        if ( StringUtils.isEmpty( session.getSessionId() ) )
+        {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        key.append( session.getSessionId() );
+        key.append( ':' );
+        key.append( perm.getObjName() );
+        key.append( '.' );
+        key.append( perm.getOpName() );
+        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
+        {
+            key.append( ':' );
+            key.append( contextId );
+        }
+        // The decision depends on the admin roles activated in the session, which may change during its life:
+        List<UserAdminRole> adminRoles = session.getAdminRoles();
+        if ( CollectionUtils.isNotEmpty( adminRoles ) )
+        {
+            for ( UserAdminRole adminRole : adminRoles )
+            {
+                key.append( ':' );
+                key.append( adminRole.getName().toLowerCase() );
+            }
+        }
+        return key.toString();
+    }
+}
@@ -21,21 +21,29 @@ package org.apache.directory.fortress.core.impl;
 
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
 import org.apache.directory.fortress.core.AdminMgr;
+import org.apache.directory.fortress.core.BulkResult;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.ValidationException;
 
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.ConstraintUtil;
 import org.apache.directory.fortress.core.model.Group;
 import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.PermGrant;
 import org.apache.directory.fortress.core.model.PermObj;
 import org.apache.directory.fortress.core.model.Permission;
 import org.apache.directory.fortress.core.model.PermissionAttribute;
@@ -120,6 +128,44 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="addUser")
+    public BulkResult<User> addUsers( List<User> users ) throws SecurityException
+    {
+        String methodName = "addUser";
+        VUtil.assertNotNull( users, GlobalErrIds.USER_NULL, getFullMethodName( CLS_NM, "addUsers" ) );
+        BulkResult<User> result = new BulkResult<>( users );
+        List<Integer> valid = new ArrayList<>();
+        for ( int i = 0; i < users.size(); i++ )
+        {
+            try
+            {
+                User user = users.get( i );
+                assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
+                setEntitySession( CLS_NM, methodName, user );
+                userP.validate( user, false );
+                valid.add( i );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        BulkLoader.run( valid, users, new BulkLoader.Step<User>()
+        {
+            @Override
+            public void apply( User user ) throws SecurityException
+            {
+                userP.add( user, false );
+            }
+        }, result );
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -153,14 +199,16 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         String methodName = "deleteUser";
         assertContext( CLS_NM, methodName, user, GlobalErrIds.USER_NULL );
         setEntitySession( CLS_NM, methodName, user );
+        // The dependents are removed before the user so a delete that fails part way may be repeated to resume it:
+        String userDn = userP.readDeletable( user ).getDn();
         // remove the userId attribute from any granted permission operations (if applicable).
         permP.remove( user );
-        // remove the user inetOrgPerson object from ldap.
-        String userDn = userP.delete( user );
         // remove the user dn occupant attribute from assigned ldap role entities.
         roleP.removeOccupant( userDn, this.contextId );
         // remove the user dn occupant attribute from assigned ldap adminRole entities.
         adminP.removeOccupant( userDn, this.contextId );
+        // remove the user inetOrgPerson object from ldap.
+        userP.delete( user );
     }
 
 
@@ -265,6 +313,44 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="addRole")
+    public BulkResult<Role> addRoles( List<Role> roles ) throws SecurityException
+    {
+        String methodName = "addRole";
+        VUtil.assertNotNull( roles, GlobalErrIds.ROLE_NULL, getFullMethodName( CLS_NM, "addRoles" ) );
+        BulkResult<Role> result = new BulkResult<>( roles );
+        List<Integer> valid = new ArrayList<>();
+        for ( int i = 0; i < roles.size(); i++ )
+        {
+            try
+            {
+                Role role = roles.get( i );
+                assertContext( CLS_NM, methodName, role, GlobalErrIds.ROLE_NULL );
+                setEntitySession( CLS_NM, methodName, role );
+                roleP.validate( role );
+                valid.add( i );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        BulkLoader.run( valid, roles, new BulkLoader.Step<Role>()
+        {
+            @Override
+            public void apply( Role role ) throws SecurityException
+            {
+                roleP.add( role, false );
+            }
+        }, result );
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -284,42 +370,62 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
             throw new SecurityException( GlobalErrIds.HIER_DEL_FAILED_HAS_CHILD, error, null );
         }
         // Read the Role from LDAP:
-        Role outRole = roleP.read( role );
+        final Role outRole = roleP.read( role );
         outRole.setContextId( role.getContextId() );
+        // The dependents are removed before the role so a delete that fails part way may be repeated to resume it.
         // deassign all groups assigned to this role first (because of schema's configGroup class constraints)
         List<Group> groups = groupP.roleGroups( outRole );
-        for ( Group group : groups )
+        BulkLoader.cascade( methodName + " role [" + role.getName() + "] groups", groups, new BulkLoader.Step<Group>()
         {
-            group.setContextId( this.contextId );
-            groupP.deassign( group, outRole.getDn() );
-        }
-
-        // If user membership associated with role, remove the role object:
-        if( Config.getInstance().isRoleOccupant() )
+            @Override
+            public void apply( Group group ) throws SecurityException
+            {
+                group.setContextId( contextId );
+                groupP.deassign( group, outRole.getDn() );
+            }
+        } );
+
+        // Deassign the users, authorized once for all of them.  The role occupants go with the role:
+        checkAccess( CLS_NM, "deassignUser" );
+        final List<String> userIds = new ArrayList<>();
+        // The first user of each ou, the admin's authority over a user depends only on its ou for a given role:
+        final Map<String, User> ouUsers = new LinkedHashMap<>();
+        userP.getAssignedUsers( role, new SearchHandler<User>()
         {
-            // this reads the role object itself:
-            List<User> users = userP.getAssignedUsers( role );
-            if ( users != null )
+            @Override
+            public boolean handle( User user )
             {
-                for ( User ue : users )
+                userIds.add( user.getUserId() );
+                String ou = StringUtils.upperCase( user.getOu() );
+                if ( !ouUsers.containsKey( ou ) )
                 {
-                    UserRole uRole = new UserRole( ue.getUserId(), role.getName() );
-                    setAdminData( CLS_NM, methodName, uRole );
-                    deassignUser( uRole );
+                    ouUsers.put( ou, user );
                 }
+                return true;
             }
-        }
-        else
+        } );
+        final String roleName = role.getName();
+        if ( adminSess != null )
         {
-            // search for all users assigned this role and deassign:
-            List<String> userIds = userP.getAssignedUserIds( role );
-            for ( String userId : userIds )
+            // The ARBAC scope of deassignUser, checked for every ou before any user is deassigned:
+            Role checkRole = new Role( roleName );
+            checkRole.setContextId( contextId );
+            for ( User user : ouUsers.values() )
             {
-                UserRole uRole = new UserRole( userId, role.getName() );
-                setAdminData( CLS_NM, methodName, uRole );
-                deassignUser( uRole );
+                user.setContextId( contextId );
+                AdminUtil.canDeassign( adminSess, user, checkRole, contextId );
             }
         }
+        BulkLoader.cascade( methodName + " role [" + roleName + "] deassign", userIds, new BulkLoader.Step<String>()
+        {
+            @Override
+            public void apply( String userId ) throws SecurityException
+            {
+                UserRole uRole = new UserRole( userId, roleName );
+                setAdminData( CLS_NM, "deassignUser", uRole );
+                userP.deassign( uRole );
+            }
+        } );
 
         // Now remove the role association from all permissions:
         permP.remove( role );
@@ -388,6 +494,139 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         }
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="assignUser")
+    public BulkResult<UserRole> assignUsers( final List<UserRole> uRoles ) throws SecurityException
+    {
+        final String methodName = "assignUser";
+        VUtil.assertNotNull( uRoles, GlobalErrIds.URLE_NULL, getFullMethodName( CLS_NM, "assignUsers" ) );
+        BulkResult<UserRole> result = new BulkResult<>( uRoles );
+        BulkLoader.Reader<Role> roles = new BulkLoader.Reader<Role>()
+        {
+            @Override
+            Role read( String name ) throws SecurityException
+            {
+                Role role = new Role( name );
+                role.setContextId( contextId );
+                return roleP.read( role );
+            }
+        };
+
+        // Read each role once for the batch, and group the assignments by user, in batch order:
+        Map<String, List<Integer>> userAssignments = new LinkedHashMap<>();
+        for ( int i = 0; i < uRoles.size(); i++ )
+        {
+            try
+            {
+                UserRole uRole = uRoles.get( i );
+                assertContext( CLS_NM, methodName, uRole, GlobalErrIds.URLE_NULL );
+                VUtil.assertNotNullOrEmpty( uRole.getUserId(), GlobalErrIds.USER_ID_NULL, getFullMethodName( CLS_NM, methodName ) );
+                VUtil.assertNotNullOrEmpty( uRole.getName(), GlobalErrIds.ROLE_NM_NULL, getFullMethodName( CLS_NM, methodName ) );
+                setEntitySession( CLS_NM, methodName, uRole );
+                // if the input role entity attribute doesn't have temporal constraints set, copy from the role declaration:
+                ConstraintUtil.validateOrCopy( roles.get( uRole.getName() ), uRole );
+                String key = uRole.getUserId().toUpperCase();
+                List<Integer> indexes = userAssignments.get( key );
+                if ( indexes == null )
+                {
+                    indexes = new ArrayList<>();
+                    userAssignments.put( key, indexes );
+                }
+                indexes.add( i );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        List<List<Integer>> users = new ArrayList<>( userAssignments.values() );
+        final SecurityException[] failures = new SecurityException[uRoles.size()];
+
+        // Validate the SSD constraints of each user against its authorized roles plus those assigned earlier in the batch:
+        BulkLoader.run( users, new BulkLoader.Step<List<Integer>>()
+        {
+            @Override
+            public void apply( List<Integer> indexes ) throws SecurityException
+            {
+                User user = new User( uRoles.get( indexes.get( 0 ) ).getUserId() );
+                user.setContextId( contextId );
+                Set<String> authorizedRls;
+                try
+                {
+                    authorizedRls = RoleUtil.getInstance().getInheritedRoles( userP.read( user, true ).getRoles(), contextId );
+                }
+                catch ( SecurityException se )
+                {
+                    for ( Integer index : indexes )
+                    {
+                        failures[index] = se;
+                    }
+                    return;
+                }
+                for ( Integer index : indexes )
+                {
+                    UserRole uRole = uRoles.get( index );
+                    Role role = new Role( uRole.getName() );
+                    role.setContextId( contextId );
+                    try
+                    {
+                        AdminUtil.canAssign( uRole.getAdminSession(), user, role, contextId );
+                        SDUtil.getInstance().validateSSD( role, authorizedRls, contextId );
+                        authorizedRls.add( uRole.getName() );
+                        authorizedRls.addAll( RoleUtil.getInstance().getAscendants( uRole.getName(), contextId ) );
+                    }
+                    catch ( SecurityException se )
+                    {
+                        failures[index] = se;
+                    }
+                }
+            }
+        } );
+
+        // Then write the assignments that passed, those of one user in order:
+        BulkLoader.run( users, new BulkLoader.Step<List<Integer>>()
+        {
+            @Override
+            public void apply( List<Integer> indexes ) throws SecurityException
+            {
+                for ( Integer index : indexes )
+                {
+                    if ( failures[index] != null )
+                    {
+                        continue;
+                    }
+                    UserRole uRole = uRoles.get( index );
+                    try
+                    {
+                        String dn = userP.assign( uRole );
+                        if ( Config.getInstance().isRoleOccupant() )
+                        {
+                            Role role = new Role( uRole.getName() );
+                            setAdminData( CLS_NM, methodName, role );
+                            roleP.assign( role, dn );
+                        }
+                    }
+                    catch ( SecurityException se )
+                    {
+                        failures[index] = se;
+                    }
+                }
+            }
+        } );
+        for ( int i = 0; i < failures.length; i++ )
+        {
+            if ( failures[i] != null )
+            {
+                result.setFailure( i, failures[i] );
+            }
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -699,6 +938,125 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="grantPermission")
+    public BulkResult<PermGrant> grantPermissions( List<PermGrant> permGrants ) throws SecurityException
+    {
+        String methodName = "grantPermissions";
+        VUtil.assertNotNull( permGrants, GlobalErrIds.PERM_OPERATION_NULL, getFullMethodName( CLS_NM, methodName ) );
+        BulkResult<PermGrant> result = new BulkResult<>( permGrants );
+        BulkLoader.Reader<Role> roles = new BulkLoader.Reader<Role>()
+        {
+            @Override
+            Role read( String name ) throws SecurityException
+            {
+                Role role = new Role( name );
+                role.setContextId( contextId );
+                return roleP.read( role );
+            }
+        };
+        BulkLoader.Reader<AdminRole> adminRoles = new BulkLoader.Reader<AdminRole>()
+        {
+            @Override
+            AdminRole read( String name ) throws SecurityException
+            {
+                AdminRole adminRole = new AdminRole( name );
+                adminRole.setContextId( contextId );
+                return adminP.read( adminRole );
+            }
+        };
+        BulkLoader.Reader<User> users = new BulkLoader.Reader<User>()
+        {
+            @Override
+            User read( String userId ) throws SecurityException
+            {
+                User user = new User( userId );
+                user.setContextId( contextId );
+                return userP.read( user, false );
+            }
+        };
+
+        // Validate the batch, reading each role or user once:
+        final Permission[] perms = new Permission[permGrants.size()];
+        final Role[] grantRoles = new Role[permGrants.size()];
+        final User[] grantUsers = new User[permGrants.size()];
+        List<Integer> valid = new ArrayList<>();
+        for ( int i = 0; i < permGrants.size(); i++ )
+        {
+            try
+            {
+                PermGrant permGrant = permGrants.get( i );
+                VUtil.assertNotNull( permGrant, GlobalErrIds.PERM_OPERATION_NULL, getFullMethodName( CLS_NM, methodName ) );
+                Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(), permGrant.isAdmin() );
+                perm.setObjId( permGrant.getObjId() );
+                if ( StringUtils.isNotEmpty( permGrant.getRoleNm() ) )
+                {
+                    setEntitySession( CLS_NM, "grantPermission", perm );
+                    Role role = new Role( permGrant.getRoleNm() );
+                    role.setContextId( this.contextId );
+                    if ( perm.isAdmin() )
+                    {
+                        adminRoles.get( role.getName() );
+                    }
+                    else
+                    {
+                        AdminUtil.canGrant( perm.getAdminSession(), role, perm, contextId );
+                        roles.get( role.getName() );
+                    }
+                    grantRoles[i] = role;
+                }
+                else if ( StringUtils.isNotEmpty( permGrant.getUserId() ) )
+                {
+                    setEntitySession( CLS_NM, "grantPermissionUser", perm );
+                    User user = new User( permGrant.getUserId() );
+                    user.setContextId( this.contextId );
+                    users.get( user.getUserId() );
+                    grantUsers[i] = user;
+                }
+                else
+                {
+                    String error = methodName + " permGrant [" + i + "] contains neither role name nor userId";
+                    throw new ValidationException( GlobalErrIds.ROLE_NULL, error );
+                }
+                perms[i] = perm;
+                valid.add( i );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+
+        // Then write the grants that passed:
+        SecurityException[] failures = BulkLoader.run( valid, new BulkLoader.Step<Integer>()
+        {
+            @Override
+            public void apply( Integer index ) throws SecurityException
+            {
+                if ( grantRoles[index] != null )
+                {
+                    permP.grant( perms[index], grantRoles[index] );
+                }
+                else
+                {
+                    permP.grant( perms[index], grantUsers[index] );
+                }
+            }
+        } );
+        for ( int i = 0; i < failures.length; i++ )
+        {
+            if ( failures[i] != null )
+            {
+                result.setFailure( valid.get( i ), failures[i] );
+            }
+        }
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -933,9 +1291,12 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, ssdSet, GlobalErrIds.SSD_NULL );
         setEntitySession( CLS_NM, methodName, ssdSet );
         ssdSet.setType( SDSet.SDType.STATIC );
+        // read the members, they may not have been passed in:
+        SDSet outSet = sdP.read( ssdSet );
+        SDSet deleted = sdP.delete( ssdSet );
         // remove any references to the old SSD from cache:
-        clearSSDCache( ssdSet );
-        return sdP.delete( ssdSet );
+        clearSSDCache( outSet );
+        return deleted;
     }
 
 
@@ -1036,10 +1397,7 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         entity.setContextId( this.contextId );
         entity.addMember( role.getName() );
         setAdminData( CLS_NM, methodName, entity );
-        SDSet dsdOut = sdP.update( entity );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
-        return dsdOut;
+        return sdP.update( entity );
     }
 
 
@@ -1064,10 +1422,7 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
             entity.addMember( GlobalIds.NONE );
         }
         setAdminData( CLS_NM, methodName, entity );
-        SDSet dsdOut = sdP.update( entity );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
-        return dsdOut;
+        return sdP.update( entity );
     }
 
 
@@ -1082,8 +1437,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         assertContext( CLS_NM, methodName, dsdSet, GlobalErrIds.DSD_NULL );
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return sdP.delete( dsdSet );
     }
 
@@ -1100,20 +1453,6 @@ public final class AdminMgrImpl extends Manageable implements AdminMgr, Serializ
         setEntitySession( CLS_NM, methodName, dsdSet );
         dsdSet.setType( SDSet.SDType.DYNAMIC );
         dsdSet.setCardinality( cardinality );
-        // remove any references to the old DSD from cache:
-        clearDSDCache( dsdSet );
         return sdP.update( dsdSet );
     }
-
-
-    /**
-     * Clear the DSD cache entries that correspond to this DSD
-     *
-     * @param dsdSet
-     * @throws SecurityException
-     */
-    private void clearDSDCache( SDSet dsdSet )
-    {
-        SDUtil.getInstance().clearDsdCacheEntry( dsdSet.getName(), contextId );
-    }
 }
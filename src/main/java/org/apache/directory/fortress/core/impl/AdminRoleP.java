@@ -230,19 +230,23 @@ final class AdminRoleP
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @throws SecurityException in the event of DAO search error.
      */
-    void removeOccupant( String userDn, String contextId )
+    void removeOccupant( final String userDn, final String contextId )
         throws SecurityException
     {
         List<String> list;
         try
         {
             list = rDao.findAssignedRoles( userDn, contextId );
-            for ( String roleNm : list )
+            BulkLoader.cascade( "removeOccupant userDn [" + userDn + "]", list, new BulkLoader.Step<String>()
             {
-                AdminRole role = new AdminRole( roleNm );
-                role.setContextId( contextId );
-                deassign( role, userDn );
-            }
+                @Override
+                public void apply( String roleNm ) throws SecurityException
+                {
+                    AdminRole role = new AdminRole( roleNm );
+                    role.setContextId( contextId );
+                    deassign( role, userDn );
+                }
+            } );
         }
         catch ( FinderException fe )
         {
@@ -67,6 +67,15 @@ final class AdminRoleUtil
     private static final AdminRoleP adminRoleP = new AdminRoleP();
     private static final String CLS_NM = AdminRoleUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    // Reads the hierarchy, on a miss or in the background, see GraphRefresher:
+    private static final GraphRefresher.Loader LOADER = new GraphRefresher.Loader()
+    {
+        @Override
+        public List<Graphable> getAllDescendants( String contextId ) throws SecurityException
+        {
+            return adminRoleP.getAllDescendants( contextId );
+        }
+    };
 
     /**
      * Initialize the AdminRole hierarchies.  This will read the {@link org.apache.directory.fortress.core.model.Hier} data set from ldap and load into
@@ -182,22 +191,31 @@ final class AdminRoleUtil
 
         if ( CollectionUtils.isNotEmpty( uRoles ) )
         {
+            HierClosure closure = HierUtil.getClosure( getGraph( contextId ) );
             for ( UserAdminRole uRole : uRoles )
             {
                 String rleName = uRole.getName();
                 iRoles.add( rleName );
-                Set<String> parents = HierUtil.getAscendants( rleName, getGraph( contextId ) );
-
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iRoles.addAll( parents );
-                }
+                closure.addAscendants( rleName, iRoles );
             }
         }
         return iRoles;
     }
 
 
+    /**
+     * Return the precomputed transitive closure of the adminRole hierarchy.  The instance is immutable, a new one with a greater
+     * version replaces it whenever the hierarchy is updated or reloaded.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return handle to the closure of the adminRole hierarchy.
+     */
+    static HierClosure getClosure( String contextId )
+    {
+        return HierUtil.getClosure( getGraph( contextId ) );
+    }
+
+
     /**
      * This api is used by {@link DelAdminMgrImpl} to determine parentage for Hierarchical ARBAC processing.
      * It calls {@link HierUtil#validateRelationship(org.jgrapht.graph.SimpleDirectedGraph, String, String, boolean)} to evaluate three adminRole relationship expressions:
@@ -233,7 +251,16 @@ final class AdminRoleUtil
      */
     static void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        // Hold off the background refresh, which would otherwise swap in a graph read before this update was written:
+        GraphRefresher refresher = GraphRefresher.getInstance();
+        String key = getKey( contextId );
+        synchronized ( refresher.getLock( key ) )
+        {
+            HierUtil.updateHier( getGraph( contextId ), relationship, op );
+            // The graph's weight has changed, when the caches share the tenant pool:
+            adminRoleCache.changed( key );
+            refresher.touch( key );
+        }
     }
 
 
@@ -246,24 +273,19 @@ final class AdminRoleUtil
      */
     private static synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
     {
-        Hier inHier = new Hier( Hier.Type.ROLE );
-        inHier.setContextId( contextId );
-        LOG.info( "loadGraph initializing ADMIN ROLE context [{}]", inHier.getContextId() );
-        List<Graphable> descendants = null;
+        LOG.info( "loadGraph initializing ADMIN ROLE context [{}]", contextId );
+        SimpleDirectedGraph<String, Relationship> graph;
 
         try
         {
-            descendants = adminRoleP.getAllDescendants( inHier.getContextId() );
+            graph = GraphRefresher.load( LOADER, contextId );
         }
         catch ( SecurityException se )
         {
             LOG.info( "loadGraph caught SecurityException={}", se );
+            graph = HierUtil.buildGraph( HierUtil.loadHier( contextId, null ) );
         }
 
-        Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
         adminRoleCache.put( getKey( contextId ), graph );
 
         return graph;
@@ -286,11 +308,23 @@ final class AdminRoleUtil
                  .get( key );
              
         if(graph == null){
+            // The entry has expired, put back the last graph if it's being refreshed in the background:
+            graph = GraphRefresher.getInstance().getGraph( key );
+            if ( graph != null )
+            {
+                adminRoleCache.put( key, graph );
+                return graph;
+            }
             LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
+            graph = loadGraph( contextId );
+            // Registered outside of loadGraph's lock, as updateHier takes the refresher's lock before it:
+            GraphRefresher.getInstance().register( key, contextId, adminRoleCache, LOADER, graph );
+            return graph;
         }
         else{
             LOG.debug("Graph found in cache, returning...");
+            // Keeps the graph refreshed in the background while it's read:
+            GraphRefresher.getInstance().used( key );
             return graph;
         }
     }
@@ -19,6 +19,9 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.directory.fortress.core.DelAccessMgr;
 import org.apache.directory.fortress.core.AuthorizationException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -41,6 +44,7 @@ import org.apache.directory.fortress.core.model.User;
 final class AdminUtil
 {
     private static final String CLS_NM = AdminUtil.class.getName();
+    private static final ConcurrentMap<String, DelAccessMgr> DEL_ACCESS_MGRS = new ConcurrentHashMap<>();
 
     /**
      * Private constructor
@@ -64,7 +68,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canAssign(session, user, role);
             if (!result)
             {
@@ -89,7 +93,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canDeassign(session, user, role);
             if (!result)
             {
@@ -116,7 +120,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canGrant(session, role, perm);
             if (!result)
             {
@@ -142,7 +146,7 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
             boolean result = dAccessMgr.canRevoke(session, role, perm);
             if (!result)
             {
@@ -197,8 +201,26 @@ final class AdminUtil
     {
         if (session != null)
         {
-            DelAccessMgr dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
-            boolean result = dAccessMgr.checkAccess(session, perm);
+            AdminAccessCache accessCache = AdminAccessCache.getInstance();
+            String key = accessCache.isEnabled() ? AdminAccessCache.getKey(session, perm, contextId) : null;
+            if (key != null && accessCache.isGranted(key))
+            {
+                return;
+            }
+            boolean result = false;
+            try
+            {
+                DelAccessMgr dAccessMgr = getDelAccessMgr(contextId);
+                result = dAccessMgr.checkAccess(session, perm);
+            }
+            finally
+            {
+                if (key != null)
+                {
+                    // Must be called on a miss, regardless of the outcome, to release the lock on the key:
+                    accessCache.put(key, result);
+                }
+            }
             if (!result)
             {
                 String info = "checkAccess failed for user [" + session.getUserId() + "] object [" + perm.getObjName() + "] operation [" + perm.getOpName() + "]";
@@ -207,6 +229,34 @@ final class AdminUtil
         }
     }
 
+    /**
+     * Return the DelAccessMgr of the tenant.  The instances hold no state but their contextId, so one is created per tenant
+     * and reused, rather than on every admin check.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return shared instance of DelAccessMgr.
+     * @throws SecurityException in the event of failure during instantiation.
+     */
+    private static DelAccessMgr getDelAccessMgr(String contextId) throws SecurityException
+    {
+        if (contextId == null)
+        {
+            // Let the factory report the error:
+            return DelAccessMgrFactory.createInstance(contextId);
+        }
+        DelAccessMgr dAccessMgr = DEL_ACCESS_MGRS.get(contextId);
+        if (dAccessMgr == null)
+        {
+            dAccessMgr = DelAccessMgrFactory.createInstance(contextId);
+            DelAccessMgr existing = DEL_ACCESS_MGRS.putIfAbsent(contextId, dAccessMgr);
+            if (existing != null)
+            {
+                dAccessMgr = existing;
+            }
+        }
+        return dAccessMgr;
+    }
+
     /**
      * Utility will parse a String containing objName.operationName and return the objName only.
      *
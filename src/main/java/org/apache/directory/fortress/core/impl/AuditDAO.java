@@ -34,6 +34,8 @@ import org.apache.directory.api.ldap.model.message.SearchScope;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SearchHandler;
+import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
 import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Bind;
@@ -318,29 +320,10 @@ final class AuditDAO extends LdapDataProvider
         List<AuthZ> auditList = new ArrayList<>();
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String permRoot = getRootDn( audit.isAdmin(), audit.getContextId() );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
-                + audit.getObjName() + "," + permRoot;
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
-                reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
-                + ")";
-
-            if ( audit.isFailedOnly() )
-            {
-                filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
-            }
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
+            String filter = getAuthZsFilter( audit );
 
             //System.out.println("filter=" + filter);
             ld = getLogConnection();
@@ -372,6 +355,84 @@ final class AuditDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #searchAuthZs(UserAudit)} but pages through every matching entry, in constant memory.
+     *
+     * @param audit
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void searchAuthZs( UserAudit audit, SearchHandler<AuthZ> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+
+        try
+        {
+            String filter = getAuthZsFilter( audit );
+            ld = getLogConnection();
+            searchResults = searchPaged( ld, auditRoot, SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                if ( !handler.handle( getAuthzEntityFromLdapEntry( searchResults.getEntry(), sequence++ ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "LdapException in AuditDAO.searchAuthZs id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "CursorException in AuditDAO.searchAuthZs id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeLogConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param audit
+     * @return filter for {@link #searchAuthZs(UserAudit)}.
+     */
+    private String getAuthZsFilter( UserAudit audit )
+    {
+        String permRoot = getRootDn( audit.isAdmin(), audit.getContextId() );
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+
+        String reqDn = PermDAO.getOpRdn( audit.getOpName(), audit.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
+            + audit.getObjName() + "," + permRoot;
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(" + REQDN + "=" +
+            reqDn + ")(" + REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot
+            + ")";
+
+        if ( audit.isFailedOnly() )
+        {
+            filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
+        }
+
+        if ( audit.getBeginDate() != null )
+        {
+            String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+            filter += "(" + REQEND + ">=" + szTime + ")";
+        }
+
+        filter += ")";
+
+        return filter;
+    }
+
+
     private String getRootDn( boolean isAdmin, String contextId )
     {
         String dn;
@@ -400,37 +461,10 @@ final class AuditDAO extends LdapDataProvider
         List<AuthZ> auditList = new ArrayList<>();
         LdapConnection ld = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(";
-
-            if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
-            {
-                filter += REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
-            }
-            else
-            {
-                // have to limit the query to only authorization entries.
-                // TODO: determine why the cn=Manager user is showing up in this search:
-                filter += REQUAUTHZID + "=*)(!(" + REQUAUTHZID + "=cn=Manager," + Config.getInstance().getProperty( GlobalIds.SUFFIX )
-                    + "))";
-
-                // TODO: fix this so filter by only the Fortress AuthZ entries and not the others:
-                if ( audit.isFailedOnly() )
-                {
-                    filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
-                }
-            }
-
-            if ( audit.getBeginDate() != null )
-            {
-                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                filter += "(" + REQEND + ">=" + szTime + ")";
-            }
-
-            filter += ")";
+            String filter = getAllAuthZsFilter( audit );
 
             //log.warn("filter=" + filter);
             ld = getLogConnection();
@@ -463,57 +497,106 @@ final class AuditDAO extends LdapDataProvider
 
 
     /**
-     * @param audit
-     * @return
-     * @throws org.apache.directory.fortress.core.FinderException
+     * Same as {@link #getAllAuthZs(UserAudit)} but pages through every matching entry, in constant memory.
      *
+     * @param audit
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
      */
-    List<Bind> searchBinds( UserAudit audit ) throws FinderException
+    void getAllAuthZs( UserAudit audit, SearchHandler<AuthZ> handler ) throws SecurityException
     {
-        List<Bind> auditList = new ArrayList<>();
         LdapConnection ld = null;
+        SearchCursor searchResults = null;
         String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
-        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
         try
         {
-            String filter;
+            String filter = getAllAuthZsFilter( audit );
+            ld = getLogConnection();
+            searchResults = searchPaged( ld, auditRoot, SearchScope.ONELEVEL, filter, AUDIT_AUTHZ_ATRS, false );
+            long sequence = 0;
 
-            if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
+            while ( searchResults.next() )
             {
-                filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")(" +
-                    REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
-
-                if ( audit.isFailedOnly() )
+                if ( !handler.handle( getAuthzEntityFromLdapEntry( searchResults.getEntry(), sequence++ ) ) )
                 {
-                    filter += "(" + REQRESULT + ">=" + 1 + ")";
+                    break;
                 }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "LdapException in AuditDAO.getAllAuthZs id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "CursorException in AuditDAO.getAllAuthZs id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_AUTHZ_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeLogConnection( ld );
+        }
+    }
 
-                if ( audit.getBeginDate() != null )
-                {
-                    String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                    filter += "(" + REQEND + ">=" + szTime + ")";
-                }
 
-                filter += ")";
-            }
-            else
-            {
-                filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")";
+    /**
+     * @param audit
+     * @return filter for {@link #getAllAuthZs(UserAudit)}.
+     */
+    private String getAllAuthZsFilter( UserAudit audit )
+    {
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
 
-                if ( audit.isFailedOnly() )
-                {
-                    filter += "(" + REQRESULT + ">=" + 1 + ")";
-                }
+        String filter = GlobalIds.FILTER_PREFIX + ACCESS_AUTHZ_CLASS_NM + ")(";
 
-                if ( audit.getBeginDate() != null )
-                {
-                    String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
-                    filter += "(" + REQEND + ">=" + szTime + ")";
-                }
+        if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
+        {
+            filter += REQUAUTHZID + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
+        }
+        else
+        {
+            // have to limit the query to only authorization entries.
+            // TODO: determine why the cn=Manager user is showing up in this search:
+            filter += REQUAUTHZID + "=*)(!(" + REQUAUTHZID + "=cn=Manager," + Config.getInstance().getProperty( GlobalIds.SUFFIX )
+                + "))";
 
-                filter += ")";
+            // TODO: fix this so filter by only the Fortress AuthZ entries and not the others:
+            if ( audit.isFailedOnly() )
+            {
+                filter += "(" + REQRESULT + "=" + GlobalIds.AUTHZ_COMPARE_FAILURE_FLAG + ")";
             }
+        }
+
+        if ( audit.getBeginDate() != null )
+        {
+            String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+            filter += "(" + REQEND + ">=" + szTime + ")";
+        }
+
+        filter += ")";
+
+        return filter;
+    }
+
+
+    /**
+     * @param audit
+     * @return
+     * @throws org.apache.directory.fortress.core.FinderException
+     *
+     */
+    List<Bind> searchBinds( UserAudit audit ) throws FinderException
+    {
+        List<Bind> auditList = new ArrayList<>();
+        LdapConnection ld = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+
+        try
+        {
+            String filter = getBindsFilter( audit );
 
             //log.warn("filter=" + filter);
             ld = getLogConnection();
@@ -545,6 +628,102 @@ final class AuditDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #searchBinds(UserAudit)} but pages through every matching entry, in constant memory.
+     *
+     * @param audit
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void searchBinds( UserAudit audit, SearchHandler<Bind> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String auditRoot = Config.getInstance().getProperty( AUDIT_ROOT );
+
+        try
+        {
+            String filter = getBindsFilter( audit );
+            ld = getLogConnection();
+            searchResults = searchPaged( ld, auditRoot, SearchScope.ONELEVEL, filter, AUDIT_BIND_ATRS, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                if ( !handler.handle( getBindEntityFromLdapEntry( searchResults.getEntry(), sequence++ ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "LdapException in AuditDAO.searchBinds id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_BIND_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "CursorException in AuditDAO.searchBinds id=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.AUDT_BIND_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeLogConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param audit
+     * @return filter for {@link #searchBinds(UserAudit)}.
+     */
+    private String getBindsFilter( UserAudit audit )
+    {
+        String userRoot = getRootDn( audit.getContextId(), GlobalIds.USER_ROOT );
+
+        String filter;
+
+        if ( audit.getUserId() != null && audit.getUserId().length() > 0 )
+        {
+            filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")(" +
+                REQDN + "=" + SchemaConstants.UID_AT + "=" + audit.getUserId() + "," + userRoot + ")";
+
+            if ( audit.isFailedOnly() )
+            {
+                filter += "(" + REQRESULT + ">=" + 1 + ")";
+            }
+
+            if ( audit.getBeginDate() != null )
+            {
+                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+                filter += "(" + REQEND + ">=" + szTime + ")";
+            }
+
+            filter += ")";
+        }
+        else
+        {
+            filter = GlobalIds.FILTER_PREFIX + ACCESS_BIND_CLASS_NM + ")";
+
+            if ( audit.isFailedOnly() )
+            {
+                filter += "(" + REQRESULT + ">=" + 1 + ")";
+            }
+
+            if ( audit.getBeginDate() != null )
+            {
+                String szTime = TUtil.encodeGeneralizedTime( audit.getBeginDate() );
+                filter += "(" + REQEND + ">=" + szTime + ")";
+            }
+
+            filter += ")";
+        }
+
+        return filter;
+    }
+
+
     /**
      * @param audit
      * @return
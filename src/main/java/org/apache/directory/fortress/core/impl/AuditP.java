@@ -23,6 +23,7 @@ package org.apache.directory.fortress.core.impl;
 import java.util.List;
 
 import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.model.AuthZ;
 import org.apache.directory.fortress.core.model.Bind;
 import org.apache.directory.fortress.core.model.Mod;
@@ -68,6 +69,19 @@ final class AuditP
     }
 
 
+    /**
+     * Same as {@link #getAuthZs(UserAudit)} but passes the events to the handler one at a time, as they are paged in.
+     *
+     * @param uAudit  This entity is instantiated and populated before invocation.
+     * @param handler receives each AuthZ, may stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void getAuthZs( UserAudit uAudit, SearchHandler<AuthZ> handler ) throws SecurityException
+    {
+        aDao.getAllAuthZs( uAudit, handler );
+    }
+
+
     /**
      * This method returns a list of authorization events for a particular user {@link UserAudit#userId},
      * object {@link UserAudit#objName}, and given timestamp field {@link UserAudit#beginDate}.<BR>
@@ -83,6 +97,19 @@ final class AuditP
     }
 
 
+    /**
+     * Same as {@link #searchAuthZs(UserAudit)} but passes the events to the handler one at a time, as they are paged in.
+     *
+     * @param uAudit  This entity is instantiated and populated before invocation.
+     * @param handler receives each AuthZ, may stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void searchAuthZs( UserAudit uAudit, SearchHandler<AuthZ> handler ) throws SecurityException
+    {
+        aDao.searchAuthZs( uAudit, handler );
+    }
+
+
     /**
      * This method returns a list of authentication audit events for a particular user {@link UserAudit#userId},
      * and given timestamp field {@link UserAudit#beginDate}.<BR>
@@ -97,6 +124,19 @@ final class AuditP
     }
 
 
+    /**
+     * Same as {@link #searchBinds(UserAudit)} but passes the events to the handler one at a time, as they are paged in.
+     *
+     * @param uAudit  This entity is instantiated and populated before invocation.
+     * @param handler receives each Bind, may stop the search.
+     * @throws SecurityException if a runtime system error occurs.
+     */
+    void searchBinds( UserAudit uAudit, SearchHandler<Bind> handler ) throws SecurityException
+    {
+        aDao.searchBinds( uAudit, handler );
+    }
+
+
     /**
      * This method returns a list of sessions created for a given user {@link UserAudit#userId},
      * and timestamp {@link UserAudit#beginDate}.<BR>
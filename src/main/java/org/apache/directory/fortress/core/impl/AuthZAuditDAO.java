@@ -0,0 +1,186 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.entry.DefaultAttribute;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.message.CompareResponse;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.fortress.core.FinderException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.util.AuthZAuditEvent;
+import org.apache.directory.fortress.core.util.AuthZAuditSink;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.future.CompareFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class is the default {@link AuthZAuditSink} used by {@link AuthZAuditWriter}.  It performs the same ldap compare
+ * that {@link PermDAO#checkPermission} does when audit is synchronous, so that slapd's access log records the authorization decision
+ * as an 'auditCompare' entry.
+ * <p>
+ * Each batch is written over a single pooled connection.  The compares are pipelined, i.e. all requests of a batch are sent
+ * before the responses are collected.  The connection is borrowed from the log pool unless fortress config param
+ * {@code audit.async.pool=admin} is set.  If the log pool is used, its service account, {@code log.admin.user}, must be allowed to compare
+ * the permission entries and to assert the user's identity with the Proxy Authorization Control.
+ * <p>
+ * An event whose permission or user entry no longer exists is skipped, the rest of its batch is still written.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+class AuthZAuditDAO extends LdapDataProvider implements AuthZAuditSink
+{
+    private static final String CLS_NM = AuthZAuditDAO.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String AUDIT_POOL = "audit.async.pool";
+    private static final String ADMIN_POOL = "admin";
+    // The max time, in milliseconds, to wait on any one compare response:
+    private static final long RESPONSE_TIMEOUT = 30000;
+    private final boolean isAdminPool;
+
+
+    /**
+     * Package private constructor.
+     */
+    AuthZAuditDAO()
+    {
+        this( ADMIN_POOL.equalsIgnoreCase( Config.getInstance().getProperty( AUDIT_POOL ) ) );
+    }
+
+
+    /**
+     * Package private constructor.
+     *
+     * @param isAdminPool if true the connections are borrowed from the admin pool, else the log pool.
+     */
+    AuthZAuditDAO( boolean isAdminPool )
+    {
+        this.isAdminPool = isAdminPool;
+    }
+
+
+    /**
+     * Perform ldap compare operations to associate audit records with user authorization events.
+     *
+     * @param events contains one or more events in the order they occurred.
+     * @return number of compares the server responded to, those of missing entries and those timed out aren't counted.
+     * @throws FinderException in the event ldap system exception occurs.
+     */
+    @Override
+    public int write( List<AuthZAuditEvent> events ) throws FinderException
+    {
+        LdapConnection ld = null;
+        int written = 0;
+        try
+        {
+            ld = getConnection();
+            List<CompareFuture> futures = new ArrayList<>( events.size() );
+            for ( AuthZAuditEvent event : events )
+            {
+                DefaultAttribute attribute = new DefaultAttribute( GlobalIds.POP_NAME, event.getAttributeValue() );
+                try
+                {
+                    CompareFuture future = compareNodeAsync( ld, event.getPermDn(), event.getUserDn(), attribute );
+                    if ( future != null )
+                    {
+                        futures.add( future );
+                    }
+                    else
+                    {
+                        // The connection doesn't support pipelining, fall back to one at a time:
+                        compareNode( ld, event.getPermDn(), event.getUserDn(), attribute );
+                        written++;
+                    }
+                }
+                catch ( LdapNoSuchObjectException e )
+                {
+                    LOG.debug( "write skipped event, perm [{}] user [{}] not found", event.getPermDn(), event.getUserDn() );
+                }
+            }
+            // Now collect the responses.  Failed compares are expected for failed authorizations, only missing entries aren't written:
+            for ( CompareFuture future : futures )
+            {
+                CompareResponse response = future.get( RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS );
+                if ( response == null )
+                {
+                    LOG.warn( "write timed out waiting on compare response [{}]", future );
+                }
+                else if ( response.getLdapResult().getResultCode() != ResultCodeEnum.NO_SUCH_OBJECT )
+                {
+                    written++;
+                }
+            }
+        }
+        catch ( UnsupportedEncodingException ee )
+        {
+            String error = "write caught UnsupportedEncodingException=" + ee.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error, ee );
+        }
+        catch ( LdapException e )
+        {
+            String error = "write caught LdapException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error, e );
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+            String error = "write caught InterruptedException=" + ie.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error, ie );
+        }
+        finally
+        {
+            closeConnection( ld );
+        }
+        return written;
+    }
+
+
+    LdapConnection getConnection() throws LdapException
+    {
+        return isAdminPool ? getAdminConnection() : getLogConnection();
+    }
+
+
+    void closeConnection( LdapConnection ld )
+    {
+        if ( isAdminPool )
+        {
+            closeAdminConnection( ld );
+        }
+        else
+        {
+            closeLogConnection( ld );
+        }
+    }
+}
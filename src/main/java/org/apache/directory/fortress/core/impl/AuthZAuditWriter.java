@@ -0,0 +1,293 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.CfgException;
+import org.apache.directory.fortress.core.CfgRuntimeException;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.ldap.LdapCounters;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.util.AuthZAuditEvent;
+import org.apache.directory.fortress.core.util.AuthZAuditSink;
+import org.apache.directory.fortress.core.util.ClassUtil;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility moves the authorization audit write off of the checkAccess path.  Events are queued into a bounded
+ * buffer by {@link PermDAO} and drained, in batches, by a single background thread that passes them to the {@link AuthZAuditSink} in effect.
+ * <p>
+ * It is switched off by default and may be enabled with fortress config param: {@code enable.audit.async=true}.  Other params:
+ * <ul>
+ *   <li>{@code audit.async.queue.size} - max number of events held in the buffer, default 10000</li>
+ *   <li>{@code audit.async.batch.size} - max number of events passed to the sink at one time, default 100</li>
+ *   <li>{@code audit.async.backpressure} - what to do when the buffer is full, one of {@code drop} (default), {@code block} or {@code sample}</li>
+ *   <li>{@code audit.async.sample.rate} - when sampling, once the buffer is half full, keep one of every n events, default 10</li>
+ *   <li>{@code audit.async.sink} - class name of a custom {@link AuthZAuditSink}, default is {@link AuthZAuditDAO}</li>
+ * </ul>
+ * Queued, dropped and flushed events are tallied on {@link org.apache.directory.fortress.core.ldap.LdapCounters}.
+ * Events still in the buffer when the process exits are lost.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AuthZAuditWriter
+{
+    private static final String CLS_NM = AuthZAuditWriter.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String IS_AUDIT_ASYNC_ENABLED_PARM = "enable.audit.async";
+    private static final String AUDIT_QUEUE_SIZE = "audit.async.queue.size";
+    private static final String AUDIT_BATCH_SIZE = "audit.async.batch.size";
+    private static final String AUDIT_BACKPRESSURE = "audit.async.backpressure";
+    private static final String AUDIT_SAMPLE_RATE = "audit.async.sample.rate";
+    private static final String AUDIT_SINK = "audit.async.sink";
+    private static final String THREAD_NAME = "fortress-authz-audit";
+    // How long the writer thread waits on an empty buffer before checking again:
+    private static final long POLL_INTERVAL = 1000;
+
+    /**
+     * The action taken when the buffer is full.
+     */
+    enum Backpressure
+    {
+        /**
+         * Discard the new event.
+         */
+        DROP,
+        /**
+         * Wait for space to become available.  Adds the audit latency back onto checkAccess while the sink catches up.
+         */
+        BLOCK,
+        /**
+         * Keep a fraction of the new events once the buffer is half full, discard them when full.
+         */
+        SAMPLE
+    }
+
+    private boolean isEnabled;
+    private BlockingQueue<AuthZAuditEvent> queue;
+    private int capacity;
+    private int batchSize;
+    private Backpressure backpressure;
+    private int sampleRate;
+    private AuthZAuditSink sink;
+    private final AtomicLong sampleCtr = new AtomicLong( 0 );
+
+    private static volatile AuthZAuditWriter sINSTANCE = null;
+
+    static AuthZAuditWriter getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( AuthZAuditWriter.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new AuthZAuditWriter();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        Config cfg = Config.getInstance();
+        isEnabled = cfg.getBoolean( IS_AUDIT_ASYNC_ENABLED_PARM, false );
+        if ( !isEnabled )
+        {
+            return;
+        }
+
+        capacity = cfg.getInt( AUDIT_QUEUE_SIZE, 10000 );
+        batchSize = cfg.getInt( AUDIT_BATCH_SIZE, 100 );
+        sampleRate = Math.max( 1, cfg.getInt( AUDIT_SAMPLE_RATE, 10 ) );
+        backpressure = Backpressure.valueOf( cfg.getProperty( AUDIT_BACKPRESSURE, Backpressure.DROP.name() )
+            .toUpperCase() );
+        queue = new ArrayBlockingQueue<>( capacity );
+
+        String sinkClassName = cfg.getProperty( AUDIT_SINK );
+        if ( StringUtils.isEmpty( sinkClassName ) )
+        {
+            sink = new AuthZAuditDAO();
+        }
+        else
+        {
+            try
+            {
+                sink = ( AuthZAuditSink ) ClassUtil.createInstance( sinkClassName );
+            }
+            catch ( CfgException ce )
+            {
+                throw new CfgRuntimeException( ce.getErrorId(), ce.getMessage(), ce );
+            }
+        }
+
+        Thread writer = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        }, THREAD_NAME );
+        writer.setDaemon( true );
+        writer.start();
+        LOG.info( "init async audit enabled, queue size [{}], batch size [{}], backpressure [{}], sink [{}]",
+            capacity, batchSize, backpressure, sink.getClass().getName() );
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private AuthZAuditWriter()
+    {
+        init();
+    }
+
+
+    /**
+     * Return true if asynchronous audit has been switched on in fortress config.
+     *
+     * @return boolean value of {@code enable.audit.async}.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Queue an event for the writer thread.  This method does not block unless backpressure is set to {@code block} and the buffer is full.
+     *
+     * @param event contains the outcome of an authorization check.
+     * @return true if the event was queued, false if it was dropped.
+     */
+    boolean add( AuthZAuditEvent event )
+    {
+        LdapCounters counters = LdapDataProvider.getLdapCounters();
+        boolean isQueued;
+        switch ( backpressure )
+        {
+            case BLOCK:
+                try
+                {
+                    queue.put( event );
+                    isQueued = true;
+                }
+                catch ( InterruptedException ie )
+                {
+                    Thread.currentThread().interrupt();
+                    isQueued = false;
+                }
+                break;
+
+            case SAMPLE:
+                // Once the buffer is half full, only keep one of every 'sampleRate' events:
+                if ( queue.size() >= capacity / 2 && sampleCtr.incrementAndGet() % sampleRate != 0 )
+                {
+                    isQueued = false;
+                }
+                else
+                {
+                    isQueued = queue.offer( event );
+                }
+                break;
+
+            default:
+                isQueued = queue.offer( event );
+                break;
+        }
+
+        if ( isQueued )
+        {
+            counters.incrementAuditQueued();
+        }
+        else
+        {
+            counters.incrementAuditDropped();
+        }
+        return isQueued;
+    }
+
+
+    /**
+     * Run by the writer thread.  Waits on the buffer and passes its contents to the sink in batches.
+     */
+    private void drain()
+    {
+        List<AuthZAuditEvent> batch = new ArrayList<>( batchSize );
+        LdapCounters counters = LdapDataProvider.getLdapCounters();
+        while ( !Thread.currentThread().isInterrupted() )
+        {
+            try
+            {
+                AuthZAuditEvent event = queue.poll( POLL_INTERVAL, TimeUnit.MILLISECONDS );
+                if ( event == null )
+                {
+                    continue;
+                }
+                batch.add( event );
+                queue.drainTo( batch, batchSize - 1 );
+                int written = sink.write( batch );
+                counters.incrementAuditFlushed( written );
+                if ( written < batch.size() )
+                {
+                    counters.incrementAuditDropped( batch.size() - written );
+                }
+            }
+            catch ( InterruptedException ie )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( SecurityException se )
+            {
+                LOG.warn( "drain dropped [{}] events, caught SecurityException={}", batch.size(), se.getMessage() );
+                counters.incrementAuditDropped( batch.size() );
+            }
+            catch ( RuntimeException re )
+            {
+                // Don't let the writer thread die:
+                LOG.warn( "drain dropped [{}] events, caught RuntimeException={}", batch.size(), re.getMessage(), re );
+                counters.incrementAuditDropped( batch.size() );
+            }
+            finally
+            {
+                batch.clear();
+            }
+        }
+        LOG.info( "drain writer thread exiting" );
+    }
+}
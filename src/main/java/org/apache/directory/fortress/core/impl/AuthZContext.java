@@ -0,0 +1,471 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The activated authorization context of a {@link Session}, i.e. the inherited set of its activated roles and of its
+ * activated admin roles.  It is computed by createSession and reused by {@link PermDAO} for checkAccess and
+ * sessionPermissions, so the hierarchies are not walked on every call.
+ * <p>
+ * Each inherited set is tagged with the version of the {@link HierClosure} it was computed from and with the names of the
+ * activated roles it was computed for.  It is recomputed when either no longer matches, i.e. after the hierarchy has
+ * changed, a role was added or dropped, or a role was removed from the session by its temporal constraints.  Sessions that
+ * activate the same roles share the same interned set.
+ * <p>
+ * The context is held on the session as an opaque token, {@link Session#getAuthzToken()}, that survives JAXB and java
+ * serialization so the context can be restored when the session comes back, e.g. from a REST client.  Within this process
+ * the decoded contexts are kept by token, so the session model doesn't carry any of the internals.  The token is signed with a key that is private to this process, tokens
+ * that fail verification, or were issued by another process, are ignored and the context is recomputed.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class AuthZContext
+{
+    private static final String CLS_NM = AuthZContext.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String TOKEN_PREFIX = "1.";
+    private static final SecretKeySpec KEY;
+    // Inherited sets shared by the sessions that activate the same roles, under the same hierarchy version:
+    private static final int MAX_INTERNED = 4096;
+    private static final ConcurrentMap<String, RoleSet> INTERNED = new ConcurrentHashMap<>();
+    // Contexts by the token they were encoded to, or decoded from, so a token is verified once:
+    private static final ConcurrentMap<String, AuthZContext> DECODED = new ConcurrentHashMap<>();
+
+    static
+    {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes( key );
+        KEY = new SecretKeySpec( key, MAC_ALGORITHM );
+    }
+
+    private final String contextId;
+    private final RoleSet roles;
+    private final RoleSet adminRoles;
+
+
+    private AuthZContext( String contextId, RoleSet roles, RoleSet adminRoles )
+    {
+        this.contextId = contextId;
+        this.roles = roles;
+        this.adminRoles = adminRoles;
+    }
+
+
+    /**
+     * Compute the context of a session and attach it.  Called when the session is created and after a role has been added or
+     * dropped, so the token returned to the caller is current.
+     *
+     * @param session   contains the activated roles and admin roles.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    static void attach( Session session, String contextId )
+    {
+        attach( session, contextId, getClosure( session.getRoles(), contextId, false ),
+            getClosure( session.getAdminRoles(), contextId, true ) );
+    }
+
+
+    /**
+     * Same as {@link #attach(Session, String)} but with the hierarchies supplied by the caller.
+     */
+    static void attach( Session session, String contextId, HierClosure roleClosure, HierClosure adminRoleClosure )
+    {
+        RoleSet roles = RoleSet.build( session.getRoles(), roleClosure, false );
+        RoleSet adminRoles = RoleSet.build( session.getAdminRoles(), adminRoleClosure, true );
+        attach( session, new AuthZContext( contextId, roles, adminRoles ) );
+    }
+
+
+    /**
+     * Return the context attached to a session, decoding its token the first time it is seen by this process, e.g. after the
+     * session has been marshalled or serialized.
+     *
+     * @param session contains the token.
+     * @return the context or null if there is none, or the token could not be verified.
+     */
+    static AuthZContext get( Session session )
+    {
+        String token = session.getAuthzToken();
+        if ( token == null )
+        {
+            return null;
+        }
+        AuthZContext context = DECODED.get( token );
+        if ( context == null )
+        {
+            context = decode( token );
+            if ( context != null )
+            {
+                cache( token, context );
+            }
+        }
+        return context;
+    }
+
+
+    /**
+     * @return the contextId the inherited sets were computed for.
+     */
+    String getContextId()
+    {
+        return contextId;
+    }
+
+
+    /**
+     * @param isAdmin if true return the admin roles.
+     * @return unmodifiable, case insensitive set of inherited role names.
+     */
+    Set<String> getInherited( boolean isAdmin )
+    {
+        return isAdmin ? adminRoles.inherited : roles.inherited;
+    }
+
+
+    /**
+     * Return the inherited set of the session's activated roles.
+     *
+     * @param session   contains the activated roles.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return unmodifiable, case insensitive set of role names.
+     */
+    static Set<String> getInheritedRoles( Session session, String contextId )
+    {
+        return getRoleSet( session, contextId, false ).inherited;
+    }
+
+
+    /**
+     * Return the inherited set of the session's activated admin roles.
+     *
+     * @param session   contains the activated admin roles.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return unmodifiable, case insensitive set of admin role names.
+     */
+    static Set<String> getInheritedAdminRoles( Session session, String contextId )
+    {
+        return getRoleSet( session, contextId, true ).inherited;
+    }
+
+
+    private static RoleSet getRoleSet( Session session, String contextId, boolean isAdmin )
+    {
+        List<? extends UserRole> uRoles = isAdmin ? session.getAdminRoles() : session.getRoles();
+        HierClosure closure = getClosure( uRoles, contextId, isAdmin );
+        AuthZContext context = get( session );
+        if ( context != null && StringUtils.equals( context.contextId, contextId ) )
+        {
+            RoleSet current = isAdmin ? context.adminRoles : context.roles;
+            if ( current.isCurrent( uRoles, closure ) )
+            {
+                return current;
+            }
+        }
+
+        // Missing or stale, recompute the part that was asked for and keep the other one:
+        RoleSet result = RoleSet.build( uRoles, closure, isAdmin );
+        RoleSet other;
+        if ( context != null && StringUtils.equals( context.contextId, contextId ) )
+        {
+            other = isAdmin ? context.roles : context.adminRoles;
+        }
+        else
+        {
+            List<? extends UserRole> otherRoles = isAdmin ? session.getRoles() : session.getAdminRoles();
+            other = RoleSet.build( otherRoles, getClosure( otherRoles, contextId, !isAdmin ), !isAdmin );
+        }
+        attach( session, isAdmin ? new AuthZContext( contextId, other, result ) : new AuthZContext( contextId, result,
+            other ) );
+        return result;
+    }
+
+
+    /**
+     * The hierarchy is only needed when there are roles to walk.
+     */
+    private static HierClosure getClosure( List<? extends UserRole> uRoles, String contextId, boolean isAdmin )
+    {
+        if ( CollectionUtils.isEmpty( uRoles ) )
+        {
+            return null;
+        }
+        return isAdmin ? AdminRoleUtil.getClosure( contextId ) : RoleUtil.getInstance().getClosure( contextId );
+    }
+
+
+    private static void attach( Session session, AuthZContext context )
+    {
+        String token = context.encode();
+        session.setAuthzToken( token );
+        cache( token, context );
+    }
+
+
+    private static void cache( String token, AuthZContext context )
+    {
+        if ( DECODED.size() >= MAX_INTERNED )
+        {
+            // The tokens of sessions that are gone are never looked up again, start over rather than track them:
+            DECODED.clear();
+        }
+        DECODED.put( token, context );
+    }
+
+
+    private String encode()
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream( bytes );
+            out.writeUTF( StringUtils.defaultString( contextId ) );
+            out.writeBoolean( contextId != null );
+            roles.write( out );
+            adminRoles.write( out );
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return TOKEN_PREFIX + encoder.encodeToString( payload ) + "." + encoder.encodeToString( sign( payload ) );
+        }
+        catch ( IOException | GeneralSecurityException e )
+        {
+            // The token is an optimization, the context will be recomputed if the session comes back without it:
+            LOG.warn( "encode caught {}", e.toString() );
+            return null;
+        }
+    }
+
+
+    /**
+     * @return the context or null if the token was not issued by this process or can't be read.
+     */
+    private static AuthZContext decode( String token )
+    {
+        if ( !token.startsWith( TOKEN_PREFIX ) )
+        {
+            return null;
+        }
+        int dot = token.indexOf( '.', TOKEN_PREFIX.length() );
+        if ( dot < 0 )
+        {
+            return null;
+        }
+        try
+        {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode( token.substring( TOKEN_PREFIX.length(), dot ) );
+            byte[] signature = decoder.decode( token.substring( dot + 1 ) );
+            if ( !MessageDigest.isEqual( signature, sign( payload ) ) )
+            {
+                LOG.debug( "decode ignored token with invalid signature" );
+                return null;
+            }
+            DataInputStream in = new DataInputStream( new ByteArrayInputStream( payload ) );
+            String contextId = in.readUTF();
+            if ( !in.readBoolean() )
+            {
+                contextId = null;
+            }
+            RoleSet roles = RoleSet.read( in, false );
+            RoleSet adminRoles = RoleSet.read( in, true );
+            return new AuthZContext( contextId, roles, adminRoles );
+        }
+        catch ( IllegalArgumentException | IOException | GeneralSecurityException e )
+        {
+            LOG.debug( "decode ignored token, caught {}", e.toString() );
+            return null;
+        }
+    }
+
+
+    private static byte[] sign( byte[] payload ) throws GeneralSecurityException
+    {
+        Mac mac = Mac.getInstance( MAC_ALGORITHM );
+        mac.init( KEY );
+        return mac.doFinal( payload );
+    }
+
+
+    /**
+     * The inherited set of one kind of role, along with what it was computed from.
+     */
+    private static final class RoleSet
+    {
+        private static final String[] NONE = new String[0];
+        private static final RoleSet EMPTY = new RoleSet( 0, NONE, Collections.<String>emptySet() );
+
+        private final long version;
+        private final String[] activated;
+        private final Set<String> inherited;
+
+
+        private RoleSet( long version, String[] activated, Set<String> inherited )
+        {
+            this.version = version;
+            this.activated = activated;
+            this.inherited = inherited;
+        }
+
+
+        private static RoleSet build( List<? extends UserRole> uRoles, HierClosure closure, boolean isAdmin )
+        {
+            if ( CollectionUtils.isEmpty( uRoles ) )
+            {
+                return EMPTY;
+            }
+            String[] activated = new String[uRoles.size()];
+            StringBuilder key = new StringBuilder( isAdmin ? "A" : "R" ).append( closure.getVersion() );
+            for ( int i = 0; i < activated.length; i++ )
+            {
+                activated[i] = uRoles.get( i ).getName();
+                key.append( ':' ).append( activated[i].toUpperCase() );
+            }
+            String internKey = key.toString();
+            RoleSet interned = INTERNED.get( internKey );
+            if ( interned != null )
+            {
+                return interned;
+            }
+
+            // create Set with case insensitive comparator:
+            Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+            for ( String name : activated )
+            {
+                iRoles.add( name );
+                closure.addAscendants( name, iRoles );
+            }
+            RoleSet result = new RoleSet( closure.getVersion(), activated, Collections.unmodifiableSet( iRoles ) );
+            if ( INTERNED.size() >= MAX_INTERNED )
+            {
+                // Old versions are never looked up again, start over rather than track them:
+                INTERNED.clear();
+            }
+            RoleSet existing = INTERNED.putIfAbsent( internKey, result );
+            return existing != null ? existing : result;
+        }
+
+
+        /**
+         * @return true if this set was computed from the given roles, in the same order, and the same hierarchy.
+         */
+        private boolean isCurrent( List<? extends UserRole> uRoles, HierClosure closure )
+        {
+            int size = uRoles != null ? uRoles.size() : 0;
+            if ( size != activated.length )
+            {
+                return false;
+            }
+            if ( size == 0 )
+            {
+                return true;
+            }
+            if ( closure.getVersion() != version )
+            {
+                return false;
+            }
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( !activated[i].equalsIgnoreCase( uRoles.get( i ).getName() ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private void write( DataOutputStream out ) throws IOException
+        {
+            out.writeLong( version );
+            out.writeInt( activated.length );
+            for ( String name : activated )
+            {
+                out.writeUTF( name );
+            }
+            out.writeInt( inherited.size() );
+            for ( String name : inherited )
+            {
+                out.writeUTF( name );
+            }
+        }
+
+
+        private static RoleSet read( DataInputStream in, boolean isAdmin ) throws IOException
+        {
+            long version = in.readLong();
+            String[] activated = new String[in.readInt()];
+            if ( activated.length == 0 )
+            {
+                in.readInt();
+                return EMPTY;
+            }
+            StringBuilder key = new StringBuilder( isAdmin ? "A" : "R" ).append( version );
+            for ( int i = 0; i < activated.length; i++ )
+            {
+                activated[i] = in.readUTF();
+                key.append( ':' ).append( activated[i].toUpperCase() );
+            }
+            int size = in.readInt();
+            RoleSet interned = INTERNED.get( key.toString() );
+            if ( interned != null )
+            {
+                return interned;
+            }
+            Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+            for ( int i = 0; i < size; i++ )
+            {
+                iRoles.add( in.readUTF() );
+            }
+            return new RoleSet( version, activated, Collections.unmodifiableSet( iRoles ) );
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.fortress.core.BulkResult;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.ldap.LdapConnectionProvider;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Runs the steps of the bulk provisioning methods, e.g. {@link AdminMgrImpl#addUsers(List)}, over a bounded number of
+ * threads.  Each thread takes the next entity of the batch as it finishes the previous one, and each ldap operation borrows
+ * its own connection from the admin pool, so the writes of a batch are spread over up to {@code bulk.threads} connections.
+ * The number of threads is never more than the size of the admin pool.  The calling thread is one of them.
+ * <p>
+ * The steps of one call run concurrently, so the caller must only put entities in the same call that don't depend on one
+ * another, e.g. roles, then users, then their assignments, each in their own call.  A step that fails is recorded against
+ * its entity and doesn't stop the others.
+ * <p>
+ * The delete cascades, e.g. {@link AdminMgrImpl#deleteRole(org.apache.directory.fortress.core.model.Role)}, remove the
+ * dependents of an entity the same way, in batches, see {@link #cascade(String, List, Step)}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class BulkLoader
+{
+    private static final String CLS_NM = BulkLoader.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String BULK_THREADS = "bulk.threads";
+    private static final int DEFAULT_THREADS = 4;
+    private static final String CASCADE_BATCH_SIZE = "cascade.batch.size";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String THREAD_NAME = "fortress-bulk-";
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory()
+    {
+        @Override
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, THREAD_NAME + THREAD_COUNT.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    };
+
+
+    /**
+     * Processes one entity of a batch.
+     *
+     * @param <T> type of entity.
+     */
+    interface Step<T>
+    {
+        /**
+         * @param entity to process.
+         * @throws SecurityException recorded as the failure of the entity.
+         */
+        void apply( T entity ) throws SecurityException;
+    }
+
+
+    /**
+     * Reads each of the entities referred to by a batch once, by name, and remembers those that couldn't be read, so the
+     * validation of a batch costs one read per distinct entity rather than one per item.  Names are case insensitive.
+     * <p>
+     * This class is not thread safe.
+     *
+     * @param <T> type of entity.
+     */
+    abstract static class Reader<T>
+    {
+        private final Map<String, T> found = new HashMap<>();
+        private final Map<String, SecurityException> failed = new HashMap<>();
+
+
+        /**
+         * @param name of the entity.
+         * @return the entity, read on first use.
+         * @throws SecurityException the exception thrown when the entity was read.
+         */
+        T get( String name ) throws SecurityException
+        {
+            String key = name.toUpperCase();
+            T entity = found.get( key );
+            if ( entity == null )
+            {
+                SecurityException se = failed.get( key );
+                if ( se != null )
+                {
+                    throw se;
+                }
+                try
+                {
+                    entity = read( name );
+                }
+                catch ( SecurityException e )
+                {
+                    failed.put( key, e );
+                    throw e;
+                }
+                found.put( key, entity );
+            }
+            return entity;
+        }
+
+
+        /**
+         * @param name of the entity.
+         * @return the entity, from the directory.
+         * @throws SecurityException if it wasn't found or on system error.
+         */
+        abstract T read( String name ) throws SecurityException;
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private BulkLoader()
+    {
+    }
+
+
+    /**
+     * Apply the step to each of the entities in the batch given by their positions, and record those that fail in the
+     * result.
+     *
+     * @param indexes  positions in the batch of the entities to process.
+     * @param entities the batch.
+     * @param step     applied to each entity.
+     * @param result   receives the failures, by position in the batch.
+     * @param <T>      type of entity.
+     */
+    static <T> void run( List<Integer> indexes, final List<T> entities, final Step<T> step, BulkResult<T> result )
+    {
+        SecurityException[] failures = run( indexes, new Step<Integer>()
+        {
+            @Override
+            public void apply( Integer index ) throws SecurityException
+            {
+                step.apply( entities.get( index ) );
+            }
+        } );
+        for ( int i = 0; i < failures.length; i++ )
+        {
+            if ( failures[i] != null )
+            {
+                result.setFailure( indexes.get( i ), failures[i] );
+            }
+        }
+    }
+
+
+    /**
+     * Apply the step to each of the entities and wait for all of them to be processed.  If the calling thread is interrupted
+     * the entities that haven't been started are failed with {@link GlobalErrIds#FT_BULK_INTERRUPTED}, and the interrupt
+     * status is kept.  A runtime exception thrown by a step stops the batch and is thrown to the caller.
+     *
+     * @param entities to process.
+     * @param step     applied to each entity.
+     * @param <T>      type of entity.
+     * @return the failure of each entity, at its position in the list, null for those that succeeded.
+     */
+    static <T> SecurityException[] run( final List<T> entities, final Step<T> step )
+    {
+        // The threads read each other's writes, and the caller reads theirs, even when reads go to the replicas:
+        final LdapConnectionProvider provider = LdapConnectionProvider.getInstance();
+        final long callerWrite = provider.getLastWrite();
+        final AtomicLong lastWrite = new AtomicLong( callerWrite );
+        SecurityException[] failures = run( entities, new Step<T>()
+        {
+            @Override
+            public void apply( T entity ) throws SecurityException
+            {
+                provider.joinLastWrite( Math.max( callerWrite, lastWrite.get() ) );
+                try
+                {
+                    step.apply( entity );
+                }
+                finally
+                {
+                    long write = provider.getLastWrite();
+                    long last = lastWrite.get();
+                    while ( write > last && !lastWrite.compareAndSet( last, write ) )
+                    {
+                        last = lastWrite.get();
+                    }
+                }
+            }
+        }, getThreads() );
+        provider.joinLastWrite( lastWrite.get() );
+        return failures;
+    }
+
+
+    /**
+     * Apply the step to each of the entities over the given number of threads, see {@link #run(List, Step)}.
+     *
+     * @param entities to process.
+     * @param step     applied to each entity.
+     * @param maxThreads most threads to use, including the calling thread.
+     * @param <T>      type of entity.
+     * @return the failure of each entity, at its position in the list, null for those that succeeded.
+     */
+    static <T> SecurityException[] run( final List<T> entities, final Step<T> step, int maxThreads )
+    {
+        final int size = entities.size();
+        final SecurityException[] failures = new SecurityException[size];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Runnable worker = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while ( !cancelled.get() && !Thread.currentThread().isInterrupted() )
+                {
+                    int index = next.getAndIncrement();
+                    if ( index >= size )
+                    {
+                        return;
+                    }
+                    try
+                    {
+                        step.apply( entities.get( index ) );
+                    }
+                    catch ( SecurityException se )
+                    {
+                        failures[index] = se;
+                    }
+                }
+            }
+        };
+
+        int threads = Math.min( maxThreads, size );
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = null;
+        Throwable error = null;
+        boolean interrupted = false;
+        try
+        {
+            if ( threads > 1 )
+            {
+                executor = Executors.newFixedThreadPool( threads - 1, THREAD_FACTORY );
+                for ( int i = 1; i < threads; i++ )
+                {
+                    futures.add( executor.submit( worker ) );
+                }
+            }
+            worker.run();
+            interrupted = Thread.interrupted();
+        }
+        catch ( RuntimeException | Error e )
+        {
+            error = e;
+        }
+        finally
+        {
+            if ( interrupted || error != null )
+            {
+                cancelled.set( true );
+            }
+            for ( Future<?> future : futures )
+            {
+                // Wait for the steps that have been started to finish, regardless of interrupts:
+                while ( true )
+                {
+                    try
+                    {
+                        future.get();
+                        break;
+                    }
+                    catch ( InterruptedException ie )
+                    {
+                        interrupted = true;
+                        cancelled.set( true );
+                    }
+                    catch ( ExecutionException ee )
+                    {
+                        cancelled.set( true );
+                        if ( error == null )
+                        {
+                            error = ee.getCause();
+                        }
+                        break;
+                    }
+                }
+            }
+            if ( executor != null )
+            {
+                executor.shutdown();
+            }
+        }
+
+        if ( error instanceof RuntimeException )
+        {
+            throw ( RuntimeException ) error;
+        }
+        else if ( error instanceof Error )
+        {
+            throw ( Error ) error;
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+            int started = Math.min( next.get(), size );
+            LOG.warn( "run interrupted, [{}] of [{}] entities were not processed", size - started, size );
+            for ( int i = started; i < size; i++ )
+            {
+                failures[i] = new SecurityException( GlobalErrIds.FT_BULK_INTERRUPTED,
+                    CLS_NM + ".run interrupted before entity [" + i + "] was processed" );
+            }
+        }
+        return failures;
+    }
+
+
+    /**
+     * Apply the step to each of the entities of a delete cascade, e.g. the users assigned a role that is being deleted, in
+     * batches of {@code cascade.batch.size}, and log the progress after each batch.  Every entity is tried and those that
+     * fail are logged.  The caller removes the parent entity last, so a cascade that failed part way is resumed by repeating
+     * the delete, which finds only the dependents that are left.
+     *
+     * @param label    names the cascade in the log and exception, e.g. "deleteRole role [Teller] deassign".
+     * @param entities to process.
+     * @param step     applied to each entity.
+     * @param <T>      type of entity.
+     * @throws SecurityException with {@link GlobalErrIds#FT_CASCADE_INCOMPLETE}, caused by the first failure if there was
+     * one, if any of the entities failed or was skipped because the thread was interrupted.  The parent must not be removed.
+     */
+    static <T> void cascade( String label, List<T> entities, Step<T> step ) throws SecurityException
+    {
+        int size = entities.size();
+        int batchSize = Math.max( 1, Config.getInstance().getInt( CASCADE_BATCH_SIZE, DEFAULT_BATCH_SIZE ) );
+        int failed = 0;
+        SecurityException first = null;
+        for ( int start = 0; start < size; start += batchSize )
+        {
+            int end = Math.min( start + batchSize, size );
+            for ( SecurityException se : run( entities.subList( start, end ), step ) )
+            {
+                if ( se != null )
+                {
+                    failed++;
+                    if ( first == null )
+                    {
+                        first = se;
+                    }
+                    LOG.warn( "cascade {} caught SecurityException={}", label, se );
+                }
+            }
+            if ( size > batchSize )
+            {
+                LOG.info( "cascade {} processed [{}] of [{}], [{}] failed", label, end, size, failed );
+            }
+            if ( Thread.currentThread().isInterrupted() )
+            {
+                failed += size - end;
+                break;
+            }
+        }
+        if ( failed > 0 )
+        {
+            String error = CLS_NM + ".cascade " + label + " failed for [" + failed + "] of [" + size
+                + "] entities, repeat the delete to resume";
+            if ( first == null )
+            {
+                // Interrupted between batches, the entities that were tried all succeeded:
+                throw new SecurityException( GlobalErrIds.FT_CASCADE_INCOMPLETE, error );
+            }
+            throw new SecurityException( GlobalErrIds.FT_CASCADE_INCOMPLETE, error, first );
+        }
+    }
+
+
+    /**
+     * @return number of threads, the value of {@code bulk.threads} limited by the size of the admin pool.
+     */
+    private static int getThreads()
+    {
+        int threads = Config.getInstance().getInt( BULK_THREADS, DEFAULT_THREADS );
+        int maxConn = Config.getInstance().getInt( GlobalIds.LDAP_ADMIN_POOL_MAX, 10 );
+        return Math.max( 1, Math.min( threads, maxConn ) );
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -151,6 +152,28 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Permission, Boolean> checkAccess(Session session, List<Permission> perms)
+        throws SecurityException
+    {
+        String methodName =  "checkAccess";
+        VUtil.assertNotNull(perms, GlobalErrIds.PERM_NULL, methodName);
+        for (Permission perm : perms)
+        {
+            assertContext(CLS_NM, methodName, perm, GlobalErrIds.PERM_NULL);
+            VUtil.assertNotNullOrEmpty(perm.getOpName(), GlobalErrIds.PERM_OPERATION_NULL, methodName);
+            VUtil.assertNotNullOrEmpty(perm.getObjName(), GlobalErrIds.PERM_OBJECT_NULL, methodName);
+            // This flag set will check administrative permission data set.
+            perm.setAdmin(true);
+        }
+        assertContext(CLS_NM, methodName, session, GlobalErrIds.USER_SESS_NULL);
+        return super.checkAccess(session, perms);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -183,6 +206,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
 
         // now activate the role to the session:
         session.setRole(uRoles.get(indx));
+        AuthZContext.attach(session, this.contextId);
     }
 
     /**
@@ -208,6 +232,7 @@ public class DelAccessMgrImpl extends AccessMgrImpl implements DelAccessMgr, Ser
             String info = methodName + " Admin Role [" + role.getName() + "] User [" + session.getUserId() + "], not previously activated";
             throw new SecurityException(GlobalErrIds.ARLE_NOT_ACTIVE, info);
         }
+        AuthZContext.attach(session, this.contextId);
     }
 
     /**
@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
 import org.apache.directory.fortress.core.DelReviewMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.OrgUnit;
@@ -130,6 +131,22 @@ public class DelReviewMgrImpl extends Manageable implements DelReviewMgr, Serial
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation
+    public void assignedUsers(AdminRole role, SearchHandler<User> handler)
+        throws SecurityException
+    {
+        String methodName = "assignedUsers";
+        assertContext(CLS_NM, methodName, role, GlobalErrIds.ARLE_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.ARLE_NULL, CLS_NM + "." + methodName);
+        checkAccess(CLS_NM, methodName);
+        userP.getAssignedUsers(role, handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
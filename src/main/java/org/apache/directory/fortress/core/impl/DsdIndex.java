@@ -0,0 +1,158 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.directory.fortress.core.model.SDSet;
+
+
+/**
+ * Maps the role names of one tenant to the Dynamic Separation of Duty sets that contain them.  It is built from every DSD
+ * of the tenant, so a role that isn't mapped isn't a member of any DSD, and lookups never need to go to the directory.
+ * Role names are matched case insensitively.
+ * <p>
+ * The DSDs are also held compiled against the tenant's role hierarchy, see {@link SdSetMasks}.  They are compiled on first
+ * use and again whenever the hierarchy changes.
+ * <p>
+ * This class is thread safe.  The DSDs it contains must not be modified.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class DsdIndex
+{
+    private final Map<String, Set<SDSet>> dsdsByRole;
+    private final List<SDSet> dsds;
+    private volatile SdSetMasks masks;
+
+
+    private DsdIndex( Map<String, Set<SDSet>> dsdsByRole, List<SDSet> dsds )
+    {
+        this.dsdsByRole = dsdsByRole;
+        this.dsds = dsds;
+    }
+
+
+    /**
+     * Build the index.
+     *
+     * @param dsds all of the DSDs of a tenant.
+     * @return index of the DSDs by member role.
+     */
+    static DsdIndex build( List<SDSet> dsds )
+    {
+        Map<String, Set<SDSet>> dsdsByRole = new HashMap<>();
+        if ( dsds != null )
+        {
+            for ( SDSet dsd : dsds )
+            {
+                if ( dsd.getMembers() == null )
+                {
+                    continue;
+                }
+                for ( String member : dsd.getMembers() )
+                {
+                    String key = getKey( member );
+                    Set<SDSet> roleDsds = dsdsByRole.get( key );
+                    if ( roleDsds == null )
+                    {
+                        roleDsds = new HashSet<>();
+                        dsdsByRole.put( key, roleDsds );
+                    }
+                    roleDsds.add( dsd );
+                }
+            }
+        }
+        for ( Map.Entry<String, Set<SDSet>> entry : dsdsByRole.entrySet() )
+        {
+            entry.setValue( Collections.unmodifiableSet( entry.getValue() ) );
+        }
+        return new DsdIndex( dsdsByRole, dsds != null ? new ArrayList<>( dsds ) : Collections.<SDSet>emptyList() );
+    }
+
+
+    /**
+     * @param roleName name of a role.
+     * @return unmodifiable set of the DSDs that contain the role, empty if there are none.
+     */
+    Set<SDSet> get( String roleName )
+    {
+        Set<SDSet> dsds = roleName != null ? dsdsByRole.get( getKey( roleName ) ) : null;
+        return dsds != null ? dsds : Collections.<SDSet>emptySet();
+    }
+
+
+    /**
+     * @param roleNames names of roles.
+     * @return set of the DSDs that contain at least one of the roles, empty if there are none.
+     */
+    Set<SDSet> get( Collection<String> roleNames )
+    {
+        Set<SDSet> dsds = new HashSet<>();
+        for ( String roleName : roleNames )
+        {
+            dsds.addAll( get( roleName ) );
+        }
+        return dsds;
+    }
+
+
+    /**
+     * Return the DSDs compiled against the role hierarchy.  They are compiled again if the hierarchy has changed since.
+     *
+     * @param closure of the tenant's role hierarchy.
+     * @return every DSD of the tenant, compiled.
+     */
+    SdSetMasks getMasks( HierClosure closure )
+    {
+        SdSetMasks current = masks;
+        if ( current == null || current.getClosureVersion() != closure.getVersion() )
+        {
+            // Racing threads may each compile, they produce the same result:
+            current = SdSetMasks.build( dsds, closure );
+            masks = current;
+        }
+        return current;
+    }
+
+
+    /**
+     * @return number of DSDs in the index.
+     */
+    int size()
+    {
+        return dsds.size();
+    }
+
+
+    private static String getKey( String roleName )
+    {
+        return roleName.toUpperCase( Locale.ROOT );
+    }
+}
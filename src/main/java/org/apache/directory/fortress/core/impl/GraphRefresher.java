@@ -0,0 +1,383 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.model.Graphable;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility reloads the hierarchy graphs held by {@link RoleUtil}, {@link AdminRoleUtil}, {@link UsoUtil} and
+ * {@link PsoUtil} ahead of their expiry, so that callers don't wait on a reload.
+ * <p>
+ * Without it, a graph's cache entry expires per its {@code timeToLiveSeconds} in ehcache.xml and the next caller reloads it,
+ * with a subtree search, while every other caller for the tenant waits on the lock of {@code loadGraph}.  When
+ * {@code graph.refresh.interval} is set, a background thread instead rebuilds each graph that has been loaded, every
+ * interval milliseconds, and swaps it into the cache.  The interval should be shorter than the caches' time to live.
+ * <ul>
+ *   <li>Readers are never blocked by a refresh, they see the last graph that was loaded.  If a cache entry expires or is
+ *   evicted anyway, it's put back from here rather than reloaded.</li>
+ *   <li>A refresh that fails keeps the last graph.</li>
+ *   <li>A graph that hasn't been read during an interval is no longer refreshed, or held here, so its cache entry expires, or
+ *   is evicted, as usual.  The next caller then loads it on a miss, and it's refreshed again from then on.</li>
+ *   <li>Updates made by this process, see {@link #getLock(String)}, take precedence.  A refresh that was read while one was
+ *   made is discarded, as it may have been read before the update was written, and the next refresh picks both up.</li>
+ * </ul>
+ * The refresh is switched off by default, in which case this class does nothing and the graphs are loaded on a miss as before.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class GraphRefresher
+{
+    private static final String CLS_NM = GraphRefresher.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String GRAPH_REFRESH_INTERVAL = "graph.refresh.interval";
+    private final ConcurrentMap<String, Holder> holders = new ConcurrentHashMap<>();
+    private boolean isEnabled;
+
+    private static volatile GraphRefresher sINSTANCE = null;
+
+    static GraphRefresher getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( GraphRefresher.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new GraphRefresher();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        long interval = Config.getInstance().getInt( GRAPH_REFRESH_INTERVAL, 0 );
+        isEnabled = interval > 0;
+        if ( isEnabled )
+        {
+            startRefresher( interval );
+            LOG.info( "init graph refresh enabled, interval [{}]", interval );
+        }
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private GraphRefresher()
+    {
+        init();
+    }
+
+
+    /**
+     * Reads the nodes of one type of hierarchy from ldap, e.g. {@link RoleP#getAllDescendants(String)}.
+     */
+    interface Loader
+    {
+        /**
+         * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+         * @return the nodes that have parents.
+         * @throws SecurityException in the event of a system error.
+         */
+        List<Graphable> getAllDescendants( String contextId ) throws SecurityException;
+    }
+
+
+    /**
+     * Read a hierarchy and build its graph.
+     *
+     * @param loader    reads the hierarchy.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return new graph.
+     * @throws SecurityException in the event of a system error.
+     */
+    static SimpleDirectedGraph<String, Relationship> load( Loader loader, String contextId ) throws SecurityException
+    {
+        return HierUtil.buildGraph( HierUtil.loadHier( contextId, loader.getAllDescendants( contextId ) ) );
+    }
+
+
+    /**
+     * Keep a graph that has just been loaded, and refresh it from now on.  Nothing is done if the refresh isn't enabled.
+     *
+     * @param key       of the graph's cache entry, unique across the types of hierarchy.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param cache     holds the graph.
+     * @param loader    reads the hierarchy.
+     * @param graph     as loaded.
+     */
+    void register( String key, String contextId, Cache cache, Loader loader, SimpleDirectedGraph<String, Relationship> graph )
+    {
+        if ( !isEnabled )
+        {
+            return;
+        }
+        Holder holder = getHolder( key );
+        synchronized ( holder )
+        {
+            holder.contextId = contextId;
+            holder.cache = cache;
+            holder.loader = loader;
+            holder.graph = graph;
+            holder.isUsed = true;
+            // A refresh in flight may be older than this load:
+            holder.version++;
+        }
+    }
+
+
+    /**
+     * Return the last graph loaded for a cache entry, to be put back into the cache when the entry has expired.
+     *
+     * @param key of the graph's cache entry.
+     * @return the graph, or null if the refresh isn't enabled or the graph hasn't been loaded.
+     */
+    SimpleDirectedGraph<String, Relationship> getGraph( String key )
+    {
+        if ( !isEnabled )
+        {
+            return null;
+        }
+        Holder holder = holders.get( key );
+        if ( holder == null )
+        {
+            return null;
+        }
+        // Not locked, the caller may hold the cache's lock of the missing entry, which a refresh takes to put it back:
+        holder.isUsed = true;
+        return holder.graph;
+    }
+
+
+    /**
+     * Record that a graph has been read from its cache entry, so it's refreshed at the end of this interval.
+     *
+     * @param key of the graph's cache entry.
+     */
+    void used( String key )
+    {
+        if ( !isEnabled )
+        {
+            return;
+        }
+        Holder holder = holders.get( key );
+        // Only written once per interval, as it's read far more often:
+        if ( holder != null && !holder.isUsed )
+        {
+            holder.isUsed = true;
+        }
+    }
+
+
+    /**
+     * Return the lock to be held while a graph is updated in place, e.g. by {@link RoleUtil#updateHier}.  The graph must be
+     * fetched from the cache while holding it, and {@link #touch(String)} called before it's released.
+     *
+     * @param key of the graph's cache entry.
+     * @return lock object of the graph.
+     */
+    Object getLock( String key )
+    {
+        return getHolder( key );
+    }
+
+
+    /**
+     * Record that a graph has been updated in place, so a refresh that's in flight is discarded.  Caller must hold the
+     * graph's lock.
+     *
+     * @param key of the graph's cache entry.
+     */
+    void touch( String key )
+    {
+        Holder holder = getHolder( key );
+        synchronized ( holder )
+        {
+            holder.version++;
+        }
+    }
+
+
+    private Holder getHolder( String key )
+    {
+        Holder holder = holders.get( key );
+        if ( holder == null )
+        {
+            holder = new Holder();
+            Holder existing = holders.putIfAbsent( key, holder );
+            if ( existing != null )
+            {
+                holder = existing;
+            }
+        }
+        return holder;
+    }
+
+
+    /**
+     * Rebuild every graph that has been loaded and read since the last refresh, and drop the others.  Called by the
+     * background thread.
+     */
+    private void refresh()
+    {
+        for ( Map.Entry<String, Holder> entry : holders.entrySet() )
+        {
+            refresh( entry.getKey(), entry.getValue() );
+        }
+    }
+
+
+    private void refresh( String key, Holder holder )
+    {
+        Loader loader;
+        String contextId;
+        long version;
+        synchronized ( holder )
+        {
+            if ( !holder.isUsed )
+            {
+                // Not read for an interval, or only locked by an update, leave the cache entry to expire:
+                holders.remove( key, holder );
+                LOG.debug( "refresh dropped idle key [{}]", key );
+                return;
+            }
+            holder.isUsed = false;
+            loader = holder.loader;
+            contextId = holder.contextId;
+            version = holder.version;
+        }
+        if ( loader == null )
+        {
+            return;
+        }
+
+        SimpleDirectedGraph<String, Relationship> graph;
+        try
+        {
+            graph = load( loader, contextId );
+        }
+        catch ( SecurityException se )
+        {
+            LOG.warn( "refresh failed for key [{}], keeping last graph, error={}", key, se.getMessage() );
+            return;
+        }
+
+        Cache cache;
+        synchronized ( holder )
+        {
+            if ( holder.version != version )
+            {
+                LOG.debug( "refresh discarded for key [{}], updated while read", key );
+                return;
+            }
+            holder.graph = graph;
+            cache = holder.cache;
+        }
+        // Put outside of the lock, as readers hold the cache's lock of a missing entry while they read the holder:
+        cache.put( key, graph );
+        synchronized ( holder )
+        {
+            if ( holder.version == version )
+            {
+                LOG.debug( "refresh key [{}] vertices [{}]", key, graph.vertexSet().size() );
+                return;
+            }
+            // Updated in place before the put, which may have replaced the updated graph with this one:
+            if ( holder.graph == graph )
+            {
+                holder.graph = null;
+            }
+        }
+        // Reloaded by the next reader, with the update:
+        cache.clear( key );
+        LOG.debug( "refresh key [{}] updated while put, cleared", key );
+    }
+
+
+    private void startRefresher( final long interval )
+    {
+        Thread refresher = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while ( !Thread.currentThread().isInterrupted() )
+                {
+                    try
+                    {
+                        Thread.sleep( interval );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                    try
+                    {
+                        refresh();
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        LOG.warn( "refresh caught " + e, e );
+                    }
+                }
+            }
+        }, "fortress-graph-refresh" );
+        refresher.setDaemon( true );
+        refresher.start();
+    }
+
+
+    /**
+     * The last graph of a cache entry and how to reload it, guarded by its own lock.  The cache is never called from here
+     * while the lock is held, and the graph may be read without it.
+     */
+    private static final class Holder
+    {
+        private String contextId;
+        private Cache cache;
+        private Loader loader;
+        // Read without the lock, see getGraph:
+        private volatile SimpleDirectedGraph<String, Relationship> graph;
+        // Incremented by each load and each update made in place:
+        private long version;
+        // Set when the graph is loaded or read, cleared by each refresh:
+        private volatile boolean isUsed;
+    }
+}
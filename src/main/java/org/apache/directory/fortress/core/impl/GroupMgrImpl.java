@@ -25,6 +25,7 @@ import java.util.List;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.directory.fortress.annotation.AdminPermissionOperation;
+import org.apache.directory.fortress.core.BulkResult;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GroupMgr;
 import org.apache.directory.fortress.core.ReviewMgr;
@@ -34,6 +35,7 @@ import org.apache.directory.fortress.core.model.Group;
 import org.apache.directory.fortress.core.model.Role;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.VUtil;
 
 
 /**
@@ -76,6 +78,73 @@ public class GroupMgrImpl extends Manageable implements GroupMgr, Serializable
         return groupP.add( group );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation(operationName="add")
+    public BulkResult<Group> add( List<Group> groups ) throws SecurityException
+    {
+        String methodName = "add";
+        VUtil.assertNotNull( groups, GlobalErrIds.GROUP_NULL, getFullMethodName( CLS_NM, methodName ) );
+        checkAccess(CLS_NM, methodName);
+        BulkResult<Group> result = new BulkResult<>( groups );
+
+        // Read each member once for the batch:
+        final ReviewMgr reviewMgr = ReviewMgrFactory.createInstance( this.contextId );
+        BulkLoader.Reader<String> roleDns = new BulkLoader.Reader<String>()
+        {
+            @Override
+            String read( String name ) throws SecurityException
+            {
+                return reviewMgr.readRole( new Role( name ) ).getDn();
+            }
+        };
+        BulkLoader.Reader<String> userDns = new BulkLoader.Reader<String>()
+        {
+            @Override
+            String read( String userId ) throws SecurityException
+            {
+                return reviewMgr.readUser( new User( userId ) ).getDn();
+            }
+        };
+        List<Integer> valid = new ArrayList<>();
+        for ( int i = 0; i < groups.size(); i++ )
+        {
+            try
+            {
+                Group group = groups.get( i );
+                assertContext(CLS_NM, methodName, group, GlobalErrIds.GROUP_NULL);
+                if( !group.isMemberDn() && CollectionUtils.isNotEmpty( group.getMembers() ) )
+                {
+                    BulkLoader.Reader<String> dns = group.getType() == Group.Type.ROLE ? roleDns : userDns;
+                    List<String> memberDns = new ArrayList<>();
+                    for( String member : group.getMembers() )
+                    {
+                        memberDns.add( dns.get( member ) );
+                    }
+                    group.setMembers( memberDns );
+                }
+                group.setMemberDn(true);
+                valid.add( i );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+
+        BulkLoader.run( valid, groups, new BulkLoader.Step<Group>()
+        {
+            @Override
+            public void apply( Group group ) throws SecurityException
+            {
+                groupP.add( group );
+            }
+        }, result );
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
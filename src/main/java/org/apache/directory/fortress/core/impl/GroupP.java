@@ -251,6 +251,8 @@ final class GroupP
 
         // Check role temporal constraints + activate roles:
         VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, true );
+        // Compute the inherited roles once, checkAccess reuses them until the activations or the hierarchy change:
+        AuthZContext.attach( session, group.getContextId() );
         return session;
     }
 
@@ -0,0 +1,339 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+
+/**
+ * Immutable transitive closure of a hierarchical graph.  Every vertex is assigned an int id, in case insensitive name order,
+ * and its ascendants and descendants are precomputed into bitsets.  This turns the per-request graph walks done by
+ * {@link HierUtil#getAscendants(String, SimpleDirectedGraph)} and {@link HierUtil#getDescendants(String, SimpleDirectedGraph)}
+ * into lookups, and allows membership tests against the inherited set of several nodes without materializing it.
+ * <p>
+ * An instance is built by {@link HierUtil} whenever a graph is loaded and is replaced, never modified, when the graph is updated.
+ * Each instance carries a version that is unique within the process and increases with every build, so holders of
+ * derived data can tell if it is stale.
+ * <p>
+ * Nodes that have no relationships are not vertices of the graph and so have no id here.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class HierClosure
+{
+    private static final AtomicLong VERSION_SEQ = new AtomicLong( 0 );
+    private final long version;
+    // The vertex names, upper case, indexed by id:
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final BitSet[] ascendants;
+    private final BitSet[] descendants;
+    // The names of the direct parents of each vertex as they appear in the graph, unmodifiable:
+    private final List<Set<String>> parentNames;
+
+
+    private HierClosure( String[] names, Map<String, Integer> ids, BitSet[] ascendants, BitSet[] descendants,
+        List<Set<String>> parentNames )
+    {
+        this.version = VERSION_SEQ.incrementAndGet();
+        this.names = names;
+        this.ids = ids;
+        this.ascendants = ascendants;
+        this.descendants = descendants;
+        this.parentNames = parentNames;
+    }
+
+
+    /**
+     * Compute the closure of the given graph.  The caller must prevent the graph from being changed for the duration.
+     *
+     * @param graph contains the parent-child relationships, may be null.
+     * @return new instance, never null.
+     */
+    static HierClosure build( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        String[] vertices;
+        if ( graph != null )
+        {
+            vertices = graph.vertexSet().toArray( new String[0] );
+        }
+        else
+        {
+            vertices = new String[0];
+        }
+        Arrays.sort( vertices, String.CASE_INSENSITIVE_ORDER );
+
+        int size = vertices.length;
+        String[] names = new String[size];
+        Map<String, Integer> ids = new HashMap<>( size * 2 );
+        for ( int id = 0; id < size; id++ )
+        {
+            names[id] = vertices[id].toUpperCase();
+            ids.put( names[id], id );
+        }
+
+        // Direct parents of each vertex, by id:
+        int[][] parents = new int[size][];
+        List<Set<String>> parentNames = new ArrayList<>( size );
+        for ( int id = 0; id < size; id++ )
+        {
+            Set<Relationship> edges = graph.outgoingEdgesOf( vertices[id] );
+            parents[id] = new int[edges.size()];
+            Set<String> direct = new HashSet<>();
+            int i = 0;
+            for ( Relationship edge : edges )
+            {
+                parents[id][i++] = ids.get( edge.getParent().toUpperCase() );
+                direct.add( edge.getParent() );
+            }
+            parentNames.add( Collections.unmodifiableSet( direct ) );
+        }
+
+        BitSet[] ascendants = new BitSet[size];
+        for ( int id = 0; id < size; id++ )
+        {
+            computeAscendants( id, parents, ascendants );
+        }
+
+        BitSet[] descendants = new BitSet[size];
+        for ( int id = 0; id < size; id++ )
+        {
+            descendants[id] = new BitSet( size );
+        }
+        for ( int id = 0; id < size; id++ )
+        {
+            for ( int asc = ascendants[id].nextSetBit( 0 ); asc >= 0; asc = ascendants[id].nextSetBit( asc + 1 ) )
+            {
+                descendants[asc].set( id );
+            }
+        }
+
+        return new HierClosure( names, ids, ascendants, descendants, parentNames );
+    }
+
+
+    /**
+     * Depth first, memoized.  The graph is acyclic so the recursion terminates, and depth is bound by the height of the hierarchy.
+     */
+    private static BitSet computeAscendants( int id, int[][] parents, BitSet[] ascendants )
+    {
+        BitSet result = ascendants[id];
+        if ( result == null )
+        {
+            result = new BitSet( ascendants.length );
+            for ( int parent : parents[id] )
+            {
+                result.set( parent );
+                result.or( computeAscendants( parent, parents, ascendants ) );
+            }
+            ascendants[id] = result;
+        }
+        return result;
+    }
+
+
+    /**
+     * Return the version of this instance.  A graph that has been reloaded or updated will have a closure with a greater version.
+     *
+     * @return long value unique to this instance.
+     */
+    long getVersion()
+    {
+        return version;
+    }
+
+
+    /**
+     * Return the id of a node.
+     *
+     * @param name of the node, case insensitive, may be null.
+     * @return int id or -1 if the node is not a vertex of the graph.
+     */
+    int getId( String name )
+    {
+        if ( name == null )
+        {
+            return -1;
+        }
+        Integer id = ids.get( name.toUpperCase() );
+        return id != null ? id : -1;
+    }
+
+
+    /**
+     * Return the name of a node.
+     *
+     * @param id of the node as returned by {@link #getId(String)}.
+     * @return upper case name.
+     */
+    String getName( int id )
+    {
+        return names[id];
+    }
+
+
+    /**
+     * Return the number of vertices in the graph.
+     *
+     * @return int size.
+     */
+    int size()
+    {
+        return names.length;
+    }
+
+
+    /**
+     * Return the ids of all ascendants of a node.
+     *
+     * @param id of the child node as returned by {@link #getId(String)}.
+     * @return BitSet shared by all callers, must not be modified.
+     */
+    BitSet getAscendantIds( int id )
+    {
+        return ascendants[id];
+    }
+
+
+    /**
+     * Return the direct parents of a node, the same as {@link HierUtil#getParents(String, SimpleDirectedGraph)} without
+     * walking the graph.
+     *
+     * @param name of the child node, case insensitive.
+     * @return Set of parent names shared by all callers and unmodifiable, empty if the node has none, or null if the
+     * node is not a vertex of the graph.
+     */
+    Set<String> getParents( String name )
+    {
+        int id = getId( name );
+        return id >= 0 ? parentNames.get( id ) : null;
+    }
+
+
+    /**
+     * Add the names of all ascendants of a node to the given collection.
+     *
+     * @param name   of the child node, case insensitive.
+     * @param target receives the upper case names of the ascendants, not including the node itself.
+     */
+    void addAscendants( String name, Collection<String> target )
+    {
+        int id = getId( name );
+        if ( id >= 0 )
+        {
+            addNames( ascendants[id], target );
+        }
+    }
+
+
+    /**
+     * Add the names of all descendants of a node to the given collection.
+     *
+     * @param name   of the parent node, case insensitive.
+     * @param target receives the upper case names of the descendants, not including the node itself.
+     */
+    void addDescendants( String name, Collection<String> target )
+    {
+        int id = getId( name );
+        if ( id >= 0 )
+        {
+            addNames( descendants[id], target );
+        }
+    }
+
+
+    /**
+     * Return the ids of the given nodes along with all of their ascendants, i.e. their inherited set.  Nodes that are not vertices
+     * are skipped, so the caller must test those by name.
+     *
+     * @param names of the nodes, case insensitive.
+     * @return new BitSet that may be modified by caller.
+     */
+    BitSet getInheritedIds( Collection<String> names )
+    {
+        BitSet result = new BitSet( this.names.length );
+        if ( names != null )
+        {
+            for ( String name : names )
+            {
+                int id = getId( name );
+                if ( id >= 0 )
+                {
+                    result.set( id );
+                    result.or( ascendants[id] );
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Test if a node is a member of an inherited set.  Runs in constant time.
+     *
+     * @param inheritedIds as returned by {@link #getInheritedIds(Collection)}.
+     * @param name         of the node, case insensitive.
+     * @return true if the node is a vertex and its id is in the set.
+     */
+    boolean isInherited( BitSet inheritedIds, String name )
+    {
+        int id = getId( name );
+        return id >= 0 && inheritedIds.get( id );
+    }
+
+
+    /**
+     * Return the upper case names of the given ids, in case insensitive order.
+     *
+     * @param idSet contains ids as returned by {@link #getInheritedIds(Collection)}.
+     * @return new List of names.
+     */
+    List<String> getNames( BitSet idSet )
+    {
+        List<String> result = new ArrayList<>( idSet.cardinality() );
+        addNames( idSet, result );
+        return result;
+    }
+
+
+    private void addNames( BitSet idSet, Collection<String> target )
+    {
+        for ( int id = idSet.nextSetBit( 0 ); id >= 0; id = idSet.nextSetBit( id + 1 ) )
+        {
+            target.add( names[id] );
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -85,6 +86,23 @@ final class HierUtil
 
     private static final Map<String, ReadWriteLock> synchMap = new HashMap<String, ReadWriteLock>();
 
+    /**
+     * The graphs built by this class carry their transitive closure, {@link HierClosure}.  It is computed when the graph is built.  An update
+     * to the graph drops it and the next read computes it again, so a run of updates, e.g. a bulk load, pays for one build rather than one
+     * per edge.  Readers always see a complete snapshot.
+     */
+    private static final class ClosureGraph extends SimpleDirectedGraph<String, Relationship>
+    {
+        private static final long serialVersionUID = 1L;
+        private transient volatile HierClosure closure;
+
+
+        private ClosureGraph()
+        {
+            super( Relationship.class );
+        }
+    }
+
 
     /**
      * Private constructor
@@ -153,8 +171,7 @@ final class HierUtil
     private static SimpleDirectedGraph<String, Relationship> toGraph( Hier hier )
     {
         LOG.debug( "toGraph" );
-        SimpleDirectedGraph<String, Relationship> graph =
-            new SimpleDirectedGraph<>( Relationship.class );
+        SimpleDirectedGraph<String, Relationship> graph = new ClosureGraph();
         List<Relationship> edges = hier.getRelationships();
         if ( edges != null && edges.size() > 0 )
         {
@@ -197,6 +214,7 @@ final class HierUtil
             graph.addVertex( relation.getChild().toUpperCase() );
             graph.addVertex( relation.getParent().toUpperCase() );
             graph.addEdge( relation.getChild().toUpperCase(), relation.getParent().toUpperCase(), relation );
+            invalidateClosure( graph );
         }
     }
 
@@ -214,6 +232,7 @@ final class HierUtil
         synchronized ( graph )
         {
             graph.removeEdge( relation );
+            invalidateClosure( graph );
         }
     }
 
@@ -276,7 +295,7 @@ final class HierUtil
 
 
     /**
-     * Recursively traverse the hierarchical graph and return all of the ascendants of a given node.
+     * Return all of the ascendants of a given node.  The answer comes from the graph's precomputed {@link HierClosure}.
      *
      * @param childName maps to vertex to determine parentage.
      * @param graph     contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
@@ -284,60 +303,19 @@ final class HierUtil
      */
     static Set<String> getAscendants( String childName, SimpleDirectedGraph<String, Relationship> graph )
     {
-        Map<String, String> vx = new HashMap<>();
         // TreeSet will return in sorted order:
         // create Set with case insensitive comparator:
         Set<String> parents = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
-        vx.put( VERTEX, childName.toUpperCase() );
-        getAscendants( vx, graph, parents );
-        return parents;
-    }
-
-
-    /**
-     * Utility function recursively traverses a given digraph to build a set of all ascendant names.
-     *
-     * @param vertex     contains the position of the cursor for traversal of graph.
-     * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @param ascendants contains the result set of ascendant names.
-     * @return value contains the vertex of current position.
-     */
-    private static String getAscendants( Map<String, String> vertex, SimpleDirectedGraph<String, Relationship> graph,
-        Set<String> ascendants )
-    {
-        String v = vertex.get( VERTEX );
-        if ( v == null )
-        {
-            return null;
-        }
-        else if ( graph == null )
-        {
-            return null;
-        }
-        LOG.debug( "getAscendants [{}]", v);
-        Set<Relationship> edges;
-        try
-        {
-            edges = graph.outgoingEdgesOf( v );
-
-        }
-        catch ( java.lang.IllegalArgumentException iae )
+        if ( graph != null )
         {
-            // vertex is leaf.
-            return null;
-        }
-        for ( Relationship edge : edges )
-        {
-            vertex.put( VERTEX, edge.getParent() );
-            ascendants.add( edge.getParent() );
-            v = getAscendants( vertex, graph, ascendants );
+            getClosure( graph ).addAscendants( childName, parents );
         }
-        return v;
+        return parents;
     }
 
 
     /**
-     * Recursively traverse the hierarchical graph and return all of the descendants for a given node.
+     * Return all of the descendants for a given node.  The answer comes from the graph's precomputed {@link HierClosure}.
      *
      * @param parentName maps to vertex to determine parentage.
      * @param graph      contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
@@ -345,12 +323,13 @@ final class HierUtil
      */
     static Set<String> getDescendants( String parentName, SimpleDirectedGraph<String, Relationship> graph )
     {
-        Map<String, String> vx = new HashMap<>();
         // TreeSet will return in sorted order:
         // create Set with case insensitive comparator:
         Set<String> children = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
-        vx.put( VERTEX, parentName.toUpperCase() );
-        getDescendants( vx, graph, children );
+        if ( graph != null )
+        {
+            getClosure( graph ).addDescendants( parentName, children );
+        }
         return children;
     }
 
@@ -366,13 +345,15 @@ final class HierUtil
     private static boolean isAscendant( String childName, String parentName,
         SimpleDirectedGraph<String, Relationship> graph )
     {
-        boolean isAscendant = false;
-        Set<String> ascendants = getAscendants( childName, graph );
-        if ( ascendants.contains( parentName ) )
+        HierClosure closure = peekClosure( graph );
+        if ( closure == null )
         {
-            isAscendant = true;
+            // Don't rebuild the closure on each update of a run, walk up from the child instead:
+            return isReachable( childName, parentName, true, graph );
         }
-        return isAscendant;
+        Set<String> ascendants = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.addAscendants( childName, ascendants );
+        return ascendants.contains( parentName );
     }
 
 
@@ -387,56 +368,63 @@ final class HierUtil
     private static boolean isDescedant( String childName, String parentName,
         SimpleDirectedGraph<String, Relationship> graph )
     {
-        boolean isDescendant = false;
-        Set<String> descendants = getDescendants( parentName, graph );
-        if ( descendants.contains( childName ) )
+        HierClosure closure = peekClosure( graph );
+        if ( closure == null )
         {
-            isDescendant = true;
+            return isReachable( parentName, childName, false, graph );
         }
-        return isDescendant;
+        Set<String> descendants = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        closure.addDescendants( parentName, descendants );
+        return descendants.contains( childName );
     }
 
 
     /**
-     * Utility function recursively traverses a given digraph to build a set of all descendants names.
+     * Walk the graph from a node, up to its ascendants or down to its descendants, looking for another.  Used while the
+     * graph's closure is stale, in place of rebuilding it.
      *
-     * @param vertex      contains the position of the cursor for traversal of graph.
-     * @param graph       contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
-     * @param descendants contains the result set of names of all descendants of node.
-     * @return value contains the vertex of current position.
+     * @param fromName name of the node the walk starts from, case insensitive.
+     * @param toName   name of the node looked for, case insensitive.
+     * @param isUp     if true the ascendants are walked, else the descendants.
+     * @param graph    contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @return true if the node looked for is reached, not counting the node the walk starts from.
      */
-    private static String getDescendants( Map<String, String> vertex, SimpleDirectedGraph<String, Relationship> graph,
-        Set<String> descendants )
+    private static boolean isReachable( String fromName, String toName, boolean isUp,
+        SimpleDirectedGraph<String, Relationship> graph )
     {
-        String v = vertex.get( VERTEX );
-        if ( v == null )
-        {
-            // vertex is null
-            return null;
-        }
-        else if ( graph == null )
-        {
-            // graph is null
-            return null;
-        }
-        LOG.debug( "getDescendants [{}]", v);
-        Set<Relationship> edges;
-        try
-        {
-            edges = graph.incomingEdgesOf( v );
-        }
-        catch ( java.lang.IllegalArgumentException iae )
+        if ( graph == null || fromName == null || toName == null )
         {
-            // vertex is leaf.
-            return null;
+            return false;
         }
-        for ( Relationship edge : edges )
+        synchronized ( graph )
         {
-            vertex.put( VERTEX, edge.getChild() );
-            descendants.add( edge.getChild() );
-            v = getDescendants( vertex, graph, descendants );
+            String from = fromName.toUpperCase();
+            if ( !graph.containsVertex( from ) )
+            {
+                return false;
+            }
+            Set<String> visited = new HashSet<>();
+            List<String> pending = new ArrayList<>();
+            pending.add( from );
+            while ( !pending.isEmpty() )
+            {
+                String vertex = pending.remove( pending.size() - 1 );
+                Set<Relationship> edges = isUp ? graph.outgoingEdgesOf( vertex ) : graph.incomingEdgesOf( vertex );
+                for ( Relationship edge : edges )
+                {
+                    String next = isUp ? graph.getEdgeTarget( edge ) : graph.getEdgeSource( edge );
+                    if ( next.equalsIgnoreCase( toName ) )
+                    {
+                        return true;
+                    }
+                    if ( visited.add( next ) )
+                    {
+                        pending.add( next );
+                    }
+                }
+            }
+            return false;
         }
-        return v;
     }
 
 
@@ -649,6 +637,77 @@ final class HierUtil
     }
 
 
+    /**
+     * Return the transitive closure of a graph.  The instance returned is immutable and will not reflect updates made to the graph
+     * after this call, callers should not hold onto it.
+     *
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}, may be null.
+     * @return reference to {@link HierClosure}, never null.
+     */
+    static HierClosure getClosure( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        if ( graph instanceof ClosureGraph )
+        {
+            HierClosure closure = ( ( ClosureGraph ) graph ).closure;
+            if ( closure != null )
+            {
+                return closure;
+            }
+        }
+        if ( graph == null )
+        {
+            return HierClosure.build( null );
+        }
+        synchronized ( graph )
+        {
+            // Another reader may have rebuilt it while this one waited:
+            HierClosure closure = peekClosure( graph );
+            return closure != null ? closure : refreshClosure( graph );
+        }
+    }
+
+
+    /**
+     * @return the closure attached to the graph, or null if it is stale or the graph isn't one of ours.
+     */
+    private static HierClosure peekClosure( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        return graph instanceof ClosureGraph ? ( ( ClosureGraph ) graph ).closure : null;
+    }
+
+
+    /**
+     * Drop the closure of a graph that has been updated, the next read rebuilds it.  Caller must hold the graph's lock.
+     *
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     */
+    private static void invalidateClosure( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        if ( graph instanceof ClosureGraph )
+        {
+            ( ( ClosureGraph ) graph ).closure = null;
+        }
+    }
+
+
+    /**
+     * Compute the closure of the graph and, if it is one of ours, attach it.  Caller must hold the graph's lock.
+     *
+     * @param graph contains a reference to simple digraph {@code org.jgrapht.graph.SimpleDirectedGraph}.
+     * @return reference to the new {@link HierClosure}.
+     */
+    private static HierClosure refreshClosure( SimpleDirectedGraph<String, Relationship> graph )
+    {
+        HierClosure closure = HierClosure.build( graph );
+        if ( graph instanceof ClosureGraph )
+        {
+            ( ( ClosureGraph ) graph ).closure = closure;
+        }
+        LOG.debug( "refreshClosure vertices [{}] version [{}]", closure.size(), closure.getVersion() );
+        return closure;
+    }
+
+
     /**
      * Method instantiates a new digraph, {@code org.jgrapht.graph.SimpleDirectedGraph}, using data passed in via
      * {@link Hier} entity.
@@ -667,6 +726,7 @@ final class HierUtil
             return null;
         }
         graph = toGraph( hier );
+        refreshClosure( graph );
         LOG.debug( "buildGraph success to toGraph" );
         LOG.debug( "buildGraph is success" );
         return graph;
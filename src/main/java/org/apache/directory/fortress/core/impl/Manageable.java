@@ -19,11 +19,16 @@
  */
 package org.apache.directory.fortress.core.impl;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ValidationException;
+import org.apache.directory.fortress.core.ldap.LdapConnectionProvider;
 import org.apache.directory.fortress.core.model.FortEntity;
 import org.apache.directory.fortress.core.model.Permission;
 import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.util.AsyncUtil;
 import org.apache.directory.fortress.core.util.VUtil;
 
 /**
@@ -169,6 +174,29 @@ public abstract class Manageable implements org.apache.directory.fortress.core.M
         entity.setContextId( contextId );
     }
 
+    /**
+     * Run a call to one of the blocking APIs of this manager on the shared pool of {@link AsyncUtil}.  The call sees the
+     * caller's recent writes even when its reads are routed to a read replica.
+     *
+     * @param task calls the blocking API.
+     * @param <T> type of the result.
+     * @return stage that is completed with the result of the call, or exceptionally with the exception it threw.
+     */
+    protected final <T> CompletionStage<T> supplyAsync(final Callable<T> task)
+    {
+        final LdapConnectionProvider provider = LdapConnectionProvider.getInstance();
+        final long lastWrite = provider.getLastWrite();
+        return AsyncUtil.supplyAsync( new Callable<T>()
+        {
+            @Override
+            public T call() throws Exception
+            {
+                provider.joinLastWrite( lastWrite );
+                return task.call();
+            }
+        } );
+    }
+
     /**
      * This method is used to generate log statements and returns the concatenation of class name to the operation name.
      * @param className of the caller
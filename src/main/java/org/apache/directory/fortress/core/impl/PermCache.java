@@ -0,0 +1,218 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.ldap.LdapCounters;
+import org.apache.directory.fortress.core.ldap.LdapDataProvider;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.cache.Cache;
+import org.apache.directory.fortress.core.util.cache.CacheMgr;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility maintains an optional, in-process cache of {@link org.apache.directory.fortress.core.model.Permission} entries
+ * used by {@link PermDAO#checkPermission} to evaluate authorization without reading the permission from ldap on every call.
+ * Entries are keyed by contextId and permission dn and contain the users and roles assigned to the permission.
+ * <p>
+ * The cache is switched off by default and may be enabled with fortress config param: {@code enable.perm.cache=true}.
+ * When enabled, the {@code fortress.perms} cache must be declared in ehcache.xml.  Its {@code timeToLiveSeconds} setting
+ * controls how long an entry is trusted, which bounds the staleness of changes made by other processes.
+ * Changes made via {@link PermDAO} within this process clear the affected entries immediately.
+ * <p>
+ * Hits and misses are tallied on {@link org.apache.directory.fortress.core.ldap.LdapCounters}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PermCache
+{
+    private static final String CLS_NM = PermCache.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String FORTRESS_PERMS = "fortress.perms";
+    private static final String IS_PERM_CACHE_ENABLED_PARM = "enable.perm.cache";
+    private Cache permCache;
+    private boolean isEnabled;
+
+    private static volatile PermCache sINSTANCE = null;
+
+    static PermCache getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( PermCache.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new PermCache();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        isEnabled = Config.getInstance().getBoolean( IS_PERM_CACHE_ENABLED_PARM, false );
+        if ( isEnabled )
+        {
+            CacheMgr cacheMgr = CacheMgr.getInstance();
+            permCache = cacheMgr.getCache( FORTRESS_PERMS );
+            LOG.info( "init permission cache enabled" );
+        }
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private PermCache()
+    {
+        init();
+    }
+
+
+    /**
+     * Return true if the permission cache has been switched on in fortress config.
+     *
+     * @return boolean value of {@code enable.perm.cache}.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Return the cached permission for a given dn.  The underlying cache is blocking, so a miss locks the key for the
+     * calling thread until it calls {@link #put(String, String, Permission)}, which must be done even if the read fails,
+     * by passing a null permission.  This prevents concurrent readers from stampeding the server for the same entry.
+     *
+     * @param dn        contains the distinguished name of the permission operation entry.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return Permission containing users and roles, or null if not cached.
+     */
+    Permission get( String dn, String contextId )
+    {
+        Permission permission = ( Permission ) permCache.get( getKey( dn, contextId ) );
+        LdapCounters counters = LdapDataProvider.getLdapCounters();
+        if ( permission != null )
+        {
+            counters.incrementPermCacheHit();
+        }
+        else
+        {
+            counters.incrementPermCacheMiss();
+        }
+        return permission;
+    }
+
+
+    /**
+     * Same as {@link #get(String, String)} except that a miss doesn't lock the key, so no put is owed.  Used by the bulk
+     * check, which looks up many keys before it reads any of them, and would otherwise hold many locks at once.
+     *
+     * @param dn        contains the distinguished name of the permission operation entry.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return Permission containing users and roles, or null if not cached.
+     */
+    Permission getQuiet( String dn, String contextId )
+    {
+        Permission permission = ( Permission ) permCache.getQuiet( getKey( dn, contextId ) );
+        LdapCounters counters = LdapDataProvider.getLdapCounters();
+        if ( permission != null )
+        {
+            counters.incrementPermCacheHit();
+        }
+        else
+        {
+            counters.incrementPermCacheMiss();
+        }
+        return permission;
+    }
+
+
+    /**
+     * Add the permission to the cache, or release the lock taken on a miss if the permission is null.
+     *
+     * @param dn         contains the distinguished name of the permission operation entry.
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param permission contains the entry as read from ldap, may be null.
+     */
+    void put( String dn, String contextId, Permission permission )
+    {
+        permCache.put( getKey( dn, contextId ), permission );
+    }
+
+
+    /**
+     * Remove the entry for a given permission dn.  Called after the permission has been updated or removed.
+     *
+     * @param dn        contains the distinguished name of the permission operation entry.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void clear( String dn, String contextId )
+    {
+        if ( isEnabled )
+        {
+            permCache.clear( getKey( dn, contextId ) );
+        }
+    }
+
+
+    /**
+     * Remove all entries from the cache.  Called after a permission object, and all of its operations, have been removed.
+     */
+    void flush()
+    {
+        if ( isEnabled )
+        {
+            permCache.flush();
+        }
+    }
+
+
+    /**
+     *
+     * @param dn        contains the distinguished name of the permission operation entry.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return key to this tenant's cache entry.
+     */
+    static String getKey( String dn, String contextId )
+    {
+        // The rdn values are case insensitive on the server so do the same here to keep updates in sync with reads:
+        String key = dn.toLowerCase();
+
+        if ( StringUtils.isNotEmpty( contextId ) && !contextId.equalsIgnoreCase( GlobalIds.NULL ) )
+        {
+            key += ":" + contextId;
+        }
+
+        return key;
+    }
+}
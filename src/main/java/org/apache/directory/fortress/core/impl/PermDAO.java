@@ -22,9 +22,14 @@ package org.apache.directory.fortress.core.impl;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -48,6 +53,8 @@ import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.RemoveException;
+import org.apache.directory.fortress.core.SearchHandler;
+import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
 import org.apache.directory.fortress.core.model.AdminRole;
@@ -61,7 +68,9 @@ import org.apache.directory.fortress.core.util.PropUtil;
 import org.apache.directory.fortress.core.model.Role;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.util.AuthZAuditEvent;
 import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.PermissionMap;
 import org.apache.directory.ldap.client.api.LdapConnection;
 
 
@@ -222,6 +231,45 @@ class PermDAO extends LdapDataProvider
             PERMISSION_ATTRIBUTE_SET
     };
 
+    // Pulled back by checkPermission for operations with many users, which are compared instead, see checkPermissionByCompare:
+    private static final String[] PERMISSION_OP_NO_USERS_ATRS =
+        {
+            GlobalIds.FT_IID,
+            PERM_NAME,
+            GlobalIds.POBJ_NAME,
+            GlobalIds.POP_NAME,
+            SchemaConstants.DESCRIPTION_AT,
+            SchemaConstants.OU_AT,
+            GlobalIds.POBJ_ID,
+            GlobalIds.TYPE,
+            ROLES,
+            GlobalIds.PROPS,
+            PERMISSION_ATTRIBUTE_SET
+    };
+
+    // Pulled back by the policy snapshot, see {@link #findOperations}:
+    private static final String[] PERMISSION_OP_STAMPED_ATRS =
+        {
+            GlobalIds.FT_IID,
+            PERM_NAME,
+            GlobalIds.POBJ_NAME,
+            GlobalIds.POP_NAME,
+            SchemaConstants.DESCRIPTION_AT,
+            SchemaConstants.OU_AT,
+            GlobalIds.POBJ_ID,
+            GlobalIds.TYPE,
+            ROLES,
+            USERS,
+            GlobalIds.PROPS,
+            PERMISSION_ATTRIBUTE_SET,
+            SchemaConstants.MODIFY_TIMESTAMP_AT
+    };
+
+    private static final String[] PERMISSION_OP_STAMP_ATRS =
+        {
+            GlobalIds.POBJ_NAME, GlobalIds.POP_NAME, GlobalIds.POBJ_ID, SchemaConstants.MODIFY_TIMESTAMP_AT
+    };
+
     private static final String[] PERMISION_OBJ_ATRS =
         {
             GlobalIds.FT_IID, GlobalIds.POBJ_NAME, SchemaConstants.DESCRIPTION_AT, SchemaConstants.OU_AT, GlobalIds.TYPE,
@@ -247,6 +295,25 @@ class PermDAO extends LdapDataProvider
         GlobalIds.FT_PERMISSION_ATTRIBUTE_VALID_VALUES
     };
 
+    private static final String PERM_COMPARE_THRESHOLD_PARM = "perm.compare.threshold";
+    private static final String PERM_COMPARE_TTL_PARM = "perm.compare.ttl";
+    // The operations found to have at least compareThreshold users, keyed by dn and tenant, to the time they were read.
+    // Shared by all instances:
+    private static final ConcurrentMap<String, Long> LARGE_OPS = new ConcurrentHashMap<>();
+    private final int compareThreshold;
+    private final long compareTtl;
+
+
+    /**
+     * Default constructor reads the threshold for checking user grants by compare, {@code perm.compare.threshold}, and
+     * how long an operation is checked that way before it's read in full again, {@code perm.compare.ttl}.
+     */
+    PermDAO()
+    {
+        compareThreshold = Config.getInstance().getInt( PERM_COMPARE_THRESHOLD_PARM, 0 );
+        compareTtl = Config.getInstance().getInt( PERM_COMPARE_TTL_PARM, 600000 );
+    }
+
     /**
      * @param entity
      * @return
@@ -387,6 +454,11 @@ class PermDAO extends LdapDataProvider
         {
             ld = getAdminConnection();
             deleteRecursive( ld, dn, entity );
+            // The operations under this object have also been removed:
+            PermCache.getInstance().flush();
+            LARGE_OPS.clear();
+            PolicySnapshot.getInstance().invalidate( entity.getContextId() );
+            flushAdminAccess( entity.isAdmin() );
         }
         catch ( LdapException e )
         {
@@ -485,6 +557,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( entity );
 
         return entity;
     }
@@ -760,6 +833,9 @@ class PermDAO extends LdapDataProvider
                 ld = getAdminConnection();
                 modify( ld, dn, mods, entity );
                 entity.setDn( dn );
+                PermCache.getInstance().clear( dn, entity.getContextId() );
+                clearLarge( dn, entity.getContextId() );
+                flushAdminAccess( entity.isAdmin() );
             }
         }
         catch ( LdapException e )
@@ -772,6 +848,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( entity );
 
         return entity;
     }
@@ -792,6 +869,9 @@ class PermDAO extends LdapDataProvider
         {
             ld = getAdminConnection();
             deleteRecursive( ld, dn, entity );
+            PermCache.getInstance().clear( dn, entity.getContextId() );
+            clearLarge( dn, entity.getContextId() );
+            flushAdminAccess( entity.isAdmin() );
         }
         catch ( LdapException e )
         {
@@ -809,6 +889,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( entity );
     }
 
     /**     
@@ -891,6 +972,8 @@ class PermDAO extends LdapDataProvider
                 ModificationOperation.ADD_ATTRIBUTE, ROLES, role.getName() ) );
             ld = getAdminConnection();
             modify( ld, dn, mods, pOp );
+            PermCache.getInstance().clear( dn, pOp.getContextId() );
+            clearLarge( dn, pOp.getContextId() );
         }
         catch ( LdapAttributeInUseException e )
         {
@@ -917,6 +1000,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( pOp );
     }
 
 
@@ -941,6 +1025,9 @@ class PermDAO extends LdapDataProvider
                 ModificationOperation.REMOVE_ATTRIBUTE, ROLES, role.getName() ) );
             ld = getAdminConnection();
             modify( ld, dn, mods, pOp );
+            PermCache.getInstance().clear( dn, pOp.getContextId() );
+            clearLarge( dn, pOp.getContextId() );
+            flushAdminAccess( pOp.isAdmin() );
         }
         catch ( LdapNoSuchAttributeException e )
         {
@@ -959,6 +1046,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( pOp );
     }
 
 
@@ -983,6 +1071,8 @@ class PermDAO extends LdapDataProvider
                 ModificationOperation.ADD_ATTRIBUTE, USERS, user.getUserId() ) );
             ld = getAdminConnection();
             modify( ld, dn, mods, pOp );
+            PermCache.getInstance().clear( dn, pOp.getContextId() );
+            clearLarge( dn, pOp.getContextId() );
         }
         catch ( LdapAttributeInUseException e )
         {
@@ -1010,6 +1100,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( pOp );
     }
 
 
@@ -1035,6 +1126,9 @@ class PermDAO extends LdapDataProvider
                 USERS, user.getUserId() ) );
             ld = getAdminConnection();
             modify( ld, dn, mods, pOp );
+            PermCache.getInstance().clear( dn, pOp.getContextId() );
+            clearLarge( dn, pOp.getContextId() );
+            flushAdminAccess( pOp.isAdmin() );
         }
         catch ( LdapNoSuchAttributeException e )
         {
@@ -1053,6 +1147,7 @@ class PermDAO extends LdapDataProvider
         {
             closeAdminConnection( ld );
         }
+        PolicySnapshot.getInstance().refresh( pOp );
     }
 
 
@@ -1230,6 +1325,9 @@ class PermDAO extends LdapDataProvider
      * This method performs fortress authorization using data passed in (session) and stored on ldap server (permission).  It has been recently changed to use ldap compare operations in order to trigger slapd access log updates in directory.
      * It performs ldap operations:  read and (optionally) compare.  The first is to pull back the permission to see if user has access or not.  The second is to trigger audit
      * record storage on ldap server but can be disabled.
+     * If the permission cache is enabled, {@code enable.perm.cache=true}, the read is skipped for permissions found in {@link PermCache}.
+     * If the policy snapshot is enabled, {@code enable.policy.snapshot=true}, rbac permissions are read from {@link PolicySnapshot} instead.
+     * Operations granted directly to at least {@code perm.compare.threshold} users are checked by {@link #checkPermissionByCompare}.
      *
      * @param session contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
      * @param inPerm  must contain required attributes {@link Permission#objName} and {@link Permission#opName}.  {@link org.apache.directory.fortress.core.model.Permission#objId} is optional.
@@ -1244,28 +1342,77 @@ class PermDAO extends LdapDataProvider
         String dn = getOpRdn( inPerm.getOpName(), inPerm.getObjId() ) + "," + GlobalIds.POBJ_NAME + "="
             + inPerm.getObjName() + "," + getRootDn( inPerm.isAdmin(), inPerm.getContextId() );
 
+        // There is a switch in fortress config to hold the rbac permissions in memory.
+        PolicySnapshot snapshot = PolicySnapshot.getInstance();
+        if ( snapshot.isEnabled() && !inPerm.isAdmin() )
+        {
+            Permission outPerm = snapshot.getPermission( inPerm );
+            String attributeValue;
+            if ( outPerm == null )
+            {
+                // if permission not found, cannot authorize.
+                attributeValue = "AuthZ Invalid";
+            }
+            else
+            {
+                isAuthZd = isAuthorized( session, outPerm );
+                attributeValue = isAuthZd ? outPerm.getOpName() : outPerm.getOpName() + GlobalIds.FAILED_AUTHZ_INDICATOR;
+            }
+            if ( !session.isGroupSession() )
+            {
+                addAuthZAudit( null, dn, session.getUser().getDn(), attributeValue );
+            }
+            return isAuthZd;
+        }
+
+        // There is a switch in fortress config to enable the permission cache.
+        PermCache permCache = PermCache.getInstance();
+        boolean isCached = permCache.isEnabled();
+        Permission outPerm = null;
+
         try
         {
-            ld = getAdminConnection();
+            if ( isCached )
+            {
+                outPerm = permCache.get( dn, inPerm.getContextId() );
+            }
 
-            // LDAP Operation #1: Read the targeted permission from ldap server
-            Entry entry = read( ld, dn, PERMISSION_OP_ATRS );
-            if ( entry == null )
+            // Operations known to be granted to many users, and not cached, are checked without reading their users:
+            if ( outPerm == null && isLarge( dn, inPerm.getContextId() ) )
             {
-                // if permission not found, cannot continue.
-                String error = "checkPermission DOES NOT EXIST : obj name [" + inPerm.getObjName() + "], obj id ["
-                    + inPerm.getObjId() + "], op name [" + inPerm.getOpName() + "], idAdmin [" + inPerm.isAdmin() + "]";
-                throw new FinderException( GlobalErrIds.PERM_NOT_EXIST, error );
+                return checkPermissionByCompare( session, inPerm, dn );
             }
 
-            // load the permission entity with data retrieved from the permission node:
-            Permission outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
+            if ( outPerm == null )
+            {
+                ld = getAdminConnection();
 
-            // The admin flag will be set to 'true' if this is an administrative permission:
-            outPerm.setAdmin( inPerm.isAdmin() );
+                // LDAP Operation #1: Read the targeted permission from ldap server
+                Entry entry = read( ld, dn, PERMISSION_OP_ATRS );
+                if ( entry == null )
+                {
+                    // if permission not found, cannot continue.
+                    String error = "checkPermission DOES NOT EXIST : obj name [" + inPerm.getObjName() + "], obj id ["
+                        + inPerm.getObjId() + "], op name [" + inPerm.getOpName() + "], idAdmin [" + inPerm.isAdmin() + "]";
+                    throw new FinderException( GlobalErrIds.PERM_NOT_EXIST, error );
+                }
 
-            // Pass the tenant id along:
-            outPerm.setContextId( inPerm.getContextId() );
+                // load the permission entity with data retrieved from the permission node:
+                outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
+
+                // The admin flag will be set to 'true' if this is an administrative permission:
+                outPerm.setAdmin( inPerm.isAdmin() );
+
+                // Pass the tenant id along:
+                outPerm.setContextId( inPerm.getContextId() );
+
+                if ( isCached )
+                {
+                    permCache.put( dn, inPerm.getContextId(), outPerm );
+                }
+
+                markLarge( dn, outPerm );
+            }
 
             // The objective of these next steps is to evaluate the outcome of authorization attempt and trigger a write to slapd access logger containing the result.
             // The objectClass triggered by slapd access log write for upcoming ldap op is 'auditCompare'.
@@ -1310,6 +1457,11 @@ class PermDAO extends LdapDataProvider
         }
         finally
         {
+            if ( isCached && outPerm == null )
+            {
+                // The read failed, release the lock held on this cache entry:
+                permCache.put( dn, inPerm.getContextId(), null );
+            }
             closeAdminConnection( ld );
         }
 
@@ -1317,10 +1469,402 @@ class PermDAO extends LdapDataProvider
     }
 
 
+    /**
+     * @param dn        of the operation.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return true if the operation was read with at least {@code perm.compare.threshold} users, and not too long ago.
+     */
+    private boolean isLarge( String dn, String contextId )
+    {
+        if ( compareThreshold <= 0 )
+        {
+            return false;
+        }
+        String key = PermCache.getKey( dn, contextId );
+        Long found = LARGE_OPS.get( key );
+        if ( found == null )
+        {
+            return false;
+        }
+        if ( System.currentTimeMillis() - found > compareTtl )
+        {
+            // Read it in full again, its users may have been revoked meanwhile:
+            LARGE_OPS.remove( key, found );
+            return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * Remember that an operation is large if it has just been read with at least {@code perm.compare.threshold} users.
+     *
+     * @param dn      of the operation.
+     * @param outPerm as read in full, with its users.
+     */
+    private void markLarge( String dn, Permission outPerm )
+    {
+        if ( compareThreshold > 0 && outPerm.getUsers() != null && outPerm.getUsers().size() >= compareThreshold )
+        {
+            LARGE_OPS.put( PermCache.getKey( dn, outPerm.getContextId() ), System.currentTimeMillis() );
+        }
+    }
+
+
+    /**
+     * Forget that an operation is large, after it has been changed or removed, so it's read in full when next checked.
+     */
+    private static void clearLarge( String dn, String contextId )
+    {
+        LARGE_OPS.remove( PermCache.getKey( dn, contextId ) );
+    }
+
+
+    /**
+     * Same as {@link #checkPermission(Session, Permission)} for an operation granted directly to many users.  The operation
+     * is read without its users, and its roles are tested against the session's inherited roles as usual.  If none match,
+     * the server is asked, by compare, if the operation's users contain the session's user.  Enabled with
+     * {@code perm.compare.threshold}, which is the number of users at which an operation is checked this way.  An operation
+     * is known to be large once it has been read in full, until it's changed by this process, or for {@code perm.compare.ttl}
+     * milliseconds, after which it's read in full again.
+     *
+     * @param session contains {@link Session#getUserId()} and the activated roles.
+     * @param inPerm  must contain required attributes {@link Permission#objName} and {@link Permission#opName}.
+     * @param dn      of the operation.
+     * @return boolean containing result of check.
+     * @throws FinderException In the event system error occurs looking up data on ldap server.
+     */
+    private boolean checkPermissionByCompare( Session session, Permission inPerm, String dn ) throws FinderException
+    {
+        boolean isAuthZd = false;
+        LdapConnection ld = null;
+        try
+        {
+            ld = getAdminConnection();
+
+            // LDAP Operation #1: Read the targeted permission from ldap server, all but its users:
+            Entry entry = read( ld, dn, PERMISSION_OP_NO_USERS_ATRS );
+            if ( entry == null )
+            {
+                String error = "checkPermissionByCompare DOES NOT EXIST : obj name [" + inPerm.getObjName()
+                    + "], obj id [" + inPerm.getObjId() + "], op name [" + inPerm.getOpName() + "], idAdmin ["
+                    + inPerm.isAdmin() + "]";
+                throw new FinderException( GlobalErrIds.PERM_NOT_EXIST, error );
+            }
+            Permission outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
+            outPerm.setAdmin( inPerm.isAdmin() );
+            outPerm.setContextId( inPerm.getContextId() );
+
+            // The users weren't read so only the roles are tested here:
+            isAuthZd = isAuthorized( session, outPerm );
+            if ( !isAuthZd && !session.isGroupSession() )
+            {
+                // LDAP Operation #2: Compare the user id against the operation's users:
+                isAuthZd = compareValue( ld, dn, USERS, session.getUserId() );
+            }
+
+            String attributeValue = isAuthZd ? outPerm.getOpName() : outPerm.getOpName() + GlobalIds.FAILED_AUTHZ_INDICATOR;
+            if ( !session.isGroupSession() )
+            {
+                addAuthZAudit( ld, dn, session.getUser().getDn(), attributeValue );
+            }
+        }
+        catch ( LdapException e )
+        {
+            if ( !( e instanceof LdapNoSuchObjectException ) )
+            {
+                String error = "checkPermissionByCompare caught LdapException=" + e.getMessage();
+                throw new FinderException( GlobalErrIds.PERM_READ_OP_FAILED, error, e );
+            }
+            // The operation is gone, it may be recreated with fewer users:
+            clearLarge( dn, inPerm.getContextId() );
+            if ( !session.isGroupSession() )
+            {
+                addAuthZAudit( ld, dn, session.getUser().getDn(), "AuthZ Invalid" );
+            }
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+        return isAuthZd;
+    }
+
+
+    /**
+     * This method performs fortress authorization for many permissions at once.  The outcome for each permission is the same as
+     * {@link #checkPermission(Session, Permission)} but the permissions are pulled back using one ldap search per permission root,
+     * rather than a read per permission, and the session's inherited roles are computed once.
+     * Permissions found in {@link PermCache}, or rbac permissions when {@link PolicySnapshot} is enabled, are not searched.  The
+     * cache is looked up without locking its keys, as a single check does, since holding the locks of many keys at once
+     * could deadlock with another bulk check.  Operations known to be granted to many users are checked one at a time by
+     * {@link #checkPermissionByCompare}.  An audit record is still produced for each permission.
+     *
+     * @param session contains {@link Session#getUserId()}, for impl check {@link org.apache.directory.fortress.core.model.Session#getRoles()}, for arbac check: {@link org.apache.directory.fortress.core.model.Session#getAdminRoles()}.
+     * @param inPerms each must contain required attributes {@link Permission#objName} and {@link Permission#opName}.  {@link org.apache.directory.fortress.core.model.Permission#objId} is optional.
+     * @return Map containing the result of check for each permission, in the order passed in.  Permissions that do not exist are not authorized.
+     * @throws org.apache.directory.fortress.core.FinderException
+     *          In the event system error occurs looking up data on ldap server.
+     */
+    Map<Permission, Boolean> checkPermission( Session session, List<Permission> inPerms ) throws FinderException
+    {
+        // Keyed like Permission.equals, so permissions that differ only in case find their result:
+        Map<Permission, Boolean> results = new PermissionMap<>();
+        LdapConnection ld = null;
+        // The permissions pulled back, keyed by dn in lower case.  A null value marks one that wasn't found:
+        Map<String, Permission> outPerms = new HashMap<>();
+        // The permissions that weren't cached, by the dn of the root they are stored in:
+        Map<String, List<Permission>> misses = new LinkedHashMap<>();
+        // The results of the large operations, checked by compare and audited already, keyed by dn in lower case:
+        Map<String, Boolean> compared = new HashMap<>();
+        PermCache permCache = PermCache.getInstance();
+        boolean isCached = permCache.isEnabled();
+        PolicySnapshot snapshot = PolicySnapshot.getInstance();
+
+        try
+        {
+            for ( Permission inPerm : inPerms )
+            {
+                String dn = getDn( inPerm, inPerm.getContextId() ).toLowerCase();
+                if ( outPerms.containsKey( dn ) || compared.containsKey( dn ) )
+                {
+                    continue;
+                }
+                if ( snapshot.isEnabled() && !inPerm.isAdmin() )
+                {
+                    // The rbac permissions are held in memory, those missing from it don't exist:
+                    outPerms.put( dn, snapshot.getPermission( inPerm ) );
+                    continue;
+                }
+                Permission outPerm = isCached ? permCache.getQuiet( dn, inPerm.getContextId() ) : null;
+                if ( outPerm == null && isLarge( dn, inPerm.getContextId() ) )
+                {
+                    compared.put( dn, checkPermissionByCompare( session, inPerm, dn ) );
+                    continue;
+                }
+                outPerms.put( dn, outPerm );
+                if ( outPerm == null )
+                {
+                    String rootDn = getRootDn( inPerm.isAdmin(), inPerm.getContextId() );
+                    List<Permission> rootMisses = misses.get( rootDn );
+                    if ( rootMisses == null )
+                    {
+                        rootMisses = new ArrayList<>();
+                        misses.put( rootDn, rootMisses );
+                    }
+                    rootMisses.add( inPerm );
+                }
+            }
+
+            if ( !misses.isEmpty() )
+            {
+                ld = getAdminConnection();
+                for ( Map.Entry<String, List<Permission>> rootMisses : misses.entrySet() )
+                {
+                    // LDAP Operation #1: Search for the targeted permissions on ldap server
+                    searchPermissions( ld, rootMisses.getKey(), rootMisses.getValue(), outPerms );
+                }
+            }
+
+            // The inherited roles are only computed once for all of the permissions:
+            Set<String> activatedRoles = null;
+            Set<String> activatedAdminRoles = null;
+            for ( Permission inPerm : inPerms )
+            {
+                String dn = getDn( inPerm, inPerm.getContextId() );
+                Boolean isCompared = compared.get( dn.toLowerCase() );
+                if ( isCompared != null )
+                {
+                    results.put( inPerm, isCompared );
+                    continue;
+                }
+                Permission outPerm = outPerms.get( dn.toLowerCase() );
+                boolean isAuthZd = false;
+                String attributeValue;
+                if ( outPerm == null )
+                {
+                    // if permission not found, cannot authorize.
+                    attributeValue = "AuthZ Invalid";
+                }
+                else
+                {
+                    if ( outPerm.isAdmin() )
+                    {
+                        if ( activatedAdminRoles == null )
+                        {
+                            activatedAdminRoles = AuthZContext.getInheritedAdminRoles( session, inPerm.getContextId() );
+                        }
+                        isAuthZd = isAuthorized( session, outPerm, activatedAdminRoles );
+                    }
+                    else
+                    {
+                        if ( activatedRoles == null )
+                        {
+                            activatedRoles = AuthZContext.getInheritedRoles( session, inPerm.getContextId() );
+                        }
+                        isAuthZd = isAuthorized( session, outPerm, activatedRoles );
+                    }
+
+                    if ( isAuthZd )
+                    {
+                        attributeValue = outPerm.getOpName();
+                    }
+                    else
+                    {
+                        attributeValue = outPerm.getOpName() + GlobalIds.FAILED_AUTHZ_INDICATOR;
+                    }
+                }
+                results.put( inPerm, isAuthZd );
+
+                // LDAP Operation #2: Compare, one for each permission checked.
+                if ( !session.isGroupSession() )
+                {
+                    addAuthZAudit( ld, dn, session.getUser().getDn(), attributeValue );
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "checkPermission caught LdapException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_READ_OP_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "checkPermission caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_READ_OP_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Pull back, in one paged ldap search, the permission operations stored under the given root.  The filter is an or of
+     * the object names, operation names and object ids of the permissions, those without an object id match only operations
+     * that have none.  Entries found are matched back to the permissions by object name, operation name and object id.
+     *
+     * @param ld        contains a connection from the admin pool.
+     * @param rootDn    contains the dn of the root the permissions are stored in.
+     * @param inPerms   contains the permissions to search for, all stored under the given root.
+     * @param outPerms  receives the permissions found, keyed by their dn in lower case.
+     * @throws LdapException in the event ldap system exception occurs.
+     * @throws CursorException in the event ldap system exception occurs.
+     */
+    private void searchPermissions( LdapConnection ld, String rootDn, List<Permission> inPerms,
+        Map<String, Permission> outPerms ) throws LdapException, CursorException
+    {
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(|" );
+        Map<String, Permission> targets = new HashMap<>();
+        for ( Permission inPerm : inPerms )
+        {
+            filterbuf.append( "(&(" );
+            filterbuf.append( GlobalIds.POBJ_NAME );
+            filterbuf.append( "=" );
+            filterbuf.append( encodeSafeText( inPerm.getObjName(), GlobalIds.PERM_LEN ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( GlobalIds.POP_NAME );
+            filterbuf.append( "=" );
+            filterbuf.append( encodeSafeText( inPerm.getOpName(), GlobalIds.PERM_LEN ) );
+            filterbuf.append( ")" );
+            if ( StringUtils.isNotEmpty( inPerm.getObjId() ) )
+            {
+                filterbuf.append( "(" );
+                filterbuf.append( GlobalIds.POBJ_ID );
+                filterbuf.append( "=" );
+                filterbuf.append( encodeSafeText( inPerm.getObjId(), GlobalIds.PERM_LEN ) );
+                filterbuf.append( ")" );
+            }
+            else
+            {
+                filterbuf.append( "(!(" );
+                filterbuf.append( GlobalIds.POBJ_ID );
+                filterbuf.append( "=*))" );
+            }
+            filterbuf.append( ")" );
+            targets.put( getOpKey( inPerm.getObjName(), inPerm.getOpName(), inPerm.getObjId() ), inPerm );
+        }
+        filterbuf.append( "))" );
+
+        // Paged, so that no permission is cut off by a size limit:
+        SearchCursor searchResults = searchPaged( ld, rootDn, SearchScope.SUBTREE, filterbuf.toString(),
+            PERMISSION_OP_ATRS, false );
+        try
+        {
+            while ( searchResults.next() )
+            {
+                unloadPermission( searchResults.getEntry(), targets, outPerms );
+            }
+        }
+        catch ( LdapNoSuchObjectException e )
+        {
+            // The root doesn't exist so neither do the permissions:
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+        }
+    }
+
+
+    /**
+     * Match an entry found by {@link #searchPermissions} back to the permission it was searched for, and keep it.
+     */
+    private void unloadPermission( Entry entry, Map<String, Permission> targets, Map<String, Permission> outPerms )
+        throws LdapInvalidAttributeValueException
+    {
+        PermCache permCache = PermCache.getInstance();
+        // The names and object id are matched case insensitively here, as they are by the filter:
+        Permission inPerm = targets.get( getOpKey( getAttribute( entry, GlobalIds.POBJ_NAME ),
+            getAttribute( entry, GlobalIds.POP_NAME ), getAttribute( entry, GlobalIds.POBJ_ID ) ) );
+        if ( inPerm == null )
+        {
+            return;
+        }
+
+        // load the permission entity with data retrieved from the permission node:
+        Permission outPerm = unloadPopLdapEntry( entry, 0, inPerm.isAdmin() );
+        outPerm.setAdmin( inPerm.isAdmin() );
+        outPerm.setContextId( inPerm.getContextId() );
+        String dn = getDn( inPerm, inPerm.getContextId() ).toLowerCase();
+        outPerms.put( dn, outPerm );
+        if ( permCache.isEnabled() )
+        {
+            permCache.put( dn, inPerm.getContextId(), outPerm );
+        }
+        markLarge( dn, outPerm );
+    }
+
+
+    /**
+     *
+     * @param objName contains the object name of the permission.
+     * @param opName contains the operation name of the permission.
+     * @param objId contains the object id of the permission, may be null.
+     * @return key that identifies a permission operation within a root, case insensitive.
+     */
+    private static String getOpKey( String objName, String opName, String objId )
+    {
+        String key = objName + "," + opName;
+        if ( StringUtils.isNotEmpty( objId ) )
+        {
+            key += "," + objId;
+        }
+        return key.toLowerCase();
+    }
+
+
     /**
      * Perform LDAP compare operation here to associate audit record with user authorization event.
+     * If asynchronous audit is enabled the event is queued onto {@link AuthZAuditWriter} instead.
      *
-     * @param ld this method expects the ldap connection to be good
+     * @param ld this method expects the ldap connection to be good, or null, in which case one is borrowed from the admin pool.
      * @param permDn contains distinguished name of the permission object.
      * @param userDn contains the distinguished name of the user object.
      * @param attributeValue string value will be associated with the 'audit' record stored in ldap.
@@ -1332,8 +1876,22 @@ class PermDAO extends LdapDataProvider
         // Audit can be turned off here with fortress config param: 'disable.audit=true'
         if ( Config.getInstance().isOpenldap() && ! Config.getInstance().isAuditDisabled() )
         {
+            // If 'enable.audit.async=true' the compare is performed later on a background thread:
+            AuthZAuditWriter auditWriter = AuthZAuditWriter.getInstance();
+            if ( auditWriter.isEnabled() )
+            {
+                auditWriter.add( new AuthZAuditEvent( permDn, userDn, attributeValue ) );
+                return;
+            }
+
+            // The connection will be null if the permission was pulled from the cache:
+            boolean isLocalConnection = ( ld == null );
             try
             {
+                if ( isLocalConnection )
+                {
+                    ld = getAdminConnection();
+                }
                 // The compare method uses OpenLDAP's Proxy Authorization Control to assert identity of end user onto connection:
                 // LDAP Operation #2: Compare:
                 compareNode( ld, permDn, userDn, new DefaultAttribute( GlobalIds.POP_NAME, attributeValue ) );
@@ -1351,6 +1909,13 @@ class PermDAO extends LdapDataProvider
                     throw new FinderException( GlobalErrIds.PERM_COMPARE_OP_FAILED, error, e );
                 }
             }
+            finally
+            {
+                if ( isLocalConnection )
+                {
+                    closeAdminConnection( ld );
+                }
+            }
         }
     }
 
@@ -1380,35 +1945,25 @@ class PermDAO extends LdapDataProvider
 
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
+            // The inherited set is computed at createSession and reused until the activations or the hierarchy change:
+            Set<String> activatedRoles;
             if ( permission.isAdmin() )
             {
                 // ARBAC Permission check include's User's inherited admin roles:
-                Set<String> activatedRoles = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(),
-                    permission.getContextId() );
-
-                for ( String role : roles )
-                {
-                    // This is case insensitive op determines if user has matching admin role to the admin permission::
-                    if ( activatedRoles.contains( role ) )
-                    {
-                        result = true;
-                        break;
-                    }
-                }
+                activatedRoles = AuthZContext.getInheritedAdminRoles( session, permission.getContextId() );
             }
             else
             {
                 // RBAC Permission check include's User's inherited roles:
-                Set<String> activatedRoles = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), permission.getContextId() );
-
-                for ( String role : roles )
+                activatedRoles = AuthZContext.getInheritedRoles( session, permission.getContextId() );
+            }
+            for ( String role : roles )
+            {
+                // This is case insensitive op determines if user has matching role:
+                if ( activatedRoles.contains( role ) )
                 {
-                    // This is case insensitive op determines if user has matching role:
-                    if ( activatedRoles.contains( role ) )
-                    {
-                        result = true;
-                        break;
-                    }
+                    result = true;
+                    break;
                 }
             }
         }
@@ -1417,6 +1972,43 @@ class PermDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #isAuthorized(Session, Permission)} but tests against an inherited role set that has already been computed.
+     *
+     * @param session contains the {@link org.apache.directory.fortress.core.model.Session#getUserId()}.
+     * @param permission contains {@link org.apache.directory.fortress.core.model.Permission#getUsers()} and {@link Permission#getRoles()}.
+     * @param activatedRoles contains the inherited roles, or admin roles if the permission is administrative, of the session, case insensitive.
+     * @return binary result.
+     */
+    private boolean isAuthorized( Session session, Permission permission, Set<String> activatedRoles )
+    {
+        Set<String> userIds = permission.getUsers();
+
+        if ( !session.isGroupSession() && CollectionUtils.isNotEmpty( userIds )
+                && userIds.contains( session.getUserId() ) )
+        {
+            // user is assigned directly to this permission, no need to look further.
+            return true;
+        }
+
+        Set<String> roles = permission.getRoles();
+
+        if ( CollectionUtils.isNotEmpty( roles ) )
+        {
+            for ( String role : roles )
+            {
+                // This is case insensitive op determines if user has matching role:
+                if ( activatedRoles.contains( role ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+
     /**
      * @param le
      * @param sequence
@@ -1525,23 +2117,10 @@ class PermDAO extends LdapDataProvider
 
         try
         {
-            String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
-            String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-            filterbuf.append( GlobalIds.POBJ_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permObjVal );
-            filterbuf.append( "*)(" );
-            filterbuf.append( GlobalIds.POP_NAME );
-            filterbuf.append( "=" );
-            filterbuf.append( permOpVal );
-            filterbuf.append(  "*))" );
+            String filter = getFindPermissionsFilter( permission );
             ld = getAdminConnection();
             SearchCursor searchResults = search( ld, permRoot,
-                SearchScope.SUBTREE, filterbuf.toString(), PERMISSION_OP_ATRS, false, GlobalIds.BATCH_SIZE );
+                SearchScope.SUBTREE, filter, PERMISSION_OP_ATRS, false, GlobalIds.BATCH_SIZE );
             long sequence = 0;
 
             while ( searchResults.next() )
@@ -1566,6 +2145,145 @@ class PermDAO extends LdapDataProvider
         return permList;
     }
 
+
+    /**
+     * Same as {@link #findPermissions(Permission)} but pages through every matching entry, in constant memory.
+     *
+     * @param permission
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void findPermissions( Permission permission, SearchHandler<Permission> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String permRoot = getRootDn( permission.isAdmin(), permission.getContextId() );
+
+        try
+        {
+            String filter = getFindPermissionsFilter( permission );
+            ld = getAdminConnection();
+            searchResults = searchPaged( ld, permRoot, SearchScope.SUBTREE, filter, PERMISSION_OP_ATRS, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                if ( !handler.handle( unloadPopLdapEntry( searchResults.getEntry(), sequence++, permission.isAdmin() ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String error = "findPermissions caught LdapException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findPermissions caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeAdminConnection( ld );
+        }
+    }
+
+
+    /**
+     * Pass every rbac permission operation of a tenant, along with its {@code modifyTimestamp}, to the handler as it's
+     * pulled back by a paged search.  Used to load and to keep up to date the {@link PolicySnapshot}.
+     *
+     * @param contextId  maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @param stampsOnly if true only the object name, operation name and object id of each operation are loaded.
+     * @param handler    receives each operation.  Return false to stop the search.
+     * @throws SecurityException in the event of system error, or if thrown by the handler.
+     */
+    void findOperations( String contextId, boolean stampsOnly, SearchHandler<PolicySnapshot.Stamped> handler )
+        throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String permRoot = getRootDn( false, contextId );
+
+        try
+        {
+            String filter = GlobalIds.FILTER_PREFIX + PERM_OP_OBJECT_CLASS_NAME + "))";
+            ld = getAdminConnection();
+            searchResults = searchPaged( ld, permRoot, SearchScope.SUBTREE, filter,
+                stampsOnly ? PERMISSION_OP_STAMP_ATRS : PERMISSION_OP_STAMPED_ATRS, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                Entry entry = searchResults.getEntry();
+                Permission perm;
+                if ( stampsOnly )
+                {
+                    perm = new Permission( getAttribute( entry, GlobalIds.POBJ_NAME ),
+                        getAttribute( entry, GlobalIds.POP_NAME ), getAttribute( entry, GlobalIds.POBJ_ID ) );
+                }
+                else
+                {
+                    perm = unloadPopLdapEntry( entry, sequence++, false );
+                    perm.setContextId( contextId );
+                }
+                if ( !handler.handle( new PolicySnapshot.Stamped( perm,
+                    getAttribute( entry, SchemaConstants.MODIFY_TIMESTAMP_AT ) ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapNoSuchObjectException e )
+        {
+            // The tenant has no permissions yet.
+        }
+        catch ( LdapException e )
+        {
+            String error = "findOperations caught LdapException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        catch ( CursorException e )
+        {
+            String error = "findOperations caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, error, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeAdminConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param permission
+     * @return filter for {@link #findPermissions(Permission)}.
+     * @throws LdapException
+     */
+    private String getFindPermissionsFilter( Permission permission ) throws LdapException
+    {
+        String permObjVal = encodeSafeText( permission.getObjName(), GlobalIds.PERM_LEN );
+        String permOpVal = encodeSafeText( permission.getOpName(), GlobalIds.PERM_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( PERM_OP_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+        filterbuf.append( GlobalIds.POBJ_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permObjVal );
+        filterbuf.append( "*)(" );
+        filterbuf.append( GlobalIds.POP_NAME );
+        filterbuf.append( "=" );
+        filterbuf.append( permOpVal );
+        filterbuf.append(  "*))" );
+
+        return filterbuf.toString();
+    }
+
     List<Permission> findPermissionOperations( PermObj permObj )
             throws FinderException
         {
@@ -1820,6 +2538,24 @@ class PermDAO extends LdapDataProvider
         {
             permRoot = getRootDn( role.getContextId(), GlobalIds.PERM_ROOT );
         }
+
+        // There is a switch in fortress config to hold the rbac permissions in memory.
+        PolicySnapshot snapshot = PolicySnapshot.getInstance();
+        if ( !isAdmin && snapshot.isEnabled() )
+        {
+            Set<String> roles = new HashSet<>();
+            roles.add( role.getName() );
+            if ( !noInheritance )
+            {
+                Set<String> ascendants = RoleUtil.getInstance().getAscendants( role.getName(), role.getContextId() );
+                if ( ascendants != null )
+                {
+                    roles.addAll( ascendants );
+                }
+            }
+            return snapshot.getPermissions( null, roles, role.getContextId() );
+        }
+
         try
         {
             String roleVal = encodeSafeText( role.getName(), GlobalIds.ROLE_LEN );
@@ -2027,6 +2763,14 @@ class PermDAO extends LdapDataProvider
         LdapConnection ld = null;
         String permRoot = getRootDn( isAdmin, session.getContextId() );
 
+        // There is a switch in fortress config to hold the rbac permissions in memory.
+        PolicySnapshot snapshot = PolicySnapshot.getInstance();
+        if ( !isAdmin && snapshot.isEnabled() )
+        {
+            return snapshot.getPermissions( session.isGroupSession() ? null : session.getUserId(),
+                AuthZContext.getInheritedRoles( session, session.getContextId() ), session.getContextId() );
+        }
+
         try
         {
             StringBuilder filterbuf = new StringBuilder();
@@ -2044,11 +2788,11 @@ class PermDAO extends LdapDataProvider
             Set<String> roles;
             if ( isAdmin )
             {
-                roles = AdminRoleUtil.getInheritedRoles( session.getAdminRoles(), session.getContextId() );
+                roles = AuthZContext.getInheritedAdminRoles( session, session.getContextId() );
             }
             else
             {
-                roles = RoleUtil.getInstance().getInheritedRoles( session.getRoles(), session.getContextId() );
+                roles = AuthZContext.getInheritedRoles( session, session.getContextId() );
             }
             if ( CollectionUtils.isNotEmpty( roles ) )
             {
@@ -2094,6 +2838,21 @@ class PermDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Flush the cached admin access decisions, see {@link AdminAccessCache}, after an admin permission has been revoked,
+     * changed or removed.
+     *
+     * @param isAdmin true if the permission is in the admin permission tree.
+     */
+    private static void flushAdminAccess( boolean isAdmin )
+    {
+        if ( isAdmin )
+        {
+            AdminAccessCache.getInstance().flush();
+        }
+    }
+
+
     /**
      * @param opName
      * @param objId
@@ -21,6 +21,7 @@ package org.apache.directory.fortress.core.impl;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -28,6 +29,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.FinderException;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ValidationException;
 import org.apache.directory.fortress.core.model.AdminRole;
@@ -90,6 +92,21 @@ final class PermP
     }
 
 
+    /**
+     * This function returns, for each of the given permissions, the same Boolean value as {@link #checkPermission(Session, Permission)}.
+     * The permissions are retrieved from ldap together and the session's inherited roles are computed once.
+     *
+     * @param session     This object must be instantiated by calling {@link AccessMgrImpl#createSession} method before passing into the method.  No variables need to be set by client after returned from createSession.
+     * @param permissions each contains obj and operation names of the permission user is trying to access.
+     * @return Map keyed by the permissions passed in, in the same order, with value true if user has access, false otherwise.
+     * @throws SecurityException in the event of data validation failure, security policy violation or DAO error.
+     */
+    Map<Permission, Boolean> checkPermission( Session session, List<Permission> permissions ) throws SecurityException
+    {
+        return pDao.checkPermission( session, permissions );
+    }
+
+
     /**
      * Takes a Permission entity that contains full or partial object name and/or full or partial operation name for search.
      *
@@ -101,6 +118,19 @@ final class PermP
     {
         return pDao.findPermissions( permission );
     }
+
+
+    /**
+     * Same as {@link #search(Permission)} but passes the matching entities to the handler one at a time, as they are paged in.
+     *
+     * @param permission contains all or partial object name and/or all or partial operation name.
+     * @param handler    receives each Permission, may stop the search.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    void search( Permission permission, SearchHandler<Permission> handler ) throws SecurityException
+    {
+        pDao.findPermissions( permission, handler );
+    }
     
     /**
      * Takes a permission object that contains an object name and returns permisison operations for that object
@@ -204,16 +234,20 @@ final class PermP
      * @param user contains the userId targeted for attribute removal.
      * @throws SecurityException in the event of DAO search error.
      */
-    void remove( User user ) throws SecurityException
+    void remove( final User user ) throws SecurityException
     {
         List<Permission> list;
         try
         {
             list = pDao.findUserPermissions( user );
-            for ( Permission perm : list )
+            BulkLoader.cascade( "remove userId [" + user.getUserId() + "] revoke", list, new BulkLoader.Step<Permission>()
             {
-                revoke( perm, user );
-            }
+                @Override
+                public void apply( Permission perm ) throws SecurityException
+                {
+                    revoke( perm, user );
+                }
+            } );
         }
         catch ( FinderException fe )
         {
@@ -230,16 +264,20 @@ final class PermP
      * @param role contains the name of Role targeted for attribute removal.
      * @throws SecurityException in the event of DAO search error.
      */
-    void remove( Role role ) throws SecurityException
+    void remove( final Role role ) throws SecurityException
     {
         List<Permission> list;
         try
         {
             list = search( role );
-            for ( Permission perm : list )
+            BulkLoader.cascade( "remove role [" + role.getName() + "] revoke", list, new BulkLoader.Step<Permission>()
             {
-                revoke( perm, role );
-            }
+                @Override
+                public void apply( Permission perm ) throws SecurityException
+                {
+                    revoke( perm, role );
+                }
+            } );
         }
         catch ( FinderException fe )
         {
@@ -256,17 +294,21 @@ final class PermP
      * @param role contains the name of AdminRole targeted for attribute removal.
      * @throws SecurityException in the event of DAO search error.
      */
-    void remove( AdminRole role ) throws SecurityException
+    void remove( final AdminRole role ) throws SecurityException
     {
         List<Permission> list;
         try
         {
             list = search( role );
-            for ( Permission perm : list )
+            BulkLoader.cascade( "remove admin role [" + role.getName() + "] revoke", list, new BulkLoader.Step<Permission>()
             {
-                perm.setAdmin( true );
-                revoke( perm, role );
-            }
+                @Override
+                public void apply( Permission perm ) throws SecurityException
+                {
+                    perm.setAdmin( true );
+                    revoke( perm, role );
+                }
+            } );
         }
         catch ( FinderException fe )
         {
@@ -503,8 +545,24 @@ final class PermP
      * @param entity Contains the Permission Object name targeted for deletion.
      * @throws SecurityException in the event of data validation or DAO system error.
      */
-    void delete( PermObj entity ) throws SecurityException
+    void delete( final PermObj entity ) throws SecurityException
     {
+        // remove the operations first, concurrently, each carries the audit context of the object:
+        List<Permission> operations = pDao.findPermissionOperations( entity );
+        BulkLoader.cascade( "delete objName [" + entity.getObjName() + "] operations", operations,
+            new BulkLoader.Step<Permission>()
+            {
+                @Override
+                public void apply( Permission operation ) throws SecurityException
+                {
+                    operation.setContextId( entity.getContextId() );
+                    operation.setAdmin( entity.isAdmin() );
+                    operation.setAdminSession( entity.getAdminSession() );
+                    operation.setModCode( entity.getModCode() );
+                    pDao.deleteOperation( operation );
+                }
+            } );
+        // then the object itself, along with anything left under it:
         pDao.deleteObj( entity );
     }
 
@@ -0,0 +1,696 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.directory.fortress.core.FinderException;
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SearchHandler;
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.util.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This utility maintains an optional, in-memory copy of every RBAC permission operation of a tenant, so that
+ * {@link PermDAO#checkPermission}, and the searches behind {@link org.apache.directory.fortress.core.AccessMgr#sessionPermissions}
+ * and {@link org.apache.directory.fortress.core.ReviewMgr#rolePermissions}, are answered without going to ldap.  The role
+ * hierarchies these depend on are already held in memory by {@link RoleUtil}.
+ * <p>
+ * A tenant's snapshot is loaded, with a paged search, the first time it's used.  It is then kept up to date in two ways:
+ * <ul>
+ *   <li>Changes made via {@link PermDAO} within this process are applied as soon as they've been written.</li>
+ *   <li>A background thread scans the names and {@code modifyTimestamp} of the operations every
+ *   {@code policy.snapshot.interval} milliseconds, re-reads those that have changed and drops those that are gone.  This
+ *   bounds the staleness of changes made by other processes.  The timestamp only goes to the second, so those stamped
+ *   in the same second as the latest change already seen are read again too.</li>
+ * </ul>
+ * The snapshot is switched off by default and may be enabled with fortress config param: {@code enable.policy.snapshot=true}.
+ * Admin permissions aren't included.  The authorization audit is unaffected, so for checks to be made with no network I/O
+ * at all, audit must also be disabled or asynchronous, i.e. {@code disable.audit=true} or {@code enable.audit.async=true}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PolicySnapshot
+{
+    private static final String CLS_NM = PolicySnapshot.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String IS_POLICY_SNAPSHOT_ENABLED_PARM = "enable.policy.snapshot";
+    private static final String POLICY_SNAPSHOT_INTERVAL = "policy.snapshot.interval";
+    // Beyond this many changes found by one scan, the tenant is reloaded rather than read one operation at a time:
+    private static final int MAX_DELTA = 100;
+    private final ConcurrentMap<String, Policy> policies = new ConcurrentHashMap<>();
+    // Held while a tenant is loaded, so its callers wait for the one load without holding up the other tenants:
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<>();
+    private PermDAO permDao;
+    private boolean isEnabled;
+
+    private static volatile PolicySnapshot sINSTANCE = null;
+
+    static PolicySnapshot getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( PolicySnapshot.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new PolicySnapshot();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        isEnabled = Config.getInstance().getBoolean( IS_POLICY_SNAPSHOT_ENABLED_PARM, false );
+        if ( isEnabled )
+        {
+            permDao = new PermDAO();
+            startPoller( Config.getInstance().getInt( POLICY_SNAPSHOT_INTERVAL, 30000 ) );
+            LOG.info( "init policy snapshot enabled" );
+        }
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private PolicySnapshot()
+    {
+        init();
+    }
+
+
+    /**
+     * Return true if the policy snapshot has been switched on in fortress config.
+     *
+     * @return boolean value of {@code enable.policy.snapshot}.
+     */
+    boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Return the permission operation with the object name, operation name and object id of the given one.  The entity
+     * returned is shared, it must not be changed or passed out of fortress.
+     *
+     * @param inPerm contains the names and the tenant of the permission.
+     * @return permission containing users and roles, or null if it doesn't exist.
+     * @throws FinderException if the tenant's snapshot couldn't be loaded.
+     */
+    Permission getPermission( Permission inPerm ) throws FinderException
+    {
+        return getPolicy( inPerm.getContextId() ).get( getKey( inPerm ) );
+    }
+
+
+    /**
+     * Return copies of the permission operations granted to a user, directly or via one of the given roles.
+     *
+     * @param userId    of the user, null for a group session.
+     * @param roles     the user's activated roles and those they inherit.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return list of permissions, in no particular order.
+     * @throws FinderException if the tenant's snapshot couldn't be loaded.
+     */
+    List<Permission> getPermissions( String userId, Collection<String> roles, String contextId ) throws FinderException
+    {
+        return copy( getPolicy( contextId ).find( userId, roles ) );
+    }
+
+
+    /**
+     * Bring an operation up to date after it has been created, changed or removed by this process.  Nothing is done if
+     * the tenant hasn't been loaded.  If the operation can't be read, the tenant is dropped, and reloaded when next used.
+     *
+     * @param pOp contains the names and the tenant of the operation.
+     */
+    void refresh( Permission pOp )
+    {
+        if ( !isEnabled || pOp.isAdmin() || !policies.containsKey( getKey( pOp.getContextId() ) ) )
+        {
+            return;
+        }
+        Permission outPerm = null;
+        try
+        {
+            Permission target = new Permission( pOp.getObjName(), pOp.getOpName(), pOp.getObjId() );
+            target.setContextId( pOp.getContextId() );
+            outPerm = read( target );
+        }
+        catch ( FinderException fe )
+        {
+            LOG.warn( "refresh failed to read permission [{}], dropping snapshot of tenant [{}], error={}", pOp,
+                pOp.getContextId(), fe.getMessage() );
+            invalidate( pOp.getContextId() );
+            return;
+        }
+        Map<String, Permission> changed = new HashMap<>();
+        // The timestamp isn't known here, so the next scan reads the operation once more:
+        changed.put( getKey( pOp ), outPerm );
+        apply( pOp.getContextId(), changed, Collections.<String, String>emptyMap() );
+    }
+
+
+    /**
+     * Drop a tenant's snapshot, e.g. after a permission object and its operations have been removed.  It's reloaded when
+     * next used.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     */
+    void invalidate( String contextId )
+    {
+        if ( isEnabled )
+        {
+            policies.remove( getKey( contextId ) );
+        }
+    }
+
+
+    /**
+     * Return the tenant's snapshot, loading it if need be.  Concurrent callers wait for the one load.
+     */
+    private Policy getPolicy( String contextId ) throws FinderException
+    {
+        String key = getKey( contextId );
+        Policy policy = policies.get( key );
+        if ( policy == null )
+        {
+            synchronized ( getLock( key ) )
+            {
+                policy = policies.get( key );
+                if ( policy == null )
+                {
+                    policy = load( contextId );
+                    policies.put( key, policy );
+                }
+            }
+        }
+        return policy;
+    }
+
+
+    private Object getLock( String key )
+    {
+        Object lock = locks.get( key );
+        if ( lock == null )
+        {
+            Object newLock = new Object();
+            lock = locks.putIfAbsent( key, newLock );
+            if ( lock == null )
+            {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+
+    private Policy load( String contextId ) throws FinderException
+    {
+        final Map<String, Permission> perms = new HashMap<>();
+        final Map<String, String> stamps = new HashMap<>();
+        try
+        {
+            permDao.findOperations( contextId, false, new SearchHandler<Stamped>()
+            {
+                @Override
+                public boolean handle( Stamped op )
+                {
+                    String key = getKey( op.getPermission() );
+                    perms.put( key, op.getPermission() );
+                    stamps.put( key, op.getStamp() );
+                    return true;
+                }
+            } );
+        }
+        catch ( FinderException fe )
+        {
+            throw fe;
+        }
+        catch ( org.apache.directory.fortress.core.SecurityException se )
+        {
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, "load caught " + se, se );
+        }
+        LOG.info( "load policy snapshot of tenant [{}], {} permissions", contextId, perms.size() );
+        return new Policy( perms, stamps );
+    }
+
+
+    /**
+     * Compare each loaded tenant with the directory and apply the differences.
+     */
+    void poll()
+    {
+        for ( String key : new ArrayList<>( policies.keySet() ) )
+        {
+            String contextId = key.isEmpty() ? null : key;
+            try
+            {
+                poll( contextId );
+            }
+            catch ( FinderException fe )
+            {
+                LOG.warn( "poll failed for tenant [{}], dropping snapshot, error={}", contextId, fe.getMessage() );
+                policies.remove( key );
+            }
+        }
+    }
+
+
+    private void poll( String contextId ) throws FinderException
+    {
+        final Policy policy = policies.get( getKey( contextId ) );
+        if ( policy == null )
+        {
+            return;
+        }
+        final Set<String> seen = new HashSet<>();
+        final Map<String, Permission> targets = new LinkedHashMap<>();
+        final Map<String, String> stamps = new HashMap<>();
+        try
+        {
+            permDao.findOperations( contextId, true, new SearchHandler<Stamped>()
+            {
+                @Override
+                public boolean handle( Stamped op )
+                {
+                    String key = getKey( op.getPermission() );
+                    seen.add( key );
+                    // Read again those stamped in the second of the latest change seen, which may have changed since:
+                    if ( !StringUtils.equals( op.getStamp(), policy.getStamp( key ) ) || policy.isRecent( op.getStamp() ) )
+                    {
+                        targets.put( key, op.getPermission() );
+                        stamps.put( key, op.getStamp() );
+                    }
+                    return true;
+                }
+            } );
+        }
+        catch ( FinderException fe )
+        {
+            throw fe;
+        }
+        catch ( org.apache.directory.fortress.core.SecurityException se )
+        {
+            throw new FinderException( GlobalErrIds.PERM_SEARCH_FAILED, "poll caught " + se, se );
+        }
+
+        Map<String, Permission> changed = new HashMap<>();
+        for ( String key : policy.keys() )
+        {
+            if ( !seen.contains( key ) )
+            {
+                changed.put( key, null );
+            }
+        }
+        if ( targets.size() > MAX_DELTA )
+        {
+            String key = getKey( contextId );
+            synchronized ( getLock( key ) )
+            {
+                // Unless the snapshot has been changed or dropped meanwhile, in which case the next scan picks it up:
+                policies.replace( key, policy, load( contextId ) );
+            }
+            return;
+        }
+        for ( Map.Entry<String, Permission> target : targets.entrySet() )
+        {
+            target.getValue().setContextId( contextId );
+            changed.put( target.getKey(), read( target.getValue() ) );
+        }
+        if ( !changed.isEmpty() )
+        {
+            LOG.debug( "poll tenant [{}] applying {} changes", contextId, changed.size() );
+            apply( contextId, changed, stamps );
+        }
+    }
+
+
+    /**
+     * Replace the tenant's snapshot with one that has the changes, unless it has been dropped in the meantime.
+     */
+    private void apply( String contextId, Map<String, Permission> changed, Map<String, String> stamps )
+    {
+        String key = getKey( contextId );
+        while ( true )
+        {
+            Policy policy = policies.get( key );
+            if ( policy == null || policies.replace( key, policy, policy.with( changed, stamps ) ) )
+            {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Read an operation.
+     *
+     * @return the operation, or null if it doesn't exist.
+     */
+    private Permission read( Permission target ) throws FinderException
+    {
+        try
+        {
+            Permission outPerm = permDao.getPerm( target );
+            outPerm.setContextId( target.getContextId() );
+            return outPerm;
+        }
+        catch ( FinderException fe )
+        {
+            if ( fe.getErrorId() == GlobalErrIds.PERM_OP_NOT_FOUND )
+            {
+                return null;
+            }
+            throw fe;
+        }
+    }
+
+
+    private void startPoller( final long interval )
+    {
+        if ( interval <= 0 )
+        {
+            return;
+        }
+        Thread poller = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while ( !Thread.currentThread().isInterrupted() )
+                {
+                    try
+                    {
+                        Thread.sleep( interval );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                    try
+                    {
+                        poll();
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        LOG.warn( "poll caught " + e, e );
+                    }
+                }
+            }
+        }, "fortress-policy-snapshot" );
+        poller.setDaemon( true );
+        poller.start();
+    }
+
+
+    /**
+     * @param perm contains the object name, operation name and object id.
+     * @return key of the operation within its tenant, case insensitive like the rdn values on the server.
+     */
+    static String getKey( Permission perm )
+    {
+        String key = perm.getObjName() + "," + perm.getOpName();
+        if ( StringUtils.isNotEmpty( perm.getObjId() ) )
+        {
+            key += "," + perm.getObjId();
+        }
+        return key.toLowerCase();
+    }
+
+
+    private static String getKey( String contextId )
+    {
+        return StringUtils.isEmpty( contextId ) || contextId.equalsIgnoreCase( GlobalIds.NULL ) ? "" : contextId;
+    }
+
+
+    /**
+     * Return a copy of each permission, so the callers may change them without affecting the snapshot.
+     */
+    private static List<Permission> copy( Collection<Permission> perms )
+    {
+        List<Permission> copies = new ArrayList<>( perms.size() );
+        for ( Permission perm : perms )
+        {
+            Permission copy = new Permission( perm.getObjName(), perm.getOpName(), perm.getObjId() );
+            copy.setAbstractName( perm.getAbstractName() );
+            copy.setInternalId( perm.getInternalId() );
+            copy.setType( perm.getType() );
+            copy.setDescription( perm.getDescription() );
+            copy.setAdmin( perm.isAdmin() );
+            copy.setDn( perm.getDn() );
+            copy.setContextId( perm.getContextId() );
+            copy.setRoles( copySet( perm.getRoles() ) );
+            copy.setUsers( copySet( perm.getUsers() ) );
+            copy.setPaSets( new HashSet<>( perm.getPaSets() ) );
+            Properties props = perm.getProperties();
+            if ( props != null )
+            {
+                copy.addProperties( props );
+            }
+            copies.add( copy );
+        }
+        return copies;
+    }
+
+
+    private static Set<String> copySet( Set<String> values )
+    {
+        Set<String> copy = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        if ( values != null )
+        {
+            copy.addAll( values );
+        }
+        return copy;
+    }
+
+
+    /**
+     * An operation as found by {@link PermDAO#findOperations}, along with its {@code modifyTimestamp}.
+     */
+    static final class Stamped
+    {
+        private final Permission permission;
+        private final String stamp;
+
+
+        Stamped( Permission permission, String stamp )
+        {
+            this.permission = permission;
+            this.stamp = stamp;
+        }
+
+
+        Permission getPermission()
+        {
+            return permission;
+        }
+
+
+        String getStamp()
+        {
+            return stamp;
+        }
+    }
+
+
+    /**
+     * The operations of one tenant, indexed by key, role and user.  Never changed once built, a change produces a new one.
+     */
+    static final class Policy
+    {
+        private final Map<String, Permission> perms;
+        private final Map<String, String> stamps;
+        // The latest of the stamps:
+        private final String mark;
+        // Lower case role names and userIds to the operations granted to them:
+        private final Map<String, List<Permission>> byRole = new HashMap<>();
+        private final Map<String, List<Permission>> byUser = new HashMap<>();
+
+
+        /**
+         * @param perms  operations by key, see {@link PolicySnapshot#getKey(Permission)}.
+         * @param stamps the {@code modifyTimestamp} of each operation, by key, may be missing.
+         */
+        Policy( Map<String, Permission> perms, Map<String, String> stamps )
+        {
+            this.perms = perms;
+            this.stamps = stamps;
+            String latest = null;
+            for ( String stamp : stamps.values() )
+            {
+                if ( stamp != null && ( latest == null || stamp.compareTo( latest ) > 0 ) )
+                {
+                    latest = stamp;
+                }
+            }
+            this.mark = latest;
+            for ( Permission perm : perms.values() )
+            {
+                index( byRole, perm.getRoles(), perm );
+                index( byUser, perm.getUsers(), perm );
+            }
+        }
+
+
+        Permission get( String key )
+        {
+            return perms.get( key );
+        }
+
+
+        String getStamp( String key )
+        {
+            return stamps.get( key );
+        }
+
+
+        /**
+         * @param stamp the {@code modifyTimestamp} of an operation, may be null.
+         * @return true if it's no earlier than the latest stamp of the policy, i.e. the operation may have changed again
+         * in the same second since it was read.
+         */
+        boolean isRecent( String stamp )
+        {
+            return stamp != null && mark != null && stamp.compareTo( mark ) >= 0;
+        }
+
+
+        Set<String> keys()
+        {
+            return perms.keySet();
+        }
+
+
+        /**
+         * @param userId of a user, may be null.
+         * @param roles  names of roles, may be null.
+         * @return the operations granted to the user or to any of the roles, each once.
+         */
+        Collection<Permission> find( String userId, Collection<String> roles )
+        {
+            Map<String, Permission> found = new LinkedHashMap<>();
+            if ( userId != null )
+            {
+                add( found, byUser.get( userId.toLowerCase() ) );
+            }
+            if ( roles != null )
+            {
+                for ( String role : roles )
+                {
+                    add( found, byRole.get( role.toLowerCase() ) );
+                }
+            }
+            return found.values();
+        }
+
+
+        /**
+         * @param changed operations by key, a null value for one that has been removed.
+         * @param stamps  the new {@code modifyTimestamp} of the changed operations, if known.
+         * @return a new policy with the changes.
+         */
+        Policy with( Map<String, Permission> changed, Map<String, String> stamps )
+        {
+            Map<String, Permission> newPerms = new HashMap<>( perms );
+            Map<String, String> newStamps = new HashMap<>( this.stamps );
+            for ( Map.Entry<String, Permission> change : changed.entrySet() )
+            {
+                if ( change.getValue() == null )
+                {
+                    newPerms.remove( change.getKey() );
+                }
+                else
+                {
+                    newPerms.put( change.getKey(), change.getValue() );
+                }
+                newStamps.remove( change.getKey() );
+            }
+            for ( Map.Entry<String, String> stamp : stamps.entrySet() )
+            {
+                if ( newPerms.containsKey( stamp.getKey() ) )
+                {
+                    newStamps.put( stamp.getKey(), stamp.getValue() );
+                }
+            }
+            return new Policy( newPerms, newStamps );
+        }
+
+
+        private static void index( Map<String, List<Permission>> index, Set<String> names, Permission perm )
+        {
+            if ( CollectionUtils.isEmpty( names ) )
+            {
+                return;
+            }
+            for ( String name : names )
+            {
+                String key = name.toLowerCase();
+                List<Permission> granted = index.get( key );
+                if ( granted == null )
+                {
+                    granted = new ArrayList<>();
+                    index.put( key, granted );
+                }
+                granted.add( perm );
+            }
+        }
+
+
+        private static void add( Map<String, Permission> found, List<Permission> granted )
+        {
+            if ( granted != null )
+            {
+                for ( Permission perm : granted )
+                {
+                    found.put( getKey( perm ), perm );
+                }
+            }
+        }
+    }
+}
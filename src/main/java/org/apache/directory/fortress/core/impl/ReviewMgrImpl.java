@@ -32,6 +32,7 @@ import org.apache.directory.fortress.annotation.AdminPermissionOperation;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.ReviewMgr;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.OrgUnit;
 import org.apache.directory.fortress.core.model.PermObj;
@@ -155,6 +156,22 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return permP.search( permission );
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation
+    public void findPermissions(Permission permission, SearchHandler<Permission> handler)
+        throws SecurityException
+    {
+        String methodName = "findPermissions";
+        assertContext(CLS_NM, methodName, permission, GlobalErrIds.PERM_OPERATION_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.PERM_OPERATION_NULL, CLS_NM + "." + methodName);
+        checkAccess(CLS_NM, methodName);
+        permP.search(permission, handler);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -288,6 +305,22 @@ public class ReviewMgrImpl extends Manageable implements ReviewMgr, Serializable
         return userP.search( user );
     }
 
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @AdminPermissionOperation
+    public final void findUsers(User user, SearchHandler<User> handler)
+        throws SecurityException
+    {
+        String methodName = "findUsers";
+        assertContext(CLS_NM, methodName, user, GlobalErrIds.USER_NULL);
+        VUtil.assertNotNull(handler, GlobalErrIds.USER_NULL, CLS_NM + "." + methodName);
+        checkAccess(CLS_NM, methodName);
+        userP.search(user, handler);
+    }
+
     /**
      * {@inheritDoc}
      */
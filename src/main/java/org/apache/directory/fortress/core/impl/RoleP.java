@@ -146,7 +146,24 @@ final class RoleP
      */
     Role add( Role entity ) throws SecurityException
     {
-        validate( entity );
+        return add( entity, true );
+    }
+
+
+    /**
+     * Adds a new Role entity to directory.
+     *
+     * @param entity   Role entity contains data targeted for insertion.
+     * @param validate if false will skip the validations described in {@link #add(Role)}.
+     * @return Role entity copy of input + additional attributes (internalId) that were added by op.
+     * @throws SecurityException in the event of data validation or DAO system error.
+     */
+    Role add( Role entity, boolean validate ) throws SecurityException
+    {
+        if ( validate )
+        {
+            validate( entity );
+        }
         return rDao.create( entity );
     }
 
@@ -240,18 +257,22 @@ final class RoleP
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
      * @throws SecurityException in the event of DAO search error.
      */
-    void removeOccupant( String userDn, String contextId ) throws SecurityException
+    void removeOccupant( final String userDn, final String contextId ) throws SecurityException
     {
         List<String> list;
         try
         {
             list = rDao.findAssignedRoles( userDn, contextId );
-            for ( String roleNm : list )
+            BulkLoader.cascade( "removeOccupant userDn [" + userDn + "]", list, new BulkLoader.Step<String>()
             {
-                Role role = new Role( roleNm );
-                role.setContextId( contextId );
-                deassign( role, userDn );
-            }
+                @Override
+                public void apply( String roleNm ) throws SecurityException
+                {
+                    Role role = new Role( roleNm );
+                    role.setContextId( contextId );
+                    deassign( role, userDn );
+                }
+            } );
         }
         catch ( FinderException fe )
         {
@@ -282,7 +303,7 @@ final class RoleP
      * @param entity contains data targeted for insertion or update.
      * @throws org.apache.directory.fortress.core.ValidationException in the event of data validation error or Org validation.
      */
-    private void validate( Role entity )
+    void validate( Role entity )
         throws ValidationException
     {
         VUtil.safeText( entity.getName(), GlobalIds.ROLE_LEN );
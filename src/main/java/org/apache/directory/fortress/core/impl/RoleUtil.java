@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core.impl;
 
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -68,6 +69,15 @@ final class RoleUtil implements ParentUtil
     private RoleP roleP = new RoleP();
     private static final String CLS_NM = RoleUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    // Reads the hierarchy, on a miss or in the background, see GraphRefresher:
+    private final GraphRefresher.Loader loader = new GraphRefresher.Loader()
+    {
+        @Override
+        public List<Graphable> getAllDescendants( String contextId ) throws SecurityException
+        {
+            return roleP.getAllDescendants( contextId );
+        }
+    };
 
     private static volatile RoleUtil sINSTANCE = null;
 
@@ -185,15 +195,18 @@ final class RoleUtil implements ParentUtil
 
 
     /**
-     * Traverse the hierarchical role graph and return all of the parents (direct ascendants) of a given role.
+     * Return all of the parents (direct ascendants) of a given role.  Called back by
+     * {@link org.apache.directory.fortress.core.model.UserRole#getParents()}, it's answered from the closure of the role
+     * graph rather than by a walk of the graph.
      *
      * @param roleName maps to logical {@link org.apache.directory.fortress.core.model.Role#name} on 'ftRls' object class.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return Set of Role names that are parents of given child.
+     * @return Set of Role names that are parents of given child, a copy the caller may change.
      */
     public Set<String> getParentsCB( String roleName, String contextId )
     {
-        return HierUtil.getParents( roleName.toUpperCase(), getGraph( contextId ) );
+        Set<String> parents = getClosure( contextId ).getParents( roleName );
+        return parents != null ? new HashSet<>( parents ) : null;
     }
 
 
@@ -224,15 +237,12 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( uRoles ) )
         {
+            HierClosure closure = getClosure( contextId );
             for ( UserRole uRole : uRoles )
             {
                 String rleName = uRole.getName();
                 iRoles.add( rleName );
-                Set<String> parents = HierUtil.getAscendants( rleName, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iRoles.addAll( parents );
-                }
+                closure.addAscendants( rleName, iRoles );
             }
         }
         return iRoles;
@@ -251,14 +261,11 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
+            HierClosure closure = getClosure( contextId );
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> parents = HierUtil.getAscendants( role, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iRoles.addAll( parents );
-                }
+                closure.addAscendants( role, iRoles );
             }
         }
         return iRoles;
@@ -277,14 +284,11 @@ final class RoleUtil implements ParentUtil
         Set<String> iRoles = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
         if ( CollectionUtils.isNotEmpty( roles ) )
         {
+            HierClosure closure = getClosure( contextId );
             for ( String role : roles )
             {
                 iRoles.add( role );
-                Set<String> children = HierUtil.getDescendants( role, getGraph( contextId ) );
-                if ( CollectionUtils.isNotEmpty( children ) )
-                {
-                    iRoles.addAll( children );
-                }
+                closure.addDescendants( role, iRoles );
             }
         }
         return iRoles;
@@ -342,7 +346,29 @@ final class RoleUtil implements ParentUtil
      */
     void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        // Hold off the background refresh, which would otherwise swap in a graph read before this update was written:
+        GraphRefresher refresher = GraphRefresher.getInstance();
+        String key = getKey( contextId );
+        synchronized ( refresher.getLock( key ) )
+        {
+            HierUtil.updateHier( getGraph( contextId ), relationship, op );
+            // The graph's weight has changed, when the caches share the tenant pool:
+            roleCache.changed( key );
+            refresher.touch( key );
+        }
+    }
+
+
+    /**
+     * Return the precomputed transitive closure of the role hierarchy.  The instance is immutable, a new one with a greater version
+     * replaces it whenever the hierarchy is updated or reloaded.
+     *
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return handle to the closure of the role hierarchy.
+     */
+    HierClosure getClosure( String contextId )
+    {
+        return HierUtil.getClosure( getGraph( contextId ) );
     }
 
 
@@ -355,24 +381,19 @@ final class RoleUtil implements ParentUtil
      */
     private synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
     {
-        Hier inHier = new Hier( Hier.Type.ROLE );
-        inHier.setContextId( contextId );
-        LOG.info( "loadGraph initializing ROLE context [{}]", inHier.getContextId() );
-        List<Graphable> descendants = null;
+        LOG.info( "loadGraph initializing ROLE context [{}]", contextId );
+        SimpleDirectedGraph<String, Relationship> graph;
 
         try
         {
-            descendants = roleP.getAllDescendants( inHier.getContextId() );
+            graph = GraphRefresher.load( loader, contextId );
         }
         catch ( SecurityException se )
         {
             LOG.info( "loadGraph caught SecurityException={}", se );
+            graph = HierUtil.buildGraph( HierUtil.loadHier( contextId, null ) );
         }
 
-        Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-
-        graph = HierUtil.buildGraph( hier );
         roleCache.put( getKey( contextId ), graph );
 
         return graph;
@@ -411,11 +432,23 @@ final class RoleUtil implements ParentUtil
                  .get( key );
              
         if(graph == null){
+            // The entry has expired, put back the last graph if it's being refreshed in the background:
+            graph = GraphRefresher.getInstance().getGraph( key );
+            if ( graph != null )
+            {
+                roleCache.put( key, graph );
+                return graph;
+            }
             LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
+            graph = loadGraph( contextId );
+            // Registered outside of loadGraph's lock, as updateHier takes the refresher's lock before it:
+            GraphRefresher.getInstance().register( key, contextId, roleCache, loader, graph );
+            return graph;
         }
         else{
             LOG.debug("Graph found in cache, returning...");
+            // Keeps the graph refreshed in the background while it's read:
+            GraphRefresher.getInstance().used( key );
             return graph;
         }
     }
@@ -23,25 +23,23 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import net.sf.ehcache.search.Attribute;
-import net.sf.ehcache.search.Query;
-import net.sf.ehcache.search.Result;
-import net.sf.ehcache.search.Results;
-
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.directory.api.ldap.model.constants.SchemaConstants;
 import org.apache.directory.fortress.core.*;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.*;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.cache.Cache;
 import org.apache.directory.fortress.core.util.cache.CacheMgr;
-import org.apache.directory.fortress.core.util.cache.DsdCacheEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This utilty provides functionality necessary for SSD and DSD processing and cannot be called by components outside fortress.
- * This class also contains utility functions for maintaining the SSD and DSD cache.
+ * This class also contains utility functions for maintaining the SSD and DSD cache.  DSD's are held in an index of every
+ * DSD of a tenant by member Role, see {@link DsdIndex}, so the DSD's of the activated roles are looked up without going to
+ * the directory.  Every SSD of a tenant is held likewise.  The constraints are checked against the sets compiled into
+ * bitsets, see {@link SdSetMasks}.
  * <p>
  * This class is thread safe.
  *
@@ -56,9 +54,14 @@ final class SDUtil
     private static final String FORTRESS_SSDS = "fortress.ssd";
     private SdP sp;
     private static final String IS_DSD_CACHE_DISABLED_PARM = "enable.dsd.cache";
-    private static final String DSD_NAME = "name";
-    private static final String EMPTY_ELEMENT = "empty";
-    private static final String CONTEXT_ID = "contextId";
+    private static final String DSD_INDEX = "dsds";
+    private static final String SSD_INDEX = "ssds";
+    private static final String CLS_NM = SDUtil.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    // Incremented on every change to a DSD, guarded by this:
+    private long dsdIndexVersion;
+    // Incremented on every change to an SSD, guarded by this:
+    private long ssdIndexVersion;
 
     private static volatile SDUtil sINSTANCE = null;
 
@@ -83,9 +86,9 @@ final class SDUtil
     	
         // Get a reference to the CacheManager Singleton object:
         CacheMgr cacheMgr = CacheMgr.getInstance();
-        // This cache contains a wrapper entry for DSD and is searchable by both DSD and Role name:
+        // This cache contains an index of the DSD's by Role name for every tenant:
         m_dsdCache = cacheMgr.getCache(FORTRESS_DSDS);
-        // This cache is not searchable and contains Lists of SSD objects by Role:
+        // This cache contains the compiled SSD's of every tenant:
         m_ssdCache = cacheMgr.getCache(FORTRESS_SSDS);
     }
 
@@ -152,37 +155,36 @@ final class SDUtil
         checkSSD( role, rls, contextId);
     }
 
+    /**
+     * This method is called by AdminMgr.assignUsers, which reads the authorized roles of each user once for a batch of
+     * assignments, to validate Static Separation of Duty constraints when assigning a role to the user.
+     *
+     * @param role      to be assigned.
+     * @param authorizedRls the user's authorized roles, including those of the batch's earlier assignments.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @throws org.apache.directory.fortress.core.SecurityException
+     *
+     */
+    void validateSSD( Role role, Set<String> authorizedRls, String contextId ) throws SecurityException
+    {
+        checkSSD( role, authorizedRls, contextId );
+    }
+
     private void checkSSD( Role role, Set<String> authorizedRls, String contextId ) throws SecurityException
     {
-        int matchCount;
         // Need to proceed?
         if (CollectionUtils.isEmpty( authorizedRls ))
         {
             return;
         }
 
-        // get all SSD sets that contain the new role
-        List<SDSet> ssdSets = getSsdCache( role.getName(), contextId );
-        for ( SDSet ssd : ssdSets )
+        // does the count of authorized roles in an SSD set that contains the new role exceed the cardinality allowed?
+        SDSet ssd = getSsdMasks( contextId ).checkAssignment( role.getName(), authorizedRls );
+        if ( ssd != null )
         {
-            matchCount = 0;
-            Set<String> map = ssd.getMembers();
-            // iterate over every authorized role for user/group:
-            for ( String authRole : authorizedRls )
-            {
-                // is there a match found between authorized role and SSD set's members?
-                if ( map.contains( authRole ) )
-                {
-                    matchCount++;
-                    // does the match count exceed the cardinality allowed for this particular SSD set?
-                    if ( matchCount >= ssd.getCardinality() - 1 )
-                    {
-                        String error = "validateSSD new role [" + role.getName() + "] validates SSD Set Name:"
-                                + ssd.getName() + " Cardinality:" + ssd.getCardinality();
-                        throw new SecurityException( GlobalErrIds.SSD_VALIDATION_FAILED, error );
-                    }
-                }
-            }
+            String error = "validateSSD new role [" + role.getName() + "] validates SSD Set Name:"
+                    + ssd.getName() + " Cardinality:" + ssd.getCardinality();
+            throw new SecurityException( GlobalErrIds.SSD_VALIDATION_FAILED, error );
         }
     }
 
@@ -208,355 +210,229 @@ final class SDUtil
             return;
         }
 
-        // get all DSD sets that contain the target role
-        Set<SDSet> dsdSets = getDsdCache(role.getName(), session.getContextId());
-        for (SDSet dsd : dsdSets)
+        // get all DSD sets that contain the target role and count the active roles, or their parents, that are members:
+        String contextId = getContextId(session.getContextId());
+        SdSetMasks.Violation violation = getDsdIndex(contextId).getMasks(RoleUtil.getInstance().getClosure(contextId))
+            .checkAddition(role.getName(), rls);
+        if (violation != null)
         {
-            // Keeps the number of matched roles to a particular DSD set.
-            int matchCount = 0;
-
-            // Contains the list of roles assigned to a particular DSD set.
-            Set<String> map = dsd.getMembers();
-
-            // iterate over every role active in session for match wth DSD members:
-            for (UserRole actRole : rls)
+            // Yes, the target role violates DSD cardinality rule.
+            SDSet dsd = violation.getSet();
+            String error;
+            if (violation.getParentName() == null)
             {
-                // is there a match found between active role in session and DSD set members?
-                if (map.contains(actRole.getName()))
-                {
-                    // Yes, we found a match, increment the count.
-                    matchCount++;
-
-                    // Does the match count exceed the cardinality allowed for this particular DSD set?
-                    if (matchCount >= dsd.getCardinality() - 1)
-                    {
-                        // Yes, the target role violates DSD cardinality rule.
-                        String error = "validateDSD failed for role [" + role.getName() + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
-                        throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
-                    }
-                }
-                else // Check the parents of activated role for DSD match:
-                {
-                    // Now pull the activated role's list of parents.
-                    Set<String> parentSet = RoleUtil.getInstance().getAscendants(actRole.getName(), session.getContextId());
-
-                    // Iterate over the list of parent roles:
-                    for (String parentRole : parentSet)
-                    {
-                        if (map.contains(parentRole)) // is there match between parent and DSD member?
-                        {
-                            matchCount++;
-                            if (matchCount >= dsd.getCardinality() - 1) // Does the counter exceed max per cardinality on this DSD set?
-                            {
-                                String error = "validateDSD failed for role [" + role.getName() + "] parent role [" + parentRole + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
-                                throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
-                            }
-                            // Breaking out of the loop here means the DSD algorithm will only match one
-                            // role per parent of active role candidate.
-                            break;
-                        }
-                    }
-                }
+                error = "validateDSD failed for role [" + role.getName() + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
             }
+            else
+            {
+                error = "validateDSD failed for role [" + role.getName() + "] parent role [" + violation.getParentName() + "] DSD Set Name:" + dsd.getName() + " Cardinality:" + dsd.getCardinality();
+            }
+            throw new SecurityException(GlobalErrIds.DSD_VALIDATION_FAILED, error);
         }
     }
 
     /**
-     * Given DSD entry name, clear its corresponding object values from the cache.
-     *
-     * @param name contains the name of object to be cleared.
-     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.     *
-     * @throws SecurityException in the event of system or rule violation.
-     */
-    void clearDsdCacheEntry(String name, String contextId)
-    {
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> dsdName = m_dsdCache.getSearchAttribute(DSD_NAME);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(dsdName.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        for (Result result : results.all())
-        {
-            m_dsdCache.clear(result.getKey());
-        }
-    }
-
-    /**
-     * Given a role name, return the set of DSD's that have a matching member.
+     * Reload the DSD index of a tenant.  Called by {@link SdP} after a DSD has been added, updated or removed.  The index is
+     * dropped here and reloaded by the next reader, an index that was being loaded concurrently is discarded rather than
+     * cached, as it may predate the change.
      *
-     * @param name contains name of authorized Role used to search the cache.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return un-ordered set of matching DSD's.
-     * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> getDsdCache(String name, String contextId)
-        throws SecurityException
+    synchronized void refreshDsdIndex(String contextId)
     {
-        contextId = getContextId(contextId);
-        Set<SDSet> finalSet = new HashSet<>();
-        Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-        Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-        Query query = m_dsdCache.createQuery();
-        query.includeKeys();
-        query.includeValues();
-        query.addCriteria(member.eq(name).and(context.eq(contextId)));
-        Results results = query.execute();
-        boolean empty = false;
-        for (Result result : results.all())
-        {
-            DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-            if (!entry.isEmpty())
-            {
-                finalSet.add(entry.getSdSet());
-                finalSet = putDsdCache(name, contextId);
-            }
-            else
-            {
-                empty = true;
-            }
-            finalSet.add(entry.getSdSet());
-        }
-        // If nothing was found in the cache, determine if it needs to be seeded:
-        if (finalSet.size() == 0 && !empty)
-        {
-            finalSet = putDsdCache(name, contextId);
-        }
-        return finalSet;
+        dsdIndexVersion++;
+        m_dsdCache.clear(getKey(DSD_INDEX, contextId));
     }
 
     /**
-     * Given a Set of authorized Roles, return the set of DSD's that have matching members.
+     * Return the DSD's that may constrain the activation of a set of roles, compiled against the tenant's role hierarchy.
      *
-     * @param authorizedRoleSet contains an un-order Set of authorized Roles.
+     * @param activeRoles contains the roles targeted for activation.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return un-ordered set of matching DSD's.
+     * @return compiled DSD's, every DSD of the tenant unless the DSD cache has been switched off.
      * @throws SecurityException in the event of system or rule violation.
      */
-    Set<SDSet> getDsdCache(Set<String> authorizedRoleSet, String contextId)
+    SdSetMasks getDsdMasks(List<UserRole> activeRoles, String contextId)
         throws SecurityException
     {
         contextId = getContextId(contextId);
-        Set<SDSet> dsdRetSets = new HashSet<>();
-        // Need to proceed?
-        if (!CollectionUtils.isNotEmpty( authorizedRoleSet ))
-        {
-            return dsdRetSets;
-        }
+        HierClosure closure = RoleUtil.getInstance().getClosure(contextId);
         // Was the DSD Cache switched off?
         boolean isCacheDisabled = Config.getInstance().getBoolean(IS_DSD_CACHE_DISABLED_PARM, false);
-        // If so, get DSD's from LDAP:
+        // If so, get the DSD's of the authorized roles from LDAP:
         if (isCacheDisabled)
         {
-            SDSet sdSet = new SDSet();
-            sdSet.setType(SDSet.SDType.DYNAMIC);
-            sdSet.setContextId(contextId);
-            dsdRetSets = sp.search(authorizedRoleSet, sdSet);
+            Set<String> authorizedRoleSet = RoleUtil.getInstance().getInheritedRoles(activeRoles, contextId);
+            Set<SDSet> dsdSets = new HashSet<>();
+            if (CollectionUtils.isNotEmpty( authorizedRoleSet ))
+            {
+                SDSet sdSet = new SDSet();
+                sdSet.setType(SDSet.SDType.DYNAMIC);
+                sdSet.setContextId(contextId);
+                dsdSets = sp.search(authorizedRoleSet, sdSet);
+            }
+            return SdSetMasks.build(dsdSets, closure);
         }
-        // Search the DSD cache for matching Role members:
+        // Use the tenant's index:
         else
         {
-            // Search on roleName attribute which maps to 'member' attr on the cache record:
-            Attribute<String> member = m_dsdCache.getSearchAttribute(SchemaConstants.MEMBER_AT);
-            Attribute<String> context = m_dsdCache.getSearchAttribute(CONTEXT_ID);
-            Query query = m_dsdCache.createQuery();
-            query.includeKeys();
-            query.includeValues();
-            // Add the passed in authorized Role names to this cache query:
-            Set<String> roles = new HashSet<>(authorizedRoleSet);
-            query.addCriteria(member.in(roles).and(context.eq(contextId)));
-            // Return all DSD cache entries that match roleName to the 'member' attribute in cache entry:
-            Results results = query.execute();
-            for (Result result : results.all())
-            {
-                DsdCacheEntry entry = (DsdCacheEntry) result.getValue();
-                // Do not add dummy DSD sets to the final list:
-                if (!entry.isEmpty())
-                {
-                    dsdRetSets.add(entry.getSdSet());
-                }
-                // Remove role member from authorizedRoleSet to preclude from upcoming DSD search:
-                //authorizedRoleSet.remove(entry.getMember());
-            }
-            // Authorized roles remaining in this set correspond to missed cache hits from above:
-            if (authorizedRoleSet.size() > 0)
-            {
-                dsdRetSets = putDsdCache(authorizedRoleSet, contextId);
-            }
+            return getDsdIndex(contextId).getMasks(closure);
         }
-        return dsdRetSets;
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Return the DSD index of a tenant, loading it on a miss.
      *
-     * @param authorizedRoleSet contains set of Roles used to search directory for matching DSD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of DSD's who have matching Role members.
+     * @return index of the tenant's DSD's by member Role.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> putDsdCache(Set<String> authorizedRoleSet, String contextId)
+    private DsdIndex getDsdIndex(String contextId)
         throws SecurityException
     {
         contextId = getContextId(contextId);
-        Set<SDSet> dsdSets = new HashSet<>();
-        // Search the DSD's iteratively to seed the DSD cache by Role name:
-        for (String roleName : authorizedRoleSet)
+        String key = getKey(DSD_INDEX, contextId);
+        // The cache is blocking, a miss locks the key until this thread puts the index, concurrent readers wait for it:
+        DsdIndex index = (DsdIndex) m_dsdCache.get(key);
+        if (index == null)
         {
-            Role role = new Role(roleName);
-            role.setContextId(contextId);
-            List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-            if (CollectionUtils.isNotEmpty( dsdList ))
-            {
-                for (SDSet dsd : dsdList)
-                {
-                    dsd.setContextId(contextId);
-                    Set<String> members = dsd.getMembers();
-                    if (members != null)
-                    {
-                        // Seed the cache with DSD objects mapped to role name:
-                        for (String member : members)
-                        {
-                            String key = buildKey(dsd.getName(), member);
-                            DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                            entry.setName(dsd.getName());
-                            m_dsdCache.put(getKey(key, contextId), entry);
-                        }
-                    }
-                }
-                // Maintain the set of DSD's to be returned to the caller:
-                dsdSets.addAll(dsdList);
-            }
-            else
-            {
-                // Seed the cache with dummy entry for a Role that is not referenced by DSD:
-                String key = buildKey(EMPTY_ELEMENT, roleName);
-                SDSet sdSet = new SDSet();
-                sdSet.setType(SDSet.SDType.DYNAMIC);
-                sdSet.setName(key);
-                sdSet.setMember(roleName);
-                sdSet.setContextId(contextId);
-                DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-                entry.setName(key);
-                m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
-            }
+            index = loadDsdIndex(key, contextId);
         }
-        return dsdSets;
+        return index;
     }
 
     /**
-     * Get the matching DSD's from directory and add to the cache (if found).  If matching DSD not found,
-     * add dummy entry to cache to prevent repeated searches.
+     * Read every DSD of a tenant, with a single paged search, and cache them by member Role.  The key must be put even if the
+     * search fails, to release the lock taken on the miss.
      *
-     * @param roleName of Role is used to search directory for matching DSD's.
+     * @param key of the tenant's cache entry.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return Set of DSD's who have matching Role member.
+     * @return index of the tenant's DSD's by member Role.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private Set<SDSet> putDsdCache(String roleName, String contextId)
+    private DsdIndex loadDsdIndex(String key, String contextId)
         throws SecurityException
     {
-        contextId = getContextId(contextId);
-        Role role = new Role(roleName);
-        role.setContextId(contextId);
-        List<SDSet> dsdList = sp.search(role, SDSet.SDType.DYNAMIC);
-        Set<SDSet> finalSet = new HashSet<>(dsdList);
-        if ( CollectionUtils.isNotEmpty( dsdList ))
+        long version;
+        synchronized (this)
         {
+            version = dsdIndexVersion;
+        }
+        DsdIndex index = null;
+        try
+        {
+            SDSet sdSet = new SDSet();
+            sdSet.setType(SDSet.SDType.DYNAMIC);
+            sdSet.setName("");
+            sdSet.setContextId(contextId);
+            List<SDSet> dsdList = sp.searchAll(sdSet);
             for (SDSet dsd : dsdList)
             {
                 dsd.setContextId(contextId);
-                Set<String> members = dsd.getMembers();
-                if (members != null)
-                {
-                    // Seed the cache with DSD objects mapped to role name:
-                    for (String member : members)
-                    {
-                        String key = buildKey(dsd.getName(), member);
-                        DsdCacheEntry entry = new DsdCacheEntry(member, dsd, false);
-                        entry.setName(dsd.getName());
-                        m_dsdCache.put(getKey(key, contextId), entry);
-                    }
-                }
+                dsd.setType(SDSet.SDType.DYNAMIC);
             }
+            index = DsdIndex.build(dsdList);
+            LOG.info("loadDsdIndex context [{}] loaded {} DSD's", contextId, index.size());
+            return index;
         }
-        else
+        finally
         {
-            // Seed the cache with dummy entry for Role that does not have DSD:
-            String key = buildKey(EMPTY_ELEMENT, roleName);
-            SDSet sdSet = new SDSet();
-            sdSet.setType(SDSet.SDType.DYNAMIC);
-            sdSet.setName(key);
-            sdSet.setMember(roleName);
-            sdSet.setContextId(contextId);
-            DsdCacheEntry entry = new DsdCacheEntry(roleName, sdSet, true);
-            entry.setName(key);
-            m_dsdCache.put(getKey(sdSet.getName(), contextId), entry);
+            synchronized (this)
+            {
+                // Don't cache an index that was read before a DSD changed, the next reader will load it again:
+                m_dsdCache.put(key, version == dsdIndexVersion ? index : null);
+            }
         }
-        return finalSet;
     }
 
     /**
-     * Given entry name, clear its corresponding object value from the cache.
+     * Called after the SSD's that contain a role have changed.  The SSD's of the tenant are held together, so they are all
+     * reloaded, see {@link #refreshSsdIndex(String)}.
      *
-     * @param name contains the name of object to be cleared.
+     * @param name contains the name of the role.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @throws SecurityException in the event of system or rule violation.
      */
     void clearSsdCacheEntry(String name, String contextId)
     {
-        contextId = getContextId(contextId);
-        m_ssdCache.clear(getKey(name, contextId));
+        refreshSsdIndex(contextId);
     }
 
     /**
-     * Get the matching SSD's from directory and add to the cache (if found).
+     * Reload the SSD's of a tenant.  Called after an SSD has been added, updated or removed.  They are dropped here and
+     * reloaded by the next reader, as is done for the DSD's, see {@link #refreshDsdIndex(String)}.
      *
-     * @param name of Role is used to search directory for matching SSD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
-     * @throws SecurityException in the event of system or rule violation.
      */
-    private List<SDSet> putSsdCache(String name, String contextId)
-        throws SecurityException
+    synchronized void refreshSsdIndex(String contextId)
     {
-        Role role = new Role(name);
-        role.setContextId(contextId);
-        List<SDSet> ssdSets = sp.search(role, SDSet.SDType.STATIC);
-        m_ssdCache.put(getKey(name, contextId), ssdSets);
-        return ssdSets;
+        ssdIndexVersion++;
+        m_ssdCache.clear(getKey(SSD_INDEX, contextId));
     }
 
     /**
-     * Look in cache for matching List of SSD's.
+     * Return the compiled SSD's of a tenant, loading them on a miss.
      *
-     * @param name of Role is used to search directory for matching SSD's.
      * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
-     * @return List of SSD's who have matching Role member.
+     * @return every SSD of the tenant.
      * @throws SecurityException in the event of system or rule violation.
      */
-    private List<SDSet> getSsdCache(String name, String contextId)
+    private SdSetMasks getSsdMasks(String contextId)
         throws SecurityException
     {
-        List<SDSet> ssdSets = (List<SDSet>) m_ssdCache.get(getKey(name, contextId));
-        if (ssdSets == null)
+        contextId = getContextId(contextId);
+        String key = getKey(SSD_INDEX, contextId);
+        // The cache is blocking, a miss locks the key until this thread puts the SSD's, concurrent readers wait for them:
+        SdSetMasks ssds = (SdSetMasks) m_ssdCache.get(key);
+        if (ssds == null)
         {
-            ssdSets = putSsdCache(name, contextId);
+            ssds = loadSsdMasks(key, contextId);
         }
-        return ssdSets;
+        return ssds;
     }
 
     /**
+     * Read every SSD of a tenant, with a single paged search, and compile them.  The SSD check is made against the authorized
+     * roles, which already include those inherited, so they are compiled without the role hierarchy.  The key must be put
+     * even if the search fails, to release the lock taken on the miss.
      *
-     * @param parm1
-     * @param parm2
-     * @return
+     * @param key of the tenant's cache entry.
+     * @param contextId maps to sub-tree in DIT, e.g. ou=contextId, dc=example, dc=com.
+     * @return every SSD of the tenant.
+     * @throws SecurityException in the event of system or rule violation.
      */
-    private static String buildKey(String parm1, String parm2)
+    private SdSetMasks loadSsdMasks(String key, String contextId)
+        throws SecurityException
     {
-        return parm1 + ":" + parm2;
+        long version;
+        synchronized (this)
+        {
+            version = ssdIndexVersion;
+        }
+        SdSetMasks ssds = null;
+        try
+        {
+            SDSet sdSet = new SDSet();
+            sdSet.setType(SDSet.SDType.STATIC);
+            sdSet.setName("");
+            sdSet.setContextId(contextId);
+            List<SDSet> ssdList = sp.searchAll(sdSet);
+            for (SDSet ssd : ssdList)
+            {
+                ssd.setContextId(contextId);
+                ssd.setType(SDSet.SDType.STATIC);
+            }
+            ssds = SdSetMasks.build(ssdList, HierClosure.build(null));
+            LOG.info("loadSsdMasks context [{}] loaded {} SSD's", contextId, ssds.size());
+            return ssds;
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                // Don't cache SSD's that were read before one changed, the next reader will load them again:
+                m_ssdCache.put(key, version == ssdIndexVersion ? ssds : null);
+            }
+        }
     }
 
     /**
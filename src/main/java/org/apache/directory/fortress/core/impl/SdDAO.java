@@ -114,7 +114,7 @@ import org.apache.directory.ldap.client.api.LdapConnection;
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
-final class SdDAO extends LdapDataProvider
+class SdDAO extends LdapDataProvider
 {
     private static final String SD_SET_NM = "ftSetName";
     private static final String ROLES = "ftRoles";
@@ -352,13 +352,33 @@ final class SdDAO extends LdapDataProvider
     /**
      * Given an SSD name and type, find matching object in the directory.
      * @param sdset requires name and type.
-     * @return List of matching SDSets.
+     * @return List of matching SDSets, at most {@link GlobalIds#BATCH_SIZE}.
      * @throws org.apache.directory.fortress.core.FinderException
      */
     List<SDSet> search( SDSet sdset ) throws FinderException
+    {
+        return search( sdset, false );
+    }
+
+
+    /**
+     * Same as {@link #search(SDSet)} but pages through every matching entry, so the result isn't capped at
+     * {@link GlobalIds#BATCH_SIZE}.  Used to load every SSD or DSD of a tenant into the caches, which must not miss any.
+     * @param sdset requires name and type.
+     * @return List of every matching SDSet.
+     * @throws org.apache.directory.fortress.core.FinderException
+     */
+    List<SDSet> searchAll( SDSet sdset ) throws FinderException
+    {
+        return search( sdset, true );
+    }
+
+
+    private List<SDSet> search( SDSet sdset, boolean isPaged ) throws FinderException
     {
         List<SDSet> sdList = new ArrayList<>();
         LdapConnection ld = null;
+        SearchCursor searchResults = null;
         String ssdRoot = getSdRoot( sdset.getContextId() );
         String objectClass = SSD_OBJECT_CLASS_NM;
 
@@ -372,8 +392,15 @@ final class SdDAO extends LdapDataProvider
             String searchVal = encodeSafeText( sdset.getName(), GlobalIds.ROLE_LEN );
             String filter = GlobalIds.FILTER_PREFIX + objectClass + ")(" + SD_SET_NM + "=" + searchVal + "*))";
             ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, ssdRoot,
-                SearchScope.SUBTREE, filter, SD_SET_ATRS, false, GlobalIds.BATCH_SIZE );
+            if ( isPaged )
+            {
+                searchResults = searchPaged( ld, ssdRoot, SearchScope.SUBTREE, filter, SD_SET_ATRS, false );
+            }
+            else
+            {
+                searchResults = search( ld, ssdRoot,
+                    SearchScope.SUBTREE, filter, SD_SET_ATRS, false, GlobalIds.BATCH_SIZE );
+            }
             long sequence = 0;
 
             while ( searchResults.next() )
@@ -417,6 +444,7 @@ final class SdDAO extends LdapDataProvider
         }
         finally
         {
+            closeSearchCursor( searchResults );
             closeAdminConnection( ld );
         }
         return sdList;
@@ -644,7 +672,7 @@ final class SdDAO extends LdapDataProvider
     }
 
 
-    private String getSdRoot( String contextId )
+    String getSdRoot( String contextId )
     {
         return getRootDn( contextId, GlobalIds.SD_ROOT );
     }
@@ -73,7 +73,9 @@ final class SdP
     SDSet add( SDSet entity ) throws SecurityException
     {
         validate( entity );
-        return sdDao.create( entity );
+        SDSet sdSet = sdDao.create( entity );
+        refreshSdIndex( entity );
+        return sdSet;
     }
 
 
@@ -90,7 +92,9 @@ final class SdP
     SDSet update( SDSet entity ) throws SecurityException
     {
         validate( entity );
-        return sdDao.update( entity );
+        SDSet sdSet = sdDao.update( entity );
+        refreshSdIndex( entity );
+        return sdSet;
     }
 
 
@@ -105,7 +109,9 @@ final class SdP
      */
     SDSet delete( SDSet entity ) throws SecurityException
     {
-        return sdDao.remove( entity );
+        SDSet sdSet = sdDao.remove( entity );
+        refreshSdIndex( entity );
+        return sdSet;
     }
 
 
@@ -144,6 +150,20 @@ final class SdP
     }
 
 
+    /**
+     * Same as {@link #search(SDSet)} but returns every matching SDSet, the result isn't capped at
+     * {@link org.apache.directory.fortress.core.GlobalIds#BATCH_SIZE}.
+     *
+     * @param sdSet contains sdset name or partial name along with sdset type of STATIC or DYNAMIC.
+     * @return List of SDSet entities found.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    List<SDSet> searchAll( SDSet sdSet ) throws SecurityException
+    {
+        return sdDao.searchAll( sdSet );
+    }
+
+
     /**
      * Will search using a single RBAC Role name either STATIC or DYNAMIC SDSet depending on which type is passed.
      * The role entity contains full RBAC Role name associated with SDSet node in directory.
@@ -174,6 +194,25 @@ final class SdP
     }
 
 
+    /**
+     * Drop the cached DSD index, or SSD's, of the tenant after a write.  Callers don't always set the type of the SDSet when
+     * updating its members, so anything other than an SSD counts as a DSD.
+     *
+     * @param entity contains the type and contextId of the SDSet that was written.
+     */
+    private void refreshSdIndex( SDSet entity )
+    {
+        if ( entity.getType() != SDSet.SDType.STATIC )
+        {
+            SDUtil.getInstance().refreshDsdIndex( entity.getContextId() );
+        }
+        else
+        {
+            SDUtil.getInstance().refreshSsdIndex( entity.getContextId() );
+        }
+    }
+
+
     /**
      * Method will perform simple validations to ensure the integrity of the SDSet entity targeted for insertion
      * or updating in directory.  This method will ensure the name and type enum are specified.  Method will
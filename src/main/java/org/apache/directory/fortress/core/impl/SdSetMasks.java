@@ -0,0 +1,417 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.model.UserRole;
+
+
+/**
+ * Separation of Duty sets of one tenant compiled against its role hierarchy.  Every role is given an int id, those of
+ * the hierarchy's {@link HierClosure} and then one for each set member that isn't part of the hierarchy, so the members of
+ * each set become a bitset and the roles a user inherits via a role are a bitset lookup.  A constraint is then checked with
+ * word wide operations, rather than by walking the members of every set for each role.
+ * <p>
+ * The checks give the same outcomes, in the same order, as the role by role walks they replace, see
+ * {@link DSDChecker#validate}, {@link SDUtil#validateDSD} and {@link SDUtil#validateSSD}.  Role names are matched case
+ * insensitively.
+ * <p>
+ * An instance is built by {@link SDUtil} and is replaced, never modified, when a set or the role hierarchy changes.
+ * This class is thread safe.  The sets it contains must not be modified.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class SdSetMasks
+{
+    private static final BitSet NONE = new BitSet();
+    private final HierClosure closure;
+    // Upper case names of the members that aren't vertices of the hierarchy, their ids follow those of the closure:
+    private final Map<String, Integer> extraIds;
+    private final SDSet[] sets;
+    private final BitSet[] masks;
+
+
+    private SdSetMasks( HierClosure closure, Map<String, Integer> extraIds, SDSet[] sets, BitSet[] masks )
+    {
+        this.closure = closure;
+        this.extraIds = extraIds;
+        this.sets = sets;
+        this.masks = masks;
+    }
+
+
+    /**
+     * Compile the sets.
+     *
+     * @param sds     SSD's or DSD's of a tenant, may be null.
+     * @param closure of the tenant's role hierarchy.
+     * @return new instance, never null.
+     */
+    static SdSetMasks build( Collection<SDSet> sds, HierClosure closure )
+    {
+        Map<String, Integer> extraIds = new HashMap<>();
+        List<SDSet> sets = new ArrayList<>();
+        List<BitSet> masks = new ArrayList<>();
+        if ( sds != null )
+        {
+            for ( SDSet sd : sds )
+            {
+                if ( sd.getMembers() == null || sd.getMembers().isEmpty() )
+                {
+                    continue;
+                }
+                BitSet mask = new BitSet();
+                for ( String member : sd.getMembers() )
+                {
+                    int id = closure.getId( member );
+                    if ( id < 0 )
+                    {
+                        String key = member.toUpperCase();
+                        Integer extraId = extraIds.get( key );
+                        if ( extraId == null )
+                        {
+                            extraId = closure.size() + extraIds.size();
+                            extraIds.put( key, extraId );
+                        }
+                        id = extraId;
+                    }
+                    mask.set( id );
+                }
+                sets.add( sd );
+                masks.add( mask );
+            }
+        }
+        return new SdSetMasks( closure, extraIds, sets.toArray( new SDSet[0] ), masks.toArray( new BitSet[0] ) );
+    }
+
+
+    /**
+     * @return version of the role hierarchy closure the sets were compiled against, see {@link HierClosure#getVersion()}.
+     */
+    long getClosureVersion()
+    {
+        return closure.getVersion();
+    }
+
+
+    /**
+     * @return number of sets, those without members aren't counted.
+     */
+    int size()
+    {
+        return sets.length;
+    }
+
+
+    /**
+     * Check the DSD's against roles that are activated together, e.g. during createSession, and remove from the list the
+     * roles that can't be activated.  Each role in turn counts once toward a set it's a member of or, if it isn't, once for
+     * each of its ascendants that is a member.  The role whose count reaches the set's cardinality is removed, as is each
+     * matching role after it.
+     *
+     * @param activated candidate roles, in activation order.  Violating roles are removed.
+     * @return the violations in the order found, empty if there are none.
+     */
+    List<Violation> checkActivation( List<? extends UserRole> activated )
+    {
+        int size = activated.size();
+        int[] ids = new int[size];
+        BitSet authorized = new BitSet();
+        Set<String> unknown = null;
+        for ( int i = 0; i < size; i++ )
+        {
+            String name = activated.get( i ).getName();
+            ids[i] = getId( name );
+            if ( ids[i] >= 0 )
+            {
+                authorized.set( ids[i] );
+                authorized.or( getAscendantIds( ids[i] ) );
+            }
+            else
+            {
+                if ( unknown == null )
+                {
+                    unknown = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+                }
+                unknown.add( name );
+            }
+        }
+        // only need to check DSD constraints if more than one role is authorized:
+        if ( authorized.cardinality() + ( unknown != null ? unknown.size() : 0 ) < 2 )
+        {
+            return Collections.emptyList();
+        }
+
+        List<Violation> violations = null;
+        for ( int s = 0; s < sets.length; s++ )
+        {
+            BitSet mask = masks[s];
+            int cardinality = sets[s].getCardinality();
+            if ( !mask.intersects( authorized ) || count( mask, ids ) < cardinality )
+            {
+                continue;
+            }
+
+            // The set is violated, walk the roles in order to find which of them are removed:
+            int matchCount = 0;
+            Iterator<? extends UserRole> activatedRoles = activated.iterator();
+            while ( activatedRoles.hasNext() )
+            {
+                String name = activatedRoles.next().getName();
+                int id = getId( name );
+                if ( id >= 0 && mask.get( id ) )
+                {
+                    if ( ++matchCount >= cardinality )
+                    {
+                        activatedRoles.remove();
+                        violations = add( violations, new Violation( name, null, sets[s] ) );
+                    }
+                }
+                else
+                {
+                    BitSet parents = getAscendantIds( id );
+                    for ( int parent = parents.nextSetBit( 0 ); parent >= 0; parent = parents.nextSetBit( parent + 1 ) )
+                    {
+                        if ( mask.get( parent ) && ++matchCount >= cardinality )
+                        {
+                            activatedRoles.remove();
+                            violations = add( violations, new Violation( name, closure.getName( parent ), sets[s] ) );
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return violations != null ? violations : Collections.<Violation>emptyList();
+    }
+
+
+    /**
+     * Check the DSD's that contain a role against the roles already active in the session, before adding the role.  Each
+     * active role counts once toward a set if it, or any of its ascendants, is a member.  The role can't be added if the
+     * count reaches one less than the set's cardinality.
+     *
+     * @param roleName  of the role to be activated.
+     * @param activated roles active in the session.
+     * @return the first violation, or null if the role may be activated.
+     */
+    Violation checkAddition( String roleName, List<? extends UserRole> activated )
+    {
+        int roleId = getId( roleName );
+        if ( roleId < 0 )
+        {
+            return null;
+        }
+        for ( int s = 0; s < sets.length; s++ )
+        {
+            BitSet mask = masks[s];
+            if ( !mask.get( roleId ) )
+            {
+                continue;
+            }
+            int matchCount = 0;
+            for ( UserRole actRole : activated )
+            {
+                int id = getId( actRole.getName() );
+                String parentName = null;
+                if ( id < 0 || !mask.get( id ) )
+                {
+                    // Only one match counts for all of the parents of the active role:
+                    BitSet parents = getAscendantIds( id );
+                    int parent = parents.nextSetBit( 0 );
+                    while ( parent >= 0 && !mask.get( parent ) )
+                    {
+                        parent = parents.nextSetBit( parent + 1 );
+                    }
+                    if ( parent < 0 )
+                    {
+                        continue;
+                    }
+                    parentName = closure.getName( parent );
+                }
+                if ( ++matchCount >= sets[s].getCardinality() - 1 )
+                {
+                    return new Violation( roleName, parentName, sets[s] );
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Check the SSD's that contain a role against the roles a user or group is already authorized for, before assigning
+     * the role.  The role can't be assigned if the number of authorized roles in a set reaches one less than its cardinality.
+     *
+     * @param roleName      of the role to be assigned.
+     * @param authorizedRls roles already authorized, including those inherited.
+     * @return the first set violated, or null if the role may be assigned.
+     */
+    SDSet checkAssignment( String roleName, Collection<String> authorizedRls )
+    {
+        int roleId = getId( roleName );
+        if ( roleId < 0 )
+        {
+            return null;
+        }
+        BitSet authorized = null;
+        for ( int s = 0; s < sets.length; s++ )
+        {
+            if ( !masks[s].get( roleId ) )
+            {
+                continue;
+            }
+            if ( authorized == null )
+            {
+                authorized = new BitSet();
+                for ( String authRole : authorizedRls )
+                {
+                    int id = getId( authRole );
+                    if ( id >= 0 )
+                    {
+                        authorized.set( id );
+                    }
+                }
+            }
+            BitSet matches = ( BitSet ) masks[s].clone();
+            matches.and( authorized );
+            if ( matches.cardinality() >= sets[s].getCardinality() - 1 )
+            {
+                return sets[s];
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * @return the upper bound, over all of the roles, of the counts that {@link #checkActivation} makes toward a set.
+     */
+    private int count( BitSet mask, int[] ids )
+    {
+        int total = 0;
+        for ( int id : ids )
+        {
+            if ( id >= 0 && mask.get( id ) )
+            {
+                total++;
+            }
+            else
+            {
+                BitSet parents = getAscendantIds( id );
+                if ( parents.intersects( mask ) )
+                {
+                    BitSet matches = ( BitSet ) parents.clone();
+                    matches.and( mask );
+                    total += matches.cardinality();
+                }
+            }
+        }
+        return total;
+    }
+
+
+    private int getId( String name )
+    {
+        int id = closure.getId( name );
+        if ( id < 0 && name != null )
+        {
+            Integer extraId = extraIds.get( name.toUpperCase() );
+            if ( extraId != null )
+            {
+                id = extraId;
+            }
+        }
+        return id;
+    }
+
+
+    private BitSet getAscendantIds( int id )
+    {
+        return id >= 0 && id < closure.size() ? closure.getAscendantIds( id ) : NONE;
+    }
+
+
+    private static List<Violation> add( List<Violation> violations, Violation violation )
+    {
+        if ( violations == null )
+        {
+            violations = new ArrayList<>();
+        }
+        violations.add( violation );
+        return violations;
+    }
+
+
+    /**
+     * A role that violates a set.
+     */
+    static final class Violation
+    {
+        private final String roleName;
+        private final String parentName;
+        private final SDSet set;
+
+
+        Violation( String roleName, String parentName, SDSet set )
+        {
+            this.roleName = roleName;
+            this.parentName = parentName;
+            this.set = set;
+        }
+
+
+        /**
+         * @return name of the role that can't be activated.
+         */
+        String getRoleName()
+        {
+            return roleName;
+        }
+
+
+        /**
+         * @return upper case name of the ascendant whose membership violated the set, or null if the role itself, or the
+         * role being checked against, is a member.
+         */
+        String getParentName()
+        {
+            return parentName;
+        }
+
+
+        SDSet getSet()
+        {
+            return set;
+        }
+    }
+}
@@ -58,6 +58,7 @@ import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.PasswordException;
 import org.apache.directory.fortress.core.RemoveException;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.UpdateException;
 import org.apache.directory.fortress.core.ldap.LdapDataProvider;
@@ -195,9 +196,17 @@ final class UserDAO extends LdapDataProvider
     // These will be loaded in static initializer that follows:
     private static String[] authnAtrs = null;
     private static String[] defaultAtrs = null;
+    // The smaller set read for the user of a session, and the profile attributes it leaves out, see getSessionUser:
+    private static String[] sessionAtrs = null;
+    private static String[] profileAtrs = null;
+    private static boolean isSessionProjection = false;
+    private static boolean isSessionProfile = false;
+    private static final String IS_SESSION_PROJECTION_ENABLED_PARM = "enable.session.projection";
+    private static final String SESSION_PROJECTION_ATRS_PARM = "session.projection.attributes";
     private static final String[] ROLE_ATR = { GlobalIds.USER_ROLE_DATA };
     private static final String[] AROLE_ATR = { GlobalIds.USER_ADMINROLE_DATA };
     private static final String[] USERID_ATR = { SchemaConstants.UID_AT };
+    private static final String[] USERID_OU_ATRS = { SchemaConstants.UID_AT, SchemaConstants.OU_AT };
 
     /**
      * Default constructor is public
@@ -600,8 +609,6 @@ final class UserDAO extends LdapDataProvider
     User getUser( User user, boolean isRoles ) throws FinderException
     {
         User entity = null;
-        LdapConnection ld = null;
-        String userDn = getDn( user.getUserId(), user.getContextId() );
 
         String[] uATTRS;
         // Retrieve role attributes?
@@ -618,33 +625,62 @@ final class UserDAO extends LdapDataProvider
             uATTRS = authnAtrs;
         }
 
-        Entry findEntry = null;
+        Entry findEntry = readEntry( user, uATTRS, "getUser" );
 
         try
         {
-            ld = getAdminConnection();
-            findEntry = read( ld, userDn, uATTRS );
+            if ( findEntry != null )
+            {
+                entity = unloadLdapEntry( findEntry, 0, user.getContextId() );
+            }
         }
-        catch ( LdapNoSuchObjectException e )
+        catch ( LdapInvalidAttributeValueException e )
         {
-            String warning = "getUser COULD NOT FIND ENTRY for user [" + user.getUserId() + "]";
-            throw new FinderException( GlobalErrIds.USER_NOT_FOUND, warning );
+            entity = null;
         }
-        catch ( LdapException e )
+
+        if ( entity == null )
         {
-            String error = "getUser [" + userDn + "]= caught LDAPException=" + e.getMessage();
-            throw new FinderException( GlobalErrIds.USER_READ_FAILED, error, e );
+            String warning = "getUser userId [" + user.getUserId() + "] not found, Fortress rc=" + GlobalErrIds
+                .USER_NOT_FOUND;
+            throw new FinderException( GlobalErrIds.USER_NOT_FOUND, warning );
         }
-        finally
+
+        return entity;
+    }
+
+
+    /**
+     * Read the user to be placed on a session.  When {@code enable.session.projection=true}, only the attributes needed to
+     * authorize the session are read, i.e. its ids, constraints, role and admin role assignments and password policy flags,
+     * along with those listed in {@code session.projection.attributes}.  The rest of the profile, e.g. address, emails and
+     * photo, is left out, and may be read later with {@link #loadProfile(User)}.  Otherwise it's the same as
+     * {@link #getUser(User, boolean)} with roles.
+     *
+     * @param user contains the userId and contextId.
+     * @return User entity, marked with {@link User#isProfilePending()} if its profile wasn't read.
+     * @throws FinderException in the event the user isn't found or the read fails.
+     */
+    User getSessionUser( User user ) throws FinderException
+    {
+        if ( !isSessionProjection )
         {
-            closeAdminConnection( ld );
+            return getUser( user, true );
         }
 
+        User entity = null;
+        Entry findEntry = readEntry( user, sessionAtrs, "getSessionUser" );
         try
         {
             if ( findEntry != null )
             {
-                entity = unloadLdapEntry( findEntry, 0, user.getContextId() );
+                entity = unloadSessionEntry( findEntry, 0, user.getContextId() );
+                if ( isSessionProfile )
+                {
+                    // The configured extras are profile attributes, those not read are left empty:
+                    unloadProfile( findEntry, entity );
+                }
+                entity.setProfilePending( true );
             }
         }
         catch ( LdapInvalidAttributeValueException e )
@@ -654,7 +690,7 @@ final class UserDAO extends LdapDataProvider
 
         if ( entity == null )
         {
-            String warning = "getUser userId [" + user.getUserId() + "] not found, Fortress rc=" + GlobalErrIds
+            String warning = "getSessionUser userId [" + user.getUserId() + "] not found, Fortress rc=" + GlobalErrIds
                 .USER_NOT_FOUND;
             throw new FinderException( GlobalErrIds.USER_NOT_FOUND, warning );
         }
@@ -663,6 +699,55 @@ final class UserDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Read the profile attributes left out of a user by {@link #getSessionUser(User)} and load them into it.
+     *
+     * @param user as returned by getSessionUser, its profile fields are replaced.
+     * @throws FinderException in the event the user isn't found or the read fails.
+     */
+    void loadProfile( User user ) throws FinderException
+    {
+        Entry findEntry = readEntry( user, profileAtrs, "loadProfile" );
+        try
+        {
+            unloadProfile( findEntry, user );
+        }
+        catch ( LdapInvalidAttributeValueException e )
+        {
+            String error = "loadProfile userId [" + user.getUserId() + "] caught LdapInvalidAttributeValueException=" + e
+                .getMessage();
+            throw new FinderException( GlobalErrIds.USER_READ_FAILED, error, e );
+        }
+        user.setProfilePending( false );
+    }
+
+
+    private Entry readEntry( User user, String[] atrs, String methodName ) throws FinderException
+    {
+        LdapConnection ld = null;
+        String userDn = getDn( user.getUserId(), user.getContextId() );
+        try
+        {
+            ld = getAdminConnection();
+            return read( ld, userDn, atrs );
+        }
+        catch ( LdapNoSuchObjectException e )
+        {
+            String warning = methodName + " COULD NOT FIND ENTRY for user [" + user.getUserId() + "]";
+            throw new FinderException( GlobalErrIds.USER_NOT_FOUND, warning );
+        }
+        catch ( LdapException e )
+        {
+            String error = methodName + " [" + userDn + "]= caught LDAPException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.USER_READ_FAILED, error, e );
+        }
+        finally
+        {
+            closeAdminConnection( ld );
+        }
+    }
+
+
     /**
      * @param user
      * @return
@@ -931,43 +1016,10 @@ final class UserDAO extends LdapDataProvider
 
         try
         {
-            //String filter;
-            StringBuilder filterbuf = new StringBuilder();
-            if ( StringUtils.isNotEmpty( user.getUserId() ) )
-            {
-                // place a wild card after the input userId:
-                String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( SchemaConstants.UID_AT );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "*))" );
-            }
-            else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
-            {
-                // internalUserId search
-                String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
-                // this is not a wildcard search. Must be exact match.
-                filterbuf.append( GlobalIds.FILTER_PREFIX );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")(" );
-                filterbuf.append( GlobalIds.FT_IID );
-                filterbuf.append( "=" );
-                filterbuf.append( searchVal );
-                filterbuf.append( "))" );
-            }
-            else
-            {
-                // Beware - returns ALL users!!:"
-                filterbuf.append( "(objectclass=" );
-                filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
-                filterbuf.append( ")" );
-            }
+            String filter = getFindUsersFilter( user );
 
             ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false,
                 GlobalIds.BATCH_SIZE );
             long sequence = 0;
 
@@ -995,6 +1047,98 @@ final class UserDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #findUsers(User)} but pages through every matching entry, in constant memory.
+     *
+     * @param user
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void findUsers( User user, SearchHandler<User> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String userRoot = getRootDn( user.getContextId(), GlobalIds.USER_ROOT );
+
+        try
+        {
+            String filter = getFindUsersFilter( user );
+            ld = getAdminConnection();
+            searchResults = searchPaged( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                if ( !handler.handle( unloadLdapEntry( searchResults.getEntry(), sequence++, user.getContextId() ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String warning = "findUsers userRoot [" + userRoot + "] caught LDAPException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.USER_SEARCH_FAILED, warning, e );
+        }
+        catch ( CursorException e )
+        {
+            String warning = "findUsers userRoot [" + userRoot + "] caught CursorException=" + e.getMessage();
+            throw new FinderException( GlobalErrIds.USER_SEARCH_FAILED, warning, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeAdminConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param user
+     * @return filter for {@link #findUsers(User)}.
+     * @throws LdapException
+     */
+    private String getFindUsersFilter( User user ) throws LdapException
+    {
+        //String filter;
+        StringBuilder filterbuf = new StringBuilder();
+        if ( StringUtils.isNotEmpty( user.getUserId() ) )
+        {
+            // place a wild card after the input userId:
+            String searchVal = encodeSafeText( user.getUserId(), GlobalIds.USERID_LEN );
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( SchemaConstants.UID_AT );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "*))" );
+        }
+        else if ( StringUtils.isNotEmpty( user.getInternalId() ) )
+        {
+            // internalUserId search
+            String searchVal = encodeSafeText( user.getInternalId(), GlobalIds.USERID_LEN );
+            // this is not a wildcard search. Must be exact match.
+            filterbuf.append( GlobalIds.FILTER_PREFIX );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")(" );
+            filterbuf.append( GlobalIds.FT_IID );
+            filterbuf.append( "=" );
+            filterbuf.append( searchVal );
+            filterbuf.append( "))" );
+        }
+        else
+        {
+            // Beware - returns ALL users!!:"
+            filterbuf.append( "(objectclass=" );
+            filterbuf.append( Config.getInstance().getProperty( USER_OBJECT_CLASS ) );
+            filterbuf.append( ")" );
+        }
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param user
      * @param limit
@@ -1278,18 +1422,9 @@ final class UserDAO extends LdapDataProvider
 
         try
         {
-            String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-            filterbuf.append( GlobalIds.USER_ROLE_ASSIGN );
-            filterbuf.append( "=" );
-            filterbuf.append( roleVal );
-            filterbuf.append( "))" );
-
+            String filter = getAssignedUserIdsFilter( role );
             ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), USERID_ATR, false,
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filter, USERID_ATR, false,
                 GlobalIds.BATCH_SIZE );
             long sequence = 0;
 
@@ -1319,6 +1454,78 @@ final class UserDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #getAssignedUserIds(Role)} but pages through every matching entry, in constant memory, and passes
+     * along the ou of each user.
+     *
+     * @param role
+     * @param handler receives the users one at a time, containing only userId and ou, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void getAssignedUsers( Role role, SearchHandler<User> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String userRoot = getRootDn( role.getContextId(), GlobalIds.USER_ROOT );
+
+        try
+        {
+            String filter = getAssignedUserIdsFilter( role );
+            ld = getAdminConnection();
+            searchResults = searchPaged( ld, userRoot, SearchScope.ONELEVEL, filter, USERID_OU_ATRS, false );
+
+            while ( searchResults.next() )
+            {
+                Entry entry = searchResults.getEntry();
+                User user = new User( unloadUser( entry ) );
+                user.setOu( getAttribute( entry, SchemaConstants.OU_AT ) );
+                if ( !handler.handle( user ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String warning = "getAssignedUsers role name [" + role.getName() + "] caught LDAPException=" + e
+                .getMessage();
+            throw new FinderException( GlobalErrIds.URLE_SEARCH_FAILED, warning, e );
+        }
+        catch ( CursorException e )
+        {
+            String warning = "getAssignedUsers role name [" + role.getName() + "] caught CursorException=" + e
+                .getMessage();
+            throw new FinderException( GlobalErrIds.URLE_SEARCH_FAILED, warning, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeAdminConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param role
+     * @return filter for {@link #getAssignedUserIds(Role)}.
+     * @throws LdapException
+     */
+    private String getAssignedUserIdsFilter( Role role ) throws LdapException
+    {
+        String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+        filterbuf.append( GlobalIds.USER_ROLE_ASSIGN );
+        filterbuf.append( "=" );
+        filterbuf.append( roleVal );
+        filterbuf.append( "))" );
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param roles
      * @return
@@ -1397,18 +1604,10 @@ final class UserDAO extends LdapDataProvider
 
         try
         {
-            String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
-            StringBuilder filterbuf = new StringBuilder();
-            filterbuf.append( GlobalIds.FILTER_PREFIX );
-            filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
-            filterbuf.append( ")(" );
-            filterbuf.append( GlobalIds.USER_ADMINROLE_ASSIGN );
-            filterbuf.append( "=" );
-            filterbuf.append( roleVal );
-            filterbuf.append( "))" );
+            String filter = getAssignedUsersFilter( role );
 
             ld = getAdminConnection();
-            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filterbuf.toString(), defaultAtrs, false,
+            SearchCursor searchResults = search( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false,
                 GlobalIds.BATCH_SIZE );
             long sequence = 0;
 
@@ -1438,6 +1637,75 @@ final class UserDAO extends LdapDataProvider
     }
 
 
+    /**
+     * Same as {@link #getAssignedUsers(AdminRole)} but pages through every matching entry, in constant memory.
+     *
+     * @param role
+     * @param handler receives the entries one at a time, may stop the search.
+     * @throws SecurityException in the event of ldap error, or as thrown by the handler.
+     */
+    void getAssignedUsers( AdminRole role, SearchHandler<User> handler ) throws SecurityException
+    {
+        LdapConnection ld = null;
+        SearchCursor searchResults = null;
+        String userRoot = getRootDn( role.getContextId(), GlobalIds.USER_ROOT );
+
+        try
+        {
+            String filter = getAssignedUsersFilter( role );
+            ld = getAdminConnection();
+            searchResults = searchPaged( ld, userRoot, SearchScope.ONELEVEL, filter, defaultAtrs, false );
+            long sequence = 0;
+
+            while ( searchResults.next() )
+            {
+                if ( !handler.handle( unloadLdapEntry( searchResults.getEntry(), sequence++, role.getContextId() ) ) )
+                {
+                    break;
+                }
+            }
+        }
+        catch ( LdapException e )
+        {
+            String warning = "getAssignedUsers admin role name [" + role.getName() + "] caught LDAPException=" + e
+                .getMessage();
+            throw new FinderException( GlobalErrIds.ARLE_USER_SEARCH_FAILED, warning, e );
+        }
+        catch ( CursorException e )
+        {
+            String warning = "getAssignedUsers admin role name [" + role.getName() + "] caught CursorException=" + e
+                .getMessage();
+            throw new FinderException( GlobalErrIds.ARLE_USER_SEARCH_FAILED, warning, e );
+        }
+        finally
+        {
+            closeSearchCursor( searchResults );
+            closeAdminConnection( ld );
+        }
+    }
+
+
+    /**
+     * @param role
+     * @return filter for {@link #getAssignedUsers(AdminRole)}.
+     * @throws LdapException
+     */
+    private String getAssignedUsersFilter( AdminRole role ) throws LdapException
+    {
+        String roleVal = encodeSafeText( role.getName(), GlobalIds.USERID_LEN );
+        StringBuilder filterbuf = new StringBuilder();
+        filterbuf.append( GlobalIds.FILTER_PREFIX );
+        filterbuf.append( USERS_AUX_OBJECT_CLASS_NAME );
+        filterbuf.append( ")(" );
+        filterbuf.append( GlobalIds.USER_ADMINROLE_ASSIGN );
+        filterbuf.append( "=" );
+        filterbuf.append( roleVal );
+        filterbuf.append( "))" );
+
+        return filterbuf.toString();
+    }
+
+
     /**
      * @param role
      * @param limit
@@ -2106,46 +2374,39 @@ final class UserDAO extends LdapDataProvider
      */
     private User unloadLdapEntry( Entry entry, long sequence, String contextId )
         throws LdapInvalidAttributeValueException
+    {
+        User entity = unloadSessionEntry( entry, sequence, contextId );
+        unloadProfile( entry, entity );
+        return entity;
+    }
+
+
+    /**
+     * Unload the attributes needed to authorize a session, see {@link #getSessionUser(User)}.
+     *
+     * @param entry
+     * @return
+     * @throws LdapInvalidAttributeValueException
+     */
+    private User unloadSessionEntry( Entry entry, long sequence, String contextId )
+        throws LdapInvalidAttributeValueException
     {
         User entity = new ObjectFactory().createUser();
         entity.setSequenceId( sequence );
         entity.setInternalId( getAttribute( entry, GlobalIds.FT_IID ) );
-        entity.setDescription( getAttribute( entry, SchemaConstants.DESCRIPTION_AT ) );
         entity.setUserId( getAttribute( entry, SchemaConstants.UID_AT ) );
         entity.setCn( getAttribute( entry, SchemaConstants.CN_AT ) );
         entity.setName( entity.getCn() );
         entity.setSn( getAttribute( entry, SchemaConstants.SN_AT ) );
         entity.setOu( getAttribute( entry, SchemaConstants.OU_AT ) );
         entity.setDn( entry.getDn().getName() );
-        entity.setTitle( getAttribute( entry, SchemaConstants.TITLE_AT ) );
-        entity.setEmployeeType( getAttribute( entry, EMPLOYEE_TYPE ) );
         unloadTemporal( entry, entity );
         entity.setRoles( unloadUserRoles( entry, entity.getUserId(), contextId, null ) );
         entity.setAdminRoles( unloadUserAdminRoles( entry, entity.getUserId(), contextId ) );
-        entity.setAddress( unloadAddress( entry ) );
-        entity.setPhones( getAttributes( entry, SchemaConstants.TELEPHONE_NUMBER_AT ) );
-        entity.setMobiles( getAttributes( entry, MOBILE ) );
-        entity.setEmails( getAttributes( entry, SchemaConstants.MAIL_AT ) );
-        String szBoolean = getAttribute( entry, SYSTEM_USER );
-        if ( szBoolean != null )
-        {
-            entity.setSystem( Boolean.valueOf( szBoolean ) );
-        }
-
-        /*
-                TODO: Add for RFC2307BIS
-                entity.setUidNumber( getAttribute( entry, UID_NUMBER ) );
-                entity.setGidNumber( getAttribute( entry, GID_NUMBER ) );
-                entity.setHomeDirectory( getAttribute( entry, HOME_DIRECTORY ) );
-                entity.setLoginShell( getAttribute( entry, LOGIN_SHELL ) );
-                entity.setGecos( getAttribute( entry, GECOS ) );
-        */
-
-        entity.addProperties( PropUtil.getProperties( getAttributes( entry, GlobalIds.PROPS ) ) );
 
         if ( Config.getInstance().isOpenldap() || Config.getInstance().isApacheds() )
         {
-            szBoolean = getAttribute( entry, OPENLDAP_PW_RESET );
+            String szBoolean = getAttribute( entry, OPENLDAP_PW_RESET );
             if ( szBoolean != null && szBoolean.equalsIgnoreCase( "true" ) )
             {
                 entity.setReset( true );
@@ -2164,12 +2425,46 @@ final class UserDAO extends LdapDataProvider
             }
         }
 
-        entity.setJpegPhoto( getPhoto( entry, JPEGPHOTO ) );
-
         return entity;
     }
 
 
+    /**
+     * Unload the profile attributes of a user, i.e. those not needed to authorize a session.
+     *
+     * @param entry
+     * @param entity
+     * @throws LdapInvalidAttributeValueException
+     */
+    private void unloadProfile( Entry entry, User entity ) throws LdapInvalidAttributeValueException
+    {
+        entity.setDescription( getAttribute( entry, SchemaConstants.DESCRIPTION_AT ) );
+        entity.setTitle( getAttribute( entry, SchemaConstants.TITLE_AT ) );
+        entity.setEmployeeType( getAttribute( entry, EMPLOYEE_TYPE ) );
+        entity.setAddress( unloadAddress( entry ) );
+        entity.setPhones( getAttributes( entry, SchemaConstants.TELEPHONE_NUMBER_AT ) );
+        entity.setMobiles( getAttributes( entry, MOBILE ) );
+        entity.setEmails( getAttributes( entry, SchemaConstants.MAIL_AT ) );
+        String szBoolean = getAttribute( entry, SYSTEM_USER );
+        if ( szBoolean != null )
+        {
+            entity.setSystem( Boolean.valueOf( szBoolean ) );
+        }
+
+        /*
+                TODO: Add for RFC2307BIS
+                entity.setUidNumber( getAttribute( entry, UID_NUMBER ) );
+                entity.setGidNumber( getAttribute( entry, GID_NUMBER ) );
+                entity.setHomeDirectory( getAttribute( entry, HOME_DIRECTORY ) );
+                entity.setLoginShell( getAttribute( entry, LOGIN_SHELL ) );
+                entity.setGecos( getAttribute( entry, GECOS ) );
+        */
+
+        entity.addProperties( PropUtil.getProperties( getAttributes( entry, GlobalIds.PROPS ) ) );
+        entity.setJpegPhoto( getPhoto( entry, JPEGPHOTO ) );
+    }
+
+
     /**
      * @param userId
      * @return
@@ -2721,5 +3016,49 @@ final class UserDAO extends LdapDataProvider
                     GlobalIds.CONSTRAINT,
                     GlobalIds.PROPS };
         }
+
+        // The user of a session needs its ids, constraints, role assignments and password policy flags:
+        List<String> atrs = new ArrayList<>();
+        atrs.add( GlobalIds.FT_IID );
+        atrs.add( SchemaConstants.UID_AT );
+        atrs.add( SchemaConstants.OU_AT );
+        atrs.add( SchemaConstants.CN_AT );
+        atrs.add( SchemaConstants.SN_AT );
+        atrs.add( GlobalIds.CONSTRAINT );
+        atrs.add( GlobalIds.USER_ROLE_DATA );
+        atrs.add( GlobalIds.USER_ROLE_ASSIGN );
+        atrs.add( GlobalIds.USER_ADMINROLE_ASSIGN );
+        atrs.add( GlobalIds.USER_ADMINROLE_DATA );
+        if ( Config.getInstance().isOpenldap() || Config.getInstance().isApacheds() )
+        {
+            atrs.add( OPENLDAP_PW_RESET );
+            atrs.add( OPENLDAP_PW_LOCKED_TIME );
+            atrs.add( OPENLDAP_POLICY_SUBENTRY );
+        }
+        // Everything else the default set reads is profile, the password is never unloaded so isn't read by either:
+        List<String> profile = new ArrayList<>();
+        for ( String atr : defaultAtrs )
+        {
+            if ( !atrs.contains( atr ) && !SchemaConstants.USER_PASSWORD_AT.equals( atr ) )
+            {
+                profile.add( atr );
+            }
+        }
+        String extras = Config.getInstance().getProperty( SESSION_PROJECTION_ATRS_PARM );
+        if ( StringUtils.isNotEmpty( extras ) )
+        {
+            for ( String atr : extras.split( "," ) )
+            {
+                atr = atr.trim();
+                if ( atr.length() > 0 && !atrs.contains( atr ) )
+                {
+                    atrs.add( atr );
+                    isSessionProfile = true;
+                }
+            }
+        }
+        sessionAtrs = atrs.toArray( new String[0] );
+        profileAtrs = profile.toArray( new String[0] );
+        isSessionProjection = Config.getInstance().getBoolean( IS_SESSION_PROJECTION_ENABLED_PARM, false );
     }
 }
@@ -23,14 +23,25 @@ package org.apache.directory.fortress.core.impl;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.PasswordException;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.ValidationException;
+import org.apache.directory.fortress.core.ldap.LdapConnectionProvider;
 import org.apache.directory.fortress.core.model.AdminRole;
 import org.apache.directory.fortress.core.model.Administrator;
 import org.apache.directory.fortress.core.model.ConstraintUtil;
@@ -44,6 +55,7 @@ import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.model.User;
 import org.apache.directory.fortress.core.model.UserAdminRole;
 import org.apache.directory.fortress.core.model.UserRole;
+import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.VUtil;
 
 import org.slf4j.Logger;
@@ -89,6 +101,19 @@ final class UserP
     }
 
 
+    /**
+     * Same as {@link #search(User)} but passes the matching entities to the handler one at a time, as they are paged in.
+     *
+     * @param user    contains all or partial userId or full internal userId.
+     * @param handler receives each User, may stop the search.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    void search( User user, SearchHandler<User> handler ) throws SecurityException
+    {
+        uDao.findUsers( user, handler );
+    }
+
+
     List<User> search( OrgUnit ou, boolean limitSize ) throws SecurityException
     {
         return uDao.findUsers( ou, limitSize );
@@ -163,7 +188,7 @@ final class UserP
      */
     List<User> getAssignedUsers( Role role ) throws SecurityException
     {
-        return uDao.getAssignedUsers( role, null );
+        return uDao.getAssignedUsers( role, ( RoleConstraint ) null );
     }
 
     /**
@@ -208,6 +233,20 @@ final class UserP
     }
 
 
+    /**
+     * Same as {@link #getAssignedUserIds(Role)} but passes the users to the handler one at a time, as they are paged in,
+     * so it isn't limited in the number of users returned.
+     *
+     * @param role    contains name of RBAC role used for search.
+     * @param handler receives each user, containing only userId and ou, may stop the search.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    void getAssignedUsers( Role role, SearchHandler<User> handler ) throws SecurityException
+    {
+        uDao.getAssignedUsers( role, handler );
+    }
+
+
     /**
      * Return a list of Users assigned the given Administrative role.
      * "Assigned" implies the hierarchical role relation graph will NOT be considered in result set.
@@ -222,6 +261,19 @@ final class UserP
     }
 
 
+    /**
+     * Same as {@link #getAssignedUsers(AdminRole)} but passes the Users to the handler one at a time, as they are paged in.
+     *
+     * @param role    contains name of Admin role used for search.
+     * @param handler receives each User, may stop the search.
+     * @throws SecurityException in the event of DAO search error.
+     */
+    void getAssignedUsers( AdminRole role, SearchHandler<User> handler ) throws SecurityException
+    {
+        uDao.getAssignedUsers( role, handler );
+    }
+
+
     /**
      * Return the list of User's RBAC roles.
      *
@@ -250,6 +302,38 @@ final class UserP
     }
 
 
+    /**
+     * Return the User entity to be placed on a session.  Its profile attributes are left out when the session projection
+     * is enabled, see {@link UserDAO#getSessionUser(User)}.
+     *
+     * @param user contains full userId value.
+     * @return User entity containing the attributes needed to authorize its session.
+     * @throws SecurityException in the event of User not found or DAO search error.
+     */
+    User readSessionUser( User user ) throws SecurityException
+    {
+        return uDao.getSessionUser( user );
+    }
+
+
+    /**
+     * Read the profile attributes of a session's User, if they were left out when the session was created.
+     *
+     * @param user as placed on the session, its profile is loaded in place.
+     * @throws SecurityException in the event of User not found or DAO search error.
+     */
+    void loadProfile( User user ) throws SecurityException
+    {
+        synchronized ( user )
+        {
+            if ( user.isProfilePending() )
+            {
+                uDao.loadProfile( user );
+            }
+        }
+    }
+
+
     /**
      * Adds a new User entity to directory.  The User entity input object will be validated to ensure that:
      * userId is present, orgUnitId is valid, roles (optiona) are valid, reasonability checks on all of the
@@ -377,7 +461,21 @@ final class UserP
      */
     String delete( User user ) throws SecurityException
     {
-        // Ensure this user isn't listed in Fortress config as a system user that can't be removed via API.
+        readDeletable( user );
+        return uDao.remove( user );
+    }
+
+
+    /**
+     * Read the User and ensure it may be deleted, i.e. it isn't listed in Fortress config as a system user that can't be
+     * removed via API.  Called before the User's dependents are removed, so a User that can't be deleted is left intact.
+     *
+     * @param user contains the userId of the User targeted for deletion.
+     * @return User entity, containing its dn.
+     * @throws SecurityException in the event the User isn't found, is a system user, or on DAO system error.
+     */
+    User readDeletable( User user ) throws SecurityException
+    {
         // Is there a match between this userId and a Fortress system user?
         User checkUser = read( user, true );
         if ( checkUser.isSystem() != null && checkUser.isSystem() )
@@ -386,7 +484,7 @@ final class UserP
                 + "] can't be removed due to policy violation, rc=" + GlobalErrIds.USER_PLCY_VIOLATION;
             throw new SecurityException( GlobalErrIds.USER_PLCY_VIOLATION, warning );
         }
-        return uDao.remove( user );
+        return checkUser;
     }
 
 
@@ -514,6 +612,8 @@ final class UserP
         }
         // Check role temporal constraints + activate roles:
         VUtil.getInstance().validateConstraints( session, VUtil.ConstraintType.ROLE, true );
+        // Compute the inherited roles once, checkAccess reuses them until the activations or the hierarchy change:
+        AuthZContext.attach( session, user.getContextId() );
         return session;
     }
 
@@ -526,15 +626,43 @@ final class UserP
      * @return Session object will contain authentication result code, RBAC and Admin role activations, OpenLDAP pw policy output and more.
      * @throws SecurityException in the event of data validation failure, security policy violation or DAO error.
      */
-    private Session createSession( User inUser )
+    private Session createSession( final User inUser )
         throws SecurityException
     {
-        // read user entity:
-        User user = read( inUser, true );
-        user.setContextId( inUser.getContextId() );
+        // read user entity, over the admin pool, while the password is bound over the user pool.  The read sees the
+        // caller's recent writes, e.g. a new user, even when it's routed to a read replica:
+        final LdapConnectionProvider provider = LdapConnectionProvider.getInstance();
+        final long lastWrite = provider.getLastWrite();
+        Future<User> userRead = SessionReader.EXECUTOR.submit( new Callable<User>()
+        {
+            @Override
+            public User call() throws SecurityException
+            {
+                provider.joinLastWrite( lastWrite );
+                return readSessionUser( inUser );
+            }
+        } );
 
-        // authenticate password, check pw policies and validate user temporal constraints:
-        Session session = authenticate( inUser );
+        Session session = null;
+        SecurityException authFailure = null;
+        try
+        {
+            // authenticate password, check pw policies and validate user temporal constraints:
+            session = authenticate( inUser );
+        }
+        catch ( SecurityException se )
+        {
+            authFailure = se;
+        }
+
+        // A failure to read the user, e.g. not found, takes precedence over the password check, as it did when they ran
+        // one after the other:
+        User user = getUser( userRead, inUser );
+        if ( authFailure != null )
+        {
+            throw authFailure;
+        }
+        user.setContextId( inUser.getContextId() );
 
         // Set the user entity into the session object:
         session.setUser( user );
@@ -542,6 +670,76 @@ final class UserP
     }
 
 
+    /**
+     * Wait for the user read started by createSession.
+     *
+     * @param userRead the read.
+     * @param inUser   contains the userId.
+     * @return User entity as read.
+     * @throws SecurityException as thrown by the read, or if the calling thread is interrupted.
+     */
+    private User getUser( Future<User> userRead, User inUser ) throws SecurityException
+    {
+        try
+        {
+            return userRead.get();
+        }
+        catch ( InterruptedException ie )
+        {
+            Thread.currentThread().interrupt();
+            userRead.cancel( true );
+            String error = "createSession userId [" + inUser.getUserId() + "] interrupted while reading user";
+            throw new SecurityException( GlobalErrIds.USER_READ_FAILED, error, ie );
+        }
+        catch ( ExecutionException ee )
+        {
+            Throwable cause = ee.getCause();
+            if ( cause instanceof SecurityException )
+            {
+                throw ( SecurityException ) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) cause;
+            }
+            else if ( cause instanceof Error )
+            {
+                throw ( Error ) cause;
+            }
+            String error = "createSession userId [" + inUser.getUserId() + "] caught exception reading user=" + cause;
+            throw new SecurityException( GlobalErrIds.USER_READ_FAILED, error, ( Exception ) cause );
+        }
+    }
+
+
+    /**
+     * Runs the user reads of createSession, alongside the bind on the calling thread.  It has as many threads as there are
+     * admin connections and no queue, so when they are all busy the read is run by the calling thread, before the bind,
+     * as if it weren't there.  Created on first use.
+     */
+    private static final class SessionReader
+    {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor( 0,
+            Math.max( 1, Config.getInstance().getInt( GlobalIds.LDAP_ADMIN_POOL_MAX, 10 ) ), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread( Runnable runnable )
+                {
+                    Thread thread = new Thread( runnable, "fortress-session-" + THREAD_COUNT.incrementAndGet() );
+                    thread.setDaemon( true );
+                    return thread;
+                }
+            }, new ThreadPoolExecutor.CallerRunsPolicy() );
+
+
+        private SessionReader()
+        {
+        }
+    }
+
+
     /**
      * Trusted session creation method called internal to this class only.  Will do all of the session activations of the public method
      *
@@ -552,7 +750,7 @@ final class UserP
     private Session createSessionTrusted( User inUser )
         throws SecurityException
     {
-        User user = read( inUser, true );
+        User user = readSessionUser( inUser );
         user.setContextId( inUser.getContextId() );
 
         if ( user.isLocked() )
@@ -822,7 +1020,7 @@ final class UserP
      * @param isUpdate if true update operation is being performed which specifies a different set of targeted attributes.
      * @throws SecurityException in the event of data validation error or DAO error on Org validation.
      */
-    private void validate( User entity, boolean isUpdate )
+    void validate( User entity, boolean isUpdate )
         throws SecurityException
     {
         if ( !isUpdate )
@@ -66,6 +66,18 @@ final class UsoUtil
     private OrgUnitP orgUnitP;
     private static final String CLS_NM = UsoUtil.class.getName();
     private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    // Reads the hierarchy, on a miss or in the background, see GraphRefresher:
+    private final GraphRefresher.Loader loader = new GraphRefresher.Loader()
+    {
+        @Override
+        public List<Graphable> getAllDescendants( String contextId ) throws SecurityException
+        {
+            OrgUnit orgUnit = new OrgUnit();
+            orgUnit.setType( OrgUnit.Type.USER );
+            orgUnit.setContextId( contextId );
+            return orgUnitP.getAllDescendants( orgUnit );
+        }
+    };
 
     private static volatile UsoUtil sINSTANCE = null;
 
@@ -179,16 +191,12 @@ final class UsoUtil
         
         if ( CollectionUtils.isNotEmpty( ous ) )
         {
+            HierClosure closure = HierUtil.getClosure( getGraph( contextId ) );
             for ( OrgUnit ou : ous )
             {
                 String name = ou.getName();
                 iOUs.add( name );
-                Set<String> parents = HierUtil.getAscendants( name, getGraph( contextId ) );
-                
-                if ( CollectionUtils.isNotEmpty( parents ) )
-                {
-                    iOUs.addAll( parents );
-                }
+                closure.addAscendants( name, iOUs );
             }
         }
         
@@ -231,7 +239,16 @@ final class UsoUtil
      */
     void updateHier( String contextId, Relationship relationship, Hier.Op op ) throws SecurityException
     {
-        HierUtil.updateHier( getGraph( contextId ), relationship, op );
+        // Hold off the background refresh, which would otherwise swap in a graph read before this update was written:
+        GraphRefresher refresher = GraphRefresher.getInstance();
+        String key = getKey( contextId );
+        synchronized ( refresher.getLock( key ) )
+        {
+            HierUtil.updateHier( getGraph( contextId ), relationship, op );
+            // The graph's weight has changed, when the caches share the tenant pool:
+            usoCache.changed( key );
+            refresher.touch( key );
+        }
     }
 
 
@@ -244,29 +261,21 @@ final class UsoUtil
      */
     private synchronized SimpleDirectedGraph<String, Relationship> loadGraph( String contextId )
     {
-        Hier inHier = new Hier( Hier.Type.ROLE );
-        inHier.setContextId( contextId );
-        LOG.info( "loadGraph initializing USO context [{}]", inHier.getContextId() );
-        
-        List<Graphable> descendants = null;
+        LOG.info( "loadGraph initializing USO context [{}]", contextId );
+        SimpleDirectedGraph<String, Relationship> graph;
+
         try
         {
-            OrgUnit orgUnit = new OrgUnit();
-            orgUnit.setType( OrgUnit.Type.USER );
-            orgUnit.setContextId( contextId );
-            descendants = orgUnitP.getAllDescendants( orgUnit );
+            graph = GraphRefresher.load( loader, contextId );
         }
         catch ( SecurityException se )
         {
             LOG.info( "loadGraph caught SecurityException={}", se );
+            graph = HierUtil.buildGraph( HierUtil.loadHier( contextId, null ) );
         }
-        
-        Hier hier = HierUtil.loadHier( contextId, descendants );
-        SimpleDirectedGraph<String, Relationship> graph;
-        
-        graph = HierUtil.buildGraph( hier );
+
         usoCache.put( getKey( contextId ), graph );
-        
+
         return graph;
     }
 
@@ -284,11 +293,23 @@ final class UsoUtil
                  .get( key );
              
         if(graph == null){
+            // The entry has expired, put back the last graph if it's being refreshed in the background:
+            graph = GraphRefresher.getInstance().getGraph( key );
+            if ( graph != null )
+            {
+                usoCache.put( key, graph );
+                return graph;
+            }
             LOG.debug("Graph was null, creating... " + contextId);
-            return loadGraph( contextId );
+            graph = loadGraph( contextId );
+            // Registered outside of loadGraph's lock, as updateHier takes the refresher's lock before it:
+            GraphRefresher.getInstance().register( key, contextId, usoCache, loader, graph );
+            return graph;
         }
         else{
             LOG.debug("Graph found in cache, returning...");
+            // Keeps the graph refreshed in the background while it's read:
+            GraphRefresher.getInstance().used( key );
             return graph;
         }
     }
@@ -0,0 +1,522 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A connection pool that replaces the synchronized internals of commons-pool with a lock-free deque of idle connections
+ * and a fair semaphore, used by {@link LdapConnectionProvider} when {@code ldap.pool.type=concurrent}.
+ * <ul>
+ *   <li>Borrowing and returning a connection take no monitors, so the threads calling fortress, including virtual
+ *   threads, never block each other on the pool itself.</li>
+ *   <li>The pool has a hard cap of {@code maxActive} open connections, idle and on loan together.  Once they are all on
+ *   loan, callers wait their turn, in arrival order, for up to {@code maxWait} milliseconds and then fail, rather than
+ *   opening more.</li>
+ *   <li>Connections aren't validated on borrow.  A background thread validates the idle ones, drops those that fail and
+ *   tops the pool up to {@code minIdle}.  A connection found closed on borrow is replaced without a round trip.</li>
+ * </ul>
+ * It extends {@link LdapConnectionPool} so it may be used wherever the commons-pool implementation is, but none of the
+ * settings of the parent apply to it.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class ConcurrentLdapConnectionPool extends LdapConnectionPool
+{
+    private static final String CLS_NM = ConcurrentLdapConnectionPool.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final PoolableObjectFactory<LdapConnection> factory;
+    private final int minIdle;
+    private final int maxActive;
+    private final long maxWait;
+    // Most recently returned first, so the busy connections stay warm and the others are the first to be validated:
+    private final ConcurrentLinkedDeque<LdapConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger numIdle = new AtomicInteger();
+    private final AtomicInteger numActive = new AtomicInteger();
+    // Every connection that is open, or being opened, wherever it is, never more than maxActive:
+    private final AtomicInteger numOpen = new AtomicInteger();
+    // One permit per connection that may be open, handed out in arrival order once the pool is exhausted:
+    private final Semaphore permits;
+    private volatile boolean closed;
+    private Thread validator;
+
+
+    /**
+     * Package private constructor, see {@link LdapConnectionProvider}.
+     *
+     * @param factory   creates, activates, validates, passivates and destroys the connections.
+     * @param minIdle   number of idle connections kept open by the validator.
+     * @param maxActive max number of connections open at once.
+     * @param maxWait   milliseconds to wait for a connection when they are all on loan, no limit if not positive.
+     */
+    ConcurrentLdapConnectionPool( PoolableObjectFactory<LdapConnection> factory, int minIdle, int maxActive,
+        long maxWait )
+    {
+        super( factory );
+        this.factory = factory;
+        this.minIdle = minIdle;
+        this.maxActive = Math.max( 1, maxActive );
+        this.maxWait = maxWait;
+        this.permits = new Semaphore( this.maxActive, true );
+    }
+
+
+    /**
+     * Start the background validation of the idle connections.
+     *
+     * @param interval milliseconds between runs, validation is off if not positive.
+     */
+    synchronized void start( final long interval )
+    {
+        if ( validator != null || interval <= 0 )
+        {
+            return;
+        }
+        validator = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while ( !Thread.currentThread().isInterrupted() && !closed )
+                {
+                    try
+                    {
+                        Thread.sleep( interval );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                    validateIdle();
+                    ensureMinIdle();
+                }
+            }
+        }, "fortress-ldap-pool-" + THREAD_COUNT.incrementAndGet() );
+        validator.setDaemon( true );
+        validator.start();
+    }
+
+
+    /**
+     * Borrow a connection, waiting for one to be returned if they are all on loan.
+     *
+     * @return connection, activated.
+     * @throws LdapException if the pool is closed, no connection became available within {@code maxWait} or a new one
+     * could not be opened.
+     */
+    @Override
+    public LdapConnection getConnection() throws LdapException
+    {
+        if ( closed )
+        {
+            throw new LdapException( CLS_NM + ".getConnection pool is closed" );
+        }
+        acquire();
+        numActive.incrementAndGet();
+        try
+        {
+            return take();
+        }
+        catch ( LdapException | RuntimeException e )
+        {
+            numActive.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Return a connection to the pool.  One that can't be passivated, e.g. because it has lost its bind, is closed
+     * instead.
+     *
+     * @param connection as returned by {@link #getConnection()}.
+     */
+    @Override
+    public void releaseConnection( LdapConnection connection )
+    {
+        try
+        {
+            factory.passivateObject( connection );
+            idle.offerFirst( connection );
+            numIdle.incrementAndGet();
+            if ( closed )
+            {
+                clear();
+            }
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "releaseConnection failed to passivate connection, error={}", e.getMessage() );
+            destroy( connection );
+        }
+        finally
+        {
+            numActive.decrementAndGet();
+            permits.release();
+        }
+    }
+
+
+    @Override
+    public LdapConnection borrowObject() throws LdapException
+    {
+        return getConnection();
+    }
+
+
+    @Override
+    public void returnObject( LdapConnection connection )
+    {
+        releaseConnection( connection );
+    }
+
+
+    /**
+     * Close a connection that is on loan instead of returning it to the pool.
+     *
+     * @param connection as returned by {@link #getConnection()}.
+     */
+    @Override
+    public void invalidateObject( LdapConnection connection )
+    {
+        try
+        {
+            destroy( connection );
+        }
+        finally
+        {
+            numActive.decrementAndGet();
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Close the idle connections.
+     */
+    @Override
+    public void clear()
+    {
+        LdapConnection connection;
+        while ( ( connection = idle.pollFirst() ) != null )
+        {
+            numIdle.decrementAndGet();
+            destroy( connection );
+        }
+    }
+
+
+    /**
+     * Stop the validator and close the idle connections.  Connections on loan are closed as they are returned.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        synchronized ( this )
+        {
+            if ( validator != null )
+            {
+                validator.interrupt();
+                validator = null;
+            }
+        }
+        clear();
+    }
+
+
+    @Override
+    public int getNumActive()
+    {
+        return numActive.get();
+    }
+
+
+    @Override
+    public int getNumIdle()
+    {
+        return numIdle.get();
+    }
+
+
+    @Override
+    public int getMaxActive()
+    {
+        return maxActive;
+    }
+
+
+    @Override
+    public long getMaxWait()
+    {
+        return maxWait;
+    }
+
+
+    /**
+     * @return estimate of the number of callers waiting for a connection.
+     */
+    int getNumWaiting()
+    {
+        return permits.getQueueLength();
+    }
+
+
+    /**
+     * Validate each connection that is idle when called, least recently used first, and close those that fail.  Each is
+     * checked under a permit, so the pool never has more than {@code maxActive} connections open.  Gives way to callers as
+     * soon as there are any waiting.
+     */
+    void validateIdle()
+    {
+        int count = numIdle.get();
+        for ( int i = 0; i < count && !closed; i++ )
+        {
+            if ( permits.hasQueuedThreads() || !permits.tryAcquire() )
+            {
+                return;
+            }
+            try
+            {
+                LdapConnection connection = idle.pollLast();
+                if ( connection == null )
+                {
+                    return;
+                }
+                numIdle.decrementAndGet();
+                if ( factory.validateObject( connection ) )
+                {
+                    idle.offerFirst( connection );
+                    numIdle.incrementAndGet();
+                }
+                else
+                {
+                    LOG.debug( "validateIdle closing invalid connection" );
+                    destroy( connection );
+                }
+            }
+            finally
+            {
+                permits.release();
+            }
+        }
+    }
+
+
+    /**
+     * Open connections until there are {@code minIdle} of them idle, as long as no caller is waiting and the pool has
+     * fewer than {@code maxActive} open.
+     */
+    void ensureMinIdle()
+    {
+        while ( numIdle.get() < minIdle && !closed && !permits.hasQueuedThreads() && reserve() )
+        {
+            LdapConnection connection = null;
+            try
+            {
+                connection = factory.makeObject();
+                factory.passivateObject( connection );
+                idle.offerLast( connection );
+                numIdle.incrementAndGet();
+            }
+            catch ( Exception e )
+            {
+                LOG.warn( "ensureMinIdle failed to open connection, error={}", e.getMessage() );
+                if ( connection != null )
+                {
+                    destroy( connection );
+                }
+                else
+                {
+                    numOpen.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * @return number of connections open, idle or on loan.
+     */
+    int getNumOpen()
+    {
+        return numOpen.get();
+    }
+
+
+    /**
+     * Take a permit, i.e. the right to have one connection open.
+     */
+    private void acquire() throws LdapException
+    {
+        try
+        {
+            if ( maxWait > 0 )
+            {
+                if ( !permits.tryAcquire( maxWait, TimeUnit.MILLISECONDS ) )
+                {
+                    throw new LdapException( CLS_NM + ".getConnection timed out after " + maxWait
+                        + " ms waiting for one of " + maxActive + " connections" );
+                }
+            }
+            else
+            {
+                permits.acquire();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new LdapException( CLS_NM + ".getConnection interrupted", e );
+        }
+    }
+
+
+    /**
+     * Take an idle connection or, if there are none left, open a new one.  The caller holds a permit.  If the pool is at
+     * its cap the caller's connection is one that is not on loan but on its way back to the deque, e.g. being returned or
+     * validated by another thread, so wait for it.
+     */
+    private LdapConnection take() throws LdapException
+    {
+        LdapConnection connection;
+        while ( true )
+        {
+            connection = poll();
+            if ( connection != null )
+            {
+                return connection;
+            }
+            if ( reserve() )
+            {
+                break;
+            }
+            if ( closed )
+            {
+                throw new LdapException( CLS_NM + ".getConnection pool is closed" );
+            }
+            LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( 100 ) );
+        }
+        try
+        {
+            connection = factory.makeObject();
+        }
+        catch ( Exception e )
+        {
+            numOpen.decrementAndGet();
+            throw new LdapException( e.getMessage(), e );
+        }
+        try
+        {
+            factory.activateObject( connection );
+            return connection;
+        }
+        catch ( Exception e )
+        {
+            destroy( connection );
+            throw new LdapException( e.getMessage(), e );
+        }
+    }
+
+
+    /**
+     * Take an idle connection that is still connected and can be activated, closing those that aren't.
+     *
+     * @return connection or null if the deque is empty.
+     */
+    private LdapConnection poll()
+    {
+        LdapConnection connection;
+        while ( ( connection = idle.pollFirst() ) != null )
+        {
+            numIdle.decrementAndGet();
+            // A connection closed by the server since it was last validated is dropped without a round trip:
+            if ( connection.isConnected() )
+            {
+                try
+                {
+                    factory.activateObject( connection );
+                    return connection;
+                }
+                catch ( Exception e )
+                {
+                    LOG.debug( "take failed to activate connection, error={}", e.getMessage() );
+                }
+            }
+            destroy( connection );
+        }
+        return null;
+    }
+
+
+    /**
+     * Count a connection about to be opened against the cap.
+     *
+     * @return false if the pool already has {@code maxActive} connections open.
+     */
+    private boolean reserve()
+    {
+        while ( true )
+        {
+            int open = numOpen.get();
+            if ( open >= maxActive )
+            {
+                return false;
+            }
+            if ( numOpen.compareAndSet( open, open + 1 ) )
+            {
+                return true;
+            }
+        }
+    }
+
+
+    private void destroy( LdapConnection connection )
+    {
+        numOpen.decrementAndGet();
+        try
+        {
+            factory.destroyObject( connection );
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "destroy failed to close connection, error={}", e.getMessage() );
+        }
+    }
+}
@@ -50,6 +50,15 @@ import org.slf4j.LoggerFactory;
  * </ul>
  *
  * Each connection pool is initialized on first invocation of getInstance() which stores a reference to self used by subsequent callers.
+ * Borrow wait times and pool usage are tracked by {@link LdapMetrics} if enabled.
+ * <p>
+ * When read replicas are listed in {@code ldap.replicas}, the admin connections are {@link RoutedLdapConnection}s that send
+ * reads to the replicas and writes to the master, i.e. {@code host}, see {@link LdapRouter}.  The user and log pools always
+ * use the master.
+ * <p>
+ * The pools are commons-pool {@link LdapConnectionPool}s, which validate each connection as it is borrowed and grow past
+ * their max when exhausted.  With {@code ldap.pool.type=concurrent} they are {@link ConcurrentLdapConnectionPool}s instead,
+ * which are capped at their max and validate idle connections in the background.
  * <p>
  * This class is not thread safe.
  *
@@ -67,6 +76,15 @@ public class LdapConnectionProvider
     private static final String LDAP_LOG_POOL_MAX = "max.log.conn";
 
     private static final String ENABLE_LDAP_STARTTLS = "enable.ldap.starttls";
+
+    private static final String LDAP_REPLICAS = "ldap.replicas";
+    private static final String LDAP_REPLICA_FAILURES = "ldap.replica.failures";
+    private static final String LDAP_REPLICA_HEALTH_INTERVAL = "ldap.replica.health.interval";
+    private static final String LDAP_READ_AFTER_WRITE = "ldap.read.after.write";
+    private static final String LDAP_POOL_TYPE = "ldap.pool.type";
+    private static final String LDAP_POOL_TYPE_CONCURRENT = "concurrent";
+    private static final String LDAP_POOL_MAX_WAIT = "ldap.pool.max.wait";
+    private static final String LDAP_POOL_VALIDATION_INTERVAL = "ldap.pool.validation.interval";
     private boolean IS_SSL;
 
     /**
@@ -84,6 +102,11 @@ public class LdapConnectionProvider
      */
     private static LdapConnectionPool userPool;
 
+    /**
+     * Routes admin connections between the master and its read replicas, null if there are none
+     */
+    private static LdapRouter router;
+
     private static volatile LdapConnectionProvider sINSTANCE = null;
 
     /**
@@ -193,21 +216,12 @@ public class LdapConnectionProvider
         PoolableObjectFactory<LdapConnection> poolFactory = new ValidatingPoolableLdapConnectionFactory( config );
 
         // Create the Admin pool
-        adminPool = new LdapConnectionPool( poolFactory );
-        adminPool.setTestOnBorrow( true );
-        adminPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
-        adminPool.setMaxActive( max );
-        adminPool.setMinIdle( min );
-        adminPool.setMaxIdle( -1 );
-        //adminPool.setMaxWait( 0 );
+        adminPool = newPool( poolFactory, min, max );
+
+        initReplicas( config, port, min, max );
 
         // Create the User pool
-        userPool = new LdapConnectionPool( poolFactory );
-        userPool.setTestOnBorrow( true );
-        userPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
-        userPool.setMaxActive( max );
-        userPool.setMinIdle( min );
-        userPool.setMaxIdle( -1 );
+        userPool = newPool( poolFactory, min, max );
 
         // This pool of access log connections is used by {@link org.apache.directory.fortress.AuditMgr}.
         // To enable, set {@code log.admin.user} && {@code log.admin.pw} inside fortress.properties file:
@@ -244,11 +258,104 @@ public class LdapConnectionProvider
             }
             logConfig.setCredentials( logPw );
             poolFactory = new ValidatingPoolableLdapConnectionFactory( logConfig );
-            logPool = new LdapConnectionPool( poolFactory );
-            logPool.setTestOnBorrow( true );
-            logPool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
-            logPool.setMaxActive( logmax );
-            logPool.setMinIdle( logmin );
+            logPool = newPool( poolFactory, logmin, logmax );
+        }
+
+        LdapMetrics metrics = LdapMetrics.getInstance();
+        metrics.addPool( LdapMetrics.Pool.ADMIN, adminPool );
+        metrics.addPool( LdapMetrics.Pool.USER, userPool );
+        metrics.addPool( LdapMetrics.Pool.LOG, logPool );
+    }
+
+
+    /**
+     * Create a connection pool of the type set by {@code ldap.pool.type}.
+     *
+     * @param poolFactory opens and validates the connections.
+     * @param min         idle connections.
+     * @param max         active connections.
+     * @return the pool.
+     */
+    private LdapConnectionPool newPool( PoolableObjectFactory<LdapConnection> poolFactory, int min, int max )
+    {
+        if ( LDAP_POOL_TYPE_CONCURRENT.equalsIgnoreCase( Config.getInstance().getProperty( LDAP_POOL_TYPE ) ) )
+        {
+            ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( poolFactory, min, max,
+                Config.getInstance().getInt( LDAP_POOL_MAX_WAIT, 10000 ) );
+            pool.start( Config.getInstance().getInt( LDAP_POOL_VALIDATION_INTERVAL, 30000 ) );
+            return pool;
+        }
+        LdapConnectionPool pool = new LdapConnectionPool( poolFactory );
+        pool.setTestOnBorrow( true );
+        pool.setWhenExhaustedAction( GenericObjectPool.WHEN_EXHAUSTED_GROW );
+        pool.setMaxActive( max );
+        pool.setMinIdle( min );
+        pool.setMaxIdle( -1 );
+        return pool;
+    }
+
+
+    /**
+     * Create a pool per read replica, with the same settings as the admin pool, and start routing admin connections.
+     *
+     * @param config of the admin pool.
+     * @param port   default port of the replicas.
+     * @param min    idle connections per replica.
+     * @param max    active connections per replica.
+     */
+    private void initReplicas( LdapConnectionConfig config, int port, int min, int max )
+    {
+        String replicaList = Config.getInstance().getProperty( LDAP_REPLICAS );
+        if ( StringUtils.isBlank( replicaList ) )
+        {
+            return;
+        }
+        int failures = Config.getInstance().getInt( LDAP_REPLICA_FAILURES, 3 );
+        List<LdapHost> replicas = new ArrayList<>();
+        for ( String replica : replicaList.split( "," ) )
+        {
+            replica = replica.trim();
+            if ( replica.isEmpty() )
+            {
+                continue;
+            }
+            String replicaHost = replica;
+            int replicaPort = port;
+            int colon = replica.lastIndexOf( ':' );
+            if ( colon > 0 )
+            {
+                replicaHost = replica.substring( 0, colon );
+                try
+                {
+                    replicaPort = Integer.parseInt( replica.substring( colon + 1 ) );
+                }
+                catch ( NumberFormatException e )
+                {
+                    String error = "Invalid port in " + LDAP_REPLICAS + " entry [" + replica + "]";
+                    throw new CfgRuntimeException( GlobalErrIds.FT_APACHE_LDAP_POOL_INIT_FAILED, error, e );
+                }
+            }
+            LdapConnectionConfig replicaConfig = new LdapConnectionConfig();
+            replicaConfig.setLdapHost( replicaHost );
+            replicaConfig.setLdapPort( replicaPort );
+            replicaConfig.setName( config.getName() );
+            replicaConfig.setCredentials( config.getCredentials() );
+            replicaConfig.setUseSsl( config.isUseSsl() );
+            replicaConfig.setUseTls( config.isUseTls() );
+            replicaConfig.setTrustManagers( config.getTrustManagers() );
+            replicaConfig.setLdapApiService( config.getLdapApiService() );
+
+            LdapConnectionPool replicaPool = newPool( new ValidatingPoolableLdapConnectionFactory( replicaConfig ), min,
+                max );
+            LOG.info( "LDAP REPLICA POOL:  host=[{}], port=[{}], min=[{}], max=[{}]", replicaHost, replicaPort, min,
+                max );
+            replicas.add( new LdapHost( replicaHost + ":" + replicaPort, replicaPool, failures ) );
+        }
+        if ( !replicas.isEmpty() )
+        {
+            LdapHost master = new LdapHost( config.getLdapHost() + ":" + config.getLdapPort(), adminPool, failures );
+            router = new LdapRouter( master, replicas, Config.getInstance().getInt( LDAP_READ_AFTER_WRITE, 2000 ) );
+            router.start( Config.getInstance().getInt( LDAP_REPLICA_HEALTH_INTERVAL, 10000 ) );
         }
     }
 
@@ -260,6 +367,17 @@ public class LdapConnectionProvider
      */
     public void closeAdminConnection(LdapConnection connection)
     {
+        // Nothing to return if the connection was never borrowed:
+        if ( connection == null )
+        {
+            return;
+        }
+        LdapMetrics.getInstance().released( connection );
+        if ( connection instanceof RoutedLdapConnection )
+        {
+            ( ( RoutedLdapConnection ) connection ).release();
+            return;
+        }
         try
         {
             adminPool.releaseConnection( connection );
@@ -278,6 +396,12 @@ public class LdapConnectionProvider
      */
     public void closeLogConnection(LdapConnection connection)
     {
+        // Nothing to return if the connection was never borrowed:
+        if ( connection == null )
+        {
+            return;
+        }
+        LdapMetrics.getInstance().released( connection );
         try
         {
             logPool.releaseConnection( connection );
@@ -296,6 +420,12 @@ public class LdapConnectionProvider
      */
     public void closeUserConnection(LdapConnection connection)
     {
+        // Nothing to return if the connection was never borrowed:
+        if ( connection == null )
+        {
+            return;
+        }
+        LdapMetrics.getInstance().released( connection );
         try
         {
             userPool.releaseConnection( connection );
@@ -307,6 +437,33 @@ public class LdapConnectionProvider
     }
 
 
+    /**
+     * Return the time the calling thread last wrote over an admin connection.  Work that is handed to another thread passes
+     * it to {@link #joinLastWrite(long)} there, so the reads of that thread see the writes even when they are routed to
+     * the read replicas.
+     *
+     * @return time of the last write, 0 if the thread hasn't written or there are no read replicas.
+     */
+    public long getLastWrite()
+    {
+        return router != null ? router.getLastWrite() : 0;
+    }
+
+
+    /**
+     * Make the calling thread read from the master as if it had made a write at the given time, see {@link #getLastWrite()}.
+     *
+     * @param time of the last write of the thread that handed the work over.
+     */
+    public void joinLastWrite( long time )
+    {
+        if ( router != null && time != 0 )
+        {
+            router.joinLastWrite( time );
+        }
+    }
+
+
     /**
      * Calls the PoolMgr to get an Admin connection to the LDAP server.
      *
@@ -315,9 +472,14 @@ public class LdapConnectionProvider
      */
     public LdapConnection getAdminConnection() throws LdapException
     {
+        LdapMetrics metrics = LdapMetrics.getInstance();
+        long start = metrics.start();
         try
         {
-            return adminPool.getConnection();
+            // The routed connection borrows from the master and replica pools when first used:
+            LdapConnection connection = router != null ? new RoutedLdapConnection( router ) : adminPool.getConnection();
+            metrics.borrowed( LdapMetrics.Pool.ADMIN, connection, start );
+            return connection;
         }
         catch ( Exception e )
         {
@@ -334,9 +496,13 @@ public class LdapConnectionProvider
      */
     public LdapConnection getLogConnection() throws LdapException
     {
+        LdapMetrics metrics = LdapMetrics.getInstance();
+        long start = metrics.start();
         try
         {
-            return logPool.getConnection();
+            LdapConnection connection = logPool.getConnection();
+            metrics.borrowed( LdapMetrics.Pool.LOG, connection, start );
+            return connection;
         }
         catch ( Exception e )
         {
@@ -353,9 +519,13 @@ public class LdapConnectionProvider
      */
     public LdapConnection getUserConnection() throws LdapException
     {
+        LdapMetrics metrics = LdapMetrics.getInstance();
+        long start = metrics.start();
         try
         {
-            return userPool.getConnection();
+            LdapConnection connection = userPool.getConnection();
+            metrics.borrowed( LdapMetrics.Pool.USER, connection, start );
+            return connection;
         }
         catch ( Exception e )
         {
@@ -368,6 +538,11 @@ public class LdapConnectionProvider
      */
     public static void closeAllConnectionPools()
     {
+        if ( router != null )
+        {
+            router.close();
+        }
+
         try
         {
             LOG.info( "Closing admin pool" );
@@ -397,5 +572,7 @@ public class LdapConnectionProvider
         {
             LOG.warn( "Error closing log pool: " + e.getMessage() );
         }
+
+        LdapMetrics.getInstance().unregisterAll();
     }
 }
@@ -36,6 +36,11 @@ public class LdapCounters
     private AtomicInteger modCtr = new AtomicInteger( 0 );
     private AtomicInteger deleteCtr = new AtomicInteger( 0 );
     private AtomicInteger bindCtr = new AtomicInteger( 0 );
+    private AtomicInteger permCacheHitCtr = new AtomicInteger( 0 );
+    private AtomicInteger permCacheMissCtr = new AtomicInteger( 0 );
+    private AtomicInteger auditQueuedCtr = new AtomicInteger( 0 );
+    private AtomicInteger auditDroppedCtr = new AtomicInteger( 0 );
+    private AtomicInteger auditFlushedCtr = new AtomicInteger( 0 );
 
 
     /**
@@ -101,6 +106,64 @@ public class LdapCounters
     }
 
 
+    /**
+     *  Increment the permission cache hit counter.
+     */
+    public void incrementPermCacheHit()
+    {
+        permCacheHitCtr.incrementAndGet();
+    }
+
+
+    /**
+     *  Increment the permission cache miss counter.
+     */
+    public void incrementPermCacheMiss()
+    {
+        permCacheMissCtr.incrementAndGet();
+    }
+
+
+    /**
+     *  Increment the async audit queued counter.
+     */
+    public void incrementAuditQueued()
+    {
+        auditQueuedCtr.incrementAndGet();
+    }
+
+
+    /**
+     *  Increment the async audit dropped counter.
+     */
+    public void incrementAuditDropped()
+    {
+        auditDroppedCtr.incrementAndGet();
+    }
+
+
+    /**
+     *  Increase the async audit dropped counter.
+     *
+     * @param count contains the number of events that were dropped.
+     */
+    public void incrementAuditDropped( int count )
+    {
+        auditDroppedCtr.addAndGet( count );
+    }
+
+
+    /**
+     *  Increase the async audit flushed counter.
+     *
+     * @param count contains the number of events that were written.
+     */
+    public void incrementAuditFlushed( int count )
+    {
+        auditFlushedCtr.addAndGet( count );
+    }
+
+
     /**
      * Return the search counter.
      * @return long containing search.
@@ -169,4 +232,54 @@ public class LdapCounters
     {
         return bindCtr.intValue();
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Return the permission cache hit counter.  Each hit corresponds with a read that was not sent to the server.
+     * @return long containing permission cache hits.
+     */
+    public long getPermCacheHit()
+    {
+        return permCacheHitCtr.intValue();
+    }
+
+
+    /**
+     * Return the permission cache miss counter.
+     * @return long containing permission cache misses.
+     */
+    public long getPermCacheMiss()
+    {
+        return permCacheMissCtr.intValue();
+    }
+
+
+    /**
+     * Return the async audit queued counter.
+     * @return long containing number of authorization events added to the audit buffer.
+     */
+    public long getAuditQueued()
+    {
+        return auditQueuedCtr.intValue();
+    }
+
+
+    /**
+     * Return the async audit dropped counter.
+     * @return long containing number of authorization events discarded due to backpressure or write failure.
+     */
+    public long getAuditDropped()
+    {
+        return auditDroppedCtr.intValue();
+    }
+
+
+    /**
+     * Return the async audit flushed counter.
+     * @return long containing number of authorization events written to the audit sink.
+     */
+    public long getAuditFlushed()
+    {
+        return auditFlushedCtr.intValue();
+    }
+}
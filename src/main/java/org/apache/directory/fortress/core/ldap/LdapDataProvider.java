@@ -70,7 +70,12 @@ import org.apache.directory.fortress.core.model.Hier;
 import org.apache.directory.fortress.core.model.Relationship;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.LdapUtil;
+import org.apache.directory.ldap.client.api.LdapAsyncConnection;
 import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.Wrapper;
+import org.apache.directory.ldap.client.api.future.CompareFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -87,9 +92,12 @@ public abstract class LdapDataProvider
 {
     // Logging
     private static final String CLS_NM = LdapDataProvider.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
     private static final int MAX_DEPTH = 100;
     private static final LdapCounters COUNTERS = new LdapCounters();
     private static final PasswordPolicy PP_REQ_CTRL = new PasswordPolicyImpl();
+    private static final String LDAP_PAGE_SIZE = "ldap.page.size";
+    private static final int DEFAULT_PAGE_SIZE = 500;
     
     /**
      * Given a contextId and a fortress param name return the LDAP dn.
@@ -164,7 +172,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = startTimer();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.READ, connection, start );
+        }
     }
 
 
@@ -181,7 +197,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = startTimer();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.READ, connection, start );
+        }
     }
 
 
@@ -202,7 +226,15 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementRead();
 
-        return connection.lookup( dn, attrs );
+        long start = startTimer();
+        try
+        {
+            return connection.lookup( dn, attrs );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.READ, connection, start );
+        }
     }
 
 
@@ -216,7 +248,15 @@ public abstract class LdapDataProvider
     protected void add( LdapConnection connection, Entry entry ) throws LdapException
     {
         COUNTERS.incrementAdd();
-        connection.add( entry );
+        long start = startTimer();
+        try
+        {
+            connection.add( entry );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.ADD, connection, start );
+        }
     }
 
 
@@ -250,7 +290,15 @@ public abstract class LdapDataProvider
             }
         }
 
-        connection.add( entry );
+        long start = startTimer();
+        try
+        {
+            connection.add( entry );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.ADD, connection, start );
+        }
     }
 
 
@@ -265,8 +313,16 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, String dn, List<Modification> mods ) throws LdapException
     {
         COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = startTimer();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]
+                {} ) );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.MODIFY, connection, start );
+        }
     }
 
 
@@ -281,8 +337,16 @@ public abstract class LdapDataProvider
     protected void modify( LdapConnection connection, Dn dn, List<Modification> mods ) throws LdapException
     {
         COUNTERS.incrementMod();
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = startTimer();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]
+                {} ) );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.MODIFY, connection, start );
+        }
     }
 
 
@@ -300,8 +364,16 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementMod();
         audit( mods, entity );
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = startTimer();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]
+                {} ) );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.MODIFY, connection, start );
+        }
     }
 
 
@@ -319,8 +391,16 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementMod();
         audit( mods, entity );
-        connection.modify( dn, mods.toArray( new Modification[]
-            {} ) );
+        long start = startTimer();
+        try
+        {
+            connection.modify( dn, mods.toArray( new Modification[]
+                {} ) );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.MODIFY, connection, start );
+        }
     }
 
 
@@ -334,7 +414,15 @@ public abstract class LdapDataProvider
     protected void delete( LdapConnection connection, String dn ) throws LdapException
     {
         COUNTERS.incrementDelete();
-        connection.delete( dn );
+        long start = startTimer();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.DELETE, connection, start );
+        }
     }
 
 
@@ -359,7 +447,15 @@ public abstract class LdapDataProvider
             modify( connection, dn, mods );
         }
 
-        connection.delete( dn );
+        long start = startTimer();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.DELETE, connection, start );
+        }
     }
 
 
@@ -384,7 +480,15 @@ public abstract class LdapDataProvider
             modify( connection, dn, mods );
         }
 
-        connection.delete( dn );
+        long start = startTimer();
+        try
+        {
+            connection.delete( dn );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.DELETE, connection, start );
+        }
     }
 
 
@@ -544,7 +648,7 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        return connection.search( searchRequest );
+        return timedSearch( connection, searchRequest );
     }
 
 
@@ -576,7 +680,55 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        return connection.search( searchRequest );
+        return timedSearch( connection, searchRequest );
+    }
+
+
+    /**
+     * Perform ldap search using the simple paged results control.  The entries are requested one page at a time, as the
+     * cursor is advanced, so there is no limit on the number of entries and only one page is held in memory.  The page size
+     * is set by {@code ldap.page.size}.  The cursor must be closed.
+     *
+     * @param connection is LdapConnection object used for all communication with host.  Must not be released before the
+     *                   cursor is closed.
+     * @param baseDn     contains address of distinguished name to begin ldap search
+     * @param scope      indicates depth of search starting at basedn.  0 (base dn),
+     *                   1 (one level down) or 2 (infinite) are valid values.
+     * @param filter     contains the search criteria
+     * @param attrs      is the requested list of attritubutes to return from directory search.
+     * @param attrsOnly  if true pull back attribute names only.
+     * @return forward only cursor over the entries returned from directory.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    protected SearchCursor searchPaged( LdapConnection connection, String baseDn, SearchScope scope, String filter,
+        String[] attrs, boolean attrsOnly ) throws LdapException
+    {
+        SearchRequest searchRequest = new SearchRequestImpl();
+
+        searchRequest.setBase( new Dn( baseDn ) );
+        searchRequest.setFilter( filter );
+        searchRequest.setScope( scope );
+        searchRequest.setTypesOnly( attrsOnly );
+        searchRequest.addAttributes( attrs );
+
+        int pageSize = Config.getInstance().getInt( LDAP_PAGE_SIZE, DEFAULT_PAGE_SIZE );
+        return new PagedSearchCursor( this, connection, searchRequest, pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE );
+    }
+
+
+    /**
+     * Send the request for one page of a paged search.  Called by {@link PagedSearchCursor}.
+     *
+     * @param connection    used for the search.
+     * @param searchRequest contains the paged results control.
+     * @return result set containing ldap entries returned from directory.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    SearchCursor searchPage( LdapConnection connection, SearchRequest searchRequest ) throws LdapException
+    {
+        COUNTERS.incrementSearch();
+
+        return timedSearch( connection, searchRequest );
     }
 
 
@@ -606,17 +758,25 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        SearchCursor result = connection.search( searchRequest );
+        long start = startTimer();
+        try
+        {
+            SearchCursor result = connection.search( searchRequest );
 
-        Entry entry = result.getEntry();
+            Entry entry = result.getEntry();
 
-        if ( result.next() )
+            if ( result.next() )
+            {
+                throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                    baseDn + "] filter [" + filter + "]" );
+            }
+
+            return entry;
+        }
+        finally
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            stopTimer( LdapMetrics.Op.SEARCH, connection, start );
         }
-
-        return entry;
     }
 
 
@@ -649,17 +809,25 @@ public abstract class LdapDataProvider
         searchRequest.setTypesOnly( attrsOnly );
         searchRequest.addAttributes( attrs );
 
-        SearchCursor result = connection.search( searchRequest );
+        long start = startTimer();
+        try
+        {
+            SearchCursor result = connection.search( searchRequest );
 
-        Entry entry = result.getEntry();
+            Entry entry = result.getEntry();
 
-        if ( result.next() )
+            if ( result.next() )
+            {
+                throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
+                    baseDn + "] filter [" + filter + "]" );
+            }
+
+            return entry;
+        }
+        finally
         {
-            throw new LdapException( "searchNode failed to return unique record for LDAP search of base DN [" +
-                baseDn + "] filter [" + filter + "]" );
+            stopTimer( LdapMetrics.Op.SEARCH, connection, start );
         }
-
-        return entry;
     }
 
 
@@ -684,6 +852,104 @@ public abstract class LdapDataProvider
     {
         COUNTERS.incrementCompare();
 
+        CompareRequest compareRequest = createCompareRequest( dn, userDn, attribute );
+        long start = startTimer();
+        try
+        {
+            CompareResponse response = connection.compare( compareRequest );
+            return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.COMPARE, connection, start );
+        }
+    }
+
+
+    /**
+     * Ask the server if an entry's attribute holds a value, using the attribute's equality rule, rather than read all of
+     * its values.
+     *
+     * @param connection  is LdapConnection object used for all communication with host.
+     * @param dn          contains address of distinguished name of the entry.
+     * @param attributeId contains the name of the attribute.
+     * @param value       contains the value asserted.
+     * @return true if the attribute holds the value, false if it doesn't or the entry has no such attribute.
+     * @throws LdapException thrown in the event of error in ldap client or server code, e.g. the entry doesn't exist.
+     */
+    protected boolean compareValue( LdapConnection connection, String dn, String attributeId, String value )
+        throws LdapException
+    {
+        COUNTERS.incrementCompare();
+
+        CompareRequest compareRequest = new CompareRequestImpl();
+        compareRequest.setName( new Dn( dn ) );
+        compareRequest.setAttributeId( attributeId );
+        compareRequest.setAssertionValue( value );
+        long start = startTimer();
+        try
+        {
+            CompareResponse response = connection.compare( compareRequest );
+            ResultCodeEnum resultCode = response.getLdapResult().getResultCode();
+            if ( resultCode == ResultCodeEnum.COMPARE_TRUE )
+            {
+                return true;
+            }
+            else if ( resultCode != ResultCodeEnum.COMPARE_FALSE && resultCode != ResultCodeEnum.NO_SUCH_ATTRIBUTE )
+            {
+                // e.g. no such object:
+                ResultCodeEnum.processResponse( response );
+            }
+            return false;
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.COMPARE, connection, start );
+        }
+    }
+
+
+    /**
+     * This method is the same as {@link #compareNode(LdapConnection, String, String, Attribute)} except it sends the
+     * request without waiting for the response.  This allows many compares to be pipelined on a single connection.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @param dn         contains address of distinguished name to begin ldap search
+     * @param userDn     dn for user node
+     * @param attribute  attribute used for compare
+     * @return future for the response or null if the connection does not support asynchronous operations.
+     * @throws LdapException                thrown in the event of error in ldap client or server code.
+     * @throws UnsupportedEncodingException in the event the server cannot perform the operation.
+     */
+    protected CompareFuture compareNodeAsync( LdapConnection connection, String dn, String userDn,
+        Attribute attribute ) throws LdapException, UnsupportedEncodingException
+    {
+        LdapAsyncConnection asyncConnection = getAsyncConnection( connection );
+        if ( asyncConnection == null )
+        {
+            return null;
+        }
+
+        COUNTERS.incrementCompare();
+
+        CompareRequest compareRequest = createCompareRequest( dn, userDn, attribute );
+        return asyncConnection.compareAsync( compareRequest );
+    }
+
+
+    /**
+     * Build the compare request used for the authZ audit trail.
+     *
+     * @param dn         contains address of distinguished name to begin ldap search
+     * @param userDn     dn for user node
+     * @param attribute  attribute used for compare
+     * @return compare request containing the proxy authz control.
+     * @throws LdapException                thrown in the event of error in ldap client or server code.
+     * @throws UnsupportedEncodingException in the event the server cannot perform the operation.
+     */
+    private CompareRequest createCompareRequest( String dn, String userDn, Attribute attribute ) throws LdapException,
+        UnsupportedEncodingException
+    {
         CompareRequest compareRequest = new CompareRequestImpl();
         compareRequest.setName( new Dn( dn ) );
         compareRequest.setAttributeId( attribute.getId() );
@@ -693,8 +959,29 @@ public abstract class LdapDataProvider
         ProxiedAuthz proxiedAuthzControl = new ProxiedAuthzImpl();
         proxiedAuthzControl.setAuthzId( "dn: " + userDn );
         compareRequest.addControl( proxiedAuthzControl );
-        CompareResponse response = connection.compare( compareRequest );
-        return response.getLdapResult().getResultCode() == ResultCodeEnum.SUCCESS;
+        return compareRequest;
+    }
+
+
+    /**
+     * The pooled connections are wrapped by the ldap client.  Unwrap them to get at the asynchronous operations.
+     *
+     * @param connection is LdapConnection object used for all communication with host.
+     * @return the underlying asynchronous connection or null if not supported.
+     */
+    @SuppressWarnings("unchecked")
+    protected static LdapAsyncConnection getAsyncConnection( LdapConnection connection )
+    {
+        LdapConnection target = connection;
+        while ( target instanceof Wrapper )
+        {
+            target = ( ( Wrapper<LdapConnection> ) target ).wrapped();
+        }
+        if ( target instanceof LdapAsyncConnection )
+        {
+            return ( LdapAsyncConnection ) target;
+        }
+        return null;
     }
 
 
@@ -1189,7 +1476,15 @@ public abstract class LdapDataProvider
         bindReq.setDn( userDn );
         bindReq.setCredentials( password );
         bindReq.addControl( PP_REQ_CTRL );
-        return connection.bind( bindReq );
+        long start = startTimer();
+        try
+        {
+            return connection.bind( bindReq );
+        }
+        finally
+        {
+            stopTimer( LdapMetrics.Op.BIND, connection, start );
+        }
     }
 
 
@@ -1226,6 +1521,28 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Close a search cursor, abandoning the search if it has not been consumed to the end.  Must be called on cursors returned
+     * by {@link #searchPaged(LdapConnection, String, SearchScope, String, String[], boolean)} before the connection is closed.
+     *
+     * @param cursor may be null.
+     */
+    protected void closeSearchCursor( SearchCursor cursor )
+    {
+        if ( cursor != null )
+        {
+            try
+            {
+                cursor.close();
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "closeSearchCursor caught IOException={}", e.getMessage() );
+            }
+        }
+    }
+
+
     /**
      * Calls the PoolMgr to get an Admin connection to the LDAP server.
      *
@@ -1262,6 +1579,68 @@ public abstract class LdapDataProvider
     }
 
 
+    /**
+     * Return to call reference to the latency histograms and connection pool stats.  These are only recorded if
+     * {@code enable.ldap.metrics=true}.
+     *
+     * @return {@link LdapMetrics} contains the timings of ldap operations for current running process.
+     */
+    public static LdapMetrics getLdapMetrics()
+    {
+        return LdapMetrics.getInstance();
+    }
+
+
+    /**
+     * Mark the start of an ldap operation.
+     *
+     * @return start time to pass to {@link #stopTimer(LdapMetrics.Op, LdapConnection, long)}.
+     */
+    private static long startTimer()
+    {
+        return LdapMetrics.getInstance().start();
+    }
+
+
+    /**
+     * Send a search, and time it until its first response arrives, see {@link TimedSearchCursor}.
+     *
+     * @param connection    used for the search.
+     * @param searchRequest the search.
+     * @return result set containing ldap entries returned from directory.
+     * @throws LdapException thrown in the event of error in ldap client or server code.
+     */
+    private SearchCursor timedSearch( LdapConnection connection, SearchRequest searchRequest ) throws LdapException
+    {
+        long start = startTimer();
+        SearchCursor cursor;
+        try
+        {
+            cursor = connection.search( searchRequest );
+        }
+        catch ( LdapException e )
+        {
+            stopTimer( LdapMetrics.Op.SEARCH, connection, start );
+            throw e;
+        }
+        // Zero when metrics are disabled:
+        return start != 0 ? new TimedSearchCursor( cursor, getClass(), connection, start ) : cursor;
+    }
+
+
+    /**
+     * Record the time taken by an ldap operation against this DAO class.
+     *
+     * @param op         type of operation.
+     * @param connection used for the operation.
+     * @param start      as returned by {@link #startTimer()}.
+     */
+    private void stopTimer( LdapMetrics.Op op, LdapConnection connection, long start )
+    {
+        LdapMetrics.getInstance().record( getClass(), op, connection, start );
+    }
+
+
     /**
      * Return to call reference to dao counter object with running totals for ldap operations add, mod, delete, search, etc.
      *
@@ -0,0 +1,248 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Fixed size latency histogram in the style of HdrHistogram.  Values are counted in log-linear buckets, i.e. each power of two is
+ * divided into {@link #SUB_BUCKETS} equal buckets, so every percentile is accurate to within about 3% of its value, from one
+ * nanosecond up to {@link #MAX_VALUE}.  Larger values are counted in the last bucket.
+ * <p>
+ * Recording is lock free and doesn't allocate.  Reads are not atomic with respect to concurrent recording so a percentile may
+ * be off by the values recorded while it was computed.  Values are recorded in nanoseconds and reported in microseconds.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapHistogram implements LdapHistogramMBean
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * The largest value, in nanoseconds, with a bucket of its own.  About 68 seconds.
+     */
+    static final long MAX_VALUE = ( 1L << 36 ) - 1;
+    private static final int BUCKETS = getIndex( MAX_VALUE ) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator( Math::max, 0 );
+
+
+    /**
+     * Package private constructor.  Instances are created by {@link LdapMetrics}.
+     */
+    LdapHistogram()
+    {
+    }
+
+
+    /**
+     * Values below two sub bucket's worth each get their own bucket.  Above that, the bucket is found by the position of the
+     * highest bit and the next {@link #SUB_BUCKET_BITS} bits.
+     */
+    static int getIndex( long value )
+    {
+        if ( value < 2 * SUB_BUCKETS )
+        {
+            return ( int ) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        return ( shift + 1 ) * SUB_BUCKETS + ( int ) ( ( value >>> shift ) - SUB_BUCKETS );
+    }
+
+
+    /**
+     * Return the largest value counted in a bucket.
+     */
+    static long getHighestValue( int index )
+    {
+        if ( index < 2 * SUB_BUCKETS )
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ( ( top + 1 ) << shift ) - 1;
+    }
+
+
+    /**
+     * Record the time elapsed since start.
+     *
+     * @param startNanos value of {@link System#nanoTime()} when the operation began.
+     */
+    void recordSince( long startNanos )
+    {
+        record( System.nanoTime() - startNanos );
+    }
+
+
+    /**
+     * Record a value.
+     *
+     * @param nanos value in nanoseconds, negative values are counted as zero.
+     */
+    void record( long nanos )
+    {
+        long value = Math.max( 0, nanos );
+        counts.incrementAndGet( getIndex( Math.min( value, MAX_VALUE ) ) );
+        count.increment();
+        sum.add( value );
+        max.accumulate( value );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMean()
+    {
+        long n = count.sum();
+        return n == 0 ? 0 : ( double ) sum.sum() / n / 1000;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMax()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( max.get() );
+    }
+
+
+    /**
+     * Return the value at a given percentile.
+     *
+     * @param percentile between 0 and 100.
+     * @return value in microseconds that is greater than or equal to that percentage of the values recorded.
+     */
+    public long getPercentile( double percentile )
+    {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            total += snapshot[i];
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, ( long ) Math.ceil( Math.min( percentile, 100 ) / 100 * total ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += snapshot[i];
+            if ( seen >= rank )
+            {
+                // Don't report more than was actually seen:
+                return TimeUnit.NANOSECONDS.toMicros( Math.min( getHighestValue( i ), max.get() ) );
+            }
+        }
+        return getMax();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get50thPercentile()
+    {
+        return getPercentile( 50 );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get95thPercentile()
+    {
+        return getPercentile( 95 );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get99thPercentile()
+    {
+        return getPercentile( 99 );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get999thPercentile()
+    {
+        return getPercentile( 99.9 );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset()
+    {
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts.set( i, 0 );
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "LdapHistogram{count=" + getCount() + ", mean=" + getMean() + ", p50=" + get50thPercentile() + ", p99="
+            + get99thPercentile() + ", max=" + getMax() + "}";
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+/**
+ * JMX view of a {@link LdapHistogram}.  All times are in microseconds.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface LdapHistogramMBean
+{
+    /**
+     * @return number of values recorded.
+     */
+    long getCount();
+
+
+    /**
+     * @return mean of the values recorded.
+     */
+    double getMean();
+
+
+    /**
+     * @return largest value recorded.
+     */
+    long getMax();
+
+
+    /**
+     * @return median.
+     */
+    long get50thPercentile();
+
+
+    /**
+     * @return 95th percentile.
+     */
+    long get95thPercentile();
+
+
+    /**
+     * @return 99th percentile.
+     */
+    long get99thPercentile();
+
+
+    /**
+     * @return 99.9th percentile.
+     */
+    long get999thPercentile();
+
+
+    /**
+     * Clear the values recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,247 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * One of the ldap servers used by {@link LdapRouter}, either the write master or a read replica, along with its connection
+ * pool, its count of outstanding requests and its circuit breaker.
+ * <p>
+ * The circuit is opened after a number of consecutive failures, after which the host is skipped until the health check
+ * of {@link LdapRouter} manages to use it again.  A failure is an error borrowing a connection or an error that means the
+ * server could not be reached or is unavailable, as opposed to an error result such as no such object.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LdapHost
+{
+    private static final String CLS_NM = LdapHost.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private final String name;
+    private final LdapConnectionPool pool;
+    private final int failureThreshold;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile boolean open;
+
+
+    /**
+     * Package private constructor.
+     *
+     * @param name             host:port, used for logging.
+     * @param pool             connections to this host.
+     * @param failureThreshold number of consecutive failures that opens the circuit.
+     */
+    LdapHost( String name, LdapConnectionPool pool, int failureThreshold )
+    {
+        this.name = name;
+        this.pool = pool;
+        this.failureThreshold = Math.max( 1, failureThreshold );
+    }
+
+
+    /**
+     * @return host:port of this server.
+     */
+    String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * @return the pool of connections to this host.
+     */
+    LdapConnectionPool getPool()
+    {
+        return pool;
+    }
+
+
+    /**
+     * @return false if the circuit is open.
+     */
+    boolean isAvailable()
+    {
+        return !open;
+    }
+
+
+    /**
+     * @return number of connections to this host currently on loan.
+     */
+    int getOutstanding()
+    {
+        return outstanding.get();
+    }
+
+
+    /**
+     * Borrow a connection from this host's pool.  A failure to do so counts towards opening the circuit.
+     *
+     * @return connection to this host.
+     * @throws LdapException if the pool could not provide a connection.
+     */
+    LdapConnection borrow() throws LdapException
+    {
+        begin();
+        try
+        {
+            return pool.getConnection();
+        }
+        catch ( Exception e )
+        {
+            end();
+            failed( e );
+            throw new LdapException( e.getMessage(), e );
+        }
+    }
+
+
+    /**
+     * Return a connection to this host's pool.
+     *
+     * @param connection as returned by {@link #borrow()}.
+     */
+    void release( LdapConnection connection )
+    {
+        end();
+        try
+        {
+            pool.releaseConnection( connection );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e.getMessage(), e );
+        }
+    }
+
+
+    void begin()
+    {
+        outstanding.incrementAndGet();
+    }
+
+
+    void end()
+    {
+        outstanding.decrementAndGet();
+    }
+
+
+    /**
+     * Called when a request to this host has completed, closes the circuit.
+     */
+    void succeeded()
+    {
+        failures.set( 0 );
+        if ( open )
+        {
+            open = false;
+            LOG.info( "host [{}] is available again", name );
+        }
+    }
+
+
+    /**
+     * Called when a request to this host has failed.
+     *
+     * @param e the error.
+     * @return true if the error counted as a failure of the host.
+     */
+    boolean failed( Exception e )
+    {
+        if ( !isHostFailure( e ) )
+        {
+            return false;
+        }
+        if ( failures.incrementAndGet() >= failureThreshold && !open )
+        {
+            open = true;
+            LOG.warn( "host [{}] is unavailable after {} failures, last error={}", name, failures.get(), e.getMessage() );
+        }
+        return true;
+    }
+
+
+    /**
+     * Use a connection to see if the host is up.  Called by the health check.
+     */
+    void probe()
+    {
+        LdapConnection connection = null;
+        try
+        {
+            connection = borrow();
+            connection.getRootDse();
+            succeeded();
+        }
+        catch ( Exception e )
+        {
+            LOG.debug( "probe of host [{}] failed, error={}", name, e.getMessage() );
+            if ( connection != null )
+            {
+                failed( e );
+            }
+        }
+        finally
+        {
+            if ( connection != null )
+            {
+                release( connection );
+            }
+        }
+    }
+
+
+    /**
+     * Errors returned by the server for the request itself say nothing about the health of the host.
+     */
+    static boolean isHostFailure( Exception e )
+    {
+        if ( e instanceof LdapOperationException )
+        {
+            ResultCodeEnum resultCode = ( ( LdapOperationException ) e ).getResultCode();
+            return resultCode == ResultCodeEnum.UNAVAILABLE || resultCode == ResultCodeEnum.BUSY;
+        }
+        return true;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "LdapHost{name=" + name + ", outstanding=" + outstanding.get() + ", open=" + open + "}";
+    }
+}
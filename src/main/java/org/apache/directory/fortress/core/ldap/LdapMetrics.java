@@ -0,0 +1,395 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class keeps latency histograms of the ldap operations performed by {@link LdapDataProvider}, broken down by DAO class,
+ * operation and connection pool, along with the usage of each pool managed by {@link LdapConnectionProvider}.
+ * Together these tell if a slow API call is waiting on the pool, on binds or on searches.
+ * <p>
+ * It is switched off by default and may be enabled with fortress config param: {@code enable.ldap.metrics=true}.
+ * Once enabled, the histograms and pool stats may be pulled with {@link LdapDataProvider#getLdapMetrics()} and are also
+ * registered as MBeans with the platform MBean server under the {@code org.apache.directory.fortress} domain:
+ * <ul>
+ *   <li>{@code type=LdapOperation,dao=UserDAO,operation=search,pool=admin} - see {@link LdapHistogramMBean}</li>
+ *   <li>{@code type=LdapPool,pool=admin} - see {@link LdapPoolStatsMBean}</li>
+ * </ul>
+ * A search is timed until its first response arrives, i.e. until the first call to next on its cursor returns, or the
+ * cursor is closed, not while the rest of the entries are read.  Each page of a paged search is timed this way.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapMetrics
+{
+    private static final String CLS_NM = LdapMetrics.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+    private static final String ENABLE_LDAP_METRICS = "enable.ldap.metrics";
+    private static final String JMX_DOMAIN = "org.apache.directory.fortress";
+
+    /**
+     * The types of ldap operation that are timed.
+     */
+    public enum Op
+    {
+        READ,
+        SEARCH,
+        COMPARE,
+        ADD,
+        MODIFY,
+        DELETE,
+        BIND
+    }
+
+    /**
+     * The connection pools managed by {@link LdapConnectionProvider}.
+     */
+    public enum Pool
+    {
+        ADMIN,
+        USER,
+        LOG,
+        /**
+         * The connection was not borrowed from one of the pools.
+         */
+        NONE
+    }
+
+    private static final int OPS = Op.values().length;
+    private static final int POOLS = Pool.values().length;
+
+    private boolean isEnabled;
+    // The pool each connection currently on loan came from:
+    private final ConcurrentMap<LdapConnection, Pool> borrowed = new ConcurrentHashMap<>();
+    // Per DAO class, one histogram per op and pool, created on first use:
+    private final ConcurrentMap<Class<?>, AtomicReferenceArray<LdapHistogram>> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Pool, LdapPoolStats> poolStats = new ConcurrentHashMap<>();
+    private final List<ObjectName> mbeanNames = new ArrayList<>();
+
+    private static volatile LdapMetrics sINSTANCE = null;
+
+    /**
+     * Return the single instance of this class.
+     *
+     * @return reference to self.
+     */
+    public static LdapMetrics getInstance()
+    {
+        if ( sINSTANCE == null )
+        {
+            synchronized ( LdapMetrics.class )
+            {
+                if ( sINSTANCE == null )
+                {
+                    sINSTANCE = new LdapMetrics();
+                }
+            }
+        }
+        return sINSTANCE;
+    }
+
+
+    private void init()
+    {
+        isEnabled = Config.getInstance().getBoolean( ENABLE_LDAP_METRICS, false );
+        if ( isEnabled )
+        {
+            LOG.info( "init ldap metrics enabled" );
+        }
+    }
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private LdapMetrics()
+    {
+        init();
+    }
+
+
+    /**
+     * Return true if metrics have been switched on in fortress config.
+     *
+     * @return boolean value of {@code enable.ldap.metrics}.
+     */
+    public boolean isEnabled()
+    {
+        return isEnabled;
+    }
+
+
+    /**
+     * Mark the start of an operation.
+     *
+     * @return the current value of {@link System#nanoTime()}, or zero if metrics are disabled.
+     */
+    long start()
+    {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+
+    /**
+     * Record the time taken by an ldap operation.
+     *
+     * @param dao        class that performed the operation.
+     * @param op         type of operation.
+     * @param connection used for the operation, determines the pool.
+     * @param startNanos as returned by {@link #start()}.
+     */
+    void record( Class<?> dao, Op op, LdapConnection connection, long startNanos )
+    {
+        if ( isEnabled )
+        {
+            Pool pool = connection != null ? borrowed.get( connection ) : null;
+            getOrCreate( dao, op, pool != null ? pool : Pool.NONE ).recordSince( startNanos );
+        }
+    }
+
+
+    /**
+     * Called by {@link LdapConnectionProvider} when it creates a pool.
+     *
+     * @param type of pool.
+     * @param pool the pool or null if it was not configured.
+     */
+    void addPool( Pool type, LdapConnectionPool pool )
+    {
+        if ( isEnabled && pool != null )
+        {
+            LdapPoolStats stats = new LdapPoolStats( type, pool );
+            poolStats.put( type, stats );
+            register( stats, "type=LdapPool,pool=" + type.name().toLowerCase() );
+        }
+    }
+
+
+    /**
+     * Called by {@link LdapConnectionProvider} when a connection has been borrowed.
+     *
+     * @param type       of pool the connection was borrowed from.
+     * @param connection just borrowed.
+     * @param startNanos as returned by {@link #start()} before the connection was requested.
+     */
+    void borrowed( Pool type, LdapConnection connection, long startNanos )
+    {
+        if ( isEnabled && connection != null )
+        {
+            LdapPoolStats stats = poolStats.get( type );
+            if ( stats != null )
+            {
+                stats.getBorrowWait().recordSince( startNanos );
+            }
+            borrowed.put( connection, type );
+        }
+    }
+
+
+    /**
+     * Called by {@link LdapConnectionProvider} when a connection is returned to its pool.
+     *
+     * @param connection being returned.
+     */
+    void released( LdapConnection connection )
+    {
+        if ( isEnabled && connection != null )
+        {
+            borrowed.remove( connection );
+        }
+    }
+
+
+    /**
+     * Return the latency histogram of an operation.
+     *
+     * @param dao  class that performed the operation, e.g. UserDAO.
+     * @param op   type of operation.
+     * @param pool the connection came from.
+     * @return histogram or null if no such operation has been recorded.
+     */
+    public LdapHistogram getHistogram( Class<?> dao, Op op, Pool pool )
+    {
+        AtomicReferenceArray<LdapHistogram> daoHistograms = histograms.get( dao );
+        return daoHistograms != null ? daoHistograms.get( getIndex( op, pool ) ) : null;
+    }
+
+
+    /**
+     * Return all of the latency histograms recorded so far.
+     *
+     * @return map sorted by key, of the form DAO simple class name, operation and pool, e.g. {@code UserDAO.search.admin}.
+     */
+    public Map<String, LdapHistogram> getHistograms()
+    {
+        Map<String, LdapHistogram> result = new TreeMap<>();
+        for ( Map.Entry<Class<?>, AtomicReferenceArray<LdapHistogram>> entry : histograms.entrySet() )
+        {
+            for ( Op op : Op.values() )
+            {
+                for ( Pool pool : Pool.values() )
+                {
+                    LdapHistogram histogram = entry.getValue().get( getIndex( op, pool ) );
+                    if ( histogram != null )
+                    {
+                        result.put( entry.getKey().getSimpleName() + "." + op.name().toLowerCase() + "." + pool.name()
+                            .toLowerCase(), histogram );
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Return the usage of a connection pool.
+     *
+     * @param pool type.
+     * @return stats or null if metrics are disabled or the pool was not configured.
+     */
+    public LdapPoolStats getPoolStats( Pool pool )
+    {
+        return poolStats.get( pool );
+    }
+
+
+    /**
+     * Clear all of the histograms.  The pool active and idle counts are not affected.
+     */
+    public void reset()
+    {
+        for ( AtomicReferenceArray<LdapHistogram> daoHistograms : histograms.values() )
+        {
+            for ( int i = 0; i < daoHistograms.length(); i++ )
+            {
+                LdapHistogram histogram = daoHistograms.get( i );
+                if ( histogram != null )
+                {
+                    histogram.reset();
+                }
+            }
+        }
+        for ( LdapPoolStats stats : poolStats.values() )
+        {
+            stats.getBorrowWait().reset();
+        }
+    }
+
+
+    /**
+     * Remove the MBeans from the platform MBean server.  Called when the connection pools are closed.
+     */
+    void unregisterAll()
+    {
+        synchronized ( mbeanNames )
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for ( ObjectName name : mbeanNames )
+            {
+                try
+                {
+                    server.unregisterMBean( name );
+                }
+                catch ( JMException e )
+                {
+                    LOG.warn( "unregisterAll caught JMException={} name={}", e.getMessage(), name );
+                }
+            }
+            mbeanNames.clear();
+        }
+    }
+
+
+    private LdapHistogram getOrCreate( Class<?> dao, Op op, Pool pool )
+    {
+        AtomicReferenceArray<LdapHistogram> daoHistograms = histograms.get( dao );
+        if ( daoHistograms == null )
+        {
+            AtomicReferenceArray<LdapHistogram> newHistograms = new AtomicReferenceArray<>( OPS * POOLS );
+            daoHistograms = histograms.putIfAbsent( dao, newHistograms );
+            if ( daoHistograms == null )
+            {
+                daoHistograms = newHistograms;
+            }
+        }
+        int index = getIndex( op, pool );
+        LdapHistogram histogram = daoHistograms.get( index );
+        if ( histogram == null )
+        {
+            LdapHistogram newHistogram = new LdapHistogram();
+            if ( daoHistograms.compareAndSet( index, null, newHistogram ) )
+            {
+                register( newHistogram, "type=LdapOperation,dao=" + dao.getSimpleName() + ",operation=" + op.name()
+                    .toLowerCase() + ",pool=" + pool.name().toLowerCase() );
+            }
+            histogram = daoHistograms.get( index );
+        }
+        return histogram;
+    }
+
+
+    private static int getIndex( Op op, Pool pool )
+    {
+        return op.ordinal() * POOLS + pool.ordinal();
+    }
+
+
+    private void register( Object mbean, String properties )
+    {
+        synchronized ( mbeanNames )
+        {
+            try
+            {
+                ObjectName name = new ObjectName( JMX_DOMAIN + ":" + properties );
+                ManagementFactory.getPlatformMBeanServer().registerMBean( mbean, name );
+                mbeanNames.add( name );
+            }
+            catch ( JMException e )
+            {
+                // Metrics are still available from the pull api:
+                LOG.warn( "register caught JMException={} properties={}", e.getMessage(), properties );
+            }
+        }
+    }
+}
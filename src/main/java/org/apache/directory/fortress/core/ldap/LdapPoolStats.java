@@ -0,0 +1,161 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+
+
+/**
+ * Usage of one of the connection pools managed by {@link LdapConnectionProvider}.  The active and idle counts are read from
+ * the pool when asked for, the borrow wait times are recorded by the provider.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class LdapPoolStats implements LdapPoolStatsMBean
+{
+    private final LdapMetrics.Pool type;
+    private final LdapConnectionPool pool;
+    private final LdapHistogram borrowWait = new LdapHistogram();
+
+
+    /**
+     * Package private constructor.
+     *
+     * @param type of the pool.
+     * @param pool may be null if the pool was not configured.
+     */
+    LdapPoolStats( LdapMetrics.Pool type, LdapConnectionPool pool )
+    {
+        this.type = type;
+        this.pool = pool;
+    }
+
+
+    /**
+     * @return the type of pool these stats are for.
+     */
+    public LdapMetrics.Pool getType()
+    {
+        return type;
+    }
+
+
+    /**
+     * Return the times spent waiting to borrow a connection.  This includes the validation of the connection, unless it's
+     * done in the background, and the time to open and bind a new one when there was no idle one.
+     *
+     * @return histogram of borrow wait times.
+     */
+    public LdapHistogram getBorrowWait()
+    {
+        return borrowWait;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumActive()
+    {
+        return pool != null ? pool.getNumActive() : 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumIdle()
+    {
+        return pool != null ? pool.getNumIdle() : 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxActive()
+    {
+        return pool != null ? pool.getMaxActive() : 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumWaiting()
+    {
+        return pool instanceof ConcurrentLdapConnectionPool ? ( ( ConcurrentLdapConnectionPool ) pool ).getNumWaiting() : 0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBorrowCount()
+    {
+        return borrowWait.getCount();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getBorrowWaitMean()
+    {
+        return borrowWait.getMean();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBorrowWait99thPercentile()
+    {
+        return borrowWait.get99thPercentile();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBorrowWaitMax()
+    {
+        return borrowWait.getMax();
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "LdapPoolStats{type=" + type + ", active=" + getNumActive() + ", idle=" + getNumIdle() + ", borrowWait="
+            + borrowWait + "}";
+    }
+}
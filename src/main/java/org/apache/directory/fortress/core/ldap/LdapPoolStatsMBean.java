@@ -0,0 +1,77 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+/**
+ * JMX view of a {@link LdapPoolStats}.  All times are in microseconds.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface LdapPoolStatsMBean
+{
+    /**
+     * @return number of connections currently borrowed from the pool.
+     */
+    int getNumActive();
+
+
+    /**
+     * @return number of connections currently idle in the pool.
+     */
+    int getNumIdle();
+
+
+    /**
+     * @return configured max number of active connections.
+     */
+    int getMaxActive();
+
+
+    /**
+     * @return number of callers waiting for a connection, always 0 for the commons-pool implementation, which grows
+     * instead.
+     */
+    int getNumWaiting();
+
+
+    /**
+     * @return number of times a connection was borrowed.
+     */
+    long getBorrowCount();
+
+
+    /**
+     * @return mean time spent waiting to borrow a connection, including validation.
+     */
+    double getBorrowWaitMean();
+
+
+    /**
+     * @return 99th percentile of the time spent waiting to borrow a connection.
+     */
+    long getBorrowWait99thPercentile();
+
+
+    /**
+     * @return longest time spent waiting to borrow a connection.
+     */
+    long getBorrowWaitMax();
+}
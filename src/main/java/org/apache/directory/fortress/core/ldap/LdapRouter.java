@@ -0,0 +1,232 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Spreads the admin connections of {@link LdapConnectionProvider} over a write master and its read replicas.  Reads go to
+ * the available replica with the fewest outstanding requests and everything else goes to the master, see
+ * {@link RoutedLdapConnection}.
+ * <p>
+ * A thread that has written to the master within the last {@code readAfterWrite} milliseconds reads from the master too,
+ * so it sees its own changes before they have been replicated.  A daemon thread probes every host at a fixed interval to
+ * close the circuits of hosts that have recovered and open those of idle hosts that have gone down.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class LdapRouter
+{
+    private static final String CLS_NM = LdapRouter.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private final LdapHost master;
+    private final List<LdapHost> replicas;
+    private final long readAfterWrite;
+    private final AtomicInteger next = new AtomicInteger();
+    // Time of the last write made by each thread:
+    private final ThreadLocal<long[]> lastWrite = new ThreadLocal<long[]>()
+    {
+        @Override
+        protected long[] initialValue()
+        {
+            return new long[1];
+        }
+    };
+    private Thread healthCheck;
+
+
+    /**
+     * Package private constructor.
+     *
+     * @param master         the host that takes writes.
+     * @param replicas       the hosts that take reads.
+     * @param readAfterWrite milliseconds after a write during which the same thread reads from the master.
+     */
+    LdapRouter( LdapHost master, List<LdapHost> replicas, long readAfterWrite )
+    {
+        this.master = master;
+        this.replicas = Collections.unmodifiableList( new ArrayList<>( replicas ) );
+        this.readAfterWrite = readAfterWrite;
+    }
+
+
+    /**
+     * @return the host that takes writes.
+     */
+    LdapHost getMaster()
+    {
+        return master;
+    }
+
+
+    /**
+     * @return the hosts that take reads.
+     */
+    List<LdapHost> getReplicas()
+    {
+        return replicas;
+    }
+
+
+    /**
+     * Pick the available replica with the fewest outstanding requests.  Ties go to the host after the one picked last time.
+     *
+     * @return replica or null if none are available.
+     */
+    LdapHost selectReplica()
+    {
+        int size = replicas.size();
+        if ( size == 0 )
+        {
+            return null;
+        }
+        int start = ( next.getAndIncrement() & Integer.MAX_VALUE ) % size;
+        LdapHost selected = null;
+        for ( int i = 0; i < size; i++ )
+        {
+            LdapHost host = replicas.get( ( start + i ) % size );
+            if ( host.isAvailable() && ( selected == null || host.getOutstanding() < selected.getOutstanding() ) )
+            {
+                selected = host;
+            }
+        }
+        return selected;
+    }
+
+
+    /**
+     * Called when the current thread writes to the master.
+     */
+    void wrote()
+    {
+        lastWrite.get()[0] = System.currentTimeMillis();
+    }
+
+
+    /**
+     * @return time of the current thread's last write to the master, 0 if it hasn't written.
+     */
+    long getLastWrite()
+    {
+        return lastWrite.get()[0];
+    }
+
+
+    /**
+     * Called when the current thread takes over work from a thread that wrote to the master at the given time, so it reads
+     * those writes too.  Has no effect if the current thread has written since.
+     *
+     * @param time of the other thread's last write.
+     */
+    void joinLastWrite( long time )
+    {
+        long[] last = lastWrite.get();
+        if ( time > last[0] )
+        {
+            last[0] = time;
+        }
+    }
+
+
+    /**
+     * @return true if the current thread wrote to the master recently enough that its reads must go there too.
+     */
+    boolean isReadAfterWrite()
+    {
+        long last = lastWrite.get()[0];
+        return last != 0 && System.currentTimeMillis() - last < readAfterWrite;
+    }
+
+
+    /**
+     * Start the health check.
+     *
+     * @param interval milliseconds between probes of each host.
+     */
+    synchronized void start( final long interval )
+    {
+        if ( healthCheck != null || interval <= 0 )
+        {
+            return;
+        }
+        healthCheck = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                while ( !Thread.currentThread().isInterrupted() )
+                {
+                    try
+                    {
+                        Thread.sleep( interval );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                    master.probe();
+                    for ( LdapHost replica : replicas )
+                    {
+                        replica.probe();
+                    }
+                }
+            }
+        }, "fortress-ldap-health" );
+        healthCheck.setDaemon( true );
+        healthCheck.start();
+        LOG.info( "started health check of master [{}] and {} replicas", master.getName(), replicas.size() );
+    }
+
+
+    /**
+     * Stop the health check and close the replica pools.  The master pool belongs to {@link LdapConnectionProvider}.
+     */
+    synchronized void close()
+    {
+        if ( healthCheck != null )
+        {
+            healthCheck.interrupt();
+            healthCheck = null;
+        }
+        for ( LdapHost replica : replicas )
+        {
+            try
+            {
+                LOG.info( "Closing replica pool [{}]", replica.getName() );
+                replica.getPool().close();
+            }
+            catch ( Exception e )
+            {
+                LOG.warn( "Error closing replica pool [" + replica.getName() + "]: " + e.getMessage() );
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.io.IOException;
+
+import org.apache.directory.api.ldap.model.cursor.AbstractCursor;
+import org.apache.directory.api.ldap.model.cursor.CursorException;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.IntermediateResponse;
+import org.apache.directory.api.ldap.model.message.Referral;
+import org.apache.directory.api.ldap.model.message.Response;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchResultDone;
+import org.apache.directory.api.ldap.model.message.controls.PagedResults;
+import org.apache.directory.api.ldap.model.message.controls.PagedResultsImpl;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A forward only cursor over the results of a search that uses the simple paged results control, RFC 2696.  The pages are
+ * requested one at a time, as the previous one has been consumed, so only one page of entries is ever held in memory,
+ * regardless of the size of the result set.
+ * <p>
+ * The cursor must be closed if it isn't consumed to the end, so the server can release the state of the search.  Servers
+ * that don't support the control return every entry in a single page, subject to their size limit.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class PagedSearchCursor extends AbstractCursor<Response> implements SearchCursor
+{
+    private static final String CLS_NM = PagedSearchCursor.class.getName();
+    private static final Logger LOG = LoggerFactory.getLogger( CLS_NM );
+
+    private final LdapDataProvider dao;
+    private final LdapConnection connection;
+    // The connection the first page was sent on, the cookie is only valid on the server that returned it:
+    private LdapConnection pinned;
+    private final SearchRequest searchRequest;
+    private final int pageSize;
+    private SearchCursor page;
+    private byte[] cookie;
+    private boolean done;
+
+
+    /**
+     * Package private constructor, see {@link LdapDataProvider}.
+     *
+     * @param dao           used to send each page request.
+     * @param connection    to send the first request on.  The later ones are sent on the same server, even if this is a
+     *                      {@link RoutedLdapConnection} that would route further reads elsewhere.
+     * @param searchRequest the search, without the control.
+     * @param pageSize      number of entries per page.
+     */
+    PagedSearchCursor( LdapDataProvider dao, LdapConnection connection, SearchRequest searchRequest, int pageSize )
+    {
+        this.dao = dao;
+        this.connection = connection;
+        this.searchRequest = searchRequest;
+        this.pageSize = pageSize;
+    }
+
+
+    /**
+     * Move to the next entry, requesting the next page once the current one has been consumed.
+     *
+     * @return false once the last page has been consumed.
+     */
+    @Override
+    public boolean next() throws LdapException, CursorException
+    {
+        checkNotClosed( "next()" );
+        while ( true )
+        {
+            if ( page == null )
+            {
+                if ( done )
+                {
+                    return false;
+                }
+                page = request( pageSize );
+            }
+            if ( page.next() )
+            {
+                if ( page.isEntry() )
+                {
+                    return true;
+                }
+                // Skip referrals and intermediate responses:
+                continue;
+            }
+            endPage();
+        }
+    }
+
+
+    @Override
+    public Entry getEntry() throws LdapException
+    {
+        return current().getEntry();
+    }
+
+
+    @Override
+    public Response get() throws CursorException
+    {
+        return current().get();
+    }
+
+
+    @Override
+    public boolean available()
+    {
+        return page != null && page.available();
+    }
+
+
+    @Override
+    public boolean isEntry()
+    {
+        return page != null && page.isEntry();
+    }
+
+
+    @Override
+    public boolean isReferral()
+    {
+        return false;
+    }
+
+
+    @Override
+    public Referral getReferral() throws LdapException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".getReferral" );
+    }
+
+
+    @Override
+    public boolean isIntermediate()
+    {
+        return false;
+    }
+
+
+    @Override
+    public IntermediateResponse getIntermediate() throws LdapException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".getIntermediate" );
+    }
+
+
+    @Override
+    public boolean isDone()
+    {
+        return done && page == null;
+    }
+
+
+    @Override
+    public SearchResultDone getSearchResultDone()
+    {
+        return null;
+    }
+
+
+    /**
+     * Close the current page, which abandons its request if it wasn't consumed.  Between pages, tell the server to discard
+     * the search by sending its cookie with a page size of zero.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        close( null );
+    }
+
+
+    @Override
+    public void close( Exception cause ) throws IOException
+    {
+        if ( isClosed() )
+        {
+            return;
+        }
+        try
+        {
+            if ( page != null )
+            {
+                // Closing the page abandons the request for it:
+                page.close();
+                page = null;
+            }
+            else if ( !done && cookie != null )
+            {
+                done = true;
+                try
+                {
+                    request( 0 ).close();
+                }
+                catch ( LdapException e )
+                {
+                    LOG.debug( "close failed to abandon paged search, error={}", e.getMessage() );
+                }
+            }
+        }
+        finally
+        {
+            super.close( cause );
+        }
+    }
+
+
+    @Override
+    public void before( Response element ) throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".before" );
+    }
+
+
+    @Override
+    public void after( Response element ) throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".after" );
+    }
+
+
+    @Override
+    public void beforeFirst() throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".beforeFirst" );
+    }
+
+
+    @Override
+    public void afterLast() throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".afterLast" );
+    }
+
+
+    @Override
+    public boolean first() throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".first" );
+    }
+
+
+    @Override
+    public boolean last() throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".last" );
+    }
+
+
+    @Override
+    public boolean previous() throws LdapException, CursorException
+    {
+        throw new UnsupportedOperationException( CLS_NM + ".previous" );
+    }
+
+
+    private SearchCursor current()
+    {
+        if ( page == null )
+        {
+            throw new IllegalStateException( CLS_NM + " is not positioned on an entry" );
+        }
+        return page;
+    }
+
+
+    private SearchCursor request( int size ) throws LdapException
+    {
+        PagedResults control = new PagedResultsImpl();
+        control.setSize( size );
+        control.setCookie( cookie );
+        searchRequest.addControl( control );
+        if ( pinned != null )
+        {
+            return dao.searchPage( pinned, searchRequest );
+        }
+        if ( !( connection instanceof RoutedLdapConnection ) )
+        {
+            pinned = connection;
+            return dao.searchPage( pinned, searchRequest );
+        }
+
+        // Resolve the routed connection once, a failover or a write after the first page must not move the search:
+        RoutedLdapConnection routed = ( RoutedLdapConnection ) connection;
+        LdapConnection reader = routed.reader();
+        SearchCursor first;
+        try
+        {
+            first = dao.searchPage( reader, searchRequest );
+        }
+        catch ( LdapException e )
+        {
+            reader = routed.failover( reader, e );
+            first = dao.searchPage( reader, searchRequest );
+        }
+        pinned = reader;
+        return first;
+    }
+
+
+    /**
+     * The current page has been consumed, pick up the cookie of the next one, there are no more when it's empty.
+     */
+    private void endPage() throws LdapException
+    {
+        SearchResultDone resultDone = page.getSearchResultDone();
+        try
+        {
+            page.close();
+        }
+        catch ( IOException e )
+        {
+            LOG.debug( "endPage failed to close page, error={}", e.getMessage() );
+        }
+        page = null;
+        cookie = null;
+        done = true;
+        if ( resultDone == null )
+        {
+            return;
+        }
+        ResultCodeEnum resultCode = resultDone.getLdapResult().getResultCode();
+        if ( resultCode != ResultCodeEnum.SUCCESS )
+        {
+            throw new LdapOperationException( resultCode, resultDone.getLdapResult().getDiagnosticMessage() );
+        }
+        PagedResults control = ( PagedResults ) resultDone.getControl( PagedResults.OID );
+        if ( control != null && control.getCookie() != null && control.getCookie().length > 0 )
+        {
+            cookie = control.getCookie();
+            done = false;
+        }
+    }
+}
@@ -0,0 +1,913 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.directory.api.asn1.util.Oid;
+import org.apache.directory.api.ldap.codec.api.BinaryAttributeDetector;
+import org.apache.directory.api.ldap.codec.api.LdapApiService;
+import org.apache.directory.api.ldap.codec.api.LdapApiServiceFactory;
+import org.apache.directory.api.ldap.model.cursor.EntryCursor;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.entry.Modification;
+import org.apache.directory.api.ldap.model.entry.ModificationOperation;
+import org.apache.directory.api.ldap.model.entry.Value;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.AbandonRequest;
+import org.apache.directory.api.ldap.model.message.AddRequest;
+import org.apache.directory.api.ldap.model.message.AddResponse;
+import org.apache.directory.api.ldap.model.message.BindRequest;
+import org.apache.directory.api.ldap.model.message.BindResponse;
+import org.apache.directory.api.ldap.model.message.CompareRequest;
+import org.apache.directory.api.ldap.model.message.CompareResponse;
+import org.apache.directory.api.ldap.model.message.Control;
+import org.apache.directory.api.ldap.model.message.DeleteRequest;
+import org.apache.directory.api.ldap.model.message.DeleteResponse;
+import org.apache.directory.api.ldap.model.message.ExtendedRequest;
+import org.apache.directory.api.ldap.model.message.ExtendedResponse;
+import org.apache.directory.api.ldap.model.message.ModifyDnRequest;
+import org.apache.directory.api.ldap.model.message.ModifyDnResponse;
+import org.apache.directory.api.ldap.model.message.ModifyRequest;
+import org.apache.directory.api.ldap.model.message.ModifyResponse;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
+import org.apache.directory.api.ldap.model.schema.SchemaManager;
+import org.apache.directory.ldap.client.api.LdapConnection;
+
+
+/**
+ * The admin connection handed out by {@link LdapConnectionProvider} when read replicas have been configured.  It borrows
+ * the connections it needs on first use:
+ * <ul>
+ *   <li>lookups, searches, compares and exists checks go to a replica picked by {@link LdapRouter}</li>
+ *   <li>adds, modifies, renames, moves and deletes go to the master and mark the thread as having written</li>
+ *   <li>binds, extended operations and everything else go to the master</li>
+ * </ul>
+ * Reads go to the master instead once this connection has written, when the thread has written within the read after write
+ * window, or when no replica is available.  A read that fails because its replica could not be reached is retried on the
+ * master.  Both connections are held until {@link #release()} so cursors returned by a search stay valid.  A paged search
+ * sends all its pages on the connection its first page went to, see {@link PagedSearchCursor}.
+ * <p>
+ * Like the pooled connections it stands in for, this class is not thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class RoutedLdapConnection implements LdapConnection
+{
+    private final LdapRouter router;
+    private LdapHost replica;
+    private LdapConnection replicaConnection;
+    private LdapConnection masterConnection;
+    // Set once this connection has written or failed over, after which all reads go to the master:
+    private boolean pinned;
+
+
+    /**
+     * Package private constructor.
+     *
+     * @param router picks the hosts.
+     */
+    RoutedLdapConnection( LdapRouter router )
+    {
+        this.router = router;
+    }
+
+
+    /**
+     * Return the connections borrowed by this one to their pools.
+     */
+    void release()
+    {
+        try
+        {
+            if ( replicaConnection != null )
+            {
+                // The replica served this unit of work without failing over:
+                replica.succeeded();
+                replica.release( replicaConnection );
+            }
+        }
+        finally
+        {
+            replicaConnection = null;
+            replica = null;
+            if ( masterConnection != null )
+            {
+                LdapConnection connection = masterConnection;
+                masterConnection = null;
+                router.getMaster().succeeded();
+                router.getMaster().release( connection );
+            }
+        }
+    }
+
+
+    /**
+     * Return the connection reads are sent to, borrowing it on first use.
+     *
+     * @return replica connection, or the master one once this connection has written or failed over.
+     * @throws LdapException if no connection could be borrowed.
+     */
+    LdapConnection reader() throws LdapException
+    {
+        if ( pinned || router.isReadAfterWrite() )
+        {
+            return master();
+        }
+        if ( replicaConnection != null )
+        {
+            return replicaConnection;
+        }
+        // Give each replica a chance before falling back on the master:
+        for ( int i = 0; i < router.getReplicas().size(); i++ )
+        {
+            LdapHost host = router.selectReplica();
+            if ( host == null )
+            {
+                break;
+            }
+            try
+            {
+                replicaConnection = host.borrow();
+                replica = host;
+                return replicaConnection;
+            }
+            catch ( LdapException e )
+            {
+                // already counted against the host, try the next one.
+            }
+        }
+        return master();
+    }
+
+
+    private LdapConnection writer() throws LdapException
+    {
+        LdapHost master = router.getMaster();
+        if ( masterConnection == null && !master.isAvailable() )
+        {
+            throw new LdapException( "master host [" + master.getName() + "] is unavailable" );
+        }
+        LdapConnection connection = master();
+        pinned = true;
+        router.wrote();
+        return connection;
+    }
+
+
+    private LdapConnection master() throws LdapException
+    {
+        if ( masterConnection == null )
+        {
+            masterConnection = router.getMaster().borrow();
+        }
+        return masterConnection;
+    }
+
+
+    /**
+     * Called when a read has failed.  If the replica could not be reached, give it back and continue on the master.
+     *
+     * @param connection the read was sent to.
+     * @param e          the error.
+     * @return master connection to retry the read on.
+     * @throws LdapException the original error, if the read should not be retried.
+     */
+    LdapConnection failover( LdapConnection connection, LdapException e ) throws LdapException
+    {
+        if ( connection != replicaConnection || !replica.failed( e ) )
+        {
+            throw e;
+        }
+        LdapHost host = replica;
+        replica = null;
+        replicaConnection = null;
+        host.release( connection );
+        // Stay on the master for the rest of this unit of work:
+        pinned = true;
+        return master();
+    }
+
+
+    /**
+     * The connection to pass local calls to, if any has been borrowed.
+     */
+    private LdapConnection current()
+    {
+        return masterConnection != null ? masterConnection : replicaConnection;
+    }
+
+
+    @Override
+    public boolean isConnected()
+    {
+        LdapConnection connection = current();
+        return connection == null || connection.isConnected();
+    }
+
+
+    @Override
+    public boolean isAuthenticated()
+    {
+        LdapConnection connection = current();
+        return connection == null || connection.isAuthenticated();
+    }
+
+
+    @Override
+    public boolean connect() throws LdapException
+    {
+        return master().connect();
+    }
+
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.close();
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.close();
+        }
+    }
+
+
+    @Override
+    public void add( Entry entry ) throws LdapException
+    {
+        writer().add( entry );
+    }
+
+
+    @Override
+    public AddResponse add( AddRequest addRequest ) throws LdapException
+    {
+        return writer().add( addRequest );
+    }
+
+
+    @Override
+    public void abandon( int messageId )
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.abandon( messageId );
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.abandon( messageId );
+        }
+    }
+
+
+    @Override
+    public void abandon( AbandonRequest abandonRequest )
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.abandon( abandonRequest );
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.abandon( abandonRequest );
+        }
+    }
+
+
+    @Override
+    public void bind() throws LdapException
+    {
+        master().bind();
+    }
+
+
+    @Override
+    public void anonymousBind() throws LdapException
+    {
+        master().anonymousBind();
+    }
+
+
+    @Override
+    public void bind( String name ) throws LdapException
+    {
+        master().bind( name );
+    }
+
+
+    @Override
+    public void bind( String name, String credentials ) throws LdapException
+    {
+        master().bind( name, credentials );
+    }
+
+
+    @Override
+    public void bind( Dn name ) throws LdapException
+    {
+        master().bind( name );
+    }
+
+
+    @Override
+    public void bind( Dn name, String credentials ) throws LdapException
+    {
+        master().bind( name, credentials );
+    }
+
+
+    @Override
+    public BindResponse bind( BindRequest bindRequest ) throws LdapException
+    {
+        return master().bind( bindRequest );
+    }
+
+
+    @Override
+    public EntryCursor search( Dn baseDn, String filter, SearchScope scope, String... attributes ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.search( baseDn, filter, scope, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).search( baseDn, filter, scope, attributes );
+        }
+    }
+
+
+    @Override
+    public EntryCursor search( String baseDn, String filter, SearchScope scope, String... attributes )
+        throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.search( baseDn, filter, scope, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).search( baseDn, filter, scope, attributes );
+        }
+    }
+
+
+    @Override
+    public SearchCursor search( SearchRequest searchRequest ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.search( searchRequest );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).search( searchRequest );
+        }
+    }
+
+
+    @Override
+    public void unBind() throws LdapException
+    {
+        master().unBind();
+    }
+
+
+    @Override
+    public void setTimeOut( long timeOut )
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.setTimeOut( timeOut );
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.setTimeOut( timeOut );
+        }
+    }
+
+
+    @Override
+    public void modify( Dn dn, Modification... modifications ) throws LdapException
+    {
+        writer().modify( dn, modifications );
+    }
+
+
+    @Override
+    public void modify( String dn, Modification... modifications ) throws LdapException
+    {
+        writer().modify( dn, modifications );
+    }
+
+
+    @Override
+    public void modify( Entry entry, ModificationOperation modOp ) throws LdapException
+    {
+        writer().modify( entry, modOp );
+    }
+
+
+    @Override
+    public ModifyResponse modify( ModifyRequest modRequest ) throws LdapException
+    {
+        return writer().modify( modRequest );
+    }
+
+
+    @Override
+    public void rename( String entryDn, String newRdn ) throws LdapException
+    {
+        writer().rename( entryDn, newRdn );
+    }
+
+
+    @Override
+    public void rename( Dn entryDn, Rdn newRdn ) throws LdapException
+    {
+        writer().rename( entryDn, newRdn );
+    }
+
+
+    @Override
+    public void rename( String entryDn, String newRdn, boolean deleteOldRdn ) throws LdapException
+    {
+        writer().rename( entryDn, newRdn, deleteOldRdn );
+    }
+
+
+    @Override
+    public void rename( Dn entryDn, Rdn newRdn, boolean deleteOldRdn ) throws LdapException
+    {
+        writer().rename( entryDn, newRdn, deleteOldRdn );
+    }
+
+
+    @Override
+    public void move( String entryDn, String newDn ) throws LdapException
+    {
+        writer().move( entryDn, newDn );
+    }
+
+
+    @Override
+    public void move( Dn entryDn, Dn newDn ) throws LdapException
+    {
+        writer().move( entryDn, newDn );
+    }
+
+
+    @Override
+    public void moveAndRename( Dn entryDn, Dn newDn ) throws LdapException
+    {
+        writer().moveAndRename( entryDn, newDn );
+    }
+
+
+    @Override
+    public void moveAndRename( String entryDn, String newDn ) throws LdapException
+    {
+        writer().moveAndRename( entryDn, newDn );
+    }
+
+
+    @Override
+    public void moveAndRename( Dn entryDn, Dn newDn, boolean deleteOldRdn ) throws LdapException
+    {
+        writer().moveAndRename( entryDn, newDn, deleteOldRdn );
+    }
+
+
+    @Override
+    public void moveAndRename( String entryDn, String newDn, boolean deleteOldRdn ) throws LdapException
+    {
+        writer().moveAndRename( entryDn, newDn, deleteOldRdn );
+    }
+
+
+    @Override
+    public ModifyDnResponse modifyDn( ModifyDnRequest modDnRequest ) throws LdapException
+    {
+        return writer().modifyDn( modDnRequest );
+    }
+
+
+    @Override
+    public void delete( String dn ) throws LdapException
+    {
+        writer().delete( dn );
+    }
+
+
+    @Override
+    public void delete( Dn dn ) throws LdapException
+    {
+        writer().delete( dn );
+    }
+
+
+    @Override
+    public DeleteResponse delete( DeleteRequest deleteRequest ) throws LdapException
+    {
+        return writer().delete( deleteRequest );
+    }
+
+
+    @Override
+    public boolean compare( String dn, String attributeName, String value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public boolean compare( String dn, String attributeName, byte[] value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public boolean compare( String dn, String attributeName, Value<?> value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public boolean compare( Dn dn, String attributeName, String value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public boolean compare( Dn dn, String attributeName, byte[] value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public boolean compare( Dn dn, String attributeName, Value<?> value ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( dn, attributeName, value );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( dn, attributeName, value );
+        }
+    }
+
+
+    @Override
+    public CompareResponse compare( CompareRequest compareRequest ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.compare( compareRequest );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).compare( compareRequest );
+        }
+    }
+
+
+    @Override
+    public ExtendedResponse extended( String oid ) throws LdapException
+    {
+        return master().extended( oid );
+    }
+
+
+    @Override
+    public ExtendedResponse extended( String oid, byte[] value ) throws LdapException
+    {
+        return master().extended( oid, value );
+    }
+
+
+    @Override
+    public ExtendedResponse extended( Oid oid ) throws LdapException
+    {
+        return master().extended( oid );
+    }
+
+
+    @Override
+    public ExtendedResponse extended( Oid oid, byte[] value ) throws LdapException
+    {
+        return master().extended( oid, value );
+    }
+
+
+    @Override
+    public ExtendedResponse extended( ExtendedRequest extendedRequest ) throws LdapException
+    {
+        return master().extended( extendedRequest );
+    }
+
+
+    @Override
+    public boolean exists( String dn ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.exists( dn );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).exists( dn );
+        }
+    }
+
+
+    @Override
+    public boolean exists( Dn dn ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.exists( dn );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).exists( dn );
+        }
+    }
+
+
+    @Override
+    public Entry getRootDse() throws LdapException
+    {
+        return master().getRootDse();
+    }
+
+
+    @Override
+    public Entry getRootDse( String... attributes ) throws LdapException
+    {
+        return master().getRootDse( attributes );
+    }
+
+
+    @Override
+    public Entry lookup( Dn dn ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn );
+        }
+    }
+
+
+    @Override
+    public Entry lookup( String dn ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn );
+        }
+    }
+
+
+    @Override
+    public Entry lookup( Dn dn, String... attributes ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn, attributes );
+        }
+    }
+
+
+    @Override
+    public Entry lookup( Dn dn, Control[] controls, String... attributes ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn, controls, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn, controls, attributes );
+        }
+    }
+
+
+    @Override
+    public Entry lookup( String dn, String... attributes ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn, attributes );
+        }
+    }
+
+
+    @Override
+    public Entry lookup( String dn, Control[] controls, String... attributes ) throws LdapException
+    {
+        LdapConnection connection = reader();
+        try
+        {
+            return connection.lookup( dn, controls, attributes );
+        }
+        catch ( LdapException e )
+        {
+            return failover( connection, e ).lookup( dn, controls, attributes );
+        }
+    }
+
+
+    @Override
+    public boolean isControlSupported( String controlOID ) throws LdapException
+    {
+        return master().isControlSupported( controlOID );
+    }
+
+
+    @Override
+    public List<String> getSupportedControls() throws LdapException
+    {
+        return master().getSupportedControls();
+    }
+
+
+    @Override
+    public void loadSchema() throws LdapException
+    {
+        master().loadSchema();
+    }
+
+
+    @Override
+    public void loadSchemaRelaxed() throws LdapException
+    {
+        master().loadSchemaRelaxed();
+    }
+
+
+    @Override
+    public SchemaManager getSchemaManager()
+    {
+        LdapConnection connection = current();
+        return connection != null ? connection.getSchemaManager() : null;
+    }
+
+
+    @Override
+    public LdapApiService getCodecService()
+    {
+        LdapConnection connection = current();
+        return connection != null ? connection.getCodecService() : LdapApiServiceFactory.getSingleton();
+    }
+
+
+    @Override
+    public boolean isRequestCompleted( int messageId )
+    {
+        return ( replicaConnection == null || replicaConnection.isRequestCompleted( messageId ) ) && (
+            masterConnection == null || masterConnection.isRequestCompleted( messageId ) );
+    }
+
+
+    @Override
+    public boolean doesFutureExistFor( int messageId )
+    {
+        return ( replicaConnection != null && replicaConnection.doesFutureExistFor( messageId ) ) || (
+            masterConnection != null && masterConnection.doesFutureExistFor( messageId ) );
+    }
+
+
+    @Override
+    public BinaryAttributeDetector getBinaryAttributeDetector()
+    {
+        LdapConnection connection = current();
+        return connection != null ? connection.getBinaryAttributeDetector() : null;
+    }
+
+
+    @Override
+    public void setBinaryAttributeDetector( BinaryAttributeDetector binaryAttributeDetecter )
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.setBinaryAttributeDetector( binaryAttributeDetecter );
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.setBinaryAttributeDetector( binaryAttributeDetecter );
+        }
+    }
+
+
+    @Override
+    public void setSchemaManager( SchemaManager schemaManager )
+    {
+        if ( replicaConnection != null )
+        {
+            replicaConnection.setSchemaManager( schemaManager );
+        }
+        if ( masterConnection != null )
+        {
+            masterConnection.setSchemaManager( schemaManager );
+        }
+    }
+}
@@ -172,7 +172,8 @@ import java.util.UUID;
     "expirationSeconds",
     "graceLogins",
     "message",
-    "warnings"
+    "warnings",
+    "authzToken"
 })
 public class Session  extends FortEntity implements PwMessage, Serializable
 {
@@ -189,6 +190,7 @@ public class Session  extends FortEntity implements PwMessage, Serializable
     private boolean isGroupSession;
     private String message;
     private List<Warning> warnings;
+    private String authzToken;
 
     /**
      * A 'true' value here indicates user successfully authenticated with Fortress.
@@ -839,6 +841,30 @@ public class Session  extends FortEntity implements PwMessage, Serializable
     }
 
 
+    /**
+     * Return the opaque token that carries the session's activated authorization context, i.e. the inherited sets of its
+     * activated roles and admin roles.  It is set by createSession and by the apis that add or drop roles, and must be
+     * passed back unchanged on subsequent calls.  A missing or stale token only costs the recomputation of the context.
+     *
+     * @return opaque token, may be null.
+     */
+    public String getAuthzToken()
+    {
+        return authzToken;
+    }
+
+
+    /**
+     * Set the opaque token that carries the session's activated authorization context.  Set by the Fortress apis.
+     *
+     * @param authzToken as returned by {@link #getAuthzToken()}.
+     */
+    public void setAuthzToken( String authzToken )
+    {
+        this.authzToken = authzToken;
+    }
+
+
     /**
      * @see Object#toString()
      */
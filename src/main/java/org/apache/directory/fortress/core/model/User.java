@@ -33,6 +33,8 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
+import org.apache.directory.fortress.core.util.time.CompiledConstraint;
+
 
 /**
  * All entities ({@link User}, {@link org.apache.directory.fortress.core.model.Role}, 
@@ -305,6 +307,12 @@ public class User extends FortEntity implements Constraint, Serializable
     private List<String> emails;
     @XmlTransient
     private byte[] jpegPhoto;
+    // Parsed from the constraint attributes when first needed, see getCompiledConstraint:
+    @XmlTransient
+    private transient volatile CompiledConstraint compiledConstraint;
+    // Set on the user of a session whose profile hasn't been read, see AccessMgr.getUser:
+    @XmlTransient
+    private transient volatile boolean profilePending;
 
     // RFC2307bis:
     /*
@@ -1044,6 +1052,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setBeginTime( String beginTime )
     {
         this.beginTime = beginTime;
+        compiledConstraint = null;
     }
 
 
@@ -1070,6 +1079,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setEndTime( String endTime )
     {
         this.endTime = endTime;
+        compiledConstraint = null;
     }
 
 
@@ -1096,6 +1106,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setBeginDate( String beginDate )
     {
         this.beginDate = beginDate;
+        compiledConstraint = null;
     }
 
 
@@ -1122,6 +1133,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setEndDate( String endDate )
     {
         this.endDate = endDate;
+        compiledConstraint = null;
     }
 
 
@@ -1148,6 +1160,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setBeginLockDate( String beginLockDate )
     {
         this.beginLockDate = beginLockDate;
+        compiledConstraint = null;
     }
 
 
@@ -1174,6 +1187,25 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setEndLockDate( String endLockDate )
     {
         this.endLockDate = endLockDate;
+        compiledConstraint = null;
+    }
+
+
+    /**
+     * Return the temporal constraints of this entity parsed for the validators.  They are parsed on first use and again
+     * after any of them has been set.
+     *
+     * @return parsed constraints, see {@link CompiledConstraint}.
+     */
+    public CompiledConstraint getCompiledConstraint()
+    {
+        CompiledConstraint compiled = compiledConstraint;
+        if ( compiled == null )
+        {
+            compiled = CompiledConstraint.compile( this );
+            compiledConstraint = compiled;
+        }
+        return compiled;
     }
 
 
@@ -1200,6 +1232,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setDayMask( String dayMask )
     {
         this.dayMask = dayMask;
+        compiledConstraint = null;
     }
 
 
@@ -1226,6 +1259,7 @@ public class User extends FortEntity implements Constraint, Serializable
     public void setTimeout( Integer timeout )
     {
         this.timeout = timeout;
+        compiledConstraint = null;
     }
 
 
@@ -1253,6 +1287,31 @@ public class User extends FortEntity implements Constraint, Serializable
     }
 
 
+    /**
+     * If set to true the User was read for a session, see {@code enable.session.projection}, and its profile, e.g.
+     * address, emails and photo, hasn't been read yet.  It is read by {@link org.apache.directory.fortress.core.AccessMgr#getUser}.
+     * This attribute will be ignored if set by external callers.
+     *
+     * @return boolean value, not serialized.
+     */
+    public boolean isProfilePending()
+    {
+        return profilePending;
+    }
+
+
+    /**
+     * If set to true the User was read for a session and its profile hasn't been read yet.
+     * This attribute will be ignored if set by external callers.
+     *
+     * @param profilePending contains boolean value.
+     */
+    public void setProfilePending( boolean profilePending )
+    {
+        this.profilePending = profilePending;
+    }
+
+
     /**
      * If set to true User's password has been locked by administrator or directory itself due to password policy violations.
      * This attribute will be ignored if set by external callers.
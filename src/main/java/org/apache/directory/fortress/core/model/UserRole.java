@@ -20,19 +20,23 @@
 package org.apache.directory.fortress.core.model;
 
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlSeeAlso;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
-import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.util.Config;
+import org.apache.directory.fortress.core.util.time.CompiledConstraint;
 
 
 /**
@@ -108,6 +112,16 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     private String dayMask;
     private Set<String> parents;
     private List<RoleConstraint> roleConstraints;
+    // Parsed from the constraint attributes when first needed, see getCompiledConstraint:
+    @XmlTransient
+    private transient volatile CompiledConstraint compiledConstraint;
+    // Resolves the parents when first needed, see getParents:
+    @XmlTransient
+    private transient volatile ParentUtil parentUtil;
+    @XmlTransient
+    private transient String parentContextId;
+    // The number of fields in the raw 'ftRC' format:
+    private static final int RAW_FIELDS = 9;
 
     /**
      * Default constructor is used by internal Fortress classes.
@@ -181,62 +195,99 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     {
         if ( ( szRawData != null ) && ( szRawData.length() > 0 ) )
         {
-            String[] tokens = StringUtils.splitPreserveAllTokens( szRawData, Config.getInstance().getDelimiter() );
-            
+            String[] tokens = tokenize( szRawData, Config.getInstance().getDelimiter() );
+
             //newer style constaint type
-            if(tokens[1].equals(RoleConstraint.RC_TYPE_NAME)){
-            	RoleConstraint rc = new RoleConstraint(tokens[5], tokens[4], RoleConstraint.RCType.valueOf( tokens[2] ),
-                    tokens[3]);
-            	this.getRoleConstraints().add(rc);
+            if ( RoleConstraint.RC_TYPE_NAME.equals( tokens[1] ) )
+            {
+                RoleConstraint rc = new RoleConstraint( tokens[5], tokens[4], RoleConstraint.RCType.valueOf( tokens[2] ),
+                    tokens[3] );
+                this.getRoleConstraints().add( rc );
+            }
+            else
+            {
+                for ( int i = 0; i < RAW_FIELDS; i++ )
+                {
+                    if ( tokens[i].length() > 0 )
+                    {
+                        switch ( i )
+                        {
+                            case 0:
+                                // The same role is loaded for many users, they share its name:
+                                name = tokens[i].intern();
+                                // The parents are rarely needed, they're resolved when first asked for:
+                                parents = null;
+                                this.parentUtil = parentUtil;
+                                this.parentContextId = contextId;
+                                break;
+
+                            case 1:
+                                timeout = Integer.parseInt( tokens[i] );
+                                break;
+
+                            case 2:
+                                beginTime = tokens[i];
+                                break;
+
+                            case 3:
+                                endTime = tokens[i];
+                                break;
+
+                            case 4:
+                                beginDate = tokens[i];
+                                break;
+
+                            case 5:
+                                endDate = tokens[i];
+                                break;
+
+                            case 6:
+                                beginLockDate = tokens[i];
+                                break;
+
+                            case 7:
+                                endLockDate = tokens[i];
+                                break;
+
+                            case 8:
+                                dayMask = tokens[i];
+                                break;
+                        }
+                    }
+                }
+                compiledConstraint = null;
             }
-            else{
-	            for ( int i = 0; i < tokens.length; i++ )
-	            {
-	                if ( StringUtils.isNotEmpty( tokens[i] ) )
-	                {
-	                    switch ( i )
-	                    {
-	                        case 0:
-	                            name = tokens[i];
-	                            parents = parentUtil.getParentsCB( name.toUpperCase(), contextId );
-	                            break;
-	
-	                        case 1:
-	                            timeout = Integer.parseInt( tokens[i] );
-	                            break;
-	
-	                        case 2:
-	                            beginTime = tokens[i];
-	                            break;
-	
-	                        case 3:
-	                            endTime = tokens[i];
-	                            break;
-	
-	                        case 4:
-	                            beginDate = tokens[i];
-	                            break;
-	
-	                        case 5:
-	                            endDate = tokens[i];
-	                            break;
-	
-	                        case 6:
-	                            beginLockDate = tokens[i];
-	                            break;
-	
-	                        case 7:
-	                            endLockDate = tokens[i];
-	                            break;
-	
-	                        case 8:
-	                            dayMask = tokens[i];
-	                            break;
-	                    }
-	                }
-	            }
+        }
+    }
+
+
+    /**
+     * Split the raw data in one pass.  Any of the delimiter's chars separates two fields, as with
+     * {@code StringUtils.splitPreserveAllTokens}, and fields past those of the raw format are ignored.
+     *
+     * @param szRawData contains the raw 'ftRC' value.
+     * @param delimiter contains the separator chars.
+     * @return the fields, those that are empty or missing are "".
+     */
+    private static String[] tokenize( String szRawData, String delimiter )
+    {
+        String[] tokens = new String[RAW_FIELDS];
+        int field = 0;
+        int start = 0;
+        int length = szRawData.length();
+        for ( int i = 0; i <= length && field < RAW_FIELDS; i++ )
+        {
+            if ( i == length || delimiter.indexOf( szRawData.charAt( i ) ) >= 0 )
+            {
+                tokens[field++] = start < i ? szRawData.substring( start, i ) : "";
+                start = i + 1;
             }
         }
+        while ( field < RAW_FIELDS )
+        {
+            tokens[field++] = "";
+        }
+        return tokens;
     }
 
 
@@ -379,6 +430,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setTimeout( Integer timeout )
     {
         this.timeout = timeout;
+        compiledConstraint = null;
     }
 
 
@@ -393,6 +445,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setBeginTime( String beginTime )
     {
         this.beginTime = beginTime;
+        compiledConstraint = null;
     }
 
 
@@ -407,6 +460,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setEndTime( String endTime )
     {
         this.endTime = endTime;
+        compiledConstraint = null;
     }
 
 
@@ -421,6 +475,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setBeginDate( String beginDate )
     {
         this.beginDate = beginDate;
+        compiledConstraint = null;
     }
 
 
@@ -435,6 +490,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setEndDate( String endDate )
     {
         this.endDate = endDate;
+        compiledConstraint = null;
     }
 
 
@@ -449,6 +505,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setDayMask( String dayMask )
     {
         this.dayMask = dayMask;
+        compiledConstraint = null;
     }
 
 
@@ -463,6 +520,7 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setBeginLockDate( String beginLockDate )
     {
         this.beginLockDate = beginLockDate;
+        compiledConstraint = null;
     }
 
 
@@ -477,6 +535,25 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setEndLockDate( String endLockDate )
     {
         this.endLockDate = endLockDate;
+        compiledConstraint = null;
+    }
+
+
+    /**
+     * Return the temporal constraints of this entity parsed for the validators.  They are parsed on first use and again
+     * after any of them has been set.
+     *
+     * @return parsed constraints, see {@link CompiledConstraint}.
+     */
+    public CompiledConstraint getCompiledConstraint()
+    {
+        CompiledConstraint compiled = compiledConstraint;
+        if ( compiled == null )
+        {
+            compiled = CompiledConstraint.compile( this );
+            compiledConstraint = compiled;
+        }
+        return compiled;
     }
 
 
@@ -597,7 +674,15 @@ public class UserRole extends FortEntity implements Serializable, Constraint
      */
     public Set<String> getParents()
     {
-        return parents;
+        Set<String> result = parents;
+        ParentUtil util = parentUtil;
+        if ( result == null && util != null )
+        {
+            result = util.getParentsCB( name.toUpperCase(), parentContextId );
+            parents = result;
+            parentUtil = null;
+        }
+        return result;
     }
 
 
@@ -609,6 +694,24 @@ public class UserRole extends FortEntity implements Serializable, Constraint
     public void setParents( Set<String> parents )
     {
         this.parents = parents;
+        this.parentUtil = null;
+    }
+
+
+    /**
+     * Resolve the parents before this entity is marshaled, as they're written from the field.
+     */
+    private boolean beforeMarshal( Marshaller marshaller )
+    {
+        getParents();
+        return true;
+    }
+
+
+    private void writeObject( ObjectOutputStream out ) throws IOException
+    {
+        getParents();
+        out.defaultWriteObject();
     }
 
     /**
@@ -673,7 +776,6 @@ public class UserRole extends FortEntity implements Serializable, Constraint
         result = 31 * result + ( beginLockDate != null ? beginLockDate.hashCode() : 0 );
         result = 31 * result + ( endLockDate != null ? endLockDate.hashCode() : 0 );
         result = 31 * result + ( dayMask != null ? dayMask.hashCode() : 0 );
-        result = 31 * result + ( parents != null ? parents.hashCode() : 0 );
         return result;
     }
 
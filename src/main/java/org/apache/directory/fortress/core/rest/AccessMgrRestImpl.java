@@ -20,6 +20,7 @@
 package org.apache.directory.fortress.core.rest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -28,6 +29,7 @@ import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.impl.Manageable;
 import org.apache.directory.fortress.core.model.*;
+import org.apache.directory.fortress.core.util.PermissionMap;
 import org.apache.directory.fortress.core.util.VUtil;
 
 /**
@@ -86,9 +88,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( new User( userId, password ) );
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHN);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -111,17 +111,15 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity(user);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse;
+        FortResponse response;
         if(isTrusted)
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE_TRUSTED);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE_TRUSTED);
         }
         else
         {
-            szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_CREATE);
+            response = RestUtils.getInstance().post(request, HttpIds.RBAC_CREATE);
         }
-        FortResponse response = RestUtils.unmarshall(szResponse);
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -140,9 +138,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Session retSession;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setEntity( group );
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.RBAC_CREATE_GROUP_SESSION );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.RBAC_CREATE_GROUP_SESSION );
         if (response.getErrorCode() == 0)
         {
             retSession = response.getSession();
@@ -167,9 +163,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(perm);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ);
         if (response.getErrorCode() == 0)
         {
             result = response.getAuthorized();
@@ -183,6 +177,24 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fortress rest server has no bulk authorization service so each permission is checked with a separate request.
+     */
+    @Override
+    public Map<Permission, Boolean> checkAccess(Session session, List<Permission> perms)
+        throws SecurityException
+    {
+        VUtil.assertNotNull(perms, GlobalErrIds.PERM_NULL, CLS_NM + ".checkAccess");
+        Map<Permission, Boolean> results = new PermissionMap<>();
+        for (Permission perm : perms)
+        {
+            results.put(perm, checkAccess(session, perm));
+        }
+        return results;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -194,9 +206,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<Permission> retPerms;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -221,9 +231,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         List<UserRole> retRoles;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ROLES);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -248,9 +256,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         Set<String> retRoleNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_AUTHZ_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_AUTHZ_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -279,9 +285,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_ADD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_ADD);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -306,9 +310,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
         request.setEntity(role);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_DROP);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_DROP);
         if (response.getErrorCode() == 0)
         {
             Session outSession = response.getSession();
@@ -331,9 +333,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         String userId;
         FortRequest request = RestUtils.getRequest( this.contextId );
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USERID);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USERID);
         if (response.getErrorCode() == 0)
         {
             User outUser = (User) response.getEntity();
@@ -360,9 +360,7 @@ public class AccessMgrRestImpl extends Manageable implements AccessMgr
         FortRequest request = new FortRequest();
         request.setContextId(this.contextId);
         request.setSession(session);
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.RBAC_USER);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.RBAC_USER);
         if (response.getErrorCode() == 0)
         {
             retUser = (User) response.getEntity();
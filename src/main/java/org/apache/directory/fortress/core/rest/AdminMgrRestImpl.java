@@ -20,9 +20,14 @@
 package org.apache.directory.fortress.core.rest;
 
 
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.AdminMgr;
+import org.apache.directory.fortress.core.BulkResult;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.SecurityException;
+import org.apache.directory.fortress.core.ValidationException;
 import org.apache.directory.fortress.core.impl.Manageable;
 import org.apache.directory.fortress.core.model.FortRequest;
 import org.apache.directory.fortress.core.model.FortResponse;
@@ -96,9 +101,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retUser = ( User ) response.getEntity();
@@ -111,6 +114,32 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't have a bulk operation, each entity is sent in its own request, one at a time.
+     */
+    @Override
+    public BulkResult<User> addUsers( List<User> users )
+        throws SecurityException
+    {
+        VUtil.assertNotNull( users, GlobalErrIds.USER_NULL, CLS_NM + ".addUsers" );
+        BulkResult<User> result = new BulkResult<>( users );
+        for ( int i = 0; i < users.size(); i++ )
+        {
+            try
+            {
+                addUser( users.get( i ) );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -125,9 +154,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_DISABLE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_DISABLE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -149,9 +176,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -174,9 +199,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retUser = ( User ) response.getEntity();
@@ -205,9 +228,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_CHGPW );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_CHGPW );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -229,9 +250,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_LOCK );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_LOCK );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -253,9 +272,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_UNLOCK );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_UNLOCK );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -279,9 +296,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_RESET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_RESET );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -316,9 +331,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retRole = ( Role ) response.getEntity();
@@ -331,6 +344,32 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't have a bulk operation, each entity is sent in its own request, one at a time.
+     */
+    @Override
+    public BulkResult<Role> addRoles( List<Role> roles )
+        throws SecurityException
+    {
+        VUtil.assertNotNull( roles, GlobalErrIds.ROLE_NULL, CLS_NM + ".addRoles" );
+        BulkResult<Role> result = new BulkResult<>( roles );
+        for ( int i = 0; i < roles.size(); i++ )
+        {
+            try
+            {
+                addRole( roles.get( i ) );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -345,9 +384,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -370,9 +407,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retRole = ( Role ) response.getEntity();
@@ -399,9 +434,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_ASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_ASGN );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -409,6 +442,32 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't have a bulk operation, each entity is sent in its own request, one at a time.
+     */
+    @Override
+    public BulkResult<UserRole> assignUsers( List<UserRole> uRoles )
+        throws SecurityException
+    {
+        VUtil.assertNotNull( uRoles, GlobalErrIds.URLE_NULL, CLS_NM + ".assignUsers" );
+        BulkResult<UserRole> result = new BulkResult<>( uRoles );
+        for ( int i = 0; i < uRoles.size(); i++ )
+        {
+            try
+            {
+                assignUser( uRoles.get( i ) );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -423,9 +482,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_DEASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_DEASGN );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -448,9 +505,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retPerm = ( Permission ) response.getEntity();
@@ -478,9 +533,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retPerm = ( Permission ) response.getEntity();
@@ -507,9 +560,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -532,9 +583,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.OBJ_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.OBJ_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retObj = ( PermObj ) response.getEntity();
@@ -562,9 +611,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.OBJ_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.OBJ_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retObj = ( PermObj ) response.getEntity();
@@ -591,9 +638,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.OBJ_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.OBJ_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -622,9 +667,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_GRANT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_GRANT );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -653,9 +696,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_REVOKE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_REVOKE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -684,9 +725,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_GRANT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_GRANT );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -694,6 +733,48 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't have a bulk operation, each entity is sent in its own request, one at a time.
+     */
+    @Override
+    public BulkResult<PermGrant> grantPermissions( List<PermGrant> permGrants )
+        throws SecurityException
+    {
+        VUtil.assertNotNull( permGrants, GlobalErrIds.PERM_OPERATION_NULL, CLS_NM + ".grantPermissions" );
+        BulkResult<PermGrant> result = new BulkResult<>( permGrants );
+        for ( int i = 0; i < permGrants.size(); i++ )
+        {
+            try
+            {
+                PermGrant permGrant = permGrants.get( i );
+                VUtil.assertNotNull( permGrant, GlobalErrIds.PERM_OPERATION_NULL, CLS_NM + ".grantPermissions" );
+                Permission perm = new Permission( permGrant.getObjName(), permGrant.getOpName(), permGrant.isAdmin() );
+                perm.setObjId( permGrant.getObjId() );
+                if ( StringUtils.isNotEmpty( permGrant.getRoleNm() ) )
+                {
+                    grantPermission( perm, new Role( permGrant.getRoleNm() ) );
+                }
+                else if ( StringUtils.isNotEmpty( permGrant.getUserId() ) )
+                {
+                    grantPermission( perm, new User( permGrant.getUserId() ) );
+                }
+                else
+                {
+                    String error = "grantPermissions permGrant [" + i + "] contains neither role name nor userId";
+                    throw new ValidationException( GlobalErrIds.ROLE_NULL, error );
+                }
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        return result;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -715,9 +796,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.USER_REVOKE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.USER_REVOKE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -743,9 +822,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_DESC );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_DESC );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -771,9 +848,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_ASC );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_ASC );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -799,9 +874,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_ADDINHERIT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_ADDINHERIT );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -827,9 +900,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_DELINHERIT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_DELINHERIT );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -852,9 +923,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -881,9 +950,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -913,9 +980,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_ADD_MEMBER );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_ADD_MEMBER );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -945,9 +1010,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_DEL_MEMBER );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_DEL_MEMBER );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -975,9 +1038,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_DELETE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1006,9 +1067,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.SSD_CARD_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.SSD_CARD_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1036,9 +1095,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1065,9 +1122,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1097,9 +1152,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_ADD_MEMBER );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_ADD_MEMBER );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1129,9 +1182,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_DEL_MEMBER );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_DEL_MEMBER );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1159,9 +1210,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_DELETE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1190,9 +1239,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.DSD_CARD_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.DSD_CARD_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( SDSet ) response.getEntity();
@@ -1222,9 +1269,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_ADD_CONSTRAINT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_ADD_CONSTRAINT );
         if ( response.getErrorCode() == 0 )
         {
             retCnst = ( RoleConstraint ) response.getEntity();
@@ -1252,9 +1297,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.ROLE_DELETE_CONSTRAINT );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.ROLE_DELETE_CONSTRAINT );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -1277,9 +1320,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_ADD_ATTRIBUTE_SET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_ADD_ATTRIBUTE_SET );
         if ( response.getErrorCode() == 0 )
         {
             retSet = ( PermissionAttributeSet ) response.getEntity();
@@ -1306,9 +1347,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_DELETE_ATTRIBUTE_SET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_DELETE_ATTRIBUTE_SET );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -1333,9 +1372,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_ADD_PERM_ATTRIBUTE_TO_SET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_ADD_PERM_ATTRIBUTE_TO_SET );
         if ( response.getErrorCode() == 0 )
         {
             retAttr = ( PermissionAttribute ) response.getEntity();
@@ -1364,9 +1401,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_DELETE_PERM_ATTRIBUTE_TO_SET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_DELETE_PERM_ATTRIBUTE_TO_SET );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -1392,9 +1427,7 @@ public final class AdminMgrRestImpl extends Manageable implements AdminMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PERM_UPDATE_PERM_ATTRIBUTE_IN_SET );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PERM_UPDATE_PERM_ATTRIBUTE_IN_SET );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
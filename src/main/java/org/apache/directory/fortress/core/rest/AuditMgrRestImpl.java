@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.directory.fortress.core.AuditMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.impl.Manageable;
 import org.apache.directory.fortress.core.model.AuthZ;
@@ -125,9 +126,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_UAUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_UAUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -145,6 +144,19 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public void getUserAuthZs(UserAudit uAudit, SearchHandler<AuthZ> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(getUserAuthZs(uAudit), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -161,9 +173,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_AUTHZS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_AUTHZS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -181,6 +191,19 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public void searchAuthZs(UserAudit uAudit, SearchHandler<AuthZ> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(searchAuthZs(uAudit), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -197,9 +220,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_BINDS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_BINDS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -217,6 +238,19 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public void searchBinds(UserAudit uAudit, SearchHandler<Bind> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(searchBinds(uAudit), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -233,9 +267,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_SESSIONS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_SESSIONS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -269,9 +301,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_MODS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_MODS);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -305,9 +335,7 @@ public class AuditMgrRestImpl extends Manageable implements AuditMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.AUDIT_INVLD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.AUDIT_INVLD);
         if (response.getErrorCode() == 0)
         {
             outRecords = response.getEntities();
@@ -19,7 +19,8 @@
  */
 package org.apache.directory.fortress.core.rest;
 
-import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -39,7 +40,7 @@ import javax.xml.bind.Unmarshaller;
 public class CachedJaxbContext
 {
 
-    private static volatile Hashtable<Class, JAXBCachedEntry> jaxbInstanceCache = new Hashtable();
+    private static final Map<Class, JAXBCachedEntry> jaxbInstanceCache = new ConcurrentHashMap<>();
 
     /**
      * Once constructed this object can be stored as static member of class that performs JAX XML processing.
@@ -48,17 +49,35 @@ public class CachedJaxbContext
      * @return handle to JAXBContext to be used to marshall or unmarshall XML data.
      * @throws JAXBException in the event the JAXBContext cannot be obtained.
      */
-    public synchronized JAXBContext getJaxbContext( Class type ) throws JAXBException
+    public JAXBContext getJaxbContext( Class type ) throws JAXBException
     {
+        return getEntry( type ).getContext();
+    }
+
 
+    /**
+     * Return the cached entry for a data type, creating it on first use.  Lookups of existing entries don't lock.
+     *
+     * @param type contains the class name that is being marshalled/unmarshalled.
+     * @return handle to the cached entry which also pools marshallers and unmarshallers.
+     * @throws JAXBException in the event the JAXBContext cannot be obtained.
+     */
+    public JAXBCachedEntry getEntry( Class type ) throws JAXBException
+    {
         JAXBCachedEntry cache = jaxbInstanceCache.get( type );
         if ( cache == null )
         {
-            cache = new JAXBCachedEntry( type );
-            jaxbInstanceCache.put( type, cache );
-            return cache.getContext();
+            synchronized ( this )
+            {
+                cache = jaxbInstanceCache.get( type );
+                if ( cache == null )
+                {
+                    cache = new JAXBCachedEntry( type );
+                    jaxbInstanceCache.put( type, cache );
+                }
+            }
         }
-        return cache.getContext();
+        return cache;
     }
 
     /**
@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.directory.fortress.core.DelReviewMgr;
 import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.impl.Manageable;
 import org.apache.directory.fortress.core.model.AdminRole;
@@ -72,9 +73,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_READ);
         if (response.getErrorCode() == 0)
         {
             retRole = (AdminRole) response.getEntity();
@@ -103,9 +102,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -134,9 +131,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ARLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ARLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getEntities();
@@ -165,9 +160,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED_ADMIN);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED_ADMIN);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -185,6 +178,19 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public void assignedUsers(AdminRole role, SearchHandler<User> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(assignedUsers(role), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -201,9 +207,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_READ);
         if (response.getErrorCode() == 0)
         {
             retOrg = (OrgUnit) response.getEntity();
@@ -233,9 +237,7 @@ public class DelReviewMgrRestImpl extends Manageable implements DelReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ORG_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ORG_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retOrgs = response.getEntities();
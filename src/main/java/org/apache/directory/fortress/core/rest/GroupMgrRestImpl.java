@@ -58,9 +58,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_ADD );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -72,6 +70,31 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         return retGroup;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't have a bulk operation, each entity is sent in its own request, one at a time.
+     */
+    @Override
+    public BulkResult<Group> add( List<Group> groups )
+        throws SecurityException
+    {
+        VUtil.assertNotNull( groups, GlobalErrIds.GROUP_NULL, CLS_NM + ".add" );
+        BulkResult<Group> result = new BulkResult<>( groups );
+        for ( int i = 0; i < groups.size(); i++ )
+        {
+            try
+            {
+                add( groups.get( i ) );
+            }
+            catch ( SecurityException se )
+            {
+                result.setFailure( i, se );
+            }
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -86,9 +109,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_UPDATE );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -114,9 +135,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_DELETE );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -160,9 +179,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_READ);
         if (response.getErrorCode() == 0)
         {
             retGroup = (Group) response.getEntity();
@@ -206,9 +223,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retGroups = response.getEntities();
@@ -235,9 +250,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.GROUP_ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.GROUP_ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -265,9 +278,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_ASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_ASGN );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -295,9 +306,7 @@ public class GroupMgrRestImpl  extends Manageable implements GroupMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.GROUP_DEASGN );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.GROUP_DEASGN );
         if ( response.getErrorCode() == 0 )
         {
             retGroup = ( Group ) response.getEntity();
@@ -19,12 +19,20 @@
  */
 package org.apache.directory.fortress.core.rest;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 
 /**
  * This class wraps JAXBContext and is used for simple caching mechanism during Fortress XML processing.
  * The intent is to leave future extension point in case schema validation is needed which prevents handling in cache itself.
+ * It also keeps a bounded pool of marshallers and unmarshallers, which are expensive to create and not thread safe, so they
+ * can be reused by one thread at a time.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -33,6 +41,11 @@ public class JAXBCachedEntry
 {
     private final Class cachedClass;
     private final JAXBContext context;
+    private static final int MAX_POOLED = 64;
+    private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+    private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledMarshallers = new AtomicInteger();
+    private final AtomicInteger pooledUnmarshallers = new AtomicInteger();
 
     /**
      * Public constructor requires the entity class to be passed.
@@ -65,4 +78,73 @@ public class JAXBCachedEntry
     {
         return context;
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Take a marshaller from the pool, or create one if the pool is empty.  Return it with {@link #releaseMarshaller}.
+     *
+     * @return marshaller for exclusive use by the caller.
+     * @throws JAXBException in the event the marshaller cannot be created.
+     */
+    public Marshaller borrowMarshaller() throws JAXBException
+    {
+        Marshaller marshaller = marshallers.poll();
+        if ( marshaller == null )
+        {
+            return context.createMarshaller();
+        }
+        pooledMarshallers.decrementAndGet();
+        return marshaller;
+    }
+
+    /**
+     * Give a marshaller back to the pool.  It is dropped if the pool is full.
+     *
+     * @param marshaller as returned by {@link #borrowMarshaller}.
+     */
+    public void releaseMarshaller( Marshaller marshaller )
+    {
+        if ( pooledMarshallers.incrementAndGet() <= MAX_POOLED )
+        {
+            marshallers.offer( marshaller );
+        }
+        else
+        {
+            pooledMarshallers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Take an unmarshaller from the pool, or create one if the pool is empty.  Return it with {@link #releaseUnmarshaller}.
+     *
+     * @return unmarshaller for exclusive use by the caller.
+     * @throws JAXBException in the event the unmarshaller cannot be created.
+     */
+    public Unmarshaller borrowUnmarshaller() throws JAXBException
+    {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        if ( unmarshaller == null )
+        {
+            return context.createUnmarshaller();
+        }
+        pooledUnmarshallers.decrementAndGet();
+        return unmarshaller;
+    }
+
+    /**
+     * Give an unmarshaller back to the pool.  It is dropped if the pool is full.
+     *
+     * @param unmarshaller as returned by {@link #borrowUnmarshaller}.
+     */
+    public void releaseUnmarshaller( Unmarshaller unmarshaller )
+    {
+        if ( pooledUnmarshallers.incrementAndGet() <= MAX_POOLED )
+        {
+            unmarshallers.offer( unmarshaller );
+        }
+        else
+        {
+            pooledUnmarshallers.decrementAndGet();
+        }
+    }
+}
@@ -80,9 +80,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_ADD );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -104,9 +102,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_UPDATE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_UPDATE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -128,9 +124,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -153,9 +147,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_READ );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_READ );
         if ( response.getErrorCode() == 0 )
         {
             retPolicy = ( PwPolicy ) response.getEntity();
@@ -183,9 +175,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_SEARCH );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_SEARCH );
         if ( response.getErrorCode() == 0 )
         {
             retPolicies = response.getEntities();
@@ -215,9 +205,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_USER_ADD );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_USER_ADD );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
@@ -239,9 +227,7 @@ public class PwPolicyMgrRestImpl extends Manageable implements PwPolicyMgr
         {
             request.setSession( adminSess );
         }
-        String szRequest = RestUtils.marshal( request );
-        String szResponse = RestUtils.getInstance().post( szRequest, HttpIds.PSWD_USER_DELETE );
-        FortResponse response = RestUtils.unmarshall( szResponse );
+        FortResponse response = RestUtils.getInstance().post( request, HttpIds.PSWD_USER_DELETE );
         if ( response.getErrorCode() != 0 )
         {
             throw new SecurityException( response.getErrorCode(), response.getErrorMessage() );
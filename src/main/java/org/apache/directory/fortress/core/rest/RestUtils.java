@@ -20,24 +20,32 @@
 package org.apache.directory.fortress.core.rest;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.RestException;
+import org.apache.directory.fortress.core.SearchHandler;
+import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.model.FortRequest;
 import org.apache.directory.fortress.core.model.FortResponse;
 import org.apache.directory.fortress.core.model.ObjectFactory;
@@ -45,25 +53,39 @@ import org.apache.directory.fortress.core.model.Props;
 import org.apache.directory.fortress.core.util.Config;
 import org.apache.directory.fortress.core.util.EncryptUtil;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
- * This utility class provides methods that wrap Apache's HTTP Client APIs.  This class is thread safe.
+ * This utility class provides methods that wrap Apache's HTTP Client APIs.  All requests share one client whose pooled
+ * connections are kept alive between calls, so the TCP and TLS handshakes are paid once per connection rather than once per
+ * request.  Requests and responses are marshalled straight to and from the HTTP entity streams.  This class is thread safe.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -76,6 +98,10 @@ public final class RestUtils
     private static final int HTTP_401_UNAUTHORIZED = 401;
     private static final int HTTP_403_FORBIDDEN = 403;
     private static final int HTTP_404_NOT_FOUND = 404;
+    private static final String HTTP_MAX_CONN = "http.max.conn";
+    private static final String HTTP_MAX_CONN_ROUTE = "http.max.conn.route";
+    private static final String HTTP_KEEP_ALIVE = "http.keep.alive";
+    private static final String HTTP_IDLE_TIMEOUT = "http.idle.timeout";
     private static CachedJaxbContext cachedJaxbContext = new CachedJaxbContext();
 
     // static member contains this
@@ -91,6 +117,10 @@ public final class RestUtils
     // These members contain the http coordinates to a running fortress-rest instance:
     private String httpUid, httpPw, httpHost, httpPort, httpProtocol, fortressRestVersion, serviceName, uri;
 
+    // Shared by all requests, pools the connections to fortress-rest:
+    private CloseableHttpClient httpClient;
+    private HttpHost target;
+
     /**
      * create a new request and set its tenant id.
      * @param szContextId contains the tenant id
@@ -103,6 +133,26 @@ public final class RestUtils
         return request;
     }
 
+
+    /**
+     * Pass the entities returned by a search to a handler, until it asks to stop.
+     *
+     * @param entities returned by fortress-rest.
+     * @param handler  receives each entity.
+     * @param <T>      type of entity.
+     * @throws SecurityException as thrown by the handler.
+     */
+    static <T> void handle( List<T> entities, SearchHandler<T> handler ) throws SecurityException
+    {
+        for ( T entity : entities )
+        {
+            if ( !handler.handle( entity ) )
+            {
+                break;
+            }
+        }
+    }
+
     public static RestUtils getInstance()
     {
         if(sINSTANCE == null)
@@ -135,6 +185,35 @@ public final class RestUtils
         LOG.info( "javax.net.ssl.trustStore: {}", trustStore );
         System.setProperty( "javax.net.ssl.trustStore", trustStore );
         System.setProperty( "javax.net.ssl.trustStorePassword", trustStorePw );
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal( Config.getInstance().getInt( HTTP_MAX_CONN, 50 ) );
+        connectionManager.setDefaultMaxPerRoute( Config.getInstance().getInt( HTTP_MAX_CONN_ROUTE, 20 ) );
+        // Check connections that have been idle a while before they are reused:
+        connectionManager.setValidateAfterInactivity( 2000 );
+        final long keepAlive = Config.getInstance().getInt( HTTP_KEEP_ALIVE, 30000 );
+        long idleTimeout = Config.getInstance().getInt( HTTP_IDLE_TIMEOUT, 30000 );
+        LOG.info( "HTTP POOL:  uri=[{}], max=[{}], maxPerRoute=[{}], keepAlive=[{}]", uri, connectionManager.getMaxTotal(),
+            connectionManager.getDefaultMaxPerRoute(), keepAlive );
+        httpClient = HttpClients.custom()
+            .setConnectionManager( connectionManager )
+            .setKeepAliveStrategy( new DefaultConnectionKeepAliveStrategy()
+            {
+                @Override
+                public long getKeepAliveDuration( HttpResponse response, HttpContext context )
+                {
+                    // Honor the server's keep alive header, if any, but don't keep connections longer than configured:
+                    long duration = super.getKeepAliveDuration( response, context );
+                    return duration > 0 ? Math.min( duration, keepAlive ) : keepAlive;
+                }
+            } )
+            .evictExpiredConnections()
+            .evictIdleConnections( idleTimeout, TimeUnit.MILLISECONDS )
+            .build();
+        if ( httpHost != null && httpPort != null )
+        {
+            target = new HttpHost( httpHost, Integer.valueOf( httpPort ), httpProtocol );
+        }
     }
 
     private RestUtils(){
@@ -153,18 +232,21 @@ public final class RestUtils
         String szRetValue;
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortRequest.class );
-            // =============================================================================================================
-            // Marshalling OBJECT to XML
-            // =============================================================================================================
-            // Create the marshaller, that will transform the object into XML
-            final Marshaller marshaller = context.createMarshaller();
-            // Create a stringWriter to hold the XML
-            final StringWriter stringWriter = new StringWriter();
-            // Marshal the javaObject and write the XML to the stringWriter
-            marshaller.marshal( request, stringWriter );
-            szRetValue = stringWriter.toString();
+            // Borrow a marshaller from the pool kept with the cached JAXB context:
+            final JAXBCachedEntry entry = cachedJaxbContext.getEntry( FortRequest.class );
+            final Marshaller marshaller = entry.borrowMarshaller();
+            try
+            {
+                // Create a stringWriter to hold the XML
+                final StringWriter stringWriter = new StringWriter();
+                // Marshal the javaObject and write the XML to the stringWriter
+                marshaller.marshal( request, stringWriter );
+                szRetValue = stringWriter.toString();
+            }
+            finally
+            {
+                entry.releaseMarshaller( marshaller );
+            }
         }
         catch ( JAXBException je )
         {
@@ -187,12 +269,7 @@ public final class RestUtils
         FortResponse response;
         try
         {
-            // Create a JAXB context passing in the class of the object we want to marshal/unmarshal
-            final JAXBContext context = cachedJaxbContext.getJaxbContext( FortResponse.class );
-
-            // Create the unmarshaller, that will transform the XML back into an object
-            final Unmarshaller unmarshaller = context.createUnmarshaller();
-            response = ( FortResponse ) unmarshaller.unmarshal( new StringReader( szResponse ) );
+            response = unmarshall( new StreamSource( new StringReader( szResponse ) ) );
         }
         catch ( JAXBException je )
         {
@@ -203,6 +280,42 @@ public final class RestUtils
     }
 
 
+    /**
+     * Marshall the request to a stream using a pooled marshaller.
+     */
+    private static void marshal( FortRequest request, OutputStream out ) throws JAXBException
+    {
+        final JAXBCachedEntry entry = cachedJaxbContext.getEntry( FortRequest.class );
+        final Marshaller marshaller = entry.borrowMarshaller();
+        try
+        {
+            marshaller.marshal( request, out );
+        }
+        finally
+        {
+            entry.releaseMarshaller( marshaller );
+        }
+    }
+
+
+    /**
+     * Unmarshall a response using a pooled unmarshaller.
+     */
+    private static FortResponse unmarshall( Source source ) throws JAXBException
+    {
+        final JAXBCachedEntry entry = cachedJaxbContext.getEntry( FortResponse.class );
+        final Unmarshaller unmarshaller = entry.borrowUnmarshaller();
+        try
+        {
+            return ( FortResponse ) unmarshaller.unmarshal( source );
+        }
+        finally
+        {
+            entry.releaseUnmarshaller( unmarshaller );
+        }
+    }
+
+
     /**
      * Perform HTTP Get REST request.
      *
@@ -230,8 +343,7 @@ public final class RestUtils
         LOG.debug( "get function1:{}, id1:{}, id2:{}, id3:{}, url:{}", function, id, id2, id3, url );
         HttpGet get = new HttpGet(url);
         setMethodHeaders( get );
-        return handleHttpMethod( get ,HttpClientBuilder.create()
-            .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build() );
+        return handleHttpMethod( get, httpClient, getContext( userId, password ) );
     }
 
 
@@ -272,36 +384,10 @@ public final class RestUtils
         {
             HttpEntity entity = new StringEntity( szInput, ContentType.TEXT_XML );
             post.setEntity( entity );
-            org.apache.http.client.HttpClient httpclient = HttpClientBuilder.create()
-                .setDefaultCredentialsProvider(getCredentialProvider(userId, password)).build();
-            HttpResponse response = httpclient.execute( post );
-            String error;
-
-            switch ( response.getStatusLine().getStatusCode() )
+            try ( CloseableHttpResponse response = execute( userId, password, post, function ) )
             {
-                case HTTP_OK :
-                    szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
-                    LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
-                    break;
-                case HTTP_401_UNAUTHORIZED :
-                    error = "post uri=[" + uri + "], function=[" + function
-                        + "], 401 function unauthorized on host";
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_UNAUTHORIZED_ERR, error );
-                case HTTP_403_FORBIDDEN :
-                    error = "post uri=[" + uri + "], function=[" + function
-                        + "], 403 function forbidden on host";
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_FORBIDDEN_ERR, error );
-                case HTTP_404_NOT_FOUND :
-                    error = "post uri=[" + uri + "], function=[" + function + "], 404 not found from host";
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
-                default :
-                    error = "post uri=[" + uri + "], function=[" + function
-                        + "], error received from host: " + response.getStatusLine().getStatusCode();
-                    LOG.error( error );
-                    throw new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error );
+                szResponse = IOUtils.toString( response.getEntity().getContent(), "UTF-8" );
+                LOG.debug( "post uri=[{}], function=[{}], response=[{}]", uri, function, szResponse );
             }
         }
         catch ( IOException ioe )
@@ -347,6 +433,135 @@ public final class RestUtils
         return post(null,null,szInput, function);
     }
 
+
+    /**
+     * Perform an HTTP Post REST operation.  The request is marshalled straight into the request body and the response is
+     * unmarshalled straight from the response body, without buffering either as a String.
+     *
+     * @param userId   optional, defaults to {@code http.user}.
+     * @param password optional, defaults to {@code http.pw}.
+     * @param request  contains the entity and context id of the operation.
+     * @param function name of the service, see {@link HttpIds}.
+     * @return response from fortress-rest.
+     * @throws RestException in the event the request could not be sent or the response could not be read.
+     */
+    public FortResponse post( String userId, String password, FortRequest request, String function ) throws RestException
+    {
+        if ( LOG.isDebugEnabled() )
+        {
+            LOG.debug( "post uri=[{}], function=[{}], request=[{}]", uri, function, marshal( request ) );
+        }
+        FortResponse fortResponse;
+        HttpPost post = new HttpPost( uri + function );
+        post.addHeader( "Accept", "text/xml" );
+        setMethodHeaders( post );
+        try
+        {
+            post.setEntity( new FortRequestEntity( request ) );
+            try ( CloseableHttpResponse response = execute( userId, password, post, function ) )
+            {
+                HttpEntity entity = response.getEntity();
+                try ( InputStream in = entity.getContent() )
+                {
+                    fortResponse = unmarshall( new StreamSource( in ) );
+                }
+                // Read to the end so the connection can be reused:
+                EntityUtils.consume( entity );
+            }
+        }
+        catch ( JAXBException je )
+        {
+            String error = "post uri=[" + uri + "], function=[" + function + "] unmarshall caught JAXBException=" + je;
+            LOG.error( error );
+            throw new RestException( GlobalErrIds.REST_UNMARSHALL_ERR, error, je );
+        }
+        catch ( IOException ioe )
+        {
+            String error = "post uri=[" + uri + "], function=[" + function + "] caught IOException=" + ioe;
+            LOG.error( error );
+            if ( ioe.getCause() instanceof JAXBException )
+            {
+                throw new RestException( GlobalErrIds.REST_MARSHALL_ERR, error, ( JAXBException ) ioe.getCause() );
+            }
+            throw new RestException( GlobalErrIds.REST_IO_ERR, error, ioe );
+        }
+        catch ( WebApplicationException we )
+        {
+            String error = "post uri=[" + uri + "], function=[" + function
+                + "] caught WebApplicationException=" + we;
+            LOG.error( error );
+            throw new RestException( GlobalErrIds.REST_WEB_ERR, error, we );
+        }
+        finally
+        {
+            // Release current connection to the connection pool.
+            post.releaseConnection();
+        }
+        return fortResponse;
+    }
+
+
+    /**
+     * Perform an HTTP Post REST operation using the configured credentials.
+     *
+     * @param request  contains the entity and context id of the operation.
+     * @param function name of the service, see {@link HttpIds}.
+     * @return response from fortress-rest.
+     * @throws RestException in the event the request could not be sent or the response could not be read.
+     */
+    public FortResponse post( FortRequest request, String function ) throws RestException
+    {
+        return post( null, null, request, function );
+    }
+
+
+    /**
+     * Send the request on the shared client and check the status of the response.
+     *
+     * @return response with status OK, the caller must close it.
+     */
+    private CloseableHttpResponse execute( String userId, String password, HttpPost post, String function )
+        throws IOException, RestException
+    {
+        CloseableHttpResponse response = httpClient.execute( post, getContext( userId, password ) );
+        int status = response.getStatusLine().getStatusCode();
+        if ( status == HTTP_OK )
+        {
+            return response;
+        }
+        try
+        {
+            EntityUtils.consume( response.getEntity() );
+        }
+        finally
+        {
+            response.close();
+        }
+        String error;
+        switch ( status )
+        {
+            case HTTP_401_UNAUTHORIZED :
+                error = "post uri=[" + uri + "], function=[" + function
+                    + "], 401 function unauthorized on host";
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_UNAUTHORIZED_ERR, error );
+            case HTTP_403_FORBIDDEN :
+                error = "post uri=[" + uri + "], function=[" + function
+                    + "], 403 function forbidden on host";
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_FORBIDDEN_ERR, error );
+            case HTTP_404_NOT_FOUND :
+                error = "post uri=[" + uri + "], function=[" + function + "], 404 not found from host";
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_NOT_FOUND_ERR, error );
+            default :
+                error = "post uri=[" + uri + "], function=[" + function
+                    + "], error received from host: " + status;
+                LOG.error( error );
+                throw new RestException( GlobalErrIds.REST_UNKNOWN_ERR, error );
+        }
+    }
+
     private CredentialsProvider getCredentialProvider(String uid, String password) {
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials( new AuthScope( httpHost,Integer.valueOf( httpPort )),
@@ -354,6 +569,26 @@ public final class RestUtils
         return credentialsProvider;
     }
 
+    /**
+     * Each request carries its own credentials.  Basic auth is sent up front to save the round trip of the challenge.
+     *
+     * @param uid      optional, defaults to {@code http.user}.
+     * @param password optional, defaults to {@code http.pw}.
+     * @return context for one request.
+     */
+    private HttpClientContext getContext( String uid, String password )
+    {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider( getCredentialProvider( uid, password ) );
+        if ( target != null )
+        {
+            AuthCache authCache = new BasicAuthCache();
+            authCache.put( target, new BasicScheme() );
+            context.setAuthCache( authCache );
+        }
+        return context;
+    }
+
     /**
      * Set these params into their associated HTTP header vars.
      *
@@ -393,12 +628,12 @@ public final class RestUtils
      * @return String containing response
      * @throws Exception
      */
-    private static String handleHttpMethod( HttpRequestBase httpGetRequest ,org.apache.http.client.HttpClient client ) throws RestException
+    private static String handleHttpMethod( HttpRequestBase httpGetRequest, CloseableHttpClient client,
+        HttpClientContext context ) throws RestException
     {
         String szResponse = null;
-        try
+        try ( CloseableHttpResponse response = client.execute( httpGetRequest, context ) )
         {
-            HttpResponse response = client.execute( httpGetRequest );
             LOG.debug( "handleHttpMethod Response status : {}", response.getStatusLine().getStatusCode() );
 
             Response.Status status = Response.Status.fromStatusCode( response.getStatusLine().getStatusCode() );
@@ -420,6 +655,8 @@ public final class RestUtils
             {
                 LOG.debug( "handleHttpMethod Unknown error" );
             }
+            // Read to the end so the connection can be reused:
+            EntityUtils.consume( response.getEntity() );
         }
         catch ( IOException ioe )
         {
@@ -482,4 +719,67 @@ public final class RestUtils
         }
         return props;
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Marshalls the request as it is written to the connection.  It can be written more than once, e.g. if the request is
+     * retried.
+     */
+    private static final class FortRequestEntity extends AbstractHttpEntity
+    {
+        private final FortRequest request;
+
+
+        private FortRequestEntity( FortRequest request )
+        {
+            this.request = request;
+            // JAXB writes UTF-8 unless told otherwise:
+            setContentType( ContentType.create( "text/xml", "UTF-8" ).toString() );
+            setChunked( true );
+        }
+
+
+        @Override
+        public boolean isRepeatable()
+        {
+            return true;
+        }
+
+
+        @Override
+        public long getContentLength()
+        {
+            return -1;
+        }
+
+
+        @Override
+        public InputStream getContent() throws IOException
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTo( out );
+            return new ByteArrayInputStream( out.toByteArray() );
+        }
+
+
+        @Override
+        public void writeTo( OutputStream out ) throws IOException
+        {
+            try
+            {
+                marshal( request, out );
+            }
+            catch ( JAXBException je )
+            {
+                throw new IOException( "marshal caught JAXBException=" + je, je );
+            }
+        }
+
+
+        @Override
+        public boolean isStreaming()
+        {
+            return false;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.TreeSet;
 
 import org.apache.directory.fortress.core.GlobalErrIds;
 import org.apache.directory.fortress.core.ReviewMgr;
+import org.apache.directory.fortress.core.SearchHandler;
 import org.apache.directory.fortress.core.SecurityException;
 import org.apache.directory.fortress.core.impl.Manageable;
 import org.apache.directory.fortress.core.model.FortRequest;
@@ -98,9 +99,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_READ);
         if (response.getErrorCode() == 0)
         {
             retPerm = (Permission) response.getEntity();
@@ -129,9 +128,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_READ);
         if (response.getErrorCode() == 0)
         {
             retObj = (PermObj) response.getEntity();
@@ -160,9 +157,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -175,6 +170,19 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public void findPermissions(Permission permission, SearchHandler<Permission> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(findPermissions(permission), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -191,9 +199,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -222,9 +228,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_SEARCH_ANY);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_SEARCH_ANY);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -253,9 +257,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retObjs = response.getEntities();
@@ -286,9 +288,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.OBJ_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.OBJ_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retObjs = response.getEntities();
@@ -317,9 +317,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_READ);
         if (response.getErrorCode() == 0)
         {
             retRole = (Role) response.getEntity();
@@ -348,9 +346,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getEntities();
@@ -380,9 +376,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retRoles = response.getValues();
@@ -411,9 +405,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_READ);
         if (response.getErrorCode() == 0)
         {
             retUser = (User) response.getEntity();
@@ -442,9 +434,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -457,6 +447,19 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * fortress-rest doesn't page its results, the entities are passed to the handler after the whole list has been returned.
+     */
+    @Override
+    public final void findUsers(User user, SearchHandler<User> handler)
+        throws SecurityException
+    {
+        RestUtils.handle(findUsers(user), handler);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -475,9 +478,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -507,9 +508,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_SEARCH);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_SEARCH);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -539,9 +538,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -574,9 +571,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -605,9 +600,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getEntities();
@@ -636,9 +629,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_ASGNED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_ASGNED);
         if (response.getErrorCode() == 0)
         {
             retUserRoles = response.getValues();
@@ -667,9 +658,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getEntities();
@@ -702,9 +691,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -747,9 +734,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -778,9 +763,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_PERM_ATTR_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_PERM_ATTR_SETS);
         if (response.getErrorCode() == 0)
         {
             retAttrSets = response.getEntities();
@@ -808,9 +791,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.USER_PERMS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.USER_PERMS);
         if (response.getErrorCode() == 0)
         {
             retPerms = response.getEntities();
@@ -839,9 +820,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_ROLES);
         if (response.getErrorCode() == 0)
         {
             retRoleNames = response.getValues();
@@ -870,9 +849,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_ROLES_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_ROLES_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -903,9 +880,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_USERS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_USERS);
         if (response.getErrorCode() == 0)
         {
             retUsers = response.getValues();
@@ -934,9 +909,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_USERS_AUTHZED);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_USERS_AUTHZED);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -967,9 +940,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_ROLE_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_ROLE_SETS);
         if (response.getErrorCode() == 0)
         {
             retSsdRoleSets = response.getEntities();
@@ -1002,9 +973,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_READ);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1032,9 +1001,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
          {
              request.setSession(adminSess);
          }
-         String szRequest = RestUtils.marshal(request);
-         String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_SETS);
-         FortResponse response = RestUtils.unmarshall(szResponse);
+         FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_SETS);
          if (response.getErrorCode() == 0)
          {
              retSsdSets = response.getEntities();
@@ -1067,9 +1034,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -1100,9 +1065,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.SSD_CARD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.SSD_CARD);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1131,9 +1094,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_ROLE_SETS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_ROLE_SETS);
         if (response.getErrorCode() == 0)
         {
             retDsdRoleSets = response.getEntities();
@@ -1166,9 +1127,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_READ);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_READ);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1196,9 +1155,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
          {
              request.setSession(adminSess);
          }
-         String szRequest = RestUtils.marshal(request);
-         String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_SETS);
-         FortResponse response = RestUtils.unmarshall(szResponse);
+         FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_SETS);
          if (response.getErrorCode() == 0)
          {
              retDsdSets = response.getEntities();
@@ -1231,9 +1188,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_ROLES);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_ROLES);
         if (response.getErrorCode() == 0)
         {
             Set<String> tempNames = response.getValueSet();
@@ -1264,9 +1219,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.DSD_CARD);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.DSD_CARD);
         if (response.getErrorCode() == 0)
         {
             retSet = (SDSet) response.getEntity();
@@ -1296,9 +1249,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
             {
                 request.setSession(adminSess);
             }
-            String szRequest = RestUtils.marshal(request);
-            String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.PERM_READ_PERM_ATTRIBUTE_SET);
-            FortResponse response = RestUtils.unmarshall(szResponse);
+            FortResponse response = RestUtils.getInstance().post(request, HttpIds.PERM_READ_PERM_ATTRIBUTE_SET);
             if (response.getErrorCode() == 0)
             {
                 retPermSet = (PermissionAttributeSet)response.getEntity();
@@ -1332,9 +1283,7 @@ public class ReviewMgrRestImpl extends Manageable implements ReviewMgr
         {
             request.setSession(adminSess);
         }
-        String szRequest = RestUtils.marshal(request);
-        String szResponse = RestUtils.getInstance().post(szRequest, HttpIds.ROLE_FIND_CONSTRAINTS);
-        FortResponse response = RestUtils.unmarshall(szResponse);
+        FortResponse response = RestUtils.getInstance().post(request, HttpIds.ROLE_FIND_CONSTRAINTS);
         if (response.getErrorCode() == 0)
         {
             retConstraints = response.getEntities();
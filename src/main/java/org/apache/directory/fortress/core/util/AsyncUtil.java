@@ -0,0 +1,143 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.SecurityException;
+
+
+/**
+ * Runs the asynchronous variants of the runtime APIs, e.g. {@link org.apache.directory.fortress.core.AccessMgr#checkAccessAsync},
+ * on a shared pool of daemon threads, so the caller's thread, e.g. the event loop of a non-blocking server, never waits
+ * on the directory.  Each call borrows its connection on a pool thread and returns it before its future is completed, so
+ * no connection is held between the time the result arrives and the time the caller gets to it.
+ * <p>
+ * The pool has {@code async.threads} threads, by default as many as there are admin connections, since a call can't
+ * proceed without one.  Calls made while they are all busy wait in the pool's queue, not on the caller's thread.  The queue
+ * holds at most {@code async.queue.size} calls, further calls are rejected rather than queued without limit, so a caller
+ * that outpaces the directory finds out instead of running the process out of memory.  These apis should not be called
+ * by outside programs.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class AsyncUtil
+{
+    private static final String ASYNC_THREADS = "async.threads";
+    private static final String ASYNC_QUEUE_SIZE = "async.queue.size";
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+
+    /**
+     * Private constructor
+     *
+     */
+    private AsyncUtil()
+    {
+    }
+
+
+    /**
+     * Run the task on the shared pool.
+     *
+     * @param task a call to one of the blocking runtime APIs.
+     * @param <T>  type of the result.
+     * @return stage that is completed with the result of the task, or exceptionally with the exception it threw, e.g.
+     * a {@link SecurityException}.  If the queue is full the stage is completed at once, exceptionally, with a
+     * SecurityException whose error id is {@link GlobalErrIds#FT_ASYNC_QUEUE_FULL}.
+     */
+    public static <T> CompletionStage<T> supplyAsync( final Callable<T> task )
+    {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try
+        {
+            Pool.EXECUTOR.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        future.complete( task.call() );
+                    }
+                    catch ( Throwable t )
+                    {
+                        future.completeExceptionally( t );
+                    }
+                }
+            } );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            String error = "supplyAsync rejected, the queue of [" + Pool.QUEUE_SIZE + "] calls is full";
+            future.completeExceptionally( new SecurityException( GlobalErrIds.FT_ASYNC_QUEUE_FULL, error, e ) );
+        }
+        return future;
+    }
+
+
+    /**
+     * The shared pool, created on first use.
+     */
+    private static final class Pool
+    {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+        private static final int QUEUE_SIZE;
+        private static final ThreadPoolExecutor EXECUTOR;
+
+        static
+        {
+            int threads = Math.max( 1, Config.getInstance().getInt( ASYNC_THREADS,
+                Config.getInstance().getInt( GlobalIds.LDAP_ADMIN_POOL_MAX, 10 ) ) );
+            QUEUE_SIZE = Math.max( 1, Config.getInstance().getInt( ASYNC_QUEUE_SIZE, DEFAULT_QUEUE_SIZE ) );
+            // The default abort policy, the caller's thread must not run the call, nor wait for room in the queue:
+            EXECUTOR = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>( QUEUE_SIZE ), new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread( Runnable runnable )
+                    {
+                        Thread thread = new Thread( runnable, "fortress-async-" + THREAD_COUNT.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+            EXECUTOR.allowCoreThreadTimeOut( true );
+        }
+
+
+        private Pool()
+        {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+/**
+ * Immutable value object contains the outcome of a single authorization check.  It is queued by checkAccess and
+ * passed, in batches, to the {@link AuthZAuditSink} in effect.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class AuthZAuditEvent
+{
+    private final String permDn;
+    private final String userDn;
+    private final String attributeValue;
+    private final long timestamp;
+
+
+    /**
+     * Create the event.  The timestamp is set to the current time.
+     *
+     * @param permDn         contains distinguished name of the permission object.
+     * @param userDn         contains the distinguished name of the user object.
+     * @param attributeValue contains the operation name, with failure indicator appended if the check did not succeed.
+     */
+    public AuthZAuditEvent( String permDn, String userDn, String attributeValue )
+    {
+        this.permDn = permDn;
+        this.userDn = userDn;
+        this.attributeValue = attributeValue;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+
+    /**
+     * Return the distinguished name of the permission that was checked.
+     *
+     * @return permission dn.
+     */
+    public String getPermDn()
+    {
+        return permDn;
+    }
+
+
+    /**
+     * Return the distinguished name of the user that was checked.
+     *
+     * @return user dn.
+     */
+    public String getUserDn()
+    {
+        return userDn;
+    }
+
+
+    /**
+     * Return the value that is asserted in the audit record.  This will be the operation name for authorization
+     * success or the operation name with {@link org.apache.directory.fortress.core.GlobalIds#FAILED_AUTHZ_INDICATOR} for failure.
+     *
+     * @return attribute value.
+     */
+    public String getAttributeValue()
+    {
+        return attributeValue;
+    }
+
+
+    /**
+     * Return the time, in milliseconds since epoch, the authorization check occurred.
+     *
+     * @return long containing timestamp.
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "AuthZAuditEvent{permDn='" + permDn + "', userDn='" + userDn + "', attributeValue='" + attributeValue
+            + "', timestamp=" + timestamp + '}';
+    }
+}
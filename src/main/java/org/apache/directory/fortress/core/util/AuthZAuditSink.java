@@ -0,0 +1,49 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.List;
+
+import org.apache.directory.fortress.core.SecurityException;
+
+
+/**
+ * This interface is implemented by destinations for authorization audit events when they are written asynchronously,
+ * i.e. {@code enable.audit.async=true}.  The default implementation performs ldap compares so that slapd's access log
+ * records the decision.  Other implementations may be declared with fortress config param {@code audit.async.sink}
+ * and must have a public default constructor.
+ * <p>
+ * Implementations are called from a single background thread.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public interface AuthZAuditSink
+{
+    /**
+     * Write a batch of authorization events.  An event that can't be written, e.g. its entry has since been removed, is
+     * skipped and the rest of the batch is still written.
+     *
+     * @param events contains one or more events in the order they occurred.
+     * @return number of events written, the rest are counted as dropped.
+     * @throws SecurityException in the event the batch could not be written.
+     */
+    int write( List<AuthZAuditEvent> events ) throws SecurityException;
+}
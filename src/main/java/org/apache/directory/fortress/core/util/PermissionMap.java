@@ -0,0 +1,159 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.directory.fortress.core.model.Permission;
+
+
+/**
+ * Map keyed by permission, in insertion order, that looks its keys up the way {@link Permission#equals(Object)} compares
+ * them, i.e. by object name, operation name and object id regardless of case.  {@link Permission#hashCode()} is case
+ * sensitive, and covers its other fields, so a {@link java.util.HashMap} would miss a permission that differs from its
+ * key only in case.  Returned by the bulk checkAccess methods, e.g. {@link org.apache.directory.fortress.core.AccessMgr#checkAccess(org.apache.directory.fortress.core.model.Session, java.util.List)}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <V> type of the values.
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class PermissionMap<V> extends AbstractMap<Permission, V>
+{
+    private final Map<String, SimpleEntry<Permission, V>> entries = new LinkedHashMap<>();
+
+
+    /**
+     * Return the key a permission is stored under.
+     *
+     * @param perm contains the object name, operation name and, optionally, the object id.
+     * @return upper case key.
+     */
+    public static String getKey( Permission perm )
+    {
+        StringBuilder key = new StringBuilder();
+        key.append( perm.getObjName() ).append( '\u0000' ).append( perm.getOpName() );
+        if ( perm.getObjId() != null && perm.getObjId().length() > 0 )
+        {
+            key.append( '\u0000' ).append( perm.getObjId() );
+        }
+        return key.toString().toUpperCase();
+    }
+
+
+    @Override
+    public V put( Permission key, V value )
+    {
+        String mapKey = getKey( key );
+        SimpleEntry<Permission, V> entry = entries.get( mapKey );
+        if ( entry == null )
+        {
+            entries.put( mapKey, new SimpleEntry<>( key, value ) );
+            return null;
+        }
+        return entry.setValue( value );
+    }
+
+
+    @Override
+    public V get( Object key )
+    {
+        SimpleEntry<Permission, V> entry = key instanceof Permission ? entries.get( getKey( ( Permission ) key ) ) : null;
+        return entry != null ? entry.getValue() : null;
+    }
+
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return key instanceof Permission && entries.containsKey( getKey( ( Permission ) key ) );
+    }
+
+
+    @Override
+    public V remove( Object key )
+    {
+        SimpleEntry<Permission, V> entry = key instanceof Permission ? entries.remove( getKey( ( Permission ) key ) ) : null;
+        return entry != null ? entry.getValue() : null;
+    }
+
+
+    @Override
+    public int size()
+    {
+        return entries.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        entries.clear();
+    }
+
+
+    @Override
+    public Set<Map.Entry<Permission, V>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<Permission, V>>()
+        {
+            @Override
+            public Iterator<Map.Entry<Permission, V>> iterator()
+            {
+                final Iterator<SimpleEntry<Permission, V>> it = entries.values().iterator();
+                return new Iterator<Map.Entry<Permission, V>>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return it.hasNext();
+                    }
+
+
+                    @Override
+                    public Map.Entry<Permission, V> next()
+                    {
+                        return it.next();
+                    }
+
+
+                    @Override
+                    public void remove()
+                    {
+                        it.remove();
+                    }
+                };
+            }
+
+
+            @Override
+            public int size()
+            {
+                return entries.size();
+            }
+        };
+    }
+}
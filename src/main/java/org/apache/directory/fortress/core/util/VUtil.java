@@ -583,9 +583,10 @@ public final class VUtil implements ConstraintValidator
             }
             return;
         }
+        // The time is taken once for all validators and entities:
+        Time currTime = TUtil.getCurrentTime();
         for ( Validator val : validators )
         {
-            Time currTime = TUtil.getCurrentTime();
             // first check the constraint on the user:
             if ( type == ConstraintType.USER && !session.isGroupSession() )
             {
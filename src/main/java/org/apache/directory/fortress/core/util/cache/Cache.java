@@ -41,6 +41,20 @@ public interface Cache
     Object get( Object key ) throws CacheException;
 
 
+    /**
+     * Given a key name, return the corresponding value without locking the key on a miss, for callers that look up many
+     * keys at once.  The default calls {@link #get(Object)}, implementations whose get locks on a miss must override it.
+     *
+     * @param key is the name used to store the entry.
+     * @return entry stored in the cache.
+     * @throws CacheException will wraps the implementation's exception.
+     */
+    default Object getQuiet( Object key ) throws CacheException
+    {
+        return get( key );
+    }
+
+
     /**
      * Add a new entry to the cache.
      *
@@ -61,6 +75,18 @@ public interface Cache
     boolean clear( Object key ) throws CacheException;
 
 
+    /**
+     * Record that the value of an entry has been changed in place, e.g. a hierarchy graph after an edge was added, for caches
+     * that are sized by the contents of their values.  The default does nothing, for caches limited by their number of entries.
+     *
+     * @param key name that entry is stored as.
+     * @throws CacheException will wraps the implementation's exception.
+     */
+    default void changed( Object key ) throws CacheException
+    {
+    }
+
+
     /**
      * Remove all entries from the cache.
      *
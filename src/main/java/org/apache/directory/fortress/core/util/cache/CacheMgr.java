@@ -19,10 +19,19 @@
  */
 package org.apache.directory.fortress.core.util.cache;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.constructs.blocking.BlockingCache;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.directory.fortress.core.CfgException;
 import org.apache.directory.fortress.core.CfgRuntimeException;
 import org.apache.directory.fortress.core.GlobalErrIds;
@@ -35,6 +44,11 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is a facade and shields internal Fortress objects from specifics of the actual
  * cache implementation that is in use.
+ * <p>
+ * When {@code enable.tenant.cache=true}, the caches that hold one or a few entries per tenant, listed in
+ * {@code tenant.cache.names}, share a pool weighed by the size of their entries rather than each holding a fixed
+ * number of them, see {@link TenantCachePool}.  The pool holds {@code tenant.cache.max.weight} and evicts by
+ * {@code tenant.cache.eviction}, LRU or LFU, across tenants, except for those listed in {@code tenant.cache.pinned}.
  *
  * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
  */
@@ -42,7 +56,18 @@ public final class CacheMgr
 {
     private static final Logger LOG = LoggerFactory.getLogger( CacheMgr.class.getName() );
     private static final String EHCACHE_CONFIG_FILE = "ehcache.config.file";
+    private static final String ENABLE_TENANT_CACHE = "enable.tenant.cache";
+    private static final String TENANT_CACHE_NAMES = "tenant.cache.names";
+    private static final String TENANT_CACHE_MAX_WEIGHT = "tenant.cache.max.weight";
+    private static final String TENANT_CACHE_EVICTION = "tenant.cache.eviction";
+    private static final String TENANT_CACHE_PINNED = "tenant.cache.pinned";
+    private static final String DEFAULT_TENANT_CACHE_NAMES =
+        "fortress.roles,fortress.admin.roles,fortress.uso,fortress.pso,fortress.policies,fortress.ous";
+    private static final int DEFAULT_TENANT_CACHE_MAX_WEIGHT = 1000000;
     private CacheManager mEhCacheImpl;
+    // Null unless enabled:
+    private TenantCachePool tenantPool;
+    private Set<String> tenantCacheNames = Collections.emptySet();
     
     private static volatile CacheMgr sINSTANCE = null;
     
@@ -83,6 +108,35 @@ public final class CacheMgr
             LOG.error( "CfgException caught in static initializer=" + ce.getMessage());
             throw new CfgRuntimeException( GlobalErrIds.FT_CACHE_NOT_CONFIGURED, cacheConfig, ce );
         }
+        if ( Config.getInstance().getBoolean( ENABLE_TENANT_CACHE, false ) )
+        {
+            tenantCacheNames = new HashSet<>( split( Config.getInstance().getProperty( TENANT_CACHE_NAMES,
+                DEFAULT_TENANT_CACHE_NAMES ) ) );
+            String eviction = Config.getInstance().getProperty( TENANT_CACHE_EVICTION,
+                TenantCachePool.Eviction.LRU.name() );
+            tenantPool = new TenantCachePool( Config.getInstance().getInt( TENANT_CACHE_MAX_WEIGHT,
+                DEFAULT_TENANT_CACHE_MAX_WEIGHT ), TenantCachePool.Eviction.valueOf( eviction.trim().toUpperCase() ),
+                split( Config.getInstance().getProperty( TENANT_CACHE_PINNED ) ) );
+            LOG.info( "init tenant aware caches {}, eviction {}", tenantCacheNames, eviction );
+        }
+    }
+
+
+    private static List<String> split( String values )
+    {
+        List<String> result = new ArrayList<>();
+        if ( StringUtils.isNotEmpty( values ) )
+        {
+            for ( String value : values.split( "," ) )
+            {
+                value = value.trim();
+                if ( value.length() > 0 )
+                {
+                    result.add( value );
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -103,7 +157,18 @@ public final class CacheMgr
     public Cache getCache( String cacheName )
     {    	
         Ehcache cache = mEhCacheImpl.getEhcache( cacheName );
-        if(cache != null)
+        if ( tenantPool != null && tenantCacheNames.contains( cacheName ) )
+        {
+            if ( cache == null )
+            {
+                String error = "getCache cache: " + cacheName + " is null";
+                throw new CfgRuntimeException( GlobalErrIds.FT_CACHE_NOT_CONFIGURED, error );
+            }
+            // The ehcache region is left empty, only its time to live applies:
+            CacheConfiguration config = cache.getCacheConfiguration();
+            return new TenantCacheImpl( cacheName, tenantPool, config.isEternal() ? 0 : config.getTimeToLiveSeconds() );
+        }
+        else if(cache != null)
         {
     	    return new EhCacheImpl( cacheName, new BlockingCache(cache) );
         }
@@ -120,5 +185,62 @@ public final class CacheMgr
     public void clearAll()
     {
         mEhCacheImpl.clearAll();
+        if ( tenantPool != null )
+        {
+            tenantPool.flush( null );
+        }
+    }
+
+
+    /**
+     * Return the counts of a tenant's entries in the tenant aware caches.
+     *
+     * @param contextId of the tenant, null or empty for the default one.
+     * @return the tenant's hits, misses, evictions and weight, or null if the tenant aware caches aren't enabled or
+     * haven't been used by the tenant.
+     */
+    public TenantCacheStats getTenantStats( String contextId )
+    {
+        return tenantPool != null ? tenantPool.getStats( contextId ) : null;
+    }
+
+
+    /**
+     * Return the counts of every tenant's entries in the tenant aware caches.
+     *
+     * @return stats keyed by contextId, HOME for the default tenant, empty if the tenant aware caches aren't enabled.
+     */
+    public Map<String, TenantCacheStats> getTenantStats()
+    {
+        return tenantPool != null ? tenantPool.getStats() : Collections.<String, TenantCacheStats>emptyMap();
+    }
+
+
+    /**
+     * Stop a tenant's entries in the tenant aware caches from being evicted, as {@code tenant.cache.pinned} does.  They
+     * still expire.  Has no effect if the tenant aware caches aren't enabled.
+     *
+     * @param contextId of the tenant, null or empty for the default one.
+     */
+    public void pinTenant( String contextId )
+    {
+        if ( tenantPool != null )
+        {
+            tenantPool.pin( contextId );
+        }
+    }
+
+
+    /**
+     * Let a pinned tenant's entries in the tenant aware caches be evicted again.
+     *
+     * @param contextId of the tenant, null or empty for the default one.
+     */
+    public void unpinTenant( String contextId )
+    {
+        if ( tenantPool != null )
+        {
+            tenantPool.unpin( contextId );
+        }
     }
 }
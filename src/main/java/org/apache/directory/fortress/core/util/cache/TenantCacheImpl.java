@@ -0,0 +1,146 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import net.sf.ehcache.search.Attribute;
+import net.sf.ehcache.search.Query;
+
+import org.apache.directory.fortress.core.GlobalErrIds;
+
+
+/**
+ * A cache whose entries, one or a few per tenant, are held in the {@link TenantCachePool} shared with the other tenant
+ * aware caches, rather than in an ehcache region limited to a fixed number of elements.  The time to live of the entries
+ * is still that of the cache in ehcache.xml.  Returned by {@link CacheMgr#getCache(String)} for the caches listed in
+ * {@code tenant.cache.names} when {@code enable.tenant.cache=true}.
+ * <p>
+ * These caches can't be searched.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+class TenantCacheImpl implements Cache
+{
+    private final String name;
+    private final TenantCachePool pool;
+    private final long ttlSeconds;
+
+
+    /**
+     * Create a cache backed by the shared pool.
+     *
+     * @param name       of the cache.
+     * @param pool       holds the entries of every tenant aware cache.
+     * @param ttlSeconds time the entries live for, 0 if they don't expire.
+     */
+    TenantCacheImpl( String name, TenantCachePool pool, long ttlSeconds )
+    {
+        this.name = name;
+        this.pool = pool;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+
+    /**
+     * Given a key name, return the corresponding value.
+     *
+     * @param key is the name used to store the entry, i.e. type[:contextId].
+     * @return entry stored in the cache.
+     */
+    @Override
+    public Object get( Object key ) throws CacheException
+    {
+        return pool.get( name, key );
+    }
+
+
+    /**
+     * Add a new entry to the cache, which may evict the entries of other tenants.
+     *
+     * @param key name to be used for the entry, i.e. type[:contextId].
+     * @param value object that is stored.
+     */
+    @Override
+    public void put( Object key, Object value ) throws CacheException
+    {
+        pool.put( name, key, value, ttlSeconds );
+    }
+
+
+    /**
+     * Clear a cache entry for a given name.
+     *
+     * @param key name that entry is stored as.
+     * @return boolean value will be false if entry not found and true if entry was found and removed.
+     */
+    @Override
+    public boolean clear( Object key ) throws CacheException
+    {
+        return pool.remove( name, key );
+    }
+
+
+    /**
+     * Re-weigh an entry whose value has been changed in place, against the capacity of the pool.
+     *
+     * @param key name that entry is stored as.
+     */
+    @Override
+    public void changed( Object key ) throws CacheException
+    {
+        pool.changed( name, key );
+    }
+
+
+    /**
+     * Remove all entries of this cache, those of the other tenant aware caches are kept.
+     */
+    @Override
+    public void flush() throws CacheException
+    {
+        pool.flush( name );
+    }
+
+
+    /**
+     * Not supported.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public <T> Attribute<T> getSearchAttribute( String attributeName ) throws CacheException
+    {
+        String error = "getSearchAttribute cache name [" + name + "] is tenant aware and can't be searched";
+        throw new CacheException( GlobalErrIds.FT_CACHE_NOT_SEARCHABLE, error );
+    }
+
+
+    /**
+     * Not supported.
+     *
+     * @throws CacheException always.
+     */
+    @Override
+    public Query createQuery()
+    {
+        String error = "createQuery cache name [" + name + "] is tenant aware and can't be searched";
+        throw new CacheException( GlobalErrIds.FT_CACHE_NOT_SEARCHABLE, error );
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.jgrapht.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Memory shared by the caches whose entries belong to one tenant each, e.g. the hierarchy graphs, the password policies
+ * and the ous, see {@link TenantCacheImpl}.  Rather than each cache holding a fixed number of elements, the entries of all
+ * of them are weighed, a graph by its vertex and edge counts and a set by its size, and compete for one budget.  When the
+ * budget is exceeded the least recently, or least frequently, used entries are evicted, whichever cache and tenant they
+ * belong to, until a tenth of the budget is free, so the entries are scanned once per batch rather than on every put.
+ * The entries of a pinned tenant are never evicted.  A value changed in place, e.g. a graph after an edge was added, is
+ * weighed again when {@link #changed(String, Object)} is called.
+ * <p>
+ * The tenant of an entry is the contextId its key ends with, as in {@code ROLE:acme123}, or {@link GlobalIds#HOME} if the
+ * key has none.  Hits, misses, evictions and the weight held are counted per tenant, see {@link TenantCacheStats}.
+ * <p>
+ * Reads don't lock.  Puts, removals and evictions are serialized, which is cheap next to the directory reads that fill
+ * the entries.  The recency and frequency of use are approximate under concurrent reads.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+final class TenantCachePool
+{
+    private static final Logger LOG = LoggerFactory.getLogger( TenantCachePool.class.getName() );
+    // The part of the budget freed by each round of eviction, in percent:
+    private static final int EVICT_PERCENT = 10;
+
+    /**
+     * How entries are chosen for eviction.
+     */
+    enum Eviction
+    {
+        /** Least recently used first. */
+        LRU,
+        /** Least frequently used first, the least recently used of those used as often. */
+        LFU
+    }
+
+    private final long maxWeight;
+    private final Eviction eviction;
+    private final Set<String> pinned = Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<>();
+    // Logical clock that orders the uses of the entries:
+    private final AtomicLong clock = new AtomicLong();
+    // Guarded by this:
+    private long weight;
+
+
+    /**
+     * @param maxWeight budget shared by the entries of every tenant, see {@link #weigh(Object)}.
+     * @param eviction  policy applied once the budget is exceeded.
+     * @param pinned    contextIds of the tenants whose entries are never evicted, may be null.
+     */
+    TenantCachePool( long maxWeight, Eviction eviction, Collection<String> pinned )
+    {
+        this.maxWeight = maxWeight;
+        this.eviction = eviction;
+        if ( pinned != null )
+        {
+            for ( String contextId : pinned )
+            {
+                pin( contextId );
+            }
+        }
+    }
+
+
+    /**
+     * Return an entry of a cache, if it is present and hasn't expired.
+     *
+     * @param cacheName of the cache the entry belongs to.
+     * @param key       of the entry, i.e. type[:contextId].
+     * @return value stored, or null if there is none.
+     */
+    Object get( String cacheName, Object key )
+    {
+        Key entryKey = new Key( cacheName, key );
+        Entry entry = entries.get( entryKey );
+        if ( entry != null && entry.expires < System.currentTimeMillis() )
+        {
+            remove( entryKey, entry, false );
+            entry = null;
+        }
+        Region region = getRegion( entry != null ? entry.tenant : getTenant( key ) );
+        if ( entry == null )
+        {
+            region.misses.incrementAndGet();
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        entry.uses++;
+        region.hits.incrementAndGet();
+        return entry.value;
+    }
+
+
+    /**
+     * Add an entry to a cache, replacing the previous one, and evict others if the budget is exceeded.
+     *
+     * @param cacheName  of the cache the entry belongs to.
+     * @param key        of the entry, i.e. type[:contextId].
+     * @param value      to be stored.
+     * @param ttlSeconds time the entry lives for, 0 if it doesn't expire.
+     */
+    void put( String cacheName, Object key, Object value, long ttlSeconds )
+    {
+        Key entryKey = new Key( cacheName, key );
+        long expires = ttlSeconds > 0 ? System.currentTimeMillis() + ttlSeconds * 1000 : Long.MAX_VALUE;
+        Entry entry = new Entry( getTenant( key ), value, weigh( value ), expires, clock.incrementAndGet() );
+        synchronized ( this )
+        {
+            Entry old = entries.put( entryKey, entry );
+            if ( old != null )
+            {
+                release( old );
+            }
+            Region region = getRegion( entry.tenant );
+            region.weight += entry.weight;
+            region.size++;
+            weight += entry.weight;
+            if ( weight > maxWeight )
+            {
+                evict( entryKey );
+            }
+        }
+    }
+
+
+    /**
+     * Weigh an entry again after its value has been changed in place, and evict others if the budget is now exceeded.
+     * Nothing is done if the entry isn't present.
+     *
+     * @param cacheName of the cache the entry belongs to.
+     * @param key       of the entry, i.e. type[:contextId].
+     */
+    synchronized void changed( String cacheName, Object key )
+    {
+        Key entryKey = new Key( cacheName, key );
+        Entry entry = entries.get( entryKey );
+        if ( entry == null )
+        {
+            return;
+        }
+        int newWeight = weigh( entry.value );
+        long delta = newWeight - entry.weight;
+        entry.weight = newWeight;
+        getRegion( entry.tenant ).weight += delta;
+        weight += delta;
+        if ( weight > maxWeight )
+        {
+            evict( entryKey );
+        }
+    }
+
+
+    /**
+     * Remove an entry of a cache.
+     *
+     * @param cacheName of the cache the entry belongs to.
+     * @param key       of the entry.
+     * @return true if the entry was present.
+     */
+    boolean remove( String cacheName, Object key )
+    {
+        Key entryKey = new Key( cacheName, key );
+        Entry entry = entries.get( entryKey );
+        return entry != null && remove( entryKey, entry, false );
+    }
+
+
+    /**
+     * Remove every entry of a cache, or of all of them.
+     *
+     * @param cacheName of the cache to be emptied, or null for all.
+     */
+    synchronized void flush( String cacheName )
+    {
+        for ( Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); )
+        {
+            Map.Entry<Key, Entry> mapEntry = it.next();
+            if ( cacheName == null || cacheName.equals( mapEntry.getKey().cacheName ) )
+            {
+                it.remove();
+                release( mapEntry.getValue() );
+            }
+        }
+    }
+
+
+    /**
+     * Stop the entries of a tenant from being evicted, they still expire.
+     *
+     * @param contextId of the tenant, null or empty for the default one.
+     */
+    void pin( String contextId )
+    {
+        pinned.add( toTenant( contextId ) );
+    }
+
+
+    /**
+     * Let the entries of a tenant be evicted again.
+     *
+     * @param contextId of the tenant, null or empty for the default one.
+     */
+    void unpin( String contextId )
+    {
+        pinned.remove( toTenant( contextId ) );
+    }
+
+
+    /**
+     * @param contextId of the tenant, null or empty for the default one.
+     * @return the tenant's counts, or null if its entries have never been read or written.
+     */
+    TenantCacheStats getStats( String contextId )
+    {
+        String tenant = toTenant( contextId );
+        Region region = regions.get( tenant );
+        return region != null ? region.getStats( tenant ) : null;
+    }
+
+
+    /**
+     * @return the counts of every tenant whose entries have been read or written, keyed by contextId.
+     */
+    Map<String, TenantCacheStats> getStats()
+    {
+        Map<String, TenantCacheStats> stats = new HashMap<>();
+        for ( Map.Entry<String, Region> region : regions.entrySet() )
+        {
+            stats.put( region.getKey(), region.getValue().getStats( region.getKey() ) );
+        }
+        return stats;
+    }
+
+
+    /**
+     * @return weight of all of the entries held.
+     */
+    synchronized long getWeight()
+    {
+        return weight;
+    }
+
+
+    /**
+     * Weigh a value by the number of items it holds.
+     *
+     * @param value stored in a cache.
+     * @return vertices plus edges of a graph, size of a collection or map, or 1 for anything else and at least 1.
+     */
+    static int weigh( Object value )
+    {
+        int result = 1;
+        if ( value instanceof Graph )
+        {
+            Graph<?, ?> graph = ( Graph<?, ?> ) value;
+            result = graph.vertexSet().size() + graph.edgeSet().size();
+        }
+        else if ( value instanceof Collection )
+        {
+            result = ( ( Collection<?> ) value ).size();
+        }
+        else if ( value instanceof Map )
+        {
+            result = ( ( Map<?, ?> ) value ).size();
+        }
+        return Math.max( result, 1 );
+    }
+
+
+    /**
+     * @param key of an entry, i.e. type[:contextId].
+     * @return the contextId, or {@link GlobalIds#HOME} if the key has none.
+     */
+    static String getTenant( Object key )
+    {
+        String name = String.valueOf( key );
+        int index = name.indexOf( ':' );
+        return toTenant( index >= 0 ? name.substring( index + 1 ) : null );
+    }
+
+
+    private static String toTenant( String contextId )
+    {
+        return contextId == null || contextId.isEmpty() || contextId.equalsIgnoreCase( GlobalIds.NULL ) ? GlobalIds.HOME
+            : contextId;
+    }
+
+
+    private Region getRegion( String tenant )
+    {
+        Region region = regions.get( tenant );
+        if ( region == null )
+        {
+            Region created = new Region();
+            region = regions.putIfAbsent( tenant, created );
+            if ( region == null )
+            {
+                region = created;
+            }
+        }
+        return region;
+    }
+
+
+    private synchronized boolean remove( Key entryKey, Entry entry, boolean evicted )
+    {
+        if ( !entries.remove( entryKey, entry ) )
+        {
+            return false;
+        }
+        release( entry );
+        if ( evicted )
+        {
+            getRegion( entry.tenant ).evictions.incrementAndGet();
+        }
+        return true;
+    }
+
+
+    /**
+     * Must be called while holding the lock, after the entry has been removed from the map.
+     */
+    private void release( Entry entry )
+    {
+        Region region = getRegion( entry.tenant );
+        region.weight -= entry.weight;
+        region.size--;
+        weight -= entry.weight;
+    }
+
+
+    /**
+     * Evict entries, those expired first and then in order of the policy, until the weight is {@link #EVICT_PERCENT} below
+     * the budget.  Must be called while holding the lock.
+     *
+     * @param added key of the entry just added, which is evicted last.
+     */
+    private void evict( Key added )
+    {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Key, Entry>> candidates = new ArrayList<>();
+        for ( Map.Entry<Key, Entry> mapEntry : entries.entrySet() )
+        {
+            Entry entry = mapEntry.getValue();
+            if ( entry.expires < now )
+            {
+                remove( mapEntry.getKey(), entry, false );
+            }
+            else if ( !pinned.contains( entry.tenant ) && !mapEntry.getKey().equals( added ) )
+            {
+                candidates.add( mapEntry );
+            }
+        }
+        Collections.sort( candidates, new Comparator<Map.Entry<Key, Entry>>()
+        {
+            @Override
+            public int compare( Map.Entry<Key, Entry> left, Map.Entry<Key, Entry> right )
+            {
+                Entry e1 = left.getValue();
+                Entry e2 = right.getValue();
+                if ( eviction == Eviction.LFU && e1.uses != e2.uses )
+                {
+                    return e1.uses < e2.uses ? -1 : 1;
+                }
+                return Long.compare( e1.lastUsed, e2.lastUsed );
+            }
+        } );
+        long target = maxWeight - maxWeight * EVICT_PERCENT / 100;
+        for ( int i = 0; i < candidates.size() && weight > target; i++ )
+        {
+            remove( candidates.get( i ).getKey(), candidates.get( i ).getValue(), true );
+        }
+        if ( weight > maxWeight )
+        {
+            LOG.debug( "evict weight [{}] exceeds max [{}], the rest is pinned or the entry just added", weight, maxWeight );
+        }
+    }
+
+
+    /**
+     * Identifies an entry of one cache.
+     */
+    private static final class Key
+    {
+        private final String cacheName;
+        private final Object key;
+
+
+        private Key( String cacheName, Object key )
+        {
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( !( o instanceof Key ) )
+            {
+                return false;
+            }
+            Key other = ( Key ) o;
+            return cacheName.equals( other.cacheName ) && key.equals( other.key );
+        }
+
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * cacheName.hashCode() + key.hashCode();
+        }
+    }
+
+
+    private static final class Entry
+    {
+        private final String tenant;
+        private final Object value;
+        // Guarded by the pool's lock:
+        private int weight;
+        private final long expires;
+        private volatile long lastUsed;
+        private volatile int uses;
+
+
+        private Entry( String tenant, Object value, int weight, long expires, long lastUsed )
+        {
+            this.tenant = tenant;
+            this.value = value;
+            this.weight = weight;
+            this.expires = expires;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+
+    /**
+     * The counts of one tenant.  Weight and size are guarded by the pool's lock.
+     */
+    private final class Region
+    {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private long weight;
+        private int size;
+
+
+        private TenantCacheStats getStats( String tenant )
+        {
+            synchronized ( TenantCachePool.this )
+            {
+                return new TenantCacheStats( tenant, hits.get(), misses.get(), evictions.get(), size, weight,
+                    pinned.contains( tenant ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+
+/**
+ * The counts of one tenant's entries in the tenant aware caches, as of the time it was taken, see
+ * {@link CacheMgr#getTenantStats(String)}.  Hits, misses and evictions are counted from process start, or from when the
+ * tenant was first used, across all of the tenant aware caches.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class TenantCacheStats
+{
+    private final String contextId;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final long weight;
+    private final boolean pinned;
+
+
+    TenantCacheStats( String contextId, long hits, long misses, long evictions, int size, long weight, boolean pinned )
+    {
+        this.contextId = contextId;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.weight = weight;
+        this.pinned = pinned;
+    }
+
+
+    /**
+     * @return contextId of the tenant, HOME for the default one.
+     */
+    public String getContextId()
+    {
+        return contextId;
+    }
+
+
+    /**
+     * @return number of reads that found an entry.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+
+    /**
+     * @return number of reads that found none, which are then loaded from the directory.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+
+    /**
+     * @return number of entries evicted to make room for others, expired entries aren't counted.
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+
+    /**
+     * @return number of entries held.
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return weight of the entries held, i.e. vertices plus edges of the graphs and sizes of the sets.
+     */
+    public long getWeight()
+    {
+        return weight;
+    }
+
+
+    /**
+     * @return true if the tenant's entries aren't evicted.
+     */
+    public boolean isPinned()
+    {
+        return pinned;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "TenantCacheStats{contextId=" + contextId + ", hits=" + hits + ", misses=" + misses + ", evictions="
+            + evictions + ", size=" + size + ", weight=" + weight + ", pinned=" + pinned + "}";
+    }
+}
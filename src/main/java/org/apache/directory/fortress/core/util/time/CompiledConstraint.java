@@ -0,0 +1,193 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.time;
+
+
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.Constraint;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+
+
+/**
+ * The temporal constraints of an entity parsed into ints, so that the validators, e.g. {@link Date} and {@link ClockTime},
+ * compare numbers rather than parse the {@link Constraint} strings each time an entity is activated.  Users and their
+ * roles hold on to theirs, see {@link User#getCompiledConstraint()} and {@link UserRole#getCompiledConstraint()}, so the
+ * strings are parsed once per entity rather than once per validation.
+ * <p>
+ * The outcome of each check is that of the string comparison it replaces.  A value that isn't a number, which fortress
+ * wouldn't have stored, fails its check.
+ * <p>
+ * This class is immutable and thread safe.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public final class CompiledConstraint
+{
+    // Every day of week, each is a bit from 1 through 7:
+    private static final int ALL_DAYS = ~0;
+
+    // yyyyMMdd, the range is open ended where not set:
+    private final int beginDate;
+    private final int endDate;
+    private final boolean isLockSet;
+    private final int beginLockDate;
+    private final int endLockDate;
+    private final boolean isTimeSet;
+    // HHmm:
+    private final int beginTime;
+    private final int endTime;
+    private final int dayMask;
+
+
+    private CompiledConstraint( Constraint constraint )
+    {
+        String szBeginDate = constraint.getBeginDate();
+        String szEndDate = constraint.getEndDate();
+        beginDate = isNone( szBeginDate ) ? Integer.MIN_VALUE : parse( szBeginDate, Integer.MAX_VALUE );
+        endDate = isNone( szEndDate ) ? Integer.MAX_VALUE : parse( szEndDate, Integer.MIN_VALUE );
+
+        // The lock only applies if both of its dates are set, one that can't be parsed locks the entity:
+        isLockSet = !isNone( constraint.getBeginLockDate() ) && !isNone( constraint.getEndLockDate() );
+        beginLockDate = isLockSet ? parse( constraint.getBeginLockDate(), Integer.MIN_VALUE ) : 0;
+        endLockDate = isLockSet ? parse( constraint.getEndLockDate(), Integer.MAX_VALUE ) : 0;
+
+        isTimeSet = !isNone( constraint.getBeginTime() );
+        beginTime = isTimeSet ? parse( constraint.getBeginTime(), Integer.MAX_VALUE ) : 0;
+        endTime = isTimeSet ? parse( constraint.getEndTime(), Integer.MIN_VALUE ) : 0;
+
+        String szDayMask = constraint.getDayMask();
+        if ( szDayMask == null || szDayMask.compareToIgnoreCase( GlobalIds.ALL ) == 0 )
+        {
+            dayMask = ALL_DAYS;
+        }
+        else
+        {
+            int mask = 0;
+            for ( int i = 0; i < szDayMask.length(); i++ )
+            {
+                char day = szDayMask.charAt( i );
+                if ( day >= '1' && day <= '7' )
+                {
+                    mask |= 1 << ( day - '0' );
+                }
+            }
+            dayMask = mask;
+        }
+    }
+
+
+    /**
+     * Parse the temporal constraints of an entity.
+     *
+     * @param constraint contains the constraint strings.
+     * @return new instance.
+     */
+    public static CompiledConstraint compile( Constraint constraint )
+    {
+        return new CompiledConstraint( constraint );
+    }
+
+
+    /**
+     * Return the parsed constraints of an entity, those held by users and their roles or else newly parsed.
+     *
+     * @param constraint contains the constraint strings.
+     * @return parsed constraints.
+     */
+    public static CompiledConstraint of( Constraint constraint )
+    {
+        if ( constraint instanceof UserRole )
+        {
+            return ( ( UserRole ) constraint ).getCompiledConstraint();
+        }
+        else if ( constraint instanceof User )
+        {
+            return ( ( User ) constraint ).getCompiledConstraint();
+        }
+        return compile( constraint );
+    }
+
+
+    /**
+     * @param date today as yyyyMMdd, see {@link Time#dateValue}.
+     * @return true if today is within the begin and end dates, those not set don't limit the range.
+     */
+    public boolean isDateValid( int date )
+    {
+        return beginDate <= date && date <= endDate;
+    }
+
+
+    /**
+     * @param date today as yyyyMMdd, see {@link Time#dateValue}.
+     * @return true if both lock dates are set and today is within them.
+     */
+    public boolean isLocked( int date )
+    {
+        return isLockSet && beginLockDate <= date && date <= endLockDate;
+    }
+
+
+    /**
+     * @param time current time of day as HHmm, see {@link Time#currentTime}.
+     * @return true if the begin time isn't set, both times are 0000, or the time of day is within them.
+     */
+    public boolean isTimeValid( int time )
+    {
+        return !isTimeSet || ( beginTime == 0 && endTime == 0 ) || ( beginTime <= time && time <= endTime );
+    }
+
+
+    /**
+     * @param dayOfWeek 1 for Sunday through 7 for Saturday, see {@link Time#dayOfWeek}.
+     * @return true if the day mask isn't set, is 'all' or contains the day.
+     */
+    public boolean isDayValid( int dayOfWeek )
+    {
+        return ( dayMask & ( 1 << dayOfWeek ) ) != 0;
+    }
+
+
+    private static boolean isNone( String value )
+    {
+        return value == null || value.compareToIgnoreCase( GlobalIds.NONE ) == 0;
+    }
+
+
+    private static int parse( String value, int invalid )
+    {
+        if ( value == null || value.isEmpty() )
+        {
+            return invalid;
+        }
+        int result = 0;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char digit = value.charAt( i );
+            if ( digit < '0' || digit > '9' || i > 8 )
+            {
+                return invalid;
+            }
+            result = result * 10 + ( digit - '0' );
+        }
+        return result;
+    }
+}
@@ -20,7 +20,6 @@
 package org.apache.directory.fortress.core.util.time;
 
 import org.apache.directory.fortress.core.GlobalErrIds;
-import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.model.Constraint;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.util.VUtil;
@@ -56,19 +55,8 @@ public class Day
     @Override
     public int validate(Session session, Constraint constraint, Time time, VUtil.ConstraintType type )
     {
-        int rc = GlobalErrIds.ACTV_FAILED_DAY;
-        if (constraint.getDayMask() == null || constraint.getDayMask().compareToIgnoreCase(GlobalIds.ALL) == 0)
-        {
-            rc = 0;
-        }
-        else
-        {
-            if (constraint.getDayMask().contains(time.day))
-            {
-                rc = 0;
-            }
-        }
-        return rc;
+        CompiledConstraint compiled = CompiledConstraint.of( constraint );
+        return compiled.isDayValid( time.dayOfWeek ) ? 0 : GlobalErrIds.ACTV_FAILED_DAY;
     }
 }
 
@@ -21,7 +21,6 @@ package org.apache.directory.fortress.core.util.time;
 
 
 import org.apache.directory.fortress.core.GlobalErrIds;
-import org.apache.directory.fortress.core.GlobalIds;
 import org.apache.directory.fortress.core.model.Constraint;
 import org.apache.directory.fortress.core.model.Session;
 import org.apache.directory.fortress.core.util.VUtil;
@@ -61,24 +60,9 @@ public class LockDate
     @Override
     public int validate(Session session, Constraint constraint, Time time, VUtil.ConstraintType type )
     {
-        int rc = GlobalErrIds.ACTV_FAILED_LOCK;
-
         // if either beginLockDate or endLockDate equal to null or 'none', validation will automatically pass.
-        if ( constraint.getBeginLockDate() == null || constraint.getBeginLockDate().compareToIgnoreCase(GlobalIds.NONE) == 0
-          || constraint.getEndLockDate() == null || constraint.getEndLockDate().compareToIgnoreCase(GlobalIds.NONE) == 0)
-        {
-            rc = 0;
-        }
-        else
-        {
-            // Does current date fall inside lock date?
-            if (!(constraint.getBeginLockDate().compareTo(time.date) <= 0
-                && constraint.getEndLockDate().compareTo(time.date) >= 0))
-            {
-                rc = 0;
-            }
-        }
-        return rc;
+        CompiledConstraint compiled = CompiledConstraint.of( constraint );
+        return compiled.isLocked( time.dateValue ) ? GlobalErrIds.ACTV_FAILED_LOCK : 0;
     }
 }
 
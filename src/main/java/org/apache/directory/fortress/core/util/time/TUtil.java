@@ -23,7 +23,7 @@ package org.apache.directory.fortress.core.util.time;
 import org.apache.directory.api.util.DateUtils;
 
 import java.text.ParseException;
-import java.util.*;
+import java.time.LocalDateTime;
 
 
 /**
@@ -42,48 +42,25 @@ public final class TUtil
     {
     }
 
+    // The days of week as stored in a day mask, indexed by day number:
+    private static final String[] DAYS = { "", "1", "2", "3", "4", "5", "6", "7" };
+
     /**
-     * Get the curent timestamp from Java and convert to {@link Time} format.
+     * Get the curent timestamp from Java and convert to {@link Time} format.  Called once per validation pass, the
+     * validators then compare ints, see {@link CompiledConstraint}.
      *
      * @return Time
      */
     public static Time getCurrentTime()
     {
+        LocalDateTime now = LocalDateTime.now();
         Time time = new Time();
-        GregorianCalendar gc = new GregorianCalendar();
-        String szMinute = "" + gc.get( GregorianCalendar.MINUTE );
-        String szHour = "" + gc.get( GregorianCalendar.HOUR_OF_DAY );
-
-        time.day = "" + gc.get( GregorianCalendar.DAY_OF_WEEK );
-        String szDay = "" + gc.get( GregorianCalendar.DAY_OF_MONTH );
-        int month = gc.get( GregorianCalendar.MONTH );
-        String szMonth = "" + ( month + 1 );
-        String szYear = "" + gc.get( GregorianCalendar.YEAR );
-
-        if ( szMinute.length() == 1 )
-        {
-            szMinute = "0" + szMinute;
-        }
-
-        if ( szHour.length() == 1 )
-        {
-            szHour = "0" + szHour;
-        }
-
-        if ( szDay.length() == 1 )
-        {
-            szDay = "0" + szDay;
-        }
-
-        if ( szMonth.length() == 1 )
-        {
-            szMonth = "0" + szMonth;
-        }
-
-        String szCurrentTime = szHour + szMinute;
-
-        time.currentTime = Integer.valueOf( szCurrentTime );
-        time.date = szYear + szMonth + szDay;
+        time.currentTime = now.getHour() * 100 + now.getMinute();
+        time.dateValue = now.getYear() * 10000 + now.getMonthValue() * 100 + now.getDayOfMonth();
+        time.date = String.valueOf( time.dateValue );
+        // java.time numbers the days of week from Monday, fortress from Sunday:
+        time.dayOfWeek = now.getDayOfWeek().getValue() % 7 + 1;
+        time.day = DAYS[time.dayOfWeek];
         return time;
     }
 
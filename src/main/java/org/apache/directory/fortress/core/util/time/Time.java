@@ -27,7 +27,7 @@ package org.apache.directory.fortress.core.util.time;
 public class Time
 {
     /**
-     * Stored as {@code System.out.getCurrentMillis()} format.
+     * Stored in 'HHMM' format as an int.  i.e. 1730 is 5:30 p.m.
      */
     public Integer currentTime;
 
@@ -40,5 +40,15 @@ public class Time
      * Stored in 'YYYYMMDD' format.  i.e. '20110101' is January 1, 2011.
      */
     public String date;
+
+    /**
+     * The {@link #date} as an int, i.e. 20110101 is January 1, 2011.
+     */
+    public int dateValue;
+
+    /**
+     * The {@link #day} as an int, 1 for Sunday through 7 for Saturday.
+     */
+    public int dayOfWeek;
 }
 
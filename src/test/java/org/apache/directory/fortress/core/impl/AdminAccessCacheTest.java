@@ -0,0 +1,64 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.model.Permission;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserAdminRole;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the admin access decisions are keyed by session, permission, tenant and activated admin roles.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AdminAccessCacheTest {
+
+    private static Session session(String sessionId, String... adminRoles) {
+        User user = new User("jtsAdmin");
+        for (String adminRole : adminRoles) {
+            user.setAdminRole(new UserAdminRole("jtsAdmin", adminRole));
+        }
+        return new Session(user, sessionId);
+    }
+
+    @Test
+    public void test_key() {
+        Permission addUser = new Permission(AdminMgrImpl.class.getName(), "addUser");
+        Permission deleteUser = new Permission(AdminMgrImpl.class.getName(), "deleteUser");
+        Session session = session("s1", "AdminRole1");
+        String key = AdminAccessCache.getKey(session, addUser, "HOME");
+        assertEquals(key, AdminAccessCache.getKey(session("s1", "adminrole1"), addUser, "HOME"));
+        assertNotEquals(key, AdminAccessCache.getKey(session, deleteUser, "HOME"));
+        assertNotEquals(key, AdminAccessCache.getKey(session, addUser, "tenant2"));
+        assertNotEquals(key, AdminAccessCache.getKey(session("s2", "AdminRole1"), addUser, "HOME"));
+        assertNotEquals(key, AdminAccessCache.getKey(session("s1", "AdminRole1", "AdminRole2"), addUser, "HOME"));
+        assertNotEquals(key, AdminAccessCache.getKey(session("s1"), addUser, "HOME"));
+    }
+
+    @Test
+    public void test_no_session_id() {
+        Permission addUser = new Permission(AdminMgrImpl.class.getName(), "addUser");
+        assertNull(AdminAccessCache.getKey(session(null, "AdminRole1"), addUser, "HOME"));
+    }
+}
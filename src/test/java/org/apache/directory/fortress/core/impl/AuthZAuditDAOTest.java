@@ -0,0 +1,120 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.directory.api.ldap.model.entry.Attribute;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.message.CompareResponseImpl;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.fortress.core.util.AuthZAuditEvent;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.future.CompareFuture;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies a batch of audit compares is written past the events whose entries are missing, and only those written are counted.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AuthZAuditDAOTest {
+
+    /**
+     * Answers the compares without a server.  Perm dns starting with "missing" aren't found, when sent or in the response.
+     */
+    private static class StubDAO extends AuthZAuditDAO {
+        private final boolean isPipelined;
+        private final List<String> compared = new ArrayList<>();
+
+        StubDAO(boolean isPipelined) {
+            super(false);
+            this.isPipelined = isPipelined;
+        }
+
+        @Override
+        LdapConnection getConnection() {
+            return null;
+        }
+
+        @Override
+        void closeConnection(LdapConnection ld) {
+        }
+
+        @Override
+        protected CompareFuture compareNodeAsync(LdapConnection connection, String dn, String userDn, Attribute attribute)
+            throws LdapException {
+            if (!isPipelined) {
+                return null;
+            }
+            if (dn.startsWith("missing-sent")) {
+                throw new LdapNoSuchObjectException(dn);
+            }
+            compared.add(dn);
+            CompareFuture future = new CompareFuture(null, compared.size());
+            CompareResponseImpl response = new CompareResponseImpl(compared.size());
+            response.getLdapResult().setResultCode(dn.startsWith("missing") ? ResultCodeEnum.NO_SUCH_OBJECT
+                : ResultCodeEnum.COMPARE_FALSE);
+            try {
+                future.set(response);
+            } catch (InterruptedException ie) {
+                throw new IllegalStateException(ie);
+            }
+            return future;
+        }
+
+        @Override
+        protected boolean compareNode(LdapConnection connection, String dn, String userDn, Attribute attribute)
+            throws LdapException {
+            if (dn.startsWith("missing")) {
+                throw new LdapNoSuchObjectException(dn);
+            }
+            compared.add(dn);
+            return true;
+        }
+    }
+
+    private static List<AuthZAuditEvent> events(String... permDns) {
+        List<AuthZAuditEvent> events = new ArrayList<>();
+        for (String permDn : permDns) {
+            events.add(new AuthZAuditEvent(permDn, "uid=jtsUser1", "value"));
+        }
+        return events;
+    }
+
+    @Test
+    public void test_write_one_at_a_time() throws Exception {
+        StubDAO dao = new StubDAO(false);
+        assertEquals(2, dao.write(events("perm1", "missing1", "perm2")));
+        assertEquals(Arrays.asList("perm1", "perm2"), dao.compared);
+    }
+
+    @Test
+    public void test_write_pipelined() throws Exception {
+        StubDAO dao = new StubDAO(true);
+        assertEquals(2, dao.write(events("missing-sent1", "perm1", "missing1", "perm2")));
+        assertEquals(Arrays.asList("perm1", "missing1", "perm2"), dao.compared);
+    }
+}
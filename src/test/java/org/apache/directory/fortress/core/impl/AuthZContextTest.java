@@ -0,0 +1,121 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.model.Session;
+import org.apache.directory.fortress.core.model.User;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the authorization context survives serialization as a token, and that forged tokens are ignored.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class AuthZContextTest {
+
+    /**
+     * C -> B -> A.
+     */
+    private static HierClosure chain() {
+        Hier hier = new Hier();
+        hier.setRelationship(new Relationship("B", "A"));
+        hier.setRelationship(new Relationship("C", "B"));
+        return HierUtil.getClosure(HierUtil.buildGraph(hier));
+    }
+
+    private static Session session(String... roles) {
+        User user = new User("jtsuser1");
+        for (String role : roles) {
+            user.setRole(new UserRole("jtsuser1", role));
+        }
+        Session session = new Session(user);
+        session.setContextId("HOME");
+        return session;
+    }
+
+    @Test
+    public void test_attach() {
+        Session session = session("C");
+        AuthZContext.attach(session, "HOME", chain(), null);
+        AuthZContext context = AuthZContext.get(session);
+        assertNotNull(session.getAuthzToken());
+        assertEquals("HOME", context.getContextId());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), new HashSet<>(context.getInherited(false)));
+        assertTrue(context.getInherited(false).contains("b"));
+        assertTrue(context.getInherited(true).isEmpty());
+
+        // Same activations under the same hierarchy share the inherited set:
+        Session other = session("c");
+        AuthZContext.attach(other, "HOME", chain(), null);
+        assertNotSame(context.getInherited(false), AuthZContext.get(other).getInherited(false));
+        HierClosure closure = chain();
+        AuthZContext.attach(session, "HOME", closure, null);
+        AuthZContext.attach(other, "HOME", closure, null);
+        assertSame(AuthZContext.get(session).getInherited(false), AuthZContext.get(other).getInherited(false));
+    }
+
+    @Test
+    public void test_token_round_trip() throws Exception {
+        Session session = session("B");
+        AuthZContext.attach(session, "HOME", chain(), null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(session);
+        out.close();
+        Session copy = (Session) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertEquals(session.getAuthzToken(), copy.getAuthzToken());
+        AuthZContext context = AuthZContext.get(copy);
+        assertNotNull(context);
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")), new HashSet<>(context.getInherited(false)));
+    }
+
+    @Test
+    public void test_forged_token() {
+        Session session = session("B");
+        AuthZContext.attach(session, "HOME", chain(), null);
+        String token = session.getAuthzToken();
+
+        Session forged = session("B");
+        char[] chars = token.toCharArray();
+        int i = token.indexOf('.') + 3;
+        chars[i] = chars[i] == 'A' ? 'B' : 'A';
+        forged.setAuthzToken(new String(chars));
+        assertNull(AuthZContext.get(forged));
+
+        forged.setAuthzToken("not a token");
+        assertNull(AuthZContext.get(forged));
+        forged.setAuthzToken("1.%%%.%%%");
+        assertNull(AuthZContext.get(forged));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.SecurityException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies every entity of a batch is processed once by the threads, that failures are kept by position and don't stop
+ * the batch, and that the reader reads each name once.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class BulkLoaderTest {
+
+    @Test
+    public void test_run() {
+        List<Integer> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entities.add(i);
+        }
+        final ConcurrentHashMap<Integer, Integer> counts = new ConcurrentHashMap<>();
+        SecurityException[] failures = BulkLoader.run(entities, new BulkLoader.Step<Integer>() {
+            @Override
+            public void apply(Integer entity) throws SecurityException {
+                counts.merge(entity, 1, Integer::sum);
+                if (entity % 10 == 0) {
+                    throw new SecurityException(GlobalErrIds.ROLE_NULL, "fail " + entity);
+                }
+            }
+        }, 4);
+        assertEquals(100, counts.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(1), counts.get(i));
+            assertEquals(i % 10 == 0, failures[i] != null);
+        }
+    }
+
+    @Test
+    public void test_reader() throws SecurityException {
+        final AtomicInteger reads = new AtomicInteger();
+        BulkLoader.Reader<String> reader = new BulkLoader.Reader<String>() {
+            @Override
+            String read(String name) throws SecurityException {
+                reads.incrementAndGet();
+                if (name.equalsIgnoreCase("missing")) {
+                    throw new SecurityException(GlobalErrIds.ROLE_NOT_FOUND, "not found " + name);
+                }
+                return name;
+            }
+        };
+        assertEquals("Teller", reader.get("Teller"));
+        assertEquals("Teller", reader.get("TELLER"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                reader.get("Missing");
+                fail("read should have failed");
+            } catch (SecurityException e) {
+                assertEquals(GlobalErrIds.ROLE_NOT_FOUND, e.getErrorId());
+            }
+        }
+        assertEquals(2, reads.get());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.model.SDSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the DSD's are found by any of their member roles, regardless of case, and that other roles map to nothing.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class DsdIndexTest {
+
+    private static SDSet dsd(String name, String... members) {
+        SDSet dsd = new SDSet();
+        dsd.setName(name);
+        dsd.setType(SDSet.SDType.DYNAMIC);
+        dsd.setCardinality(2);
+        for (String member : members) {
+            dsd.setMember(member);
+        }
+        return dsd;
+    }
+
+    @Test
+    public void test_lookup() {
+        SDSet cashier = dsd("Cashier", "Teller", "Auditor");
+        SDSet branch = dsd("Branch", "Teller", "Manager");
+        DsdIndex index = DsdIndex.build(Arrays.asList(cashier, branch));
+        assertEquals(2, index.size());
+        assertEquals(new HashSet<>(Arrays.asList(cashier, branch)), index.get("teller"));
+        assertEquals(Collections.singleton(cashier), index.get("AUDITOR"));
+        assertTrue(index.get("Customer").isEmpty());
+        assertTrue(index.get((String) null).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(cashier, branch)), index.get(Arrays.asList("auditor", "manager", "Customer")));
+        assertTrue(index.get(Arrays.asList("Customer", "Guest")).isEmpty());
+    }
+
+    @Test
+    public void test_immutable() {
+        DsdIndex index = DsdIndex.build(Collections.singletonList(dsd("Cashier", "Teller", "Auditor")));
+        try {
+            index.get("Teller").clear();
+            fail("index should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(1, index.get("Teller").size());
+        assertEquals(0, DsdIndex.build(null).size());
+    }
+}
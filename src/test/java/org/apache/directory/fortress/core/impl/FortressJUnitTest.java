@@ -304,6 +304,7 @@ public class FortressJUnitTest extends TestCase
         suite.addTest( new AccessMgrImplTest( "createSessionsDSD" ) );
         suite.addTest( new AccessMgrImplTest( "testSessionRole" ) );
         suite.addTest( new AccessMgrImplTest( "testCheckAccess" ) );
+        suite.addTest( new AccessMgrImplTest( "testCheckAccessBulk" ) );
         suite.addTest( new AccessMgrImplTest( "testAddActiveRole" ) );
         suite.addTest( new AccessMgrImplTest( "testDropActiveRole" ) );
         suite.addTest( new AccessMgrImplTest( "testSessionPermission" ) );
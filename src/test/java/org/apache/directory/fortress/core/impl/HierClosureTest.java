@@ -0,0 +1,130 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.GlobalErrIds;
+import org.apache.directory.fortress.core.ValidationException;
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the closure answers the same as a walk of the graph, and is rebuilt on the first read after the graph is updated.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class HierClosureTest {
+
+    /**
+     * Diamond with a tail: D -> B -> A, D -> C -> A, E -> D.
+     */
+    private static SimpleDirectedGraph<String, Relationship> diamond() {
+        Hier hier = new Hier();
+        hier.setRelationship(new Relationship("B", "A"));
+        hier.setRelationship(new Relationship("C", "A"));
+        hier.setRelationship(new Relationship("D", "B"));
+        hier.setRelationship(new Relationship("D", "C"));
+        hier.setRelationship(new Relationship("E", "D"));
+        return HierUtil.buildGraph(hier);
+    }
+
+    @Test
+    public void test_ascendants_and_descendants() {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C", "D")), new HashSet<>(HierUtil.getAscendants("e", graph)));
+        assertEquals(new HashSet<>(Arrays.asList("B", "C", "D", "E")), new HashSet<>(HierUtil.getDescendants("a", graph)));
+        assertTrue(HierUtil.getAscendants("A", graph).isEmpty());
+        assertTrue(HierUtil.getAscendants("NotAVertex", graph).isEmpty());
+    }
+
+    @Test
+    public void test_inherited_ids() {
+        HierClosure closure = HierUtil.getClosure(diamond());
+        BitSet ids = closure.getInheritedIds(Arrays.asList("b", "unknown"));
+        assertTrue(closure.isInherited(ids, "A"));
+        assertTrue(closure.isInherited(ids, "b"));
+        assertFalse(closure.isInherited(ids, "C"));
+        assertFalse(closure.isInherited(ids, "unknown"));
+        assertEquals(Arrays.asList("A", "B"), closure.getNames(ids));
+    }
+
+    @Test
+    public void test_parents() {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        HierClosure closure = HierUtil.getClosure(graph);
+        assertEquals(HierUtil.getParents("D", graph), closure.getParents("d"));
+        assertEquals(HierUtil.getParents("A", graph), closure.getParents("A"));
+        assertTrue(closure.getParents("A").isEmpty());
+        assertNull(closure.getParents("NotAVertex"));
+    }
+
+    @Test
+    public void test_update_replaces_closure() throws Exception {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        HierClosure before = HierUtil.getClosure(graph);
+        HierUtil.updateHier(graph, new Relationship("A", "ROOT"), Hier.Op.ADD);
+        HierClosure after = HierUtil.getClosure(graph);
+        assertNotSame(before, after);
+        assertTrue(after.getVersion() > before.getVersion());
+        assertTrue(HierUtil.getAscendants("E", graph).contains("ROOT"));
+        assertEquals(-1, before.getId("ROOT"));
+
+        HierUtil.updateHier(graph, new Relationship("A", "ROOT"), Hier.Op.REM);
+        assertFalse(HierUtil.getAscendants("E", graph).contains("ROOT"));
+    }
+
+    @Test
+    public void test_run_of_updates_builds_once() throws Exception {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        long before = HierUtil.getClosure(graph).getVersion();
+        HierUtil.validateRelationship(graph, "X", "E", false);
+        HierUtil.updateHier(graph, new Relationship("X", "E"), Hier.Op.ADD);
+        HierUtil.validateRelationship(graph, "Y", "X", false);
+        HierUtil.updateHier(graph, new Relationship("Y", "X"), Hier.Op.ADD);
+        HierUtil.validateRelationship(graph, "Y", "X", true);
+
+        // While the closure is stale the checks walk the graph:
+        try {
+            HierUtil.validateRelationship(graph, "A", "Y", false);
+            fail("cycle not detected");
+        } catch (ValidationException ve) {
+            assertEquals(GlobalErrIds.HIER_REL_CYCLIC, ve.getErrorId());
+        }
+        try {
+            HierUtil.validateRelationship(graph, "Y", "b", false);
+            fail("ascendant not detected");
+        } catch (ValidationException ve) {
+            assertEquals(GlobalErrIds.HIER_REL_EXIST, ve.getErrorId());
+        }
+
+        // Built once, on the first read after the run:
+        HierClosure after = HierUtil.getClosure(graph);
+        assertEquals(before + 1, after.getVersion());
+        assertSame(after, HierUtil.getClosure(graph));
+        assertTrue(HierUtil.getAscendants("Y", graph).containsAll(Arrays.asList("X", "E", "D", "A")));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.directory.fortress.core.model.Permission;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the lookups of the in-memory policy and how changes are applied to it, without a server.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PolicySnapshotTest {
+
+    private static Permission perm(String objName, String opName, String objId, String role, String user) {
+        Permission perm = new Permission(objName, opName, objId);
+        if (role != null) {
+            perm.setRole(role);
+        }
+        if (user != null) {
+            perm.setUser(user);
+        }
+        return perm;
+    }
+
+    private static PolicySnapshot.Policy policy(Permission... perms) {
+        Map<String, Permission> byKey = new HashMap<>();
+        Map<String, String> stamps = new HashMap<>();
+        for (Permission perm : perms) {
+            byKey.put(PolicySnapshot.getKey(perm), perm);
+            stamps.put(PolicySnapshot.getKey(perm), "20260101000000Z");
+        }
+        return new PolicySnapshot.Policy(byKey, stamps);
+    }
+
+    @Test
+    public void test_key() {
+        assertEquals(PolicySnapshot.getKey(new Permission("Obj1", "Read")),
+            PolicySnapshot.getKey(new Permission("obj1", "READ")));
+        assertNotEquals(PolicySnapshot.getKey(new Permission("obj1", "read")),
+            PolicySnapshot.getKey(new Permission("obj1", "read", "123")));
+    }
+
+    @Test
+    public void test_find() {
+        Permission read = perm("obj1", "read", null, "Role1", null);
+        Permission write = perm("obj1", "write", null, "Role2", "jtsUser1");
+        Permission delete = perm("obj1", "delete", "123", "role1", "jtsUser2");
+        PolicySnapshot.Policy policy = policy(read, write, delete);
+
+        assertSame(read, policy.get(PolicySnapshot.getKey(new Permission("OBJ1", "Read"))));
+        assertNull(policy.get(PolicySnapshot.getKey(new Permission("obj1", "read", "123"))));
+        assertEquals(2, policy.find(null, Collections.singleton("ROLE1")).size());
+        assertEquals(1, policy.find("JTSUSER1", null).size());
+        // A permission granted both directly and via a role is returned once:
+        Collection<Permission> found = policy.find("jtsUser2", Arrays.asList("role1", "role2"));
+        assertEquals(3, found.size());
+        assertTrue(policy.find("jtsUser3", Collections.singleton("role3")).isEmpty());
+    }
+
+    @Test
+    public void test_with() {
+        Permission read = perm("obj1", "read", null, "role1", null);
+        Permission write = perm("obj1", "write", null, "role1", null);
+        PolicySnapshot.Policy policy = policy(read, write);
+
+        Map<String, Permission> changed = new HashMap<>();
+        changed.put(PolicySnapshot.getKey(read), perm("obj1", "read", null, "role2", null));
+        changed.put(PolicySnapshot.getKey(write), null);
+        PolicySnapshot.Policy next = policy.with(changed,
+            Collections.singletonMap(PolicySnapshot.getKey(read), "20260102000000Z"));
+
+        // The old policy is unchanged:
+        assertEquals(2, policy.find(null, Collections.singleton("role1")).size());
+        assertTrue(next.find(null, Collections.singleton("role1")).isEmpty());
+        assertEquals(1, next.find(null, Collections.singleton("role2")).size());
+        assertNull(next.get(PolicySnapshot.getKey(write)));
+        assertEquals("20260102000000Z", next.getStamp(PolicySnapshot.getKey(read)));
+        assertNull(next.getStamp(PolicySnapshot.getKey(write)));
+        assertEquals(1, next.keys().size());
+    }
+
+    @Test
+    public void test_recent() {
+        Permission read = perm("obj1", "read", null, "role1", null);
+        PolicySnapshot.Policy policy = policy(read);
+        // Stamped in the second of the latest change, so it may have changed again since it was read:
+        assertTrue(policy.isRecent("20260101000000Z"));
+        assertTrue(policy.isRecent("20260102000000Z"));
+        assertFalse(policy.isRecent("20251231235959Z"));
+        assertFalse(policy.isRecent(null));
+
+        PolicySnapshot.Policy next = policy.with(Collections.<String, Permission>emptyMap(),
+            Collections.singletonMap(PolicySnapshot.getKey(read), "20260102000000Z"));
+        assertFalse(next.isRecent("20260101000000Z"));
+        assertTrue(next.isRecent("20260102000000Z"));
+    }
+}
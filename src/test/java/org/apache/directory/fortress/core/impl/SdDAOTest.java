@@ -0,0 +1,126 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.fortress.core.GlobalIds;
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.SearchCursorImpl;
+import org.apache.directory.ldap.client.api.future.SearchFuture;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies every SD set of a tenant is loaded, past the {@link GlobalIds#BATCH_SIZE} cap of the plain search.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SdDAOTest {
+
+    private static final int SETS = GlobalIds.BATCH_SIZE + 500;
+
+    /**
+     * Answers the searches without a server, with {@link #SETS} SD sets.
+     */
+    private static class StubDAO extends SdDAO {
+        @Override
+        public LdapConnection getAdminConnection() {
+            return null;
+        }
+
+        @Override
+        public void closeAdminConnection(LdapConnection ld) {
+        }
+
+        @Override
+        String getSdRoot(String contextId) {
+            return "ou=Constraints,dc=example,dc=com";
+        }
+
+        @Override
+        protected SearchCursor search(LdapConnection connection, String baseDn, SearchScope scope, String filter,
+            String[] attrs, boolean attrsOnly, int maxEntries) throws LdapException {
+            return cursor(Math.min(SETS, maxEntries));
+        }
+
+        @Override
+        protected SearchCursor searchPaged(LdapConnection connection, String baseDn, SearchScope scope, String filter,
+            String[] attrs, boolean attrsOnly) throws LdapException {
+            return cursor(SETS);
+        }
+    }
+
+    private static SearchCursor cursor(int size) throws LdapException {
+        SearchFuture future = new SearchFuture(null, 1);
+        try {
+            for (int i = 0; i < size; i++) {
+                Entry entry = new DefaultEntry("cn=dsd" + i + ",ou=Constraints,dc=example,dc=com");
+                entry.add("ftSetName", "dsd" + i);
+                entry.add("ftRoles", "role" + i, "other" + i);
+                entry.add("ftSetCardinality", "2");
+                SearchResultEntryImpl response = new SearchResultEntryImpl(1);
+                response.setEntry(entry);
+                future.set(response);
+            }
+            SearchResultDoneImpl done = new SearchResultDoneImpl(1);
+            done.getLdapResult().setResultCode(ResultCodeEnum.SUCCESS);
+            future.set(done);
+        } catch (InterruptedException ie) {
+            throw new IllegalStateException(ie);
+        }
+        return new SearchCursorImpl(future, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void test_search_all_past_cap() throws Exception {
+        SDSet sdSet = new SDSet();
+        sdSet.setType(SDSet.SDType.DYNAMIC);
+        sdSet.setName("");
+        StubDAO dao = new StubDAO();
+        assertEquals(GlobalIds.BATCH_SIZE, dao.search(sdSet).size());
+
+        List<SDSet> dsds = dao.searchAll(sdSet);
+        assertEquals(SETS, dsds.size());
+        DsdIndex index = DsdIndex.build(dsds);
+        assertEquals(1, index.get("ROLE" + (SETS - 1)).size());
+    }
+
+    @Test
+    public void test_ssd_masks_past_cap() throws Exception {
+        SDSet sdSet = new SDSet();
+        sdSet.setType(SDSet.SDType.STATIC);
+        sdSet.setName("");
+        List<SDSet> ssds = new StubDAO().searchAll(sdSet);
+        assertEquals(SETS, ssds.size());
+        assertEquals(SETS, SdSetMasks.build(ssds, HierClosure.build(null)).size());
+    }
+}
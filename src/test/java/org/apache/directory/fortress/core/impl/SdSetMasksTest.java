@@ -0,0 +1,237 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.impl;
+
+import org.apache.directory.fortress.core.model.Hier;
+import org.apache.directory.fortress.core.model.Relationship;
+import org.apache.directory.fortress.core.model.SDSet;
+import org.apache.directory.fortress.core.model.UserRole;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the compiled SSD and DSD checks reach the same outcomes, in the same order, as a walk of the sets role by role.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class SdSetMasksTest {
+
+    /**
+     * Diamond with a tail: D -> B -> A, D -> C -> A, E -> D.
+     */
+    private static SimpleDirectedGraph<String, Relationship> diamond() {
+        Hier hier = new Hier();
+        hier.setRelationship(new Relationship("B", "A"));
+        hier.setRelationship(new Relationship("C", "A"));
+        hier.setRelationship(new Relationship("D", "B"));
+        hier.setRelationship(new Relationship("D", "C"));
+        hier.setRelationship(new Relationship("E", "D"));
+        return HierUtil.buildGraph(hier);
+    }
+
+    private static SDSet sd(String name, int cardinality, String... members) {
+        SDSet sd = new SDSet();
+        sd.setName(name);
+        sd.setCardinality(cardinality);
+        for (String member : members) {
+            sd.addMember(member);
+        }
+        return sd;
+    }
+
+    private static List<UserRole> roles(String... names) {
+        List<UserRole> roles = new ArrayList<>();
+        for (String name : names) {
+            roles.add(new UserRole("jtsUser1", name));
+        }
+        return roles;
+    }
+
+    private static List<String> names(List<UserRole> roles) {
+        List<String> names = new ArrayList<>();
+        for (UserRole role : roles) {
+            names.add(role.getName());
+        }
+        return names;
+    }
+
+    /**
+     * The walk the DSD check at activation used to make, returns the violations as "role/parent/set".
+     */
+    private static List<String> walk(List<SDSet> dsds, List<UserRole> activated, SimpleDirectedGraph<String, Relationship> graph) {
+        List<String> violations = new ArrayList<>();
+        Set<String> authorized = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (UserRole role : activated) {
+            authorized.add(role.getName());
+            authorized.addAll(HierUtil.getAscendants(role.getName(), graph));
+        }
+        if (authorized.size() <= 1) {
+            return violations;
+        }
+        for (SDSet dsd : dsds) {
+            if (dsd.getMembers() == null) {
+                continue;
+            }
+            if (!intersects(dsd.getMembers(), authorized)) {
+                continue;
+            }
+            int matchCount = 0;
+            Iterator<UserRole> activatedRoles = activated.iterator();
+            while (activatedRoles.hasNext()) {
+                UserRole activatedRole = activatedRoles.next();
+                if (dsd.getMembers().contains(activatedRole.getName())) {
+                    matchCount++;
+                    if (matchCount >= dsd.getCardinality()) {
+                        activatedRoles.remove();
+                        violations.add(activatedRole.getName() + "/null/" + dsd.getName());
+                    }
+                } else {
+                    for (String parentRole : HierUtil.getAscendants(activatedRole.getName(), graph)) {
+                        if (dsd.getMembers().contains(parentRole)) {
+                            matchCount++;
+                            if (matchCount >= dsd.getCardinality()) {
+                                activatedRoles.remove();
+                                violations.add(activatedRole.getName() + "/" + parentRole + "/" + dsd.getName());
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static boolean intersects(Set<String> members, Set<String> authorized) {
+        for (String member : members) {
+            if (authorized.contains(member)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> format(List<SdSetMasks.Violation> violations) {
+        List<String> result = new ArrayList<>();
+        for (SdSetMasks.Violation violation : violations) {
+            result.add(violation.getRoleName() + "/" + violation.getParentName() + "/" + violation.getSet().getName());
+        }
+        return result;
+    }
+
+    @Test
+    public void test_activation() {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        SdSetMasks masks = SdSetMasks.build(Arrays.asList(sd("Dsd1", 2, "a", "x"), sd("Dsd2", 3, "B", "C", "Y")),
+            HierUtil.getClosure(graph));
+        assertEquals(2, masks.size());
+
+        // E inherits A, and X is a member, so the second role is removed:
+        List<UserRole> activated = roles("E", "X");
+        assertEquals(Collections.singletonList("X/null/Dsd1"), format(masks.checkActivation(activated)));
+        assertEquals(Collections.singletonList("E"), names(activated));
+
+        // D counts twice toward Dsd2 via B and C, the threshold is crossed at C:
+        activated = roles("Y", "D");
+        assertEquals(Arrays.asList("D/C/Dsd2"), format(masks.checkActivation(activated)));
+        assertEquals(Collections.singletonList("Y"), names(activated));
+
+        // One role alone, or roles in no set, are never removed:
+        assertTrue(masks.checkActivation(roles("x")).isEmpty());
+        assertTrue(masks.checkActivation(roles("Guest", "Customer")).isEmpty());
+    }
+
+    @Test
+    public void test_activation_matches_walk() {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        String[] pool = {"A", "B", "C", "D", "E", "X", "Y", "Z"};
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<SDSet> dsds = new ArrayList<>();
+            for (int s = random.nextInt(4); s >= 0; s--) {
+                List<String> members = new ArrayList<>();
+                for (String role : pool) {
+                    if (random.nextInt(3) == 0) {
+                        members.add(random.nextBoolean() ? role : role.toLowerCase());
+                    }
+                }
+                dsds.add(sd("Dsd" + s, 2 + random.nextInt(3), members.toArray(new String[0])));
+            }
+            List<String> names = new ArrayList<>();
+            for (String role : pool) {
+                if (random.nextInt(3) == 0) {
+                    names.add(role);
+                }
+            }
+            Collections.shuffle(names, random);
+            String[] activatedNames = names.toArray(new String[0]);
+
+            List<UserRole> expectedRoles = roles(activatedNames);
+            List<String> expected = walk(dsds, expectedRoles, graph);
+            List<UserRole> actualRoles = roles(activatedNames);
+            List<String> actual = format(SdSetMasks.build(dsds, HierUtil.getClosure(graph)).checkActivation(actualRoles));
+            assertEquals(expected, actual);
+            assertEquals(names(expectedRoles), names(actualRoles));
+        }
+    }
+
+    @Test
+    public void test_addition() {
+        SimpleDirectedGraph<String, Relationship> graph = diamond();
+        SdSetMasks masks = SdSetMasks.build(Arrays.asList(sd("Dsd1", 2, "A", "X"), sd("Dsd2", 3, "B", "C", "Y")),
+            HierUtil.getClosure(graph));
+
+        SdSetMasks.Violation violation = masks.checkAddition("X", roles("E"));
+        assertNotNull(violation);
+        assertEquals("A", violation.getParentName());
+        assertEquals("Dsd1", violation.getSet().getName());
+
+        violation = masks.checkAddition("x", roles("A"));
+        assertNull(violation.getParentName());
+
+        // D's parents count once, so Y may be added alongside D but not alongside D and B:
+        assertNull(masks.checkAddition("Y", roles("Guest")));
+        assertNull(masks.checkAddition("Y", roles("D")));
+        assertEquals("B", masks.checkAddition("Y", roles("B", "D")).getParentName());
+        assertNull(masks.checkAddition("Guest", roles("A", "B", "C")));
+    }
+
+    @Test
+    public void test_assignment() {
+        SdSetMasks masks = SdSetMasks.build(Arrays.asList(sd("Ssd1", 2, "Teller", "Auditor"), sd("Ssd2", 3, "Teller", "Manager", "Clerk")),
+            HierClosure.build(null));
+        assertNull(masks.checkAssignment("Teller", Collections.<String>emptySet()));
+        assertEquals("Ssd1", masks.checkAssignment("teller", new TreeSet<>(Arrays.asList("AUDITOR"))).getName());
+        assertEquals("Ssd2", masks.checkAssignment("Teller", new TreeSet<>(Arrays.asList("Manager", "Clerk"))).getName());
+        assertNull(masks.checkAssignment("Teller", new TreeSet<>(Arrays.asList("Manager"))));
+        assertNull(masks.checkAssignment("Guest", new TreeSet<>(Arrays.asList("Auditor", "Manager", "Clerk"))));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the cap, reuse and background validation of the concurrent connection pool, without a server.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class ConcurrentLdapConnectionPoolTest {
+
+    @Test
+    public void test_reuse() throws Exception {
+        TestFactory factory = new TestFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 0, 2, 1000 );
+        LdapConnection first = pool.getConnection();
+        assertEquals( 1, pool.getNumActive() );
+        pool.releaseConnection( first );
+        assertEquals( 0, pool.getNumActive() );
+        assertEquals( 1, pool.getNumIdle() );
+        assertSame( first, pool.getConnection() );
+        assertEquals( 1, factory.made.get() );
+
+        // A connection closed by the server is replaced on borrow:
+        pool.releaseConnection( first );
+        factory.disconnected.add( first );
+        LdapConnection second = pool.getConnection();
+        assertNotSame( first, second );
+        assertEquals( 1, factory.destroyed.get() );
+        pool.close();
+    }
+
+    @Test
+    public void test_cap() throws Exception {
+        TestFactory factory = new TestFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 0, 2, 50 );
+        LdapConnection a = pool.getConnection();
+        pool.getConnection();
+        try {
+            pool.getConnection();
+            fail( "pool grew past its max" );
+        }
+        catch ( LdapException e ) {
+            // expected
+        }
+        assertEquals( 2, pool.getNumActive() );
+        assertEquals( 2, factory.made.get() );
+        pool.releaseConnection( a );
+        assertSame( a, pool.getConnection() );
+        pool.close();
+    }
+
+    @Test
+    public void test_cap_counts_idle() throws Exception {
+        TestFactory factory = new TestFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2, 2, 50 );
+        LdapConnection a = pool.getConnection();
+
+        // Only one more may be opened while one is on loan:
+        pool.ensureMinIdle();
+        assertEquals( 1, pool.getNumIdle() );
+        assertEquals( 2, pool.getNumOpen() );
+        pool.getConnection();
+        assertEquals( 2, factory.made.get() );
+        pool.releaseConnection( a );
+        pool.ensureMinIdle();
+        assertEquals( 2, factory.made.get() );
+
+        // A connection closed on borrow frees its place for a new one:
+        factory.disconnected.add( a );
+        assertNotSame( a, pool.getConnection() );
+        assertEquals( 2, pool.getNumOpen() );
+        assertEquals( 3, factory.made.get() );
+        pool.close();
+    }
+
+    @Test
+    public void test_concurrent() throws Exception {
+        final TestFactory factory = new TestFactory();
+        final ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 0, 4, 0 );
+        final Set<LdapConnection> inUse = Collections.synchronizedSet( new HashSet<LdapConnection>() );
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch( 16 );
+        for ( int i = 0; i < 16; i++ ) {
+            new Thread( new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for ( int j = 0; j < 500; j++ ) {
+                            LdapConnection connection = pool.getConnection();
+                            if ( !inUse.add( connection ) || pool.getNumActive() > 4 || pool.getNumOpen() > 4 ) {
+                                errors.incrementAndGet();
+                            }
+                            inUse.remove( connection );
+                            pool.releaseConnection( connection );
+                        }
+                    }
+                    catch ( LdapException e ) {
+                        errors.incrementAndGet();
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            } ).start();
+        }
+        done.await();
+        assertEquals( 0, errors.get() );
+        assertEquals( 0, pool.getNumActive() );
+        assertTrue( factory.made.get() <= 4 );
+        assertEquals( factory.made.get(), pool.getNumIdle() );
+        pool.close();
+        assertEquals( 0, pool.getNumIdle() );
+        assertEquals( factory.made.get(), factory.destroyed.get() );
+    }
+
+    @Test
+    public void test_validate_idle() throws Exception {
+        TestFactory factory = new TestFactory();
+        ConcurrentLdapConnectionPool pool = new ConcurrentLdapConnectionPool( factory, 2, 4, 1000 );
+        pool.ensureMinIdle();
+        assertEquals( 2, pool.getNumIdle() );
+        LdapConnection a = pool.getConnection();
+        LdapConnection b = pool.getConnection();
+        pool.releaseConnection( a );
+        pool.releaseConnection( b );
+        factory.invalid.add( a );
+        pool.validateIdle();
+        assertEquals( 1, pool.getNumIdle() );
+        assertEquals( 1, factory.destroyed.get() );
+        assertSame( b, pool.getConnection() );
+        pool.ensureMinIdle();
+        assertEquals( 2, pool.getNumIdle() );
+        pool.close();
+    }
+
+    /**
+     * Makes stand-in connections that are connected unless listed as disconnected, and valid unless listed as invalid.
+     */
+    private static final class TestFactory implements PoolableObjectFactory<LdapConnection> {
+        final AtomicInteger made = new AtomicInteger();
+        final AtomicInteger destroyed = new AtomicInteger();
+        final Set<LdapConnection> disconnected = Collections.synchronizedSet( new HashSet<LdapConnection>() );
+        final Set<LdapConnection> invalid = Collections.synchronizedSet( new HashSet<LdapConnection>() );
+
+        @Override
+        public LdapConnection makeObject() {
+            made.incrementAndGet();
+            return ( LdapConnection ) Proxy.newProxyInstance( LdapConnection.class.getClassLoader(),
+                new Class<?>[] { LdapConnection.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke( Object proxy, Method method, Object[] args ) {
+                        switch ( method.getName() ) {
+                            case "isConnected":
+                                return !disconnected.contains( proxy );
+                            case "hashCode":
+                                return System.identityHashCode( proxy );
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return null;
+                        }
+                    }
+                } );
+        }
+
+        @Override
+        public void destroyObject( LdapConnection connection ) {
+            destroyed.incrementAndGet();
+        }
+
+        @Override
+        public boolean validateObject( LdapConnection connection ) {
+            return !invalid.contains( connection );
+        }
+
+        @Override
+        public void activateObject( LdapConnection connection ) {
+        }
+
+        @Override
+        public void passivateObject( LdapConnection connection ) {
+        }
+    }
+}
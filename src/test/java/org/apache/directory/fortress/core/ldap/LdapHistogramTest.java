@@ -0,0 +1,77 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the bucket layout and the percentiles of the latency histogram.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdapHistogramTest {
+
+    @Test
+    public void test_buckets_are_contiguous() {
+        long prev = -1;
+        for ( int i = 0; i <= LdapHistogram.getIndex( LdapHistogram.MAX_VALUE ); i++ ) {
+            long high = LdapHistogram.getHighestValue( i );
+            assertEquals( i, LdapHistogram.getIndex( prev + 1 ) );
+            assertEquals( i, LdapHistogram.getIndex( high ) );
+            // within about 3% of the value:
+            assertTrue( high - prev <= Math.max( 1, ( prev + 1 ) / 32 ) );
+            prev = high;
+        }
+        assertEquals( LdapHistogram.MAX_VALUE, prev );
+    }
+
+    @Test
+    public void test_percentiles() {
+        LdapHistogram histogram = new LdapHistogram();
+        assertEquals( 0, histogram.get99thPercentile() );
+        // 1 to 1000 microseconds:
+        for ( long micros = 1; micros <= 1000; micros++ ) {
+            histogram.record( micros * 1000 );
+        }
+        assertEquals( 1000, histogram.getCount() );
+        assertEquals( 500.5, histogram.getMean(), 0.001 );
+        assertEquals( 1000, histogram.getMax() );
+        assertEquals( 500, histogram.get50thPercentile(), 500 * 0.04 );
+        assertEquals( 990, histogram.get99thPercentile(), 990 * 0.04 );
+        assertEquals( 1000, histogram.getPercentile( 100 ) );
+    }
+
+    @Test
+    public void test_out_of_range_and_reset() {
+        LdapHistogram histogram = new LdapHistogram();
+        histogram.record( -5 );
+        histogram.record( Long.MAX_VALUE );
+        assertEquals( 2, histogram.getCount() );
+        assertEquals( 0, histogram.get50thPercentile() );
+        assertTrue( histogram.get99thPercentile() >= LdapHistogram.MAX_VALUE / 1000 );
+
+        histogram.reset();
+        assertEquals( 0, histogram.getCount() );
+        assertEquals( 0, histogram.getMax() );
+        assertEquals( 0, histogram.get99thPercentile() );
+    }
+}
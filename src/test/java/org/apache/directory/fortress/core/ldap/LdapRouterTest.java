@@ -0,0 +1,119 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.exception.LdapNoSuchObjectException;
+import org.apache.directory.api.ldap.model.exception.LdapOperationException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the replica selection and the circuit breakers used to route admin connections.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class LdapRouterTest {
+
+    private static final LdapHost MASTER = new LdapHost( "master:389", null, 3 );
+
+    @Test
+    public void test_least_outstanding() {
+        LdapHost a = new LdapHost( "a:389", null, 3 );
+        LdapHost b = new LdapHost( "b:389", null, 3 );
+        LdapHost c = new LdapHost( "c:389", null, 3 );
+        LdapRouter router = new LdapRouter( MASTER, Arrays.asList( a, b, c ), 0 );
+        a.begin();
+        a.begin();
+        c.begin();
+        for ( int i = 0; i < 10; i++ ) {
+            assertSame( b, router.selectReplica() );
+        }
+        b.begin();
+        b.begin();
+        for ( int i = 0; i < 10; i++ ) {
+            assertSame( c, router.selectReplica() );
+        }
+    }
+
+    @Test
+    public void test_ties_rotate() {
+        LdapHost a = new LdapHost( "a:389", null, 3 );
+        LdapHost b = new LdapHost( "b:389", null, 3 );
+        LdapRouter router = new LdapRouter( MASTER, Arrays.asList( a, b ), 0 );
+        LdapHost first = router.selectReplica();
+        LdapHost second = router.selectReplica();
+        assertNotSame( first, second );
+        assertSame( first, router.selectReplica() );
+    }
+
+    @Test
+    public void test_circuit_breaker() {
+        LdapHost a = new LdapHost( "a:389", null, 2 );
+        LdapHost b = new LdapHost( "b:389", null, 2 );
+        LdapRouter router = new LdapRouter( MASTER, Arrays.asList( a, b ), 0 );
+        b.begin();
+
+        // Errors in the response don't count against the host:
+        assertFalse( a.failed( new LdapNoSuchObjectException( "no such object" ) ) );
+        assertTrue( a.failed( new LdapException( "connection closed" ) ) );
+        assertTrue( a.isAvailable() );
+        assertTrue( a.failed( new LdapOperationException( ResultCodeEnum.UNAVAILABLE, "unavailable" ) ) );
+        assertFalse( a.isAvailable() );
+        assertSame( b, router.selectReplica() );
+
+        b.failed( new LdapException( "timeout" ) );
+        b.failed( new LdapException( "timeout" ) );
+        assertNull( router.selectReplica() );
+
+        a.succeeded();
+        assertTrue( a.isAvailable() );
+        assertSame( a, router.selectReplica() );
+    }
+
+    @Test
+    public void test_read_after_write() throws Exception {
+        final LdapRouter router = new LdapRouter( MASTER, Collections.<LdapHost>emptyList(), 60000 );
+        assertFalse( router.isReadAfterWrite() );
+        router.wrote();
+        assertTrue( router.isReadAfterWrite() );
+
+        // Only for the thread that wrote:
+        final boolean[] other = new boolean[1];
+        Thread thread = new Thread( new Runnable() {
+            @Override
+            public void run() {
+                other[0] = router.isReadAfterWrite();
+            }
+        } );
+        thread.start();
+        thread.join();
+        assertFalse( other[0] );
+
+        LdapRouter disabled = new LdapRouter( MASTER, Collections.<LdapHost>emptyList(), 0 );
+        disabled.wrote();
+        assertFalse( disabled.isReadAfterWrite() );
+    }
+}
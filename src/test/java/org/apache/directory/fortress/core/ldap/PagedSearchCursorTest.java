@@ -0,0 +1,211 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.ldap;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.directory.api.ldap.model.cursor.SearchCursor;
+import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.exception.LdapException;
+import org.apache.directory.api.ldap.model.message.ResultCodeEnum;
+import org.apache.directory.api.ldap.model.message.SearchRequest;
+import org.apache.directory.api.ldap.model.message.SearchRequestImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultDoneImpl;
+import org.apache.directory.api.ldap.model.message.SearchResultEntryImpl;
+import org.apache.directory.api.ldap.model.message.SearchScope;
+import org.apache.directory.api.ldap.model.message.controls.PagedResults;
+import org.apache.directory.api.ldap.model.message.controls.PagedResultsImpl;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.ldap.client.api.LdapConnection;
+import org.apache.directory.ldap.client.api.LdapConnectionPool;
+import org.apache.directory.ldap.client.api.SearchCursorImpl;
+import org.apache.directory.ldap.client.api.future.SearchFuture;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the paged search reads every page, sends them all to the server of the first one, and abandons the search when
+ * closed early, without a server.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PagedSearchCursorTest {
+
+    private static final int ENTRIES = 5;
+    private static final int PAGE_SIZE = 2;
+
+    /**
+     * Sends the requests straight to the connection, without the metrics that need the config.
+     */
+    private static final LdapDataProvider DAO = new LdapDataProvider() {
+        @Override
+        SearchCursor searchPage( LdapConnection connection, SearchRequest searchRequest ) throws LdapException {
+            return connection.search( searchRequest );
+        }
+    };
+
+    @Test
+    public void test_pages() throws Exception {
+        Server server = new Server();
+        SearchCursor cursor = new PagedSearchCursor( DAO, server.connection, request(), PAGE_SIZE );
+        assertEquals( Arrays.asList( "cn=e0", "cn=e1", "cn=e2", "cn=e3", "cn=e4" ), read( cursor, ENTRIES ) );
+        assertFalse( cursor.next() );
+        assertTrue( cursor.isDone() );
+        assertEquals( Arrays.asList( PAGE_SIZE, PAGE_SIZE, PAGE_SIZE ), server.sizes );
+        cursor.close();
+    }
+
+    @Test
+    public void test_pinned_to_first_server() throws Exception {
+        Server replica = new Server();
+        Server master = new Server();
+        LdapRouter router = new LdapRouter( master.host( "master:389" ),
+            Collections.singletonList( replica.host( "replica:389" ) ), 60000 );
+        RoutedLdapConnection routed = new RoutedLdapConnection( router );
+        SearchCursor cursor = new PagedSearchCursor( DAO, routed, request(), PAGE_SIZE );
+        assertEquals( 1, read( cursor, 1 ).size() );
+
+        // Reads now go to the master, but the search carries on with the replica's cookie:
+        router.wrote();
+        assertTrue( router.isReadAfterWrite() );
+        assertEquals( ENTRIES - 1, read( cursor, ENTRIES ).size() );
+        assertEquals( 3, replica.sizes.size() );
+        assertTrue( master.sizes.isEmpty() );
+        cursor.close();
+        routed.release();
+    }
+
+    @Test
+    public void test_failover_on_first_page() throws Exception {
+        Server replica = new Server();
+        replica.isDown = true;
+        Server master = new Server();
+        LdapRouter router = new LdapRouter( master.host( "master:389" ),
+            Collections.singletonList( replica.host( "replica:389" ) ), 0 );
+        RoutedLdapConnection routed = new RoutedLdapConnection( router );
+        SearchCursor cursor = new PagedSearchCursor( DAO, routed, request(), PAGE_SIZE );
+        assertEquals( ENTRIES, read( cursor, ENTRIES ).size() );
+        assertEquals( 3, master.sizes.size() );
+        cursor.close();
+        routed.release();
+    }
+
+    @Test
+    public void test_close_abandons() throws Exception {
+        Server server = new Server();
+        SearchCursor cursor = new PagedSearchCursor( DAO, server.connection, request(), PAGE_SIZE );
+        assertEquals( 1, read( cursor, 1 ).size() );
+        cursor.close();
+        assertEquals( 1, server.abandons );
+        assertEquals( 1, server.sizes.size() );
+    }
+
+    private static SearchRequest request() throws LdapException {
+        SearchRequest request = new SearchRequestImpl();
+        request.setBase( new Dn( "dc=example,dc=com" ) );
+        request.setFilter( "(objectClass=*)" );
+        request.setScope( SearchScope.SUBTREE );
+        return request;
+    }
+
+    private static List<String> read( SearchCursor cursor, int max ) throws Exception {
+        List<String> dns = new ArrayList<>();
+        while ( dns.size() < max && cursor.next() ) {
+            dns.add( cursor.getEntry().getDn().getName() );
+        }
+        return dns;
+    }
+
+    /**
+     * A stand-in server with {@link #ENTRIES} entries, whose cookie is the index of the next page.
+     */
+    private static final class Server implements InvocationHandler {
+        final List<Integer> sizes = new ArrayList<>();
+        final LdapConnection connection = ( LdapConnection ) Proxy.newProxyInstance( LdapConnection.class.getClassLoader(),
+            new Class<?>[] { LdapConnection.class }, this );
+        int abandons;
+        boolean isDown;
+
+        LdapHost host( String name ) {
+            return new LdapHost( name, new LdapConnectionPool( ( PoolableObjectFactory<LdapConnection> ) null ) {
+                @Override
+                public LdapConnection getConnection() {
+                    return connection;
+                }
+
+                @Override
+                public void releaseConnection( LdapConnection released ) {
+                }
+            }, 3 );
+        }
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args ) throws Exception {
+            switch ( method.getName() ) {
+                case "search":
+                    return search( ( SearchRequest ) args[0] );
+                case "abandon":
+                    abandons++;
+                    return null;
+                case "isRequestCompleted":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode( proxy );
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        }
+
+        private SearchCursor search( SearchRequest request ) throws Exception {
+            if ( isDown ) {
+                throw new LdapException( "connection closed" );
+            }
+            PagedResults control = ( PagedResults ) request.getControl( PagedResults.OID );
+            sizes.add( control.getSize() );
+            int page = control.getCookie() != null && control.getCookie().length > 0 ? control.getCookie()[0] : 0;
+            SearchFuture future = new SearchFuture( connection, sizes.size() );
+            int first = page * control.getSize();
+            int last = Math.min( ENTRIES, first + control.getSize() );
+            for ( int i = first; i < last; i++ ) {
+                SearchResultEntryImpl entry = new SearchResultEntryImpl( sizes.size() );
+                entry.setEntry( new DefaultEntry( "cn=e" + i ) );
+                future.set( entry );
+            }
+            SearchResultDoneImpl done = new SearchResultDoneImpl( sizes.size() );
+            done.getLdapResult().setResultCode( ResultCodeEnum.SUCCESS );
+            PagedResults next = new PagedResultsImpl();
+            next.setCookie( last < ENTRIES ? new byte[] { ( byte ) ( page + 1 ) } : new byte[0] );
+            done.addControl( next );
+            future.set( done );
+            return new SearchCursorImpl( future, 1, TimeUnit.SECONDS );
+        }
+    }
+}
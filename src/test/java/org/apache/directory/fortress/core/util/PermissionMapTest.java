@@ -0,0 +1,60 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.directory.fortress.core.model.Permission;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the results of a bulk check are found by permissions that differ from their keys only in case.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class PermissionMapTest {
+
+    @Test
+    public void test_case_insensitive() {
+        Map<Permission, Boolean> results = new PermissionMap<>();
+        Permission read = new Permission("Obj1", "read");
+        read.setRole("role1");
+        results.put(read, true);
+        results.put(new Permission("obj1", "write", "123"), false);
+        assertNull(results.put(new Permission("obj1", "read", "123"), true));
+
+        assertEquals(Boolean.TRUE, results.get(new Permission("OBJ1", "READ")));
+        assertEquals(Boolean.FALSE, results.get(new Permission("obj1", "Write", "123")));
+        assertFalse(results.containsKey(new Permission("obj1", "write")));
+        assertEquals(Boolean.TRUE, results.put(new Permission("obj1", "READ"), false));
+        assertEquals(3, results.size());
+
+        // The first key put is kept, in insertion order:
+        List<Permission> keys = new ArrayList<>(results.keySet());
+        assertSame(read, keys.get(0));
+        assertEquals("123", keys.get(2).getObjId());
+        assertEquals(Boolean.FALSE, results.remove(new Permission("OBJ1", "read")));
+        assertEquals(2, results.size());
+    }
+}
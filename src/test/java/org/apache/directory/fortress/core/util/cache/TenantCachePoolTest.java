@@ -0,0 +1,170 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.directory.fortress.core.model.Relationship;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the weighing, eviction, pinning and per tenant counts of the pool shared by the tenant aware caches.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class TenantCachePoolTest {
+
+    private static SimpleDirectedGraph<String, Relationship> graph(String... names) {
+        SimpleDirectedGraph<String, Relationship> graph = new SimpleDirectedGraph<>(Relationship.class);
+        for (int i = 1; i < names.length; i++) {
+            graph.addVertex(names[i - 1]);
+            graph.addVertex(names[i]);
+            graph.addEdge(names[i], names[i - 1], new Relationship(names[i], names[i - 1]));
+        }
+        return graph;
+    }
+
+    @Test
+    public void test_weigh() {
+        assertEquals(5, TenantCachePool.weigh(graph("A", "B", "C")));
+        assertEquals(2, TenantCachePool.weigh(new HashSet<>(Arrays.asList("ou1", "ou2"))));
+        assertEquals(1, TenantCachePool.weigh(Collections.emptySet()));
+        assertEquals(1, TenantCachePool.weigh("value"));
+        assertEquals("acme123", TenantCachePool.getTenant("ROLE:acme123"));
+        assertEquals("HOME", TenantCachePool.getTenant("ROLE"));
+    }
+
+    @Test
+    public void test_lru() {
+        TenantCachePool pool = new TenantCachePool(10, TenantCachePool.Eviction.LRU, null);
+        pool.put("fortress.roles", "ROLE:t1", graph("A", "B"), 0);
+        pool.put("fortress.uso", "USO:t2", graph("A", "B"), 0);
+        pool.put("fortress.roles", "ROLE:t3", graph("A", "B"), 0);
+        assertEquals(9, pool.getWeight());
+        assertNotNull(pool.get("fortress.roles", "ROLE:t1"));
+
+        // t2 is the least recently used:
+        pool.put("fortress.pso", "PSO:t4", graph("A", "B"), 0);
+        assertNull(pool.get("fortress.uso", "USO:t2"));
+        assertNotNull(pool.get("fortress.roles", "ROLE:t1"));
+        assertEquals(9, pool.getWeight());
+
+        TenantCacheStats stats = pool.getStats("t2");
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getWeight());
+        assertEquals(2, pool.getStats("t1").getHits());
+        assertEquals(3, pool.getStats("t1").getWeight());
+    }
+
+    @Test
+    public void test_lfu() {
+        TenantCachePool pool = new TenantCachePool(6, TenantCachePool.Eviction.LFU, null);
+        pool.put("fortress.roles", "ROLE:t1", graph("A", "B"), 0);
+        pool.put("fortress.roles", "ROLE:t2", graph("A", "B"), 0);
+        pool.get("fortress.roles", "ROLE:t1");
+        pool.get("fortress.roles", "ROLE:t1");
+        pool.get("fortress.roles", "ROLE:t2");
+
+        // t2 was used last but less often:
+        pool.put("fortress.roles", "ROLE:t3", graph("A", "B"), 0);
+        assertNull(pool.get("fortress.roles", "ROLE:t2"));
+        assertNotNull(pool.get("fortress.roles", "ROLE:t1"));
+    }
+
+    @Test
+    public void test_pin() {
+        TenantCachePool pool = new TenantCachePool(6, TenantCachePool.Eviction.LRU, Collections.singleton("t1"));
+        pool.put("fortress.roles", "ROLE:t1", graph("A", "B"), 0);
+        pool.put("fortress.roles", "ROLE:t2", graph("A", "B"), 0);
+        pool.put("fortress.roles", "ROLE:t3", graph("A", "B"), 0);
+        assertNotNull(pool.get("fortress.roles", "ROLE:t1"));
+        assertNull(pool.get("fortress.roles", "ROLE:t2"));
+        assertTrue(pool.getStats("t1").isPinned());
+
+        // With everything else pinned the budget is exceeded rather than an entry evicted:
+        pool.pin("t3");
+        pool.put("fortress.roles", "ROLE:t4", graph("A", "B"), 0);
+        assertNotNull(pool.get("fortress.roles", "ROLE:t1"));
+        assertNotNull(pool.get("fortress.roles", "ROLE:t3"));
+        assertNotNull(pool.get("fortress.roles", "ROLE:t4"));
+        assertEquals(9, pool.getWeight());
+
+        pool.unpin("t1");
+        pool.put("fortress.roles", "ROLE:t5", graph("A", "B"), 0);
+        assertNull(pool.get("fortress.roles", "ROLE:t1"));
+    }
+
+    @Test
+    public void test_replace_and_flush() {
+        TenantCachePool pool = new TenantCachePool(100, TenantCachePool.Eviction.LRU, null);
+        pool.put("fortress.roles", "ROLE:t1", graph("A", "B"), 0);
+        pool.put("fortress.roles", "ROLE:t1", graph("A", "B", "C"), 0);
+        pool.put("fortress.ous", "USER_OUS:t1", new HashSet<>(Arrays.asList("ou1", "ou2")), 0);
+        pool.put("fortress.roles", "ROLE", graph("A", "B"), 0);
+        assertEquals(10, pool.getWeight());
+        assertEquals(2, pool.getStats("t1").getSize());
+        assertEquals(3, pool.getStats(null).getWeight());
+
+        assertTrue(pool.remove("fortress.ous", "USER_OUS:t1"));
+        assertFalse(pool.remove("fortress.ous", "USER_OUS:t1"));
+        pool.flush("fortress.roles");
+        assertEquals(0, pool.getWeight());
+        assertEquals(0, pool.getStats("t1").getSize());
+        assertEquals(2, pool.getStats().size());
+    }
+
+    @Test
+    public void test_changed() {
+        TenantCachePool pool = new TenantCachePool(9, TenantCachePool.Eviction.LRU, null);
+        SimpleDirectedGraph<String, Relationship> graph = graph("A", "B");
+        pool.put("fortress.roles", "ROLE:t1", graph, 0);
+        pool.put("fortress.roles", "ROLE:t2", graph("A", "B", "C"), 0);
+        assertEquals(8, pool.getWeight());
+
+        // Grown in place by an edge, t2 is evicted to make room:
+        graph.addVertex("C");
+        graph.addEdge("C", "B", new Relationship("C", "B"));
+        pool.changed("fortress.roles", "ROLE:t1");
+        assertEquals(5, pool.getWeight());
+        assertEquals(5, pool.getStats("t1").getWeight());
+        assertNull(pool.get("fortress.roles", "ROLE:t2"));
+        pool.changed("fortress.roles", "ROLE:t3");
+    }
+
+    @Test
+    public void test_evict_in_batches() {
+        TenantCachePool pool = new TenantCachePool(30, TenantCachePool.Eviction.LRU, null);
+        for (int i = 1; i <= 10; i++) {
+            pool.put("fortress.roles", "ROLE:t" + i, graph("A", "B"), 0);
+        }
+        // Over the budget by one entry, two are evicted, to a tenth below it:
+        pool.put("fortress.roles", "ROLE:t11", graph("A", "B"), 0);
+        assertEquals(27, pool.getWeight());
+        assertNull(pool.get("fortress.roles", "ROLE:t1"));
+        assertNull(pool.get("fortress.roles", "ROLE:t2"));
+        assertNotNull(pool.get("fortress.roles", "ROLE:t3"));
+    }
+}
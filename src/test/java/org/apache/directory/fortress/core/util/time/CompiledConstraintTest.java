@@ -0,0 +1,77 @@
+/*
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.apache.directory.fortress.core.util.time;
+
+import org.apache.directory.fortress.core.model.UserRole;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the parsed temporal constraints give the outcomes of the string comparisons they replace.
+ *
+ * @author <a href="mailto:dev@directory.apache.org">Apache Directory Project</a>
+ */
+public class CompiledConstraintTest {
+
+    @Test
+    public void test_dates() {
+        UserRole role = new UserRole("jtsUser1", "role1");
+        assertTrue(role.getCompiledConstraint().isDateValid(20261017));
+        role.setBeginDate("20260101");
+        role.setEndDate("none");
+        assertTrue(role.getCompiledConstraint().isDateValid(20260101));
+        assertFalse(role.getCompiledConstraint().isDateValid(20251231));
+        role.setEndDate("20261231");
+        assertFalse(role.getCompiledConstraint().isDateValid(20270101));
+        // A value that can't be parsed fails:
+        role.setBeginDate("2026-01-01");
+        assertFalse(role.getCompiledConstraint().isDateValid(20261017));
+    }
+
+    @Test
+    public void test_lock() {
+        UserRole role = new UserRole("jtsUser1", "role1");
+        role.setBeginLockDate("20261001");
+        assertFalse(role.getCompiledConstraint().isLocked(20261017));
+        role.setEndLockDate("20261031");
+        assertTrue(role.getCompiledConstraint().isLocked(20261031));
+        assertFalse(role.getCompiledConstraint().isLocked(20261101));
+    }
+
+    @Test
+    public void test_time_and_day() {
+        UserRole role = new UserRole("jtsUser1", "role1");
+        assertTrue(role.getCompiledConstraint().isTimeValid(1200));
+        assertTrue(role.getCompiledConstraint().isDayValid(1));
+        role.setBeginTime("0800");
+        role.setEndTime("1700");
+        assertTrue(role.getCompiledConstraint().isTimeValid(800));
+        assertFalse(role.getCompiledConstraint().isTimeValid(1701));
+        role.setBeginTime("0000");
+        role.setEndTime("0000");
+        assertTrue(role.getCompiledConstraint().isTimeValid(2359));
+        role.setDayMask("23456");
+        assertFalse(role.getCompiledConstraint().isDayValid(1));
+        assertTrue(role.getCompiledConstraint().isDayValid(6));
+        role.setDayMask("all");
+        assertTrue(role.getCompiledConstraint().isDayValid(7));
+    }
+}